@@ -0,0 +1,107 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.bench;
+
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.DweseTicketLoggerWebappApplication;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark de la API REST (`/api/v1`) frente a las páginas HTML equivalentes, en CPU por petición.
+ * Arranca la aplicación en otro proceso (para que la CPU del cliente no cuente) y pide `iterations`
+ * veces seguidas cada ruta de `paths`. Para cada ruta informa de los bytes de la respuesta, de la mediana
+ * del tiempo de respuesta y de la CPU que ha consumido el proceso de la aplicación por petición,
+ * leída del sistema operativo (`ProcessHandle.Info.totalCpuDuration`).
+ * Las peticiones no envían `If-None-Match`, así que cada una genera la respuesta completa.
+ * Necesita la misma base de datos que la aplicación (variables DB_URL, DB_USER...).
+ *
+ * Ejemplo:
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec -Dbenchmark=ApiBenchmark -Dbenchmark.jvmArgs="-Diterations=500"
+ * </pre>
+ */
+public class ApiBenchmark {
+
+    private static final String DEFAULT_PATHS = "/locations?size=500,/api/v1/locations?limit=500,"
+            + "/provinces,/api/v1/provinces,/api/v1/provinces/options";
+
+    public static void main(String[] args) throws Exception {
+        int iterations = Integer.getInteger("iterations", 300);
+        int warmup = Integer.getInteger("warmup", 200);
+        String[] paths = System.getProperty("paths", DEFAULT_PATHS).split(",");
+
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process app = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                DweseTicketLoggerWebappApplication.class.getName(),
+                "--server.port=" + port, "--logging.level.root=WARN",
+                "--management.endpoint.health.probes.enabled=true")
+                .inheritIO()
+                .start();
+        try {
+            String base = "http://localhost:" + port;
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+            waitUntilReady(client, base + "/actuator/health/readiness");
+
+            List<String> results = new ArrayList<>();
+            for (String path : paths) {
+                for (int i = 0; i < warmup; i++) {
+                    CompressionBenchmark.fetch(client, base + path);
+                }
+                long[] total = new long[iterations];
+                long bytes = 0;
+                long cpuBefore = cpuNanos(app);
+                for (int i = 0; i < iterations; i++) {
+                    long[] sample = CompressionBenchmark.fetch(client, base + path);
+                    total[i] = sample[1];
+                    bytes = sample[2];
+                }
+                long cpu = cpuNanos(app) - cpuBefore;
+                results.add(String.format("%-36s %10d %10.2f %12.3f", path, bytes,
+                        CompressionBenchmark.median(total), cpu / 1_000_000.0 / iterations));
+            }
+            System.out.printf("%n%d peticiones por ruta (respuestas gzip)%n", iterations);
+            System.out.printf("%-36s %10s %10s %12s%n", "ruta", "bytes", "total ms", "CPU ms/pet");
+            results.forEach(System.out::println);
+        } finally {
+            app.destroy();
+            app.waitFor();
+        }
+    }
+
+    /**
+     * Espera a que la aplicación acepte tráfico, es decir, a que terminen las cargas del arranque
+     * (índices y agregados en memoria), para que no cuenten en la CPU medida.
+     */
+    private static void waitUntilReady(HttpClient client, String url) throws Exception {
+        for (int i = 0; i < 240; i++) {
+            try {
+                HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(url)).build(),
+                        HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Todavía arrancando
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("La aplicación no ha arrancado");
+    }
+
+    private static long cpuNanos(Process process) {
+        return process.info().totalCpuDuration()
+                .orElseThrow(() -> new IllegalStateException("El sistema no informa de la CPU del proceso"))
+                .toNanos();
+    }
+}
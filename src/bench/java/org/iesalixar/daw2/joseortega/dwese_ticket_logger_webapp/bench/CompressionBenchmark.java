@@ -0,0 +1,118 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.bench;
+
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.DweseTicketLoggerWebappApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Benchmark de la compresión de respuestas y de los recursos estáticos precomprimidos.
+ * Arranca la aplicación sin y con `server.compression.enabled` y pide `iterations` veces el listado de
+ * ubicaciones con `rows` filas (por defecto 10000), aceptando gzip. Para cada modo informa de los bytes
+ * recibidos (sin descomprimir) y de la mediana del tiempo hasta el primer byte (cabeceras) y hasta el final.
+ * Después pide los CSS y JS enlazados en la página (URLs con hash) con y sin gzip, y muestra su tamaño
+ * y su `Cache-Control`.
+ * Necesita la misma base de datos que la aplicación (variables DB_URL, DB_USER...).
+ *
+ * Ejemplo:
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec -Dbenchmark=CompressionBenchmark -Dbenchmark.jvmArgs="-Drows=10000 -Diterations=20"
+ * </pre>
+ */
+public class CompressionBenchmark {
+
+    private static final Pattern ASSET = Pattern.compile("(?:href|src)=\"(/(?:css|vendor)/[^\"]+)\"");
+
+    public static void main(String[] args) throws Exception {
+        int rows = Integer.getInteger("rows", 10000);
+        int iterations = Integer.getInteger("iterations", 20);
+        String path = "/locations?size=" + rows;
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+
+        List<String> results = new ArrayList<>();
+        List<String> assets = new ArrayList<>();
+        for (boolean compression : new boolean[] {false, true}) {
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DweseTicketLoggerWebappApplication.class)
+                    .run("--server.port=0",
+                            "--server.compression.enabled=" + compression,
+                            "--app.locations.max-page-size=" + rows,
+                            "--logging.level.root=WARN")) {
+                String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+                for (int i = 0; i < 3; i++) {
+                    fetch(client, base + path);
+                }
+                long[] firstByte = new long[iterations];
+                long[] total = new long[iterations];
+                long bytes = 0;
+                for (int i = 0; i < iterations; i++) {
+                    long[] sample = fetch(client, base + path);
+                    firstByte[i] = sample[0];
+                    total[i] = sample[1];
+                    bytes = sample[2];
+                }
+                results.add(String.format("%-12s %12d %14.1f %14.1f", compression ? "gzip" : "identity",
+                        bytes, median(firstByte), median(total)));
+
+                if (compression) {
+                    String html = client.send(HttpRequest.newBuilder(URI.create(base + "/locations")).build(),
+                            HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8)).body();
+                    Matcher matcher = ASSET.matcher(html);
+                    while (matcher.find()) {
+                        String asset = matcher.group(1);
+                        HttpResponse<byte[]> plain = client.send(HttpRequest.newBuilder(URI.create(base + asset)).build(),
+                                HttpResponse.BodyHandlers.ofByteArray());
+                        HttpResponse<byte[]> gzip = client.send(HttpRequest.newBuilder(URI.create(base + asset))
+                                .header("Accept-Encoding", "gzip").build(), HttpResponse.BodyHandlers.ofByteArray());
+                        assets.add(String.format("%-70s %10d %10d  %s", asset, plain.body().length, gzip.body().length,
+                                gzip.headers().firstValue("Cache-Control").orElse("-")));
+                    }
+                }
+            }
+        }
+        System.out.printf("%nGET %s (%d peticiones por modo)%n", path, iterations);
+        System.out.println("modo                bytes   1er byte ms      total ms");
+        results.forEach(System.out::println);
+        System.out.printf("%n%-70s %10s %10s  %s%n", "recurso", "bytes", "gzip", "Cache-Control");
+        assets.forEach(System.out::println);
+    }
+
+    /**
+     * Pide la URL aceptando gzip y devuelve {nanos hasta las cabeceras, nanos hasta el final, bytes recibidos}.
+     */
+    static long[] fetch(HttpClient client, String url) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(60))
+                .header("Accept-Encoding", "gzip").build();
+        long start = System.nanoTime();
+        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        long headers = System.nanoTime() - start;
+        long bytes = 0;
+        try (InputStream body = response.body()) {
+            byte[] buffer = new byte[8192];
+            for (int read; (read = body.read(buffer)) > 0; ) {
+                bytes += read;
+            }
+        }
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(url + " respondió " + response.statusCode());
+        }
+        return new long[] {headers, System.nanoTime() - start, bytes};
+    }
+
+    static double median(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2] / 1_000_000.0;
+    }
+}
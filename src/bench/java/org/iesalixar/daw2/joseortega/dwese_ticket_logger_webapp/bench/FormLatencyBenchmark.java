@@ -0,0 +1,74 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.bench;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.LocationDAOImpl;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.ProvinceDAOImpl;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.SupermarketDAOImpl;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.form.LocationFormService;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Benchmark de la carga del formulario de edición de ubicaciones con las consultas en serie y a la vez
+ * (`LocationFormService` con `parallel` false y true), contra una base de datos con latencia de red.
+ * Pone un `LatencyProxy` de `rtt` ms de ida y vuelta delante de la base de datos de DB_URL y construye
+ * los DAO sin la caché de datos de referencia, que es el caso de las tres consultas (caché vacía).
+ * Para cada modo informa de la mediana y el percentil 95 de `iterations` cargas con IDs al azar.
+ * Necesita la misma base de datos que la aplicación (variables DB_URL, DB_USER...).
+ *
+ * Ejemplo:
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec -Dbenchmark=FormLatencyBenchmark -Dbenchmark.jvmArgs="-Drtt=20"
+ * </pre>
+ */
+public class FormLatencyBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        long rtt = Long.getLong("rtt", 20);
+        int iterations = Integer.getInteger("iterations", 200);
+        int warmup = Integer.getInteger("warmup", 50);
+        int maxId = Integer.getInteger("maxId", 1000);
+
+        String url = System.getenv("DB_URL");
+        URI target = URI.create(url.substring("jdbc:".length()));
+        try (LatencyProxy proxy = new LatencyProxy(target.getHost(), target.getPort(), rtt);
+             HikariDataSource dataSource = new HikariDataSource()) {
+            dataSource.setJdbcUrl(url.replace(target.getHost() + ":" + target.getPort(), "127.0.0.1:" + proxy.getPort()));
+            dataSource.setUsername(System.getenv("DB_USER"));
+            dataSource.setPassword(System.getenv("DB_PASSWORD"));
+            dataSource.setMaximumPoolSize(3);
+            dataSource.setMinimumIdle(3);
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            ApplicationEventPublisher events = event -> { };
+            LocationDAOImpl locationDAO = new LocationDAOImpl(jdbcTemplate, events, 0);
+            ProvinceDAOImpl provinceDAO = new ProvinceDAOImpl(jdbcTemplate, events);
+            SupermarketDAOImpl supermarketDAO = new SupermarketDAOImpl(jdbcTemplate, events);
+
+            List<String> results = new ArrayList<>();
+            for (boolean parallel : new boolean[] {false, true}) {
+                LocationFormService service = new LocationFormService(locationDAO, provinceDAO, supermarketDAO, parallel);
+                for (int i = 0; i < warmup; i++) {
+                    service.loadEditForm(ThreadLocalRandom.current().nextInt(1, maxId + 1));
+                }
+                long[] times = new long[iterations];
+                for (int i = 0; i < iterations; i++) {
+                    long start = System.nanoTime();
+                    service.loadEditForm(ThreadLocalRandom.current().nextInt(1, maxId + 1));
+                    times[i] = System.nanoTime() - start;
+                }
+                Arrays.sort(times);
+                results.add(String.format("%-10s %10.2f %10.2f", parallel ? "a la vez" : "en serie",
+                        times[iterations / 2] / 1_000_000.0, times[iterations * 95 / 100] / 1_000_000.0));
+            }
+            System.out.printf("%n%d cargas del formulario de edición, RTT %d ms%n", iterations, rtt);
+            System.out.printf("%-10s %10s %10s%n", "consultas", "p50 ms", "p95 ms");
+            results.forEach(System.out::println);
+        }
+    }
+}
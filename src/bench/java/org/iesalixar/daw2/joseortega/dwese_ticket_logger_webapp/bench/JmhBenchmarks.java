@@ -0,0 +1,119 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Lanzador de los benchmarks JMH (`RowMapperBenchmark`, `TemplateRenderBenchmark`...).
+ * Acepta las opciones habituales de JMH (por ejemplo, una expresión regular con los benchmarks
+ * a ejecutar o `-p rows=1000`) y añade siempre el profiler de GC, de modo que cada resultado
+ * incluye `gc.alloc.rate.norm` (bytes asignados por operación). Los resultados se guardan en
+ * JSON en `target/jmh-result.json`, y ese fichero puede guardarse como línea base.
+ * Con `--baseline=<fichero>` compara el resultado con una línea base anterior y termina con
+ * error si algún benchmark pierde más de un `--threshold=<porcentaje>` (10 % por defecto) de
+ * rendimiento o asigna más memoria por operación, para comprobar regresiones antes de cada versión.
+ *
+ * Ejemplo:
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec -Dbenchmark=JmhBenchmarks -Dbenchmark.args="RowMapper --baseline=bench/baseline.json"
+ * </pre>
+ */
+public class JmhBenchmarks {
+
+    private static final String RESULT_FILE = "target/jmh-result.json";
+
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws Exception {
+        String baseline = null;
+        double threshold = 10.0;
+        List<String> jmhArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--baseline=")) {
+                baseline = arg.substring("--baseline=".length());
+            } else if (arg.startsWith("--threshold=")) {
+                threshold = Double.parseDouble(arg.substring("--threshold=".length()));
+            } else {
+                jmhArgs.add(arg);
+            }
+        }
+
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(jmhArgs.toArray(String[]::new)))
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(RESULT_FILE)
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+
+        if (baseline != null && !compare(results, new File(baseline), threshold)) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Compara los resultados con la línea base e imprime las diferencias.
+     * @return true si ningún benchmark empeora más del umbral
+     */
+    private static boolean compare(Collection<RunResult> results, File baselineFile, double threshold) throws Exception {
+        Map<String, double[]> baseline = new HashMap<>();
+        for (JsonNode node : new ObjectMapper().readTree(baselineFile)) {
+            JsonNode allocation = node.path("secondaryMetrics").path(ALLOCATION_METRIC).path("score");
+            baseline.put(key(node.path("benchmark").asText(), node.path("params")),
+                    new double[] {node.path("primaryMetric").path("score").asDouble(), allocation.asDouble(Double.NaN)});
+        }
+
+        Map<String, String> lines = new TreeMap<>();
+        boolean ok = true;
+        for (RunResult result : results) {
+            String key = key(result.getParams().getBenchmark(), result.getParams());
+            double[] previous = baseline.get(key);
+            if (previous == null) {
+                lines.put(key, "sin línea base");
+                continue;
+            }
+            double score = result.getPrimaryResult().getScore();
+            double scoreChange = (score - previous[0]) * 100.0 / previous[0];
+            var allocationResult = result.getSecondaryResults().get(ALLOCATION_METRIC);
+            double allocationChange = allocationResult == null || Double.isNaN(previous[1]) || previous[1] == 0
+                    ? 0 : (allocationResult.getScore() - previous[1]) * 100.0 / previous[1];
+            boolean regression = scoreChange < -threshold || allocationChange > threshold;
+            ok &= !regression;
+            lines.put(key, String.format("ops/s %+6.1f %%   B/op %+6.1f %%%s", scoreChange, allocationChange,
+                    regression ? "   REGRESIÓN" : ""));
+        }
+        System.out.printf("%nComparación con %s (umbral %.1f %%)%n", baselineFile, threshold);
+        lines.forEach((key, line) -> System.out.println(key + "  " + line));
+        return ok;
+    }
+
+    private static String key(String benchmark, JsonNode params) {
+        Map<String, String> sorted = new TreeMap<>();
+        params.fields().forEachRemaining(e -> sorted.put(e.getKey(), e.getValue().asText()));
+        return benchmark + sorted;
+    }
+
+    private static String key(String benchmark, BenchmarkParams params) {
+        Map<String, String> sorted = new TreeMap<>();
+        for (String name : params.getParamsKeys()) {
+            sorted.put(name, params.getParam(name));
+        }
+        return benchmark + sorted;
+    }
+}
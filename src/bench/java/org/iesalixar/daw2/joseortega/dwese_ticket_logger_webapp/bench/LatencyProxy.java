@@ -0,0 +1,111 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Proxy TCP que añade latencia de red: hace de base de datos remota delante de la local.
+ * Retrasa cada bloque de datos `rttMillis / 2` en cada sentido sin limitar el caudal (los bloques
+ * se leen en cuanto llegan y se entregan cuando toca), así que cada ida y vuelta cuesta `rttMillis`
+ * y una respuesta grande no se penaliza por bloque.
+ */
+class LatencyProxy implements AutoCloseable {
+
+    private final ServerSocket server;
+
+    private final String targetHost;
+
+    private final int targetPort;
+
+    private final long delayNanos;
+
+    LatencyProxy(String targetHost, int targetPort, long rttMillis) throws IOException {
+        this.server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        this.targetHost = targetHost;
+        this.targetPort = targetPort;
+        this.delayNanos = TimeUnit.MILLISECONDS.toNanos(rttMillis) / 2;
+        Thread.ofVirtual().start(this::accept);
+    }
+
+    int getPort() {
+        return server.getLocalPort();
+    }
+
+    private void accept() {
+        while (!server.isClosed()) {
+            try {
+                Socket client = server.accept();
+                Socket target = new Socket(targetHost, targetPort);
+                client.setTcpNoDelay(true);
+                target.setTcpNoDelay(true);
+                pipe(client, target);
+                pipe(target, client);
+            } catch (IOException e) {
+                // Proxy cerrado
+            }
+        }
+    }
+
+    /**
+     * Copia de `from` a `to` con el retraso: un hilo lee y anota cuándo entregar cada bloque, otro lo entrega.
+     */
+    private void pipe(Socket from, Socket to) {
+        BlockingQueue<Chunk> queue = new LinkedBlockingQueue<>();
+        Thread.ofVirtual().start(() -> {
+            byte[] buffer = new byte[64 * 1024];
+            try (InputStream in = from.getInputStream()) {
+                int n;
+                while ((n = in.read(buffer)) > 0) {
+                    queue.put(new Chunk(System.nanoTime() + delayNanos, Arrays.copyOf(buffer, n)));
+                }
+            } catch (IOException | InterruptedException e) {
+                // Conexión cerrada
+            }
+            queue.add(new Chunk(System.nanoTime() + delayNanos, null));
+        });
+        Thread.ofVirtual().start(() -> {
+            try (OutputStream out = to.getOutputStream()) {
+                while (true) {
+                    Chunk chunk = queue.take();
+                    long wait = chunk.due() - System.nanoTime();
+                    if (wait > 0) {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    }
+                    if (chunk.data() == null) {
+                        break;
+                    }
+                    out.write(chunk.data());
+                    out.flush();
+                }
+            } catch (IOException | InterruptedException e) {
+                // Conexión cerrada
+            }
+            closeQuietly(from);
+            closeQuietly(to);
+        });
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Ya cerrado
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+    }
+
+    private record Chunk(long due, byte[] data) {
+    }
+}
@@ -0,0 +1,124 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.bench;
+
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.DweseTicketLoggerWebappApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmark de carga que compara la atención de peticiones en hilos de plataforma
+ * (pool de Tomcat) y en hilos virtuales.
+ * Arranca la aplicación dos veces en un puerto libre, una en cada modo, y lanza contra ella
+ * `clients` clientes concurrentes que piden en bucle las rutas indicadas durante `seconds`
+ * segundos (tras un calentamiento). Para cada modo informa de peticiones por segundo,
+ * errores y latencias p50/p99/máxima.
+ * Necesita la misma base de datos que la aplicación (variables DB_URL, DB_USER...).
+ *
+ * Ejemplo:
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.jvmArgs="-Dclients=1000 -Dseconds=20 -Dpaths=/locations,/provinces"
+ * </pre>
+ */
+public class LoadBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("clients", 1000);
+        int seconds = Integer.getInteger("seconds", 20);
+        int warmup = Integer.getInteger("warmup", 5);
+        String[] paths = System.getProperty("paths", "/locations,/provinces,/supermarkets").split(",");
+
+        List<String> results = new ArrayList<>();
+        for (boolean virtual : new boolean[] {false, true}) {
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DweseTicketLoggerWebappApplication.class)
+                    .run("--server.port=0",
+                            "--spring.threads.virtual.enabled=" + virtual,
+                            "--logging.level.root=WARN",
+                            "--logging.level.org.thymeleaf=ERROR")) {
+                // Comprueba que el modo pedido es el que usa la aplicación (no uno de application.properties)
+                boolean enabled = context.getEnvironment().getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+                if (enabled != virtual) {
+                    throw new IllegalStateException("spring.threads.virtual.enabled=" + enabled + ", expected " + virtual);
+                }
+                String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+                run(base, paths, clients, warmup);
+                results.add((virtual ? "virtual " : "platform") + "  " + run(base, paths, clients, seconds));
+            }
+        }
+        System.out.printf("%nclients=%d seconds=%d paths=%s%n", clients, seconds, String.join(",", paths));
+        System.out.println("mode        req/s     errors   p50 ms   p99 ms   max ms");
+        results.forEach(System.out::println);
+    }
+
+    /**
+     * Lanza la carga durante el tiempo indicado y devuelve una línea con el resultado.
+     */
+    static String run(String base, String[] paths, int clients, int seconds) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        HttpRequest[] requests = new HttpRequest[paths.length];
+        for (int i = 0; i < paths.length; i++) {
+            requests[i] = HttpRequest.newBuilder(URI.create(base + paths[i])).timeout(Duration.ofSeconds(60)).build();
+        }
+        AtomicLong errors = new AtomicLong();
+        long end = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        List<Future<long[]>> futures = new ArrayList<>(clients);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                int offset = c;
+                futures.add(executor.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    for (int i = offset; System.nanoTime() < end; i++) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(requests[i % requests.length],
+                                    HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+        }
+        long[] all = futures.stream().map(LoadBenchmark::join).flatMapToLong(Arrays::stream).sorted().toArray();
+        if (all.length == 0) {
+            return "sin peticiones completadas";
+        }
+        return String.format("%9.0f %10d %8.1f %8.1f %8.1f", all.length / (double) seconds, errors.get(),
+                millis(all[all.length / 2]), millis(all[(int) (all.length * 0.99)]), millis(all[all.length - 1]));
+    }
+
+    private static long[] join(Future<long[]> future) {
+        try {
+            return future.get();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,96 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.bench;
+
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.DweseTicketLoggerWebappApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark del coste del appender de logging en `/locations`.
+ * Arranca la aplicación dos veces con el perfil "prod" (mismo pool y mismo driver) y mide el rendimiento
+ * con la carga de `LoadBenchmark`; solo cambia el appender:
+ * <ul>
+ *     <li>sync: consola síncrona de Spring Boot, como sin el perfil "prod".</li>
+ *     <li>async: configuración del perfil "prod" de logback-spring.xml (AsyncAppender con cola acotada).</li>
+ * </ul>
+ * Los loggers de los DAO y los controladores van en los dos casos al nivel `level` (INFO por defecto, el
+ * de producción). Con DEBUG, el modo async además muestrea esas trazas, así que ya no se mide solo el appender.
+ * Las dos aplicaciones se arrancan en la misma JVM, así que la segunda aprovecha el código ya compilado por
+ * el JIT en la primera. Por eso se hacen `rounds` rondas alternando el orden y la primera cuenta como
+ * calentamiento.
+ * El pool se dimensiona con `dbCores`, los núcleos del servidor de base de datos (por defecto, los de esta
+ * máquina, como con la base de datos local).
+ * La consola de la aplicación se redirige a `target/logging-benchmark.log` para no mezclarla con
+ * el resultado; el coste de escribir cada línea sigue siendo el mismo.
+ * Necesita la misma base de datos que la aplicación (variables DB_URL, DB_USER...).
+ *
+ * Ejemplo:
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec -Dbenchmark=LoggingBenchmark -Dbenchmark.jvmArgs="-Dclients=50 -Dseconds=20"
+ * </pre>
+ */
+public class LoggingBenchmark {
+
+    private static final String PACKAGE = "org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp";
+
+    // Consola síncrona de Spring Boot, la configuración de logback-spring.xml sin el perfil "prod"
+    private static final String SYNC_CONFIG = """
+            <configuration>
+                <include resource="org/springframework/boot/logging/logback/defaults.xml"/>
+                <include resource="org/springframework/boot/logging/logback/console-appender.xml"/>
+                <root level="INFO">
+                    <appender-ref ref="CONSOLE"/>
+                </root>
+            </configuration>
+            """;
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("clients", 50);
+        int seconds = Integer.getInteger("seconds", 20);
+        int warmup = Integer.getInteger("warmup", 5);
+        String[] paths = System.getProperty("paths", "/locations").split(",");
+        String level = System.getProperty("level", "INFO");
+        int dbCores = Integer.getInteger("dbCores", Runtime.getRuntime().availableProcessors());
+        int rounds = Integer.getInteger("rounds", 3);
+
+        Path syncConfig = Path.of("target/logback-sync.xml");
+        Files.writeString(syncConfig, SYNC_CONFIG);
+
+        PrintStream out = System.out;
+        List<String> results = new ArrayList<>();
+        try (PrintStream log = new PrintStream(new FileOutputStream("target/logging-benchmark.log"), false)) {
+            System.setOut(log);
+            for (int round = 1; round <= rounds; round++) {
+                for (boolean async : round % 2 == 1 ? new boolean[] {false, true} : new boolean[] {true, false}) {
+                    List<String> arguments = new ArrayList<>(List.of("--server.port=0",
+                            "--spring.profiles.active=prod",
+                            "--app.datasource.pool.db-cores=" + dbCores,
+                            "--logging.level.org.thymeleaf=ERROR",
+                            "--logging.level." + PACKAGE + ".dao=" + level,
+                            "--logging.level." + PACKAGE + ".controllers=" + level));
+                    if (!async) {
+                        arguments.add("--logging.config=file:" + syncConfig);
+                    }
+                    try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DweseTicketLoggerWebappApplication.class)
+                            .run(arguments.toArray(new String[0]))) {
+                        String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+                        LoadBenchmark.run(base, paths, clients, warmup);
+                        results.add(round + "      " + (async ? "async" : "sync ") + "  " + LoadBenchmark.run(base, paths, clients, seconds));
+                    }
+                }
+            }
+        } finally {
+            System.setOut(out);
+        }
+        System.out.printf("%nclients=%d seconds=%d paths=%s level=%s dbCores=%d%n", clients, seconds,
+                String.join(",", paths), level, dbCores);
+        System.out.println("round  mode     req/s     errors   p50 ms   p99 ms   max ms");
+        results.forEach(System.out::println);
+    }
+}
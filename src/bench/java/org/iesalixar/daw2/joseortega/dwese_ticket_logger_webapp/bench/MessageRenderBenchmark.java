@@ -0,0 +1,236 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.bench;
+
+import jakarta.servlet.http.Cookie;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.LocationPage;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.LocationSort;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Location;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Province;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Region;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Supermarket;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.i18n.CompiledMessageSource;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.i18n.LanguageParamInterceptor;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.i18n.SupportedLocaleCookieResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.MessageSource;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.i18n.CookieLocaleResolver;
+import org.springframework.web.servlet.i18n.LocaleChangeInterceptor;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Benchmark JMH de las páginas con muchas etiquetas y pocos datos, donde pesa la resolución de los
+ * `#{msg.*}`, con el `ResourceBundleMessageSource` de Spring Boot frente a `CompiledMessageSource`.
+ * Usa el mismo montaje que `TemplateRenderBenchmark`. Mide también el paso por el interceptor del
+ * parámetro `lang` y la cookie de idioma: sin parámetro, y con el mismo idioma que ya tiene el cliente.
+ * `resolveLocationLabels` aísla la resolución de las etiquetas de `location.html`.
+ * `gc.alloc.rate.norm` (lo añade `JmhBenchmarks`) da los bytes asignados por operación.
+ *
+ * Ejemplo:
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec -Dbenchmark=JmhBenchmarks -Dbenchmark.args="MessageRender"
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageRenderBenchmark {
+
+    @Param({"resource-bundle", "compiled"})
+    public String messages;
+
+    private SpringTemplateEngine templateEngine;
+
+    private JakartaServletWebApplication application;
+
+    private MockServletContext servletContext;
+
+    private Map<String, Object> locationModel;
+
+    private Map<String, Object> regionModel;
+
+    private MessageSource messageSource;
+
+    // Claves de location.html, en el orden en que aparecen
+    private String[] locationLabels;
+
+    private LocaleChangeInterceptor interceptor;
+
+    private CookieLocaleResolver localeResolver;
+
+    private MockHttpServletRequest withoutParam;
+
+    private MockHttpServletRequest sameLanguage;
+
+    private MockHttpServletResponse response;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(true);
+
+        if ("compiled".equals(messages)) {
+            CompiledMessageSource compiled = new CompiledMessageSource(new PathMatchingResourcePatternResolver(),
+                    "messages", StandardCharsets.UTF_8, true);
+            interceptor = new LanguageParamInterceptor(compiled::getSupportedLocale);
+            localeResolver = new SupportedLocaleCookieResolver("locale", compiled::getSupportedLocale);
+            messageSource = compiled;
+        } else {
+            ResourceBundleMessageSource bundles = new ResourceBundleMessageSource();
+            bundles.setBasename("messages");
+            bundles.setDefaultEncoding("UTF-8");
+            interceptor = new LocaleChangeInterceptor();
+            localeResolver = new CookieLocaleResolver("locale");
+            messageSource = bundles;
+        }
+        interceptor.setParamName("lang");
+        localeResolver.setDefaultLocale(Locale.of("es"));
+
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        templateEngine.setTemplateEngineMessageSource(messageSource);
+
+        servletContext = new MockServletContext();
+        application = JakartaServletWebApplication.buildApplication(servletContext);
+
+        List<Supermarket> supermarkets = List.of(new Supermarket(1, "Supermercado 1"), new Supermarket(2, "Supermercado 2"));
+        Region region = new Region(1, "01", "Andalucía");
+        List<Location> locations = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            Province province = new Province(String.valueOf(i), "Provincia " + i, region);
+            province.setId(i);
+            Location location = new Location("Calle Real " + i, "Sevilla", supermarkets.get(i % 2), province);
+            location.setId(i);
+            locations.add(location);
+        }
+        locationModel = new HashMap<>();
+        locationModel.put("listLocations", locations);
+        locationModel.put("sort", "id");
+        locationModel.put("size", 10);
+        locationModel.put("locationPage", new LocationPage(locations, "bnxJRHwxMDAwfA", null, LocationSort.ID, 10));
+
+        List<Region> regions = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            regions.add(new Region(i, String.format("%02d", i), "Comunidad " + i));
+        }
+        locationLabels = labels("templates/location.html");
+
+        regionModel = new HashMap<>();
+        regionModel.put("listRegions", regions);
+
+        withoutParam = request(null);
+        sameLanguage = request("en");
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public void renderLocations() {
+        render("location", "/locations", locationModel);
+    }
+
+    @Benchmark
+    public void renderRegions() {
+        render("region", "/regions", regionModel);
+    }
+
+    /**
+     * Solo la resolución de las etiquetas de `location.html`, como la hace Thymeleaf (sin argumentos).
+     */
+    @Benchmark
+    public void resolveLocationLabels(Blackhole blackhole) {
+        for (String label : locationLabels) {
+            blackhole.consume(messageSource.getMessage(label, new Object[0], Locale.ENGLISH));
+        }
+    }
+
+    @Benchmark
+    public Locale localeWithoutParam() throws Exception {
+        return resolve(withoutParam);
+    }
+
+    @Benchmark
+    public Locale localeSameLanguage() throws Exception {
+        return resolve(sameLanguage);
+    }
+
+    /**
+     * Interceptor y resolución del idioma sobre una petición reutilizada (se borra el idioma que
+     * `CookieLocaleResolver` guarda en ella), para medir solo su coste.
+     */
+    private Locale resolve(MockHttpServletRequest request) throws Exception {
+        request.removeAttribute(CookieLocaleResolver.LOCALE_REQUEST_ATTRIBUTE_NAME);
+        request.removeAttribute(CookieLocaleResolver.TIME_ZONE_REQUEST_ATTRIBUTE_NAME);
+        response.reset();
+        interceptor.preHandle(request, response, null);
+        return localeResolver.resolveLocale(request);
+    }
+
+    private MockHttpServletRequest request(String lang) {
+        MockHttpServletRequest request = new MockHttpServletRequest(servletContext, "GET", "/regions");
+        if (lang != null) {
+            request.setParameter("lang", lang);
+        }
+        request.setCookies(new Cookie("locale", "en"));
+        request.setAttribute(DispatcherServlet.LOCALE_RESOLVER_ATTRIBUTE, localeResolver);
+        return request;
+    }
+
+    private static String[] labels(String template) {
+        try (InputStream in = MessageRenderBenchmark.class.getClassLoader().getResourceAsStream(template)) {
+            String html = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            return Pattern.compile("#\\{([\\w.-]+)").matcher(html).results().map(m -> m.group(1)).toArray(String[]::new);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Procesa la plantilla con un contexto web nuevo, como en cada petición.
+     */
+    private void render(String template, String uri, Map<String, Object> model) {
+        MockHttpServletRequest request = new MockHttpServletRequest(servletContext, "GET", uri);
+        WebContext context = new WebContext(application.buildExchange(request, new MockHttpServletResponse()),
+                Locale.ENGLISH, model);
+        templateEngine.process(template, context, Writer.nullWriter());
+    }
+}
@@ -0,0 +1,92 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.bench;
+
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.DweseTicketLoggerWebappApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Benchmark del listado de ubicaciones renderizado por tramos frente a la página leída en una sola consulta.
+ * Arranca la aplicación con `app.locations.render-chunk-size=0` y con `chunk` (500 por defecto) y lanza
+ * `clients` clientes concurrentes que piden `iterations` veces cada uno el listado con `rows` filas.
+ * Para cada modo informa de la mediana del tiempo hasta el primer byte y hasta el final, y del pico de
+ * la generación vieja del heap, donde acaban las páginas completas que sobreviven a una recolección joven.
+ * Necesita la misma base de datos que la aplicación (variables DB_URL, DB_USER...).
+ *
+ * Ejemplo:
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec -Dbenchmark=StreamingRenderBenchmark -Dbenchmark.jvmArgs="-Drows=10000 -Dclients=16"
+ * </pre>
+ */
+public class StreamingRenderBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int rows = Integer.getInteger("rows", 10000);
+        int chunk = Integer.getInteger("chunk", 500);
+        int clients = Integer.getInteger("clients", 16);
+        int iterations = Integer.getInteger("iterations", 10);
+        String path = "/locations?size=" + rows;
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        List<String> results = new ArrayList<>();
+        for (int chunkSize : new int[] {0, chunk}) {
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DweseTicketLoggerWebappApplication.class)
+                    .run("--server.port=0",
+                            "--app.locations.max-page-size=" + rows,
+                            "--app.locations.render-chunk-size=" + chunkSize,
+                            "--logging.level.root=WARN")) {
+                String url = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + path;
+                for (int i = 0; i < 3; i++) {
+                    CompressionBenchmark.fetch(client, url);
+                }
+                System.gc();
+                List<MemoryPoolMXBean> oldGen = ManagementFactory.getMemoryPoolMXBeans().stream()
+                        .filter(pool -> pool.getType() == MemoryType.HEAP && !pool.getName().contains("Eden")
+                                && !pool.getName().contains("Survivor"))
+                        .toList();
+                oldGen.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+                List<Future<long[][]>> futures = new ArrayList<>();
+                try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                    for (int c = 0; c < clients; c++) {
+                        futures.add(executor.submit(() -> {
+                            long[][] samples = new long[iterations][];
+                            for (int i = 0; i < iterations; i++) {
+                                samples[i] = CompressionBenchmark.fetch(client, url);
+                            }
+                            return samples;
+                        }));
+                    }
+                }
+                long[] firstByte = new long[clients * iterations];
+                long[] total = new long[clients * iterations];
+                int n = 0;
+                for (Future<long[][]> future : futures) {
+                    for (long[] sample : future.get()) {
+                        firstByte[n] = sample[0];
+                        total[n++] = sample[1];
+                    }
+                }
+                long peak = oldGen.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+                results.add(String.format("%-12s %12.1f %14.1f %12.1f", chunkSize == 0 ? "completa" : "tramos " + chunkSize,
+                        CompressionBenchmark.median(firstByte), CompressionBenchmark.median(total), peak / 1048576.0));
+            }
+        }
+        System.out.printf("%nGET %s (%d clientes x %d peticiones por modo)%n", path, clients, iterations);
+        System.out.println("modo           1er byte ms       total ms   old gen MB");
+        results.forEach(System.out::println);
+    }
+}
@@ -0,0 +1,138 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.bench;
+
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.LocationPage;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.LocationSort;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Location;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Province;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Region;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Supermarket;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH del renderizado completo de los listados `location.html` y `province.html`.
+ * Usa un `SpringTemplateEngine` configurado como el de Spring Boot (plantillas de
+ * `classpath:templates/`, mensajes de `messages*.properties` y caché de plantillas activada)
+ * y un contexto web sobre una petición simulada, y escribe la salida en un Writer nulo para
+ * medir solo el coste de procesar la plantilla con 1.000, 10.000 y 100.000 filas.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class TemplateRenderBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int rows;
+
+    private SpringTemplateEngine templateEngine;
+
+    private JakartaServletWebApplication application;
+
+    private MockServletContext servletContext;
+
+    private Map<String, Object> locationModel;
+
+    private Map<String, Object> provinceModel;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(true);
+
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("messages");
+        messageSource.setDefaultEncoding("UTF-8");
+
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        templateEngine.setTemplateEngineMessageSource(messageSource);
+
+        servletContext = new MockServletContext();
+        application = JakartaServletWebApplication.buildApplication(servletContext);
+
+        List<Region> regions = new ArrayList<>();
+        for (int i = 1; i <= 19; i++) {
+            regions.add(new Region(i, String.format("%02d", i), "Comunidad " + i));
+        }
+        List<Province> provinces = new ArrayList<>();
+        for (int i = 1; i <= rows; i++) {
+            Province province = new Province(String.valueOf(i), "Provincia " + i, regions.get(i % regions.size()));
+            province.setId(i);
+            provinces.add(province);
+        }
+        List<Supermarket> supermarkets = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            supermarkets.add(new Supermarket(i, "Supermercado " + i));
+        }
+        List<Location> locations = new ArrayList<>();
+        for (int i = 1; i <= rows; i++) {
+            Location location = new Location("Calle Real " + i, "Sevilla",
+                    supermarkets.get(i % supermarkets.size()), provinces.get(i % provinces.size()));
+            location.setId(i);
+            locations.add(location);
+        }
+
+        locationModel = new HashMap<>();
+        locationModel.put("listLocations", locations);
+        locationModel.put("sort", "id");
+        locationModel.put("size", rows);
+        locationModel.put("locationPage", new LocationPage(locations, "bnxJRHwxMDAwfA", null, LocationSort.ID, rows));
+
+        provinceModel = new HashMap<>();
+        provinceModel.put("listProvinces", provinces);
+    }
+
+    @Benchmark
+    public void renderLocations() {
+        render("location", "/locations", locationModel);
+    }
+
+    @Benchmark
+    public void renderProvinces() {
+        render("province", "/provinces", provinceModel);
+    }
+
+    /**
+     * Procesa la plantilla con un contexto web nuevo, como en cada petición.
+     */
+    private void render(String template, String uri, Map<String, Object> model) {
+        MockHttpServletRequest request = new MockHttpServletRequest(servletContext, "GET", uri);
+        WebContext context = new WebContext(application.buildExchange(request, new MockHttpServletResponse()),
+                Locale.forLanguageTag("es"), model);
+        templateEngine.process(template, context, Writer.nullWriter());
+    }
+}
@@ -0,0 +1,79 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH de la búsqueda de ubicaciones en `LocationSearchIndex`.
+ * Construye un índice con `locations` ubicaciones sintéticas (tipo de vía, nombre de calle, número
+ * y ciudad, repartidas entre 52 provincias y 20 supermercados) y mide cada búsqueda en modo
+ * SampleTime, que informa de los percentiles (p50, p99...) de latencia. Cada operación elige al azar
+ * una consulta de un conjunto que mezcla términos muy frecuentes ("calle"), selectivos
+ * ("calle cervantes 12"), prefijos cortos ("m") y filtros por provincia y supermercado.
+ * Mide solo el índice: la lectura posterior de las filas encontradas, por clave primaria, no se incluye.
+ *
+ * Ejemplo:
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec -Dbenchmark=JmhBenchmarks -Dbenchmark.args="LocationSearch -p locations=1000000"
+ * </pre>
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class LocationSearchBenchmark {
+
+    private static final String[] STREET_TYPES = {"Calle", "Avenida", "Plaza", "Paseo", "Camino", "Ronda"};
+
+    private static final String[] STREET_NAMES = {"Mayor", "Real", "Cervantes", "Andalucía", "Constitución",
+            "San Fernando", "Sierpes", "Goya", "Velázquez", "Alcalá", "Gran Vía", "Colón", "de la Paz",
+            "Santa María", "Reyes Católicos", "Juan Carlos I", "Blas Infante", "Tetuán", "Nueva", "Ancha"};
+
+    private static final String[] CITIES = {"Sevilla", "Málaga", "Córdoba", "Granada", "Cádiz", "Huelva", "Jaén",
+            "Almería", "Madrid", "Barcelona", "Valencia", "Zaragoza", "Bilbao", "Valladolid", "Ávila", "Écija",
+            "Jerez de la Frontera", "Dos Hermanas", "Marbella", "Alcalá de Guadaíra"};
+
+    private static final String[] QUERIES = {"calle", "calle mayor", "avenida andalucia", "cervantes 12", "sevilla",
+            "m", "ma", "plaza constitucion", "ecija", "gran via 7", "alcala", "ronda tetuan 101", "jerez front"};
+
+    @Param({"100000", "1000000"})
+    public int locations;
+
+    private LocationSearchIndex index;
+
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new LocationSearchIndex();
+        SplittableRandom data = new SplittableRandom(7);
+        for (int id = 1; id <= locations; id++) {
+            String address = STREET_TYPES[data.nextInt(STREET_TYPES.length)] + " "
+                    + STREET_NAMES[data.nextInt(STREET_NAMES.length)] + ", " + (1 + data.nextInt(200));
+            index.put(id, address, CITIES[data.nextInt(CITIES.length)], 1 + data.nextInt(52), 1 + data.nextInt(20));
+        }
+    }
+
+    @Benchmark
+    public int[] search() {
+        String query = QUERIES[random.nextInt(QUERIES.length)];
+        Integer province = random.nextInt(3) == 0 ? 1 + random.nextInt(52) : null;
+        Integer supermarket = random.nextInt(4) == 0 ? 1 + random.nextInt(20) : null;
+        return index.search(query, province, supermarket, 50);
+    }
+}
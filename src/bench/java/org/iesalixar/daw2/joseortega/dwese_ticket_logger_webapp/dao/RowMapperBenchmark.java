@@ -0,0 +1,194 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao;
+
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Location;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Province;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Region;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Supermarket;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.RowMapperResultSetExtractor;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH de los RowMapper de los DAO sobre ResultSet sintéticos.
+ * Cada operación recorre un ResultSet en memoria (`CachedRowSet`) con las mismas columnas
+ * que devuelven las consultas de los DAO y lo convierte en una lista de entidades, igual que
+ * hace `JdbcTemplate.query`.
+ * Los benchmarks `*ByLabel` y `*BeanPropertyRowMapper` reproducen los mapeadores anteriores
+ * (lectura por nombre de columna y `BeanPropertyRowMapper` creado en cada consulta) como
+ * referencia frente a los mapeadores por posición que usan ahora los DAO.
+ * El coste de leer del CachedRowSet se incluye en la medida, así que los resultados sirven
+ * para comparar mapeadores entre sí, no como coste absoluto de una consulta real.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RowMapperBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int rows;
+
+    private CachedRowSet locations;
+
+    private CachedRowSet provinces;
+
+    private CachedRowSet regions;
+
+    private CachedRowSet supermarkets;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        locations = rowSet(new String[] {"id", "address", "city", "supermarket_id", "supermarket_name",
+                        "province_id", "province_code", "province_name"},
+                new int[] {Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.VARCHAR,
+                        Types.INTEGER, Types.VARCHAR, Types.VARCHAR},
+                i -> new Object[] {i, "Calle Real " + i, "Sevilla", i % 20, "Supermercado " + (i % 20),
+                        i % 52, String.valueOf(i % 52), "Provincia " + (i % 52)});
+        provinces = rowSet(new String[] {"id", "code", "name", "region_id", "region_code", "region_name"},
+                new int[] {Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.VARCHAR, Types.VARCHAR},
+                i -> new Object[] {i, String.valueOf(i), "Provincia " + i, i % 19, String.valueOf(i % 19),
+                        "Comunidad " + (i % 19)});
+        regions = rowSet(new String[] {"id", "code", "name"},
+                new int[] {Types.INTEGER, Types.VARCHAR, Types.VARCHAR},
+                i -> new Object[] {i, String.valueOf(i), "Comunidad " + i});
+        supermarkets = rowSet(new String[] {"id", "name"},
+                new int[] {Types.INTEGER, Types.VARCHAR},
+                i -> new Object[] {i, "Supermercado " + i});
+    }
+
+    @Benchmark
+    public List<Location> locationRowMapper() throws SQLException {
+        return map(locations, LocationDAOImpl.LOCATION_ROW_MAPPER);
+    }
+
+    @Benchmark
+    public List<Location> locationRowMapperByLabel() throws SQLException {
+        return map(locations, new LocationRowMapperByLabel());
+    }
+
+    @Benchmark
+    public List<Province> provinceRowMapper() throws SQLException {
+        return map(provinces, ProvinceDAOImpl.PROVINCE_ROW_MAPPER);
+    }
+
+    @Benchmark
+    public List<Province> provinceRowMapperByLabel() throws SQLException {
+        return map(provinces, new ProvinceRowMapperByLabel());
+    }
+
+    @Benchmark
+    public List<Region> regionRowMapper() throws SQLException {
+        return map(regions, RegionDAOImpl.REGION_ROW_MAPPER);
+    }
+
+    @Benchmark
+    public List<Region> regionBeanPropertyRowMapper() throws SQLException {
+        return map(regions, new BeanPropertyRowMapper<>(Region.class));
+    }
+
+    @Benchmark
+    public List<Supermarket> supermarketRowMapper() throws SQLException {
+        return map(supermarkets, SupermarketDAOImpl.SUPERMARKET_ROW_MAPPER);
+    }
+
+    @Benchmark
+    public List<Supermarket> supermarketBeanPropertyRowMapper() throws SQLException {
+        return map(supermarkets, new BeanPropertyRowMapper<>(Supermarket.class));
+    }
+
+    /**
+     * Recorre el ResultSet desde el principio con el mapeador, como `JdbcTemplate.query`.
+     */
+    private static <T> List<T> map(CachedRowSet rowSet, RowMapper<T> mapper) throws SQLException {
+        rowSet.beforeFirst();
+        return new RowMapperResultSetExtractor<>(mapper).extractData(rowSet);
+    }
+
+    /**
+     * Crea un ResultSet en memoria con las columnas indicadas y `rows` filas.
+     */
+    private CachedRowSet rowSet(String[] labels, int[] types, RowFactory factory) throws SQLException {
+        RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+        metaData.setColumnCount(labels.length);
+        for (int i = 0; i < labels.length; i++) {
+            metaData.setColumnName(i + 1, labels[i]);
+            metaData.setColumnLabel(i + 1, labels[i]);
+            metaData.setColumnType(i + 1, types[i]);
+        }
+        CachedRowSet rowSet = RowSetProvider.newFactory().createCachedRowSet();
+        rowSet.setMetaData(metaData);
+        for (int row = 1; row <= rows; row++) {
+            Object[] values = factory.values(row);
+            rowSet.moveToInsertRow();
+            for (int i = 0; i < values.length; i++) {
+                rowSet.updateObject(i + 1, values[i]);
+            }
+            rowSet.insertRow();
+            rowSet.moveToCurrentRow();
+        }
+        return rowSet;
+    }
+
+    @FunctionalInterface
+    private interface RowFactory {
+        Object[] values(int row);
+    }
+
+    /**
+     * Mapeador anterior de ubicaciones, que busca cada columna por su nombre.
+     */
+    private static class LocationRowMapperByLabel implements RowMapper<Location> {
+        @Override
+        public Location mapRow(ResultSet rs, int rowNum) throws SQLException {
+            Location location = new Location();
+            location.setId(rs.getInt("id"));
+            location.setAddress(rs.getString("address"));
+            location.setCity(rs.getString("city"));
+            location.setSupermarket(new Supermarket(rs.getInt("supermarket_id"), rs.getString("supermarket_name")));
+            Province province = new Province();
+            province.setId(rs.getInt("province_id"));
+            province.setCode(rs.getString("province_code"));
+            province.setName(rs.getString("province_name"));
+            location.setProvince(province);
+            return location;
+        }
+    }
+
+    /**
+     * Mapeador anterior de provincias, que busca cada columna por su nombre.
+     */
+    private static class ProvinceRowMapperByLabel implements RowMapper<Province> {
+        @Override
+        public Province mapRow(ResultSet rs, int rowNum) throws SQLException {
+            Province province = new Province();
+            province.setId(rs.getInt("id"));
+            province.setCode(rs.getString("code"));
+            province.setName(rs.getString("name"));
+            province.setRegion(new Region(rs.getInt("region_id"), rs.getString("region_code"), rs.getString("region_name")));
+            return province;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Comprime cada fichero recibido como argumento en un `.gz` junto a él, con la compresión máxima.
+ * Lo lanza el pom al compilar (maven-antrun-plugin, `<apply>`), con el mismo JDK que ejecuta Maven y
+ * como programa de un solo fichero, de modo que no hace falta `gzip` en el sistema.
+ */
+public class GzipFiles {
+
+    public static void main(String[] args) throws IOException {
+        for (String name : args) {
+            Path source = Path.of(name);
+            Path target = Path.of(name + ".gz");
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(target)) {
+                {
+                    def.setLevel(Deflater.BEST_COMPRESSION);
+                }
+            }) {
+                Files.copy(source, out);
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Location;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Province;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Region;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Supermarket;
+
+import java.io.IOException;
+
+/**
+ * Proyecciones JSON de la API REST (`/api/v1`).
+ * - Opción (`*_OPTION`): solo `id` y `name`, para rellenar desplegables.
+ * - Listado: los campos propios de la entidad y sus relaciones como opción (`id` y `name`).
+ * - Detalle (`*_DETAIL`): la entidad completa, con sus relaciones también completas.
+ */
+public final class ApiProjections {
+
+    public static final JsonProjection<Region> REGION = JsonProjection.<Region>empty()
+            .field("id", (g, r) -> number(g, r.getId()))
+            .field("code", (g, r) -> g.writeString(r.getCode()))
+            .field("name", (g, r) -> g.writeString(r.getName()));
+
+    public static final JsonProjection<Region> REGION_OPTION = REGION.select("id,name");
+
+    public static final JsonProjection<Province> PROVINCE = JsonProjection.<Province>empty()
+            .field("id", (g, p) -> number(g, p.getId()))
+            .field("code", (g, p) -> g.writeString(p.getCode()))
+            .field("name", (g, p) -> g.writeString(p.getName()))
+            .field("region", (g, p) -> REGION_OPTION.write(g, p.getRegion()));
+
+    public static final JsonProjection<Province> PROVINCE_OPTION = PROVINCE.select("id,name");
+
+    public static final JsonProjection<Province> PROVINCE_DETAIL = PROVINCE
+            .field("region", (g, p) -> REGION.write(g, p.getRegion()));
+
+    public static final JsonProjection<Supermarket> SUPERMARKET = JsonProjection.<Supermarket>empty()
+            .field("id", (g, s) -> number(g, s.getId()))
+            .field("name", (g, s) -> g.writeString(s.getName()));
+
+    public static final JsonProjection<Supermarket> SUPERMARKET_OPTION = SUPERMARKET;
+
+    public static final JsonProjection<Location> LOCATION = JsonProjection.<Location>empty()
+            .field("id", (g, l) -> number(g, l.getId()))
+            .field("address", (g, l) -> g.writeString(l.getAddress()))
+            .field("city", (g, l) -> g.writeString(l.getCity()))
+            .field("supermarket", (g, l) -> SUPERMARKET_OPTION.write(g, l.getSupermarket()))
+            .field("province", (g, l) -> PROVINCE_OPTION.write(g, l.getProvince()));
+
+    public static final JsonProjection<Location> LOCATION_DETAIL = LOCATION
+            .field("supermarket", (g, l) -> SUPERMARKET.write(g, l.getSupermarket()))
+            .field("province", (g, l) -> PROVINCE_DETAIL.write(g, l.getProvince()));
+
+    private ApiProjections() {
+    }
+
+    private static void number(JsonGenerator generator, Integer value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Proyección JSON de una entidad: lista ordenada de campos, cada uno con su nombre y la forma de
+ * escribir su valor en un `JsonGenerator`. Las entidades se escriben directamente en la respuesta,
+ * sin construir objetos intermedios ni pasar por el `ObjectMapper`, y los nombres de los campos
+ * se codifican una sola vez (`SerializedString`).
+ * Es inmutable: `field` y `select` devuelven una proyección nueva.
+ * @param <T> Tipo de la entidad
+ */
+public class JsonProjection<T> {
+
+    /**
+     * Escribe el valor de un campo de la entidad (el nombre ya está escrito).
+     */
+    @FunctionalInterface
+    public interface FieldWriter<T> {
+        void write(JsonGenerator generator, T value) throws IOException;
+    }
+
+    private final Map<String, Field<T>> fields;
+
+    private JsonProjection(Map<String, Field<T>> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * @return Proyección sin campos
+     */
+    public static <T> JsonProjection<T> empty() {
+        return new JsonProjection<>(new LinkedHashMap<>());
+    }
+
+    /**
+     * Añade un campo al final de la proyección.
+     * @param name Nombre del campo en el JSON
+     * @param writer Escritor del valor
+     * @return Proyección con el campo añadido
+     */
+    public JsonProjection<T> field(String name, FieldWriter<T> writer) {
+        Map<String, Field<T>> copy = new LinkedHashMap<>(fields);
+        copy.put(name, new Field<>(new SerializedString(name), writer));
+        return new JsonProjection<>(copy);
+    }
+
+    /**
+     * Restringe la proyección a los campos indicados, en el orden en que se piden.
+     * @param names Nombres de los campos separados por comas, o null/vacío para todos
+     * @return Proyección con los campos seleccionados
+     * @throws IllegalArgumentException si algún campo no existe en la proyección
+     */
+    public JsonProjection<T> select(String names) {
+        if (names == null || names.isBlank()) {
+            return this;
+        }
+        Map<String, Field<T>> selected = new LinkedHashMap<>();
+        for (String name : names.split(",")) {
+            String trimmed = name.trim();
+            Field<T> field = fields.get(trimmed);
+            if (field == null) {
+                throw new IllegalArgumentException("Campo desconocido: " + trimmed);
+            }
+            selected.put(trimmed, field);
+        }
+        return new JsonProjection<>(selected);
+    }
+
+    /**
+     * @return Nombres de los campos, en orden
+     */
+    public List<String> getFieldNames() {
+        return new ArrayList<>(fields.keySet());
+    }
+
+    /**
+     * Escribe la entidad como objeto JSON, o `null` si es null.
+     * @param generator Generador en el que escribir
+     * @param value Entidad
+     * @throws IOException si falla la escritura
+     */
+    public void write(JsonGenerator generator, T value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartObject();
+        for (Field<T> field : fields.values()) {
+            generator.writeFieldName(field.name);
+            field.writer.write(generator, value);
+        }
+        generator.writeEndObject();
+    }
+
+    private record Field<T>(SerializedString name, FieldWriter<T> writer) {
+    }
+}
@@ -0,0 +1,52 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.bulk;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Informe de una carga masiva: filas leídas, importadas y fallidas, con el detalle
+ * de los errores por número de fila. Para acotar el tamaño de la respuesta solo se
+ * detallan los primeros `MAX_ERRORS` errores.
+ */
+@Data
+@NoArgsConstructor
+public class BulkImportReport {
+
+    // Número máximo de errores detallados en el informe
+    public static final int MAX_ERRORS = 1000;
+
+    private int totalRows;
+
+    private int imported;
+
+    private int failed;
+
+    private List<RowError> errors = new ArrayList<>();
+
+    /**
+     * Registra un error en una fila.
+     * @param row Número de fila (empezando en 1, sin contar la cabecera)
+     * @param message Descripción del error
+     */
+    public void addError(int row, String message) {
+        failed++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new RowError(row, message));
+        }
+    }
+
+    /**
+     * Error asociado a una fila de la carga.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private int row;
+        private String message;
+    }
+}
@@ -0,0 +1,252 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.bulk;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.LocationDAO;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.ProvinceDAO;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.RegionDAO;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.SupermarketDAO;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Location;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Province;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Region;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Supermarket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio de carga masiva de ubicaciones, supermercados y provincias.
+ * Lee el fichero registro a registro, resuelve las referencias contra los datos de
+ * referencia en memoria y escribe por lotes (`JdbcTemplate.batchUpdate`), cada lote en
+ * su propia transacción. Si un lote falla, se reintenta fila a fila para aislar las
+ * filas erróneas y reflejarlas en el informe.
+ */
+@Service
+public class BulkImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkImportService.class);
+
+    private final LocationDAO locationDAO;
+
+    private final ProvinceDAO provinceDAO;
+
+    private final RegionDAO regionDAO;
+
+    private final SupermarketDAO supermarketDAO;
+
+    private final Validator validator;
+
+    private final TransactionTemplate transactionTemplate;
+
+    // Número de filas escritas en cada lote/transacción
+    private final int chunkSize;
+
+    public BulkImportService(LocationDAO locationDAO, ProvinceDAO provinceDAO, RegionDAO regionDAO,
+                             SupermarketDAO supermarketDAO, Validator validator,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.bulk-import.chunk-size:1000}") int chunkSize) {
+        this.locationDAO = locationDAO;
+        this.provinceDAO = provinceDAO;
+        this.regionDAO = regionDAO;
+        this.supermarketDAO = supermarketDAO;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Importa ubicaciones. Campos: `address`, `city`, `supermarket` (nombre) y `province` (código).
+     * @param contentType Tipo de contenido de la petición
+     * @param in Cuerpo de la petición
+     * @return Informe de la importación
+     * @throws SQLException si no se pueden cargar los datos de referencia
+     */
+    public BulkImportReport importLocations(String contentType, InputStream in) throws SQLException {
+        Map<String, Supermarket> supermarkets = supermarketDAO.listAllSupermarkets().stream()
+                .collect(Collectors.toMap(s -> s.getName().toUpperCase(), s -> s, (a, b) -> a));
+        Map<String, Province> provinces = provinceDAO.listAllProvinces().stream()
+                .collect(Collectors.toMap(p -> p.getCode().toUpperCase(), p -> p, (a, b) -> a));
+
+        return importRecords(contentType, in, record -> {
+            Supermarket supermarket = supermarkets.get(upper(record.get("supermarket")));
+            if (supermarket == null) {
+                throw new IllegalArgumentException("Supermercado desconocido: " + record.get("supermarket"));
+            }
+            Province province = provinces.get(upper(record.get("province")));
+            if (province == null) {
+                throw new IllegalArgumentException("Provincia desconocida: " + record.get("province"));
+            }
+            return validate(new Location(record.get("address"), record.get("city"), supermarket, province));
+        }, locationDAO::insertLocations);
+    }
+
+    /**
+     * Importa supermercados. Campos: `name`.
+     * @param contentType Tipo de contenido de la petición
+     * @param in Cuerpo de la petición
+     * @return Informe de la importación
+     * @throws SQLException si no se pueden cargar los datos de referencia
+     */
+    public BulkImportReport importSupermarkets(String contentType, InputStream in) throws SQLException {
+        Set<String> names = supermarketDAO.listAllSupermarkets().stream()
+                .map(s -> s.getName().toUpperCase())
+                .collect(Collectors.toCollection(HashSet::new));
+
+        return importRecords(contentType, in, record -> {
+            Supermarket supermarket = validate(new Supermarket(record.get("name")));
+            if (!names.add(supermarket.getName().toUpperCase())) {
+                throw new IllegalArgumentException("El nombre del supermercado ya existe: " + supermarket.getName());
+            }
+            return supermarket;
+        }, supermarketDAO::insertSupermarkets);
+    }
+
+    /**
+     * Importa provincias. Campos: `code`, `name` y `region` (código de la comunidad autónoma).
+     * @param contentType Tipo de contenido de la petición
+     * @param in Cuerpo de la petición
+     * @return Informe de la importación
+     * @throws SQLException si no se pueden cargar los datos de referencia
+     */
+    public BulkImportReport importProvinces(String contentType, InputStream in) throws SQLException {
+        Map<String, Region> regions = new HashMap<>();
+        for (Region region : regionDAO.listAllRegions()) {
+            regions.putIfAbsent(region.getCode().toUpperCase(), region);
+        }
+        Set<String> codes = provinceDAO.listAllProvinces().stream()
+                .map(p -> p.getCode().toUpperCase())
+                .collect(Collectors.toCollection(HashSet::new));
+
+        return importRecords(contentType, in, record -> {
+            Region region = regions.get(upper(record.get("region")));
+            if (region == null) {
+                throw new IllegalArgumentException("Comunidad autónoma desconocida: " + record.get("region"));
+            }
+            Province province = validate(new Province(record.get("code"), record.get("name"), region));
+            if (!codes.add(province.getCode().toUpperCase())) {
+                throw new IllegalArgumentException("El código de la provincia ya existe: " + province.getCode());
+            }
+            return province;
+        }, provinceDAO::insertProvinces);
+    }
+
+    /**
+     * Bucle común de la importación: lee, convierte y agrupa los registros en lotes.
+     */
+    private <T> BulkImportReport importRecords(String contentType, InputStream in, RecordParser<T> parser,
+                                               ChunkWriter<T> writer) {
+        BulkImportReport report = new BulkImportReport();
+        List<T> chunk = new ArrayList<>(chunkSize);
+        List<Integer> rows = new ArrayList<>(chunkSize);
+        int row = 0;
+        try (BulkRecordReader reader = BulkRecordReader.open(contentType, in)) {
+            Map<String, String> record;
+            while ((record = reader.next()) != null) {
+                row++;
+                try {
+                    chunk.add(parser.parse(record));
+                    rows.add(row);
+                } catch (IllegalArgumentException e) {
+                    report.addError(row, e.getMessage());
+                }
+                if (chunk.size() == chunkSize) {
+                    writeChunk(chunk, rows, writer, report);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Bulk import stopped at row {}: {}", row + 1, e.getMessage());
+            report.addError(row + 1, "Formato no válido: " + e.getMessage());
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, rows, writer, report);
+        }
+        report.setTotalRows(row);
+        logger.info("Bulk import finished: {} rows, {} imported, {} failed.",
+                report.getTotalRows(), report.getImported(), report.getFailed());
+        return report;
+    }
+
+    /**
+     * Escribe un lote en una transacción. Si falla, reintenta cada fila en su propia
+     * transacción para importar las válidas e informar de las erróneas.
+     */
+    private <T> void writeChunk(List<T> chunk, List<Integer> rows, ChunkWriter<T> writer, BulkImportReport report) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(writer, chunk));
+            report.setImported(report.getImported() + chunk.size());
+        } catch (DataAccessException e) {
+            logger.warn("Batch of {} rows failed, retrying row by row: {}", chunk.size(), e.getMessage());
+            for (int i = 0; i < chunk.size(); i++) {
+                List<T> single = List.of(chunk.get(i));
+                try {
+                    transactionTemplate.executeWithoutResult(status -> write(writer, single));
+                    report.setImported(report.getImported() + 1);
+                } catch (DataAccessException rowException) {
+                    report.addError(rows.get(i), NestedExceptionUtils.getMostSpecificCause(rowException).getMessage());
+                }
+            }
+        }
+        chunk.clear();
+        rows.clear();
+    }
+
+    private <T> void write(ChunkWriter<T> writer, List<T> chunk) {
+        try {
+            writer.write(chunk);
+        } catch (SQLException e) {
+            throw new UncategorizedSQLException("bulk import", null, e);
+        }
+    }
+
+    /**
+     * Valida la entidad con las mismas restricciones que los formularios.
+     */
+    private <T> T validate(T entity) {
+        Set<ConstraintViolation<T>> violations = validator.validate(entity);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        return entity;
+    }
+
+    private static String upper(String value) {
+        return value == null ? null : value.toUpperCase();
+    }
+
+    /**
+     * Convierte un registro leído en la entidad a importar.
+     * Lanza IllegalArgumentException si el registro no es válido.
+     */
+    @FunctionalInterface
+    private interface RecordParser<T> {
+        T parse(Map<String, String> record);
+    }
+
+    /**
+     * Escribe un lote de entidades con una única operación por lotes.
+     */
+    @FunctionalInterface
+    private interface ChunkWriter<T> {
+        void write(List<T> chunk) throws SQLException;
+    }
+}
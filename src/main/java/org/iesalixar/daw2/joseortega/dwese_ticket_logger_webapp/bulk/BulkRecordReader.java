@@ -0,0 +1,35 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.bulk;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * Lector incremental de registros de una carga masiva.
+ * Cada llamada a `next()` consume del flujo solo lo necesario para devolver un registro,
+ * de forma que el fichero nunca se carga entero en memoria.
+ */
+public interface BulkRecordReader extends Closeable {
+
+    /**
+     * Lee el siguiente registro del flujo.
+     * @return Mapa campo → valor del registro, o null si no quedan registros
+     * @throws IOException si el contenido no tiene un formato válido
+     */
+    Map<String, String> next() throws IOException;
+
+    /**
+     * Crea el lector adecuado para el tipo de contenido de la petición.
+     * @param contentType Tipo de contenido (text/csv, application/json o application/x-ndjson)
+     * @param in Flujo con el cuerpo de la petición
+     * @return Lector de registros
+     * @throws IOException si no se puede abrir el flujo
+     */
+    static BulkRecordReader open(String contentType, InputStream in) throws IOException {
+        if (contentType != null && contentType.toLowerCase().startsWith("text/csv")) {
+            return new CsvRecordReader(in);
+        }
+        return new JsonRecordReader(in);
+    }
+}
@@ -0,0 +1,115 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.bulk;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lector de registros en formato CSV (RFC 4180).
+ * La primera línea es la cabecera con los nombres de los campos; admite valores
+ * entre comillas dobles con comas, saltos de línea y comillas escapadas ("").
+ */
+public class CsvRecordReader implements BulkRecordReader {
+
+    private final Reader reader;
+
+    private final List<String> header;
+
+    // Buffer reutilizado para el campo que se está leyendo
+    private final StringBuilder field = new StringBuilder();
+
+    private boolean endOfStream;
+
+    public CsvRecordReader(InputStream in) throws IOException {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        List<String> names = readLine();
+        if (names == null) {
+            throw new IOException("El fichero CSV está vacío.");
+        }
+        this.header = new ArrayList<>(names.size());
+        for (String name : names) {
+            header.add(name.trim().toLowerCase());
+        }
+    }
+
+    @Override
+    public Map<String, String> next() throws IOException {
+        List<String> values = readLine();
+        while (values != null && values.size() == 1 && values.get(0).isEmpty()) {
+            values = readLine(); // Se ignoran las líneas vacías
+        }
+        if (values == null) {
+            return null;
+        }
+        Map<String, String> record = new HashMap<>();
+        for (int i = 0; i < header.size() && i < values.size(); i++) {
+            record.put(header.get(i), values.get(i).trim());
+        }
+        return record;
+    }
+
+    /**
+     * Lee una línea lógica del CSV, que puede ocupar varias líneas físicas si contiene comillas.
+     * @return Valores de la línea, o null al final del flujo
+     */
+    private List<String> readLine() throws IOException {
+        if (endOfStream) {
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean read = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            read = true;
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (next != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                values.add(field.toString());
+                return values;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+        endOfStream = true;
+        if (quoted) {
+            throw new IOException("Comillas sin cerrar al final del fichero CSV.");
+        }
+        if (!read) {
+            return null;
+        }
+        values.add(field.toString());
+        return values;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,46 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.config;
+
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+
+/**
+ * Activa la caché de Spring para los datos de referencia.
+ * Los DAO de regiones, provincias y supermercados anotan sus lecturas con `@Cacheable`
+ * y sus escrituras con `@CacheEvict`, de modo que los formularios se sirven desde memoria.
+ * El proveedor (Caffeine), el TTL y el tamaño máximo se configuran en `application.properties`.
+ * La caché es el primer interceptor de los DAO, para que un acierto no pase por el limitador
+ * de acceso a la base de datos ni abra una transacción.
+ * Las cachés guardan copias de las entidades y devuelven copias (`CopyingCaffeineCacheManager`), así que
+ * modificar una región o provincia obtenida del DAO no cambia la que está en la caché.
+ */
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+
+    /**
+     * Sustituye al `CaffeineCacheManager` de Spring Boot, con los mismos ajustes `spring.cache.*`.
+     *
+     * @param properties ajustes de `spring.cache.*`.
+     * @return el gestor de cachés que copia las entidades.
+     */
+    @Bean
+    public CaffeineCacheManager cacheManager(CacheProperties properties) {
+        CaffeineCacheManager cacheManager = new CopyingCaffeineCacheManager();
+        String spec = properties.getCaffeine().getSpec();
+        if (spec != null) {
+            cacheManager.setCacheSpecification(spec);
+        }
+        if (!properties.getCacheNames().isEmpty()) {
+            cacheManager.setCacheNames(properties.getCacheNames());
+        }
+        return cacheManager;
+    }
+}
@@ -0,0 +1,25 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.config;
+
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.pool.ConnectionHoldTracker;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+
+/**
+ * Diagnóstico del pool de conexiones.
+ * Registra `ConnectionHoldTracker`, que envuelve el `DataSource` para medir el tiempo que cada
+ * llamador retiene las conexiones, solo con `app.datasource.track-callers=true`; por defecto no se
+ * envuelve y el pool no tiene ningún coste añadido. El tamaño del pool lo calcula `PoolSizingEnvironmentPostProcessor`.
+ */
+@Configuration
+public class ConnectionPoolConfig {
+
+
+    // Estático: es un BeanPostProcessor y debe crearse antes que el resto de beans
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.track-callers", havingValue = "true")
+    public static ConnectionHoldTracker connectionHoldTracker() {
+        return new ConnectionHoldTracker();
+    }
+}
@@ -0,0 +1,74 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Province;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Region;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Supermarket;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * `CaffeineCacheManager` cuyas cachés guardan y devuelven copias de las entidades.
+ * Las entidades son `@Data` (mutables): si la caché devolviera la misma instancia, un llamador que la
+ * modificase (por ejemplo, al enlazar un formulario) cambiaría el dato que ven todas las peticiones.
+ * Se copia al guardar (el valor que devuelve el método del DAO sigue siendo del llamador) y al leer.
+ * Las listas se devuelven inmodificables. Las cachés siguen siendo `CaffeineCache`, con sus estadísticas.
+ */
+public class CopyingCaffeineCacheManager extends CaffeineCacheManager {
+
+
+    @Override
+    protected org.springframework.cache.Cache adaptCaffeineCache(String name, Cache<Object, Object> cache) {
+        return new CopyingCaffeineCache(name, cache, isAllowNullValues());
+    }
+
+
+    /**
+     * Copia de las entidades de referencia (y de las listas de ellas); el resto de valores se devuelve tal cual.
+     *
+     * @param value valor guardado o por guardar en la caché.
+     * @return una copia independiente del valor.
+     */
+    static Object copy(Object value) {
+        if (value instanceof List<?> list) {
+            List<Object> copies = new ArrayList<>(list.size());
+            for (Object element : list) {
+                copies.add(copy(element));
+            }
+            return Collections.unmodifiableList(copies);
+        }
+        if (value instanceof Region region) {
+            return new Region(region.getId(), region.getCode(), region.getName());
+        }
+        if (value instanceof Province province) {
+            return new Province(province.getId(), province.getCode(), province.getName(),
+                    (Region) copy(province.getRegion()));
+        }
+        if (value instanceof Supermarket supermarket) {
+            return new Supermarket(supermarket.getId(), supermarket.getName());
+        }
+        return value;
+    }
+
+
+    static class CopyingCaffeineCache extends CaffeineCache {
+
+        CopyingCaffeineCache(String name, Cache<Object, Object> cache, boolean allowNullValues) {
+            super(name, cache, allowNullValues);
+        }
+
+        @Override
+        protected Object toStoreValue(Object userValue) {
+            return super.toStoreValue(copy(userValue));
+        }
+
+        @Override
+        protected Object fromStoreValue(Object storeValue) {
+            return copy(super.fromStoreValue(storeValue));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.config;
+
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.httpcache.ConditionalGetInterceptor;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.httpcache.TableVersions;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+
+/**
+ * Registra las peticiones condicionales (ETag y `Last-Modified`) de las páginas de listado y de formulario
+ * y de la API REST.
+ * Cada grupo de rutas declara las tablas de las que dependen sus páginas: por ejemplo, las de ubicaciones
+ * muestran también provincias y supermercados. Los interceptores van después del cambio de idioma
+ * (`LocaleChangeInterceptor`), para que el ETag use el idioma ya cambiado por `?lang=`.
+ * La caché de los recursos estáticos se configura en `StaticResourceConfig`.
+ */
+@Configuration
+public class HttpCacheConfig implements WebMvcConfigurer {
+
+
+    // Opcional para que los tests de la capa web (@WebMvcTest) no necesiten el resto de la aplicación
+    private final ObjectProvider<TableVersions> tableVersions;
+
+
+    public HttpCacheConfig(ObjectProvider<TableVersions> tableVersions) {
+        this.tableVersions = tableVersions;
+    }
+
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        TableVersions versions = tableVersions.getIfAvailable();
+        if (versions == null) {
+            return;
+        }
+        registry.addInterceptor(new ConditionalGetInterceptor(versions, "regions"))
+                .addPathPatterns("/regions", "/regions/new", "/regions/edit")
+                .order(Ordered.LOWEST_PRECEDENCE);
+        registry.addInterceptor(new ConditionalGetInterceptor(versions, "regions", "provinces"))
+                .addPathPatterns("/regions/*/provinces", "/provinces", "/provinces/new", "/provinces/edit")
+                .order(Ordered.LOWEST_PRECEDENCE);
+        registry.addInterceptor(new ConditionalGetInterceptor(versions, "provinces", "locations"))
+                .addPathPatterns("/provinces/*/locations")
+                .order(Ordered.LOWEST_PRECEDENCE);
+        registry.addInterceptor(new ConditionalGetInterceptor(versions, "supermarkets"))
+                .addPathPatterns("/supermarkets", "/supermarkets/new", "/supermarkets/edit")
+                .order(Ordered.LOWEST_PRECEDENCE);
+        registry.addInterceptor(new ConditionalGetInterceptor(versions, "locations", "provinces", "supermarkets"))
+                .addPathPatterns("/locations", "/locations/new", "/locations/edit", "/locations/search")
+                .order(Ordered.LOWEST_PRECEDENCE);
+
+        // API REST: mismas tablas que las páginas equivalentes
+        registry.addInterceptor(new ConditionalGetInterceptor(versions, "regions"))
+                .addPathPatterns("/api/v1/regions", "/api/v1/regions/**")
+                .order(Ordered.LOWEST_PRECEDENCE);
+        registry.addInterceptor(new ConditionalGetInterceptor(versions, "regions", "provinces"))
+                .addPathPatterns("/api/v1/provinces", "/api/v1/provinces/**")
+                .order(Ordered.LOWEST_PRECEDENCE);
+        registry.addInterceptor(new ConditionalGetInterceptor(versions, "supermarkets"))
+                .addPathPatterns("/api/v1/supermarkets", "/api/v1/supermarkets/**")
+                .order(Ordered.LOWEST_PRECEDENCE);
+        registry.addInterceptor(new ConditionalGetInterceptor(versions, "locations", "provinces", "supermarkets"))
+                .addPathPatterns("/api/v1/locations", "/api/v1/locations/**")
+                .order(Ordered.LOWEST_PRECEDENCE);
+    }
+}
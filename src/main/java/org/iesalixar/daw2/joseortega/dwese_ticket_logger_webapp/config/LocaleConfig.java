@@ -1,17 +1,26 @@
 package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.config;
 
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.i18n.CompiledMessageSource;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.i18n.LanguageParamInterceptor;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.i18n.SupportedLocaleCookieResolver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.LocaleResolver;
 import org.springframework.web.servlet.i18n.LocaleChangeInterceptor;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.i18n.CookieLocaleResolver;
 import org.springframework.web.servlet.i18n.SessionLocaleResolver;
 
 
+import java.time.Duration;
 import java.util.Locale;
+import java.util.function.Function;
 
 
 @Configuration
@@ -22,14 +31,34 @@ public class LocaleConfig implements WebMvcConfigurer {
     private static final Logger logger = LoggerFactory.getLogger(LocaleConfig.class);
 
 
+    // Con el modo sin estado el idioma se guarda en una cookie y no en la sesión (ver StatelessWebConfig)
+    @Value("${app.web.stateless:false}")
+    private boolean stateless;
+
+
+    // Con los mensajes compilados (MessageConfig), los idiomas soportados ya tienen su Locale construido
+    @Autowired
+    private ObjectProvider<CompiledMessageSource> compiledMessages;
+
+
     /**
      * Define el `LocaleResolver` que se usará para almacenar la configuración de idioma del usuario.
-     * En este caso, utilizamos `SessionLocaleResolver` para almacenar el idioma en la sesión.
+     * En modo sin estado se usa `CookieLocaleResolver` (cookie `locale`, válida un año), que cualquier
+     * instancia puede leer; si no, `SessionLocaleResolver` guarda el idioma en la sesión.
      *
-     * @return una instancia de `SessionLocaleResolver` con el idioma predeterminado configurado.
+     * @return el `LocaleResolver` con el idioma predeterminado configurado.
      */
     @Bean
     public LocaleResolver localeResolver() {
+        if (stateless) {
+            CookieLocaleResolver clr = new SupportedLocaleCookieResolver("locale", supportedLocales());
+            clr.setDefaultLocale(Locale.of("es")); // Establece el español como idioma por defecto
+            clr.setCookieMaxAge(Duration.ofDays(365));
+            clr.setCookieHttpOnly(true);
+            clr.setCookieSameSite("Lax");
+            logger.info("LocaleResolver configurado en cookie con el idioma predeterminado: es");
+            return clr;
+        }
         SessionLocaleResolver slr = new SessionLocaleResolver();
         slr.setDefaultLocale(Locale.of("es")); // Establece el español como idioma por defecto
         logger.info("LocaleResolver configurado con el idioma predeterminado: es");
@@ -39,13 +68,14 @@ public class LocaleConfig implements WebMvcConfigurer {
 
     /**
      * Define un `LocaleChangeInterceptor` que intercepta las peticiones HTTP para cambiar el idioma
-     * utilizando un parámetro llamado "lang" en la URL.
+     * utilizando un parámetro llamado "lang" en la URL. `LanguageParamInterceptor` no analiza los idiomas
+     * soportados ni vuelve a guardar el idioma si no cambia.
      *
      * @return una instancia de `LocaleChangeInterceptor` con el parámetro configurado.
      */
     @Bean
     public LocaleChangeInterceptor localeChangeInterceptor() {
-        LocaleChangeInterceptor interceptor = new LocaleChangeInterceptor();
+        LocaleChangeInterceptor interceptor = new LanguageParamInterceptor(supportedLocales());
         interceptor.setParamName("lang"); // El idioma se cambia con ?lang=es o ?lang=en
         logger.info("LocaleChangeInterceptor configurado con el parámetro 'lang'");
         return interceptor;
@@ -63,4 +93,10 @@ public class LocaleConfig implements WebMvcConfigurer {
         registry.addInterceptor(localeChangeInterceptor());
         logger.info("LocaleChangeInterceptor registrado en el InterceptorRegistry");
     }
+
+
+    private Function<String, Locale> supportedLocales() {
+        CompiledMessageSource messageSource = compiledMessages.getIfAvailable();
+        return messageSource != null ? messageSource::getSupportedLocale : value -> null;
+    }
 }
@@ -0,0 +1,46 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.config;
+
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.i18n.CompiledMessageSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.context.MessageSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.ResourcePatternUtils;
+
+
+/**
+ * Sustituye el `ResourceBundleMessageSource` de Spring Boot por `CompiledMessageSource`
+ * (`app.messages.precompiled=true`), que resuelve los `#{msg.*}` de las plantillas desde tablas
+ * compiladas al arrancar. Usa los mismos ajustes `spring.messages.*`.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.messages.precompiled", havingValue = "true")
+public class MessageConfig {
+
+
+    @Bean
+    @ConfigurationProperties(prefix = "spring.messages")
+    public MessageSourceProperties messageSourceProperties() {
+        return new MessageSourceProperties();
+    }
+
+
+    /**
+     * El nombre `messageSource` hace que el contexto y Thymeleaf lo usen y que Spring Boot no cree el suyo.
+     *
+     * @param properties     ajustes de `spring.messages.*`.
+     * @param resourceLoader cargador de los ficheros de mensajes.
+     * @return el `MessageSource` compilado.
+     */
+    @Bean
+    public CompiledMessageSource messageSource(MessageSourceProperties properties, ResourceLoader resourceLoader) {
+        CompiledMessageSource messageSource = new CompiledMessageSource(
+                ResourcePatternUtils.getResourcePatternResolver(resourceLoader), properties.getBasename(),
+                properties.getEncoding(), properties.isFallbackToSystemLocale());
+        messageSource.setAlwaysUseMessageFormat(properties.isAlwaysUseMessageFormat());
+        messageSource.setUseCodeAsDefaultMessage(properties.isUseCodeAsDefaultMessage());
+        return messageSource;
+    }
+}
@@ -0,0 +1,62 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.config;
+
+import org.apache.commons.logging.Log;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.boot.logging.DeferredLogFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+
+
+/**
+ * Calcula el tamaño del pool de Hikari a partir de los núcleos del servidor de base de datos cuando
+ * `app.datasource.pool.auto-size=true` (perfil `prod`) y no se ha fijado `spring.datasource.hikari.maximum-pool-size`.
+ * Usa la fórmula habitual `núcleos * 2 + discos`: con más conexiones que eso las consultas solo compiten
+ * por CPU y disco en el servidor y la latencia sube sin ganar rendimiento.
+ * - `app.datasource.pool.db-cores`: núcleos del servidor de base de datos. Es obligatorio: los núcleos de
+ *   esta máquina no dicen nada del servidor de base de datos, así que sin él el arranque falla.
+ * - `app.datasource.pool.spindles`: discos efectivos (1 por defecto; con SSD y datos en memoria, 1).
+ * El valor se publica como propiedad, con la menor prioridad, para que Hikari y el limitador de acceso
+ * a la base de datos (`app.db-limiter.permits`) usen el mismo tamaño. El pool es fijo (`minimum-idle` igual al máximo).
+ */
+public class PoolSizingEnvironmentPostProcessor implements EnvironmentPostProcessor, Ordered {
+
+    static final String MAXIMUM_POOL_SIZE = "spring.datasource.hikari.maximum-pool-size";
+
+    static final String MINIMUM_IDLE = "spring.datasource.hikari.minimum-idle";
+
+    static final String DB_CORES = "app.datasource.pool.db-cores";
+
+    private final Log logger;
+
+    public PoolSizingEnvironmentPostProcessor(DeferredLogFactory logFactory) {
+        this.logger = logFactory.getLog(PoolSizingEnvironmentPostProcessor.class);
+    }
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        if (!environment.getProperty("app.datasource.pool.auto-size", Boolean.class, false)
+                || environment.containsProperty(MAXIMUM_POOL_SIZE)) {
+            return;
+        }
+        Integer cores = environment.getProperty(DB_CORES, Integer.class);
+        if (cores == null || cores < 1) {
+            throw new IllegalStateException(DB_CORES + " must be set to the number of database server cores "
+                    + "when app.datasource.pool.auto-size=true (or set " + MAXIMUM_POOL_SIZE + ")");
+        }
+        int spindles = environment.getProperty("app.datasource.pool.spindles", Integer.class, 1);
+        int size = Math.max(2, cores * 2 + spindles);
+        environment.getPropertySources().addLast(new MapPropertySource("poolSizing",
+                Map.of(MAXIMUM_POOL_SIZE, size, MINIMUM_IDLE, size)));
+        logger.info("Connection pool sized to " + size + " (" + cores + " database cores, " + spindles + " spindles)");
+    }
+
+    // Después de cargar application*.properties, para ver las propiedades de los perfiles
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
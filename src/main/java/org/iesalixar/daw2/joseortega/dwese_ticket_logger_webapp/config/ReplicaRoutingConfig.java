@@ -0,0 +1,158 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.replica.ReadOnlyRoutingAspect;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.replica.ReadYourWritesInterceptor;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.replica.ReplicaRoutingDataSource;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.replica.ReplicaSelection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Reparto de las lecturas entre réplicas de solo lectura, activo si `app.datasource.replicas.urls`
+ * tiene alguna URL.
+ * Sustituye el `DataSource` de Spring Boot por un `ReplicaRoutingDataSource` con un pool de Hikari para
+ * el primario (`spring.datasource.*`) y otro por réplica, todos con los ajustes de
+ * `spring.datasource.hikari.*` y sus métricas. Los pools no son beans: así `ConnectionHoldTracker`
+ * envuelve solo el `DataSource` que usa la aplicación y cada conexión se cuenta una vez.
+ * Las réplicas usan el usuario y la contraseña del primario salvo que se indiquen los suyos.
+ * Las lecturas van a las réplicas cuando la aplicación acepta tráfico, después de las cargas del arranque.
+ * La cookie de lectura de las propias escrituras se firma con `app.web.flash-secret`, el mismo secreto
+ * compartido que la de los mensajes flash.
+ */
+@Configuration
+@ConditionalOnExpression("!'${app.datasource.replicas.urls:}'.isBlank()")
+public class ReplicaRoutingConfig implements WebMvcConfigurer {
+
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingConfig.class);
+
+
+    @Value("${app.datasource.replicas.read-your-writes-ms:5000}")
+    private long readYourWritesMillis;
+
+
+    @Value("${app.web.flash-secret:}")
+    private String cookieSecret;
+
+
+    // Puede llegar envuelto por ConnectionHoldTracker: se obtiene el ReplicaRoutingDataSource con unwrap
+    @Autowired
+    private ObjectProvider<DataSource> dataSource;
+
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment environment,
+                                               ObjectProvider<MeterRegistry> meterRegistry,
+                                               @Value("${app.datasource.replicas.urls}") List<String> urls,
+                                               @Value("${app.datasource.replicas.username:}") String username,
+                                               @Value("${app.datasource.replicas.password:}") String password,
+                                               @Value("${app.datasource.replicas.selection:least-loaded}") ReplicaSelection selection) {
+        HikariDataSource primary = pool(environment, meterRegistry, properties.determineUrl(),
+                properties.determineUsername(), properties.determinePassword(), properties.determineDriverClassName());
+        if (primary.getPoolName() == null) {
+            primary.setPoolName("primary");
+        }
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = pool(environment, meterRegistry, urls.get(i).trim(),
+                    username.isEmpty() ? properties.determineUsername() : username,
+                    password.isEmpty() ? properties.determinePassword() : password,
+                    properties.determineDriverClassName());
+            replica.setPoolName(primary.getPoolName() + "-replica-" + (i + 1));
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        logger.info("Routing reads to {} replicas ({}).", replicas.size(), selection);
+        return new ReplicaRoutingDataSource(primary, replicas, selection, ReplicaRoutingConfig::load);
+    }
+
+
+    /**
+     * Activa las réplicas cuando la aplicación acepta tráfico, que Spring Boot publica después de los
+     * receptores de `ApplicationReadyEvent` (las cargas de los índices y agregados en memoria).
+     */
+    @EventListener
+    public void onReadiness(AvailabilityChangeEvent<ReadinessState> event) throws SQLException {
+        if (event.getState() == ReadinessState.ACCEPTING_TRAFFIC) {
+            dataSource.getObject().unwrap(ReplicaRoutingDataSource.class).enableReplicas();
+            logger.info("Reads are now routed to the replicas.");
+        }
+    }
+
+
+    @Bean
+    public ReadOnlyRoutingAspect readOnlyRoutingAspect() {
+        return new ReadOnlyRoutingAspect(readYourWritesMillis);
+    }
+
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        byte[] key;
+        if (cookieSecret.isBlank()) {
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+            logger.warn("app.web.flash-secret is empty: the read-your-writes cookie is signed with a random key "
+                    + "and is only honoured by this instance");
+        } else {
+            key = cookieSecret.getBytes(StandardCharsets.UTF_8);
+        }
+        registry.addInterceptor(new ReadYourWritesInterceptor(key, readYourWritesMillis)).order(Ordered.HIGHEST_PRECEDENCE);
+    }
+
+
+    /**
+     * Crea un pool con los ajustes de `spring.datasource.hikari.*` y las métricas de Hikari.
+     */
+    private static HikariDataSource pool(Environment environment, ObjectProvider<MeterRegistry> meterRegistry,
+                                         String url, String username, String password, String driverClassName) {
+        HikariDataSource pool = new HikariDataSource();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setJdbcUrl(url);
+        pool.setUsername(username);
+        pool.setPassword(password);
+        pool.setDriverClassName(driverClassName);
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        }
+        return pool;
+    }
+
+
+    /**
+     * Conexiones en uso más hilos esperando; 0 si el pool aún no ha arrancado.
+     */
+    private static int load(DataSource dataSource) {
+        HikariPoolMXBean pool = ((HikariDataSource) dataSource).getHikariPoolMXBean();
+        return pool == null ? 0 : pool.getActiveConnections() + pool.getThreadsAwaitingConnection();
+    }
+}
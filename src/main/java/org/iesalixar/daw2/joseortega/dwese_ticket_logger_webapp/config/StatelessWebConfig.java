@@ -0,0 +1,55 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.config;
+
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.flash.SignedCookieFlashMapManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.FlashMapManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+
+
+/**
+ * Modo sin estado (`app.web.stateless=true`): los mensajes flash de los redirects viajan en una cookie
+ * firmada en lugar de en la sesión, y el idioma en la cookie de `LocaleConfig`. Así ninguna petición crea
+ * sesión y cualquier instancia detrás del balanceador puede atender la siguiente petición del cliente.
+ * Todas las instancias tienen que compartir `app.web.flash-secret`.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.web.stateless", havingValue = "true")
+public class StatelessWebConfig {
+
+
+    private static final Logger logger = LoggerFactory.getLogger(StatelessWebConfig.class);
+
+
+    /**
+     * Sustituye al `SessionFlashMapManager` que el `DispatcherServlet` usa por defecto.
+     *
+     * @param secret     secreto compartido con el que se firman las cookies flash.
+     * @param timeoutSec segundos que un mensaje flash espera a la petición siguiente.
+     * @return el gestor de atributos flash en cookies firmadas.
+     */
+    @Bean(name = DispatcherServlet.FLASH_MAP_MANAGER_BEAN_NAME)
+    public FlashMapManager flashMapManager(@Value("${app.web.flash-secret:}") String secret,
+                                           @Value("${app.web.flash-timeout-seconds:60}") int timeoutSec) {
+        byte[] key;
+        if (secret.isBlank()) {
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+            logger.warn("app.web.flash-secret vacío: se usa un secreto aleatorio y los mensajes flash solo "
+                    + "funcionan si el redirect vuelve a esta instancia");
+        } else {
+            key = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        SignedCookieFlashMapManager manager = new SignedCookieFlashMapManager(key);
+        manager.setFlashMapTimeout(timeoutSec);
+        logger.info("Mensajes flash en cookies firmadas, caducidad {} s", timeoutSec);
+        return manager;
+    }
+}
@@ -0,0 +1,51 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+import java.time.Duration;
+
+
+/**
+ * Sirve los recursos estáticos (`static/`, incluido Bootstrap, que se copia del webjar al compilar)
+ * con el hash de su contenido en la URL, por ejemplo `/css/styles-5f1c...css`.
+ * Como la URL cambia cuando cambia el fichero, se pueden cachear un año como `immutable` y el navegador
+ * no vuelve a pedirlos ni a revalidarlos. Las URLs de las plantillas (`@{/css/styles.css}`) se reescriben
+ * con el hash gracias a `ResourceUrlEncodingFilter`, así que todos los enlaces deben pasar por `@{...}`.
+ * Si el navegador acepta gzip, se envía la variante `.gz` precomprimida al compilar (ver el pom).
+ * Sustituye a la configuración de recursos de Spring Boot (`spring.web.resources.add-mappings=false`),
+ * que no permite la directiva `immutable`.
+ */
+@Configuration
+public class StaticResourceConfig implements WebMvcConfigurer {
+
+
+    // Tiempo de caché de los recursos versionados
+    private static final Duration MAX_AGE = Duration.ofDays(365);
+
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler("/**")
+                .addResourceLocations("classpath:/static/")
+                .setCacheControl(CacheControl.maxAge(MAX_AGE).cachePublic().immutable())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+    }
+
+
+    /**
+     * Reescribe las URLs de los recursos estáticos generadas en las plantillas con su versión.
+     */
+    @Bean
+    public ResourceUrlEncodingFilter resourceUrlEncodingFilter() {
+        return new ResourceUrlEncodingFilter();
+    }
+}
@@ -0,0 +1,319 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.controllers;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.api.ApiProjections;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.api.JsonProjection;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.ChunkedLocationPage;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.LocationDAO;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.LocationSort;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.ProvinceDAO;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.RegionDAO;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.SupermarketDAO;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Location;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Province;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.util.List;
+
+
+/**
+ * Controlador de la API REST de solo lectura (`/api/v1`) sobre los DAO.
+ * Las respuestas se escriben en streaming con un `JsonGenerator` de Jackson a partir de las
+ * proyecciones de `ApiProjections`, sin construir el JSON completo en memoria:
+ * - `/{recurso}/options`: solo `id` y `name`, para desplegables.
+ * - `/{recurso}`: listado paginado con `offset` y `limit` (las ubicaciones, por cursor con `cursor` y `limit`).
+ * - `/{recurso}/{id}`: detalle con las relaciones completas, o 404.
+ * Los listados y los detalles admiten `fields` (por ejemplo, `fields=id,name`) para elegir los campos;
+ * un campo desconocido responde 400.
+ */
+@RestController
+@RequestMapping("/api/v1")
+public class ApiController {
+
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiController.class);
+
+
+    @Autowired
+    private RegionDAO regionDAO;
+
+    @Autowired
+    private ProvinceDAO provinceDAO;
+
+    @Autowired
+    private SupermarketDAO supermarketDAO;
+
+    @Autowired
+    private LocationDAO locationDAO;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Elementos por página cuando no se indica `limit`, y como máximo
+    @Value("${app.api.default-page-size:100}")
+    private int defaultPageSize;
+
+    @Value("${app.api.max-page-size:1000}")
+    private int maxPageSize;
+
+    // Ubicaciones por consulta al escribir un listado de ubicaciones
+    @Value("${app.locations.render-chunk-size:500}")
+    private int locationChunkSize;
+
+
+    /**
+     * Listado paginado de regiones.
+     */
+    @GetMapping("/regions")
+    public void listRegions(@RequestParam(required = false) String fields,
+                            @RequestParam(defaultValue = "0") int offset,
+                            @RequestParam(required = false) Integer limit,
+                            HttpServletResponse response) throws SQLException, IOException {
+        writeList(response, ApiProjections.REGION.select(fields), regionDAO.listAllRegions(), offset, limit);
+    }
+
+
+    /**
+     * Regiones para un desplegable (`id` y `name`).
+     */
+    @GetMapping("/regions/options")
+    public void listRegionOptions(HttpServletResponse response) throws SQLException, IOException {
+        writeArray(response, ApiProjections.REGION_OPTION, regionDAO.listAllRegions());
+    }
+
+
+    /**
+     * Detalle de una región.
+     */
+    @GetMapping("/regions/{id}")
+    public void getRegion(@PathVariable int id, @RequestParam(required = false) String fields,
+                          HttpServletResponse response) throws SQLException, IOException {
+        writeObject(response, ApiProjections.REGION.select(fields), regionDAO.getRegionById(id));
+    }
+
+
+    /**
+     * Listado paginado de provincias, con su región como opción.
+     */
+    @GetMapping("/provinces")
+    public void listProvinces(@RequestParam(required = false) String fields,
+                              @RequestParam(defaultValue = "0") int offset,
+                              @RequestParam(required = false) Integer limit,
+                              HttpServletResponse response) throws SQLException, IOException {
+        writeList(response, ApiProjections.PROVINCE.select(fields), provinceDAO.listAllProvinces(), offset, limit);
+    }
+
+
+    /**
+     * Provincias para un desplegable (`id` y `name`).
+     */
+    @GetMapping("/provinces/options")
+    public void listProvinceOptions(HttpServletResponse response) throws SQLException, IOException {
+        writeArray(response, ApiProjections.PROVINCE_OPTION, provinceDAO.listAllProvinces());
+    }
+
+
+    /**
+     * Detalle de una provincia, con su región completa.
+     */
+    @GetMapping("/provinces/{id}")
+    public void getProvince(@PathVariable int id, @RequestParam(required = false) String fields,
+                            HttpServletResponse response) throws SQLException, IOException {
+        writeObject(response, ApiProjections.PROVINCE_DETAIL.select(fields), provinceDAO.getProvinceById(id));
+    }
+
+
+    /**
+     * Listado paginado de supermercados.
+     */
+    @GetMapping("/supermarkets")
+    public void listSupermarkets(@RequestParam(required = false) String fields,
+                                 @RequestParam(defaultValue = "0") int offset,
+                                 @RequestParam(required = false) Integer limit,
+                                 HttpServletResponse response) throws SQLException, IOException {
+        writeList(response, ApiProjections.SUPERMARKET.select(fields), supermarketDAO.listAllSupermarkets(), offset, limit);
+    }
+
+
+    /**
+     * Supermercados para un desplegable (`id` y `name`).
+     */
+    @GetMapping("/supermarkets/options")
+    public void listSupermarketOptions(HttpServletResponse response) throws SQLException, IOException {
+        writeArray(response, ApiProjections.SUPERMARKET_OPTION, supermarketDAO.listAllSupermarkets());
+    }
+
+
+    /**
+     * Detalle de un supermercado.
+     */
+    @GetMapping("/supermarkets/{id}")
+    public void getSupermarket(@PathVariable int id, @RequestParam(required = false) String fields,
+                               HttpServletResponse response) throws SQLException, IOException {
+        writeObject(response, ApiProjections.SUPERMARKET.select(fields), supermarketDAO.getSupermarketById(id));
+    }
+
+
+    /**
+     * Listado de ubicaciones con paginación por cursor, como el listado HTML.
+     * Devuelve `{"items": [...], "next": cursor, "prev": cursor}`; los cursores son null en los extremos.
+     * Las ubicaciones se leen por tramos mientras se escriben (`ChunkedLocationPage`). El primer tramo se
+     * lee antes de escribir nada, así que si falla se responde con el error de siempre; si falla un tramo
+     * posterior, con la respuesta ya enviada, la lista termina en la última ubicación leída y se añade
+     * `"error": "incomplete"`, con `next` apuntando justo después de esa ubicación.
+     */
+    @GetMapping("/locations")
+    public void listLocations(@RequestParam(required = false) String fields,
+                              @RequestParam(defaultValue = "id") String sort,
+                              @RequestParam(required = false) String cursor,
+                              @RequestParam(required = false) Integer limit,
+                              HttpServletResponse response) throws SQLException, IOException {
+        JsonProjection<Location> projection = ApiProjections.LOCATION.select(fields);
+        int size = pageSize(limit);
+        JsonGenerator generator = open(response);
+        ChunkedLocationPage page = ChunkedLocationPage.open(locationDAO, LocationSort.fromParam(sort), cursor, size,
+                locationChunkSize, () -> flush(generator));
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("items");
+        for (Location location : page) {
+            projection.write(generator, location);
+        }
+        generator.writeEndArray();
+        if (page.isIncomplete()) {
+            generator.writeStringField("error", "incomplete");
+        }
+        generator.writeStringField("next", page.getNextCursor());
+        generator.writeStringField("prev", page.getPrevCursor());
+        generator.writeEndObject();
+        generator.close();
+        logger.debug("API: se han escrito {} ubicaciones.", page.getRows());
+    }
+
+
+    /**
+     * Detalle de una ubicación, con su supermercado y su provincia completos.
+     * La consulta de la ubicación no trae la región de la provincia: la provincia se toma de la caché.
+     */
+    @GetMapping("/locations/{id}")
+    public void getLocation(@PathVariable int id, @RequestParam(required = false) String fields,
+                            HttpServletResponse response) throws SQLException, IOException {
+        JsonProjection<Location> projection = ApiProjections.LOCATION_DETAIL.select(fields);
+        Location location = locationDAO.getLocationById(id);
+        if (location != null && location.getProvince() != null) {
+            Province province = provinceDAO.getProvinceById(location.getProvince().getId());
+            if (province != null) {
+                location.setProvince(province);
+            }
+        }
+        writeObject(response, projection, location);
+    }
+
+
+    /**
+     * Un campo desconocido en `fields` es un error del cliente.
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public void handleBadRequest(IllegalArgumentException e, HttpServletResponse response) throws IOException {
+        logger.debug("API: petición no válida: {}", e.getMessage());
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+    }
+
+
+    @ExceptionHandler(SQLException.class)
+    public void handleSqlException(SQLException e, HttpServletResponse response) throws IOException {
+        logger.error("API: error al consultar la base de datos: {}", e.getMessage());
+        response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+    }
+
+
+    /**
+     * Escribe una página de la lista como `{"total": n, "offset": o, "limit": l, "items": [...]}`.
+     */
+    private <T> void writeList(HttpServletResponse response, JsonProjection<T> projection, List<T> all,
+                               int offset, Integer limit) throws IOException {
+        int from = Math.min(Math.max(offset, 0), all.size());
+        int size = pageSize(limit);
+        JsonGenerator generator = open(response);
+        generator.writeStartObject();
+        generator.writeNumberField("total", all.size());
+        generator.writeNumberField("offset", from);
+        generator.writeNumberField("limit", size);
+        generator.writeArrayFieldStart("items");
+        for (T item : all.subList(from, Math.min(from + size, all.size()))) {
+            projection.write(generator, item);
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.close();
+    }
+
+
+    /**
+     * Escribe la lista completa como array JSON.
+     */
+    private <T> void writeArray(HttpServletResponse response, JsonProjection<T> projection, List<T> all) throws IOException {
+        JsonGenerator generator = open(response);
+        generator.writeStartArray();
+        for (T item : all) {
+            projection.write(generator, item);
+        }
+        generator.writeEndArray();
+        generator.close();
+    }
+
+
+    /**
+     * Escribe la entidad, o responde 404 si no existe.
+     */
+    private <T> void writeObject(HttpServletResponse response, JsonProjection<T> projection, T value) throws IOException {
+        if (value == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        JsonGenerator generator = open(response);
+        projection.write(generator, value);
+        generator.close();
+    }
+
+
+    private int pageSize(Integer limit) {
+        return Math.max(1, Math.min(limit != null ? limit : defaultPageSize, maxPageSize));
+    }
+
+
+    /**
+     * Crea el generador sobre el flujo de salida de la respuesta (UTF-8).
+     * El flujo no se cierra con el generador: lo cierra el contenedor.
+     */
+    private JsonGenerator open(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream(), JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return generator;
+    }
+
+
+    private static void flush(JsonGenerator generator) {
+        try {
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
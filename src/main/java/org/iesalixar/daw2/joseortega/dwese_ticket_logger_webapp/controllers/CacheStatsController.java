@@ -0,0 +1,58 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.controllers;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * Controlador REST que expone las estadísticas de la caché de datos de referencia
+ * (aciertos, fallos, expulsiones y tamaño) para cada una de las caches configuradas.
+ */
+@RestController
+@RequestMapping("/admin/cache")
+public class CacheStatsController {
+
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheStatsController.class);
+
+
+    @Autowired
+    private CacheManager cacheManager;
+
+
+    /**
+     * Devuelve las estadísticas de todas las caches.
+     *
+     * @return Mapa con el nombre de la cache y sus contadores.
+     */
+    @GetMapping
+    public Map<String, Map<String, Object>> cacheStats() {
+        logger.info("Solicitando las estadísticas de la caché.");
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache instanceof CaffeineCache caffeineCache) {
+                CacheStats stats = caffeineCache.getNativeCache().stats();
+                Map<String, Object> values = new LinkedHashMap<>();
+                values.put("hits", stats.hitCount());
+                values.put("misses", stats.missCount());
+                values.put("hitRate", stats.hitRate());
+                values.put("evictions", stats.evictionCount());
+                values.put("size", caffeineCache.getNativeCache().estimatedSize());
+                result.put(name, values);
+            }
+        }
+        return result;
+    }
+}
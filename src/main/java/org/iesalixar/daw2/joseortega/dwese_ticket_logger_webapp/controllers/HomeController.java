@@ -1,16 +1,37 @@
 package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.controllers;
 
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dashboard.DashboardService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 
 
+/**
+ * Controlador de la página de inicio, con el panel de datos de la aplicación (`DashboardService`).
+ */
 @Controller
 public class HomeController {
 
+    private static final Logger logger = LoggerFactory.getLogger(HomeController.class);
 
+
+    @Autowired
+    private DashboardService dashboardService;
+
+
+    /**
+     * Muestra la página de inicio con el panel, completo o con las secciones que se hayan podido cargar.
+     *
+     * @param model Modelo para pasar datos a la vista.
+     * @return El nombre de la plantilla Thymeleaf de la página de inicio.
+     */
     @GetMapping("/")
     public String home(Model model) {
+        logger.debug("Mostrando la página de inicio.");
+        model.addAttribute("dashboard", dashboardService.getDashboard());
         return "index";
     }
 }
@@ -1,26 +1,50 @@
 package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.controllers;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.bulk.BulkImportReport;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.bulk.BulkImportService;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.ChunkedLocationPage;
 import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.LocationDAO;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.LocationSort;
 import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.ProvinceDAO;
 import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.SupermarketDAO;
 import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Location;
 import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Province;
 import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Region;
 import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Supermarket;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.export.CsvLocationExportWriter;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.export.LocationExportWriter;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.export.NdjsonLocationExportWriter;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.form.LocationFormData;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.form.LocationFormService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Controlador que maneja las operaciones CRUD para la entidad `Location`.
@@ -43,28 +67,202 @@ public class LocationController {
     @Autowired
     private SupermarketDAO supermarketDAO;
 
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    // Carga a la vez la ubicación y las listas de los formularios
+    @Autowired
+    private LocationFormService locationFormService;
+
+    // Tamaño máximo de página admitido en el listado de ubicaciones
+    @Value("${app.locations.max-page-size:500}")
+    private int maxPageSize;
+
+    // Ubicaciones por consulta al pintar el listado (0 para leer cada página en una sola consulta)
+    @Value("${app.locations.render-chunk-size:500}")
+    private int renderChunkSize;
+
     /**
-     * Lista todas las ubicaciones y las pasa como atributo al modelo para que sean
-     * accesibles en la vista `location.html`.
+     * Lista una página de ubicaciones y la pasa como atributo al modelo para que sea
+     * accesible en la vista `location.html`, junto con los cursores de navegación.
+     * La página se lee por tramos de `app.locations.render-chunk-size` filas mientras se pinta la
+     * plantilla, y antes de consultar cada tramo se envía al cliente lo ya renderizado: el navegador
+     * empieza a mostrar la tabla enseguida y en memoria solo hay un tramo cada vez.
+     * El primer tramo se lee antes de enviar nada, así que un fallo ahí se muestra como `errorMessage`;
+     * si falla un tramo posterior, la tabla termina en la última fila leída con un aviso al final.
      *
-     * @param model Objeto del modelo para pasar datos a la vista.
+     * @param sort     Criterio de ordenación (id, city o province).
+     * @param cursor   Cursor de la página a mostrar, o vacío para la primera página.
+     * @param size     Número de ubicaciones por página.
+     * @param model    Objeto del modelo para pasar datos a la vista.
+     * @param response Respuesta HTTP, que se vacía antes de consultar cada tramo.
      * @return El nombre de la plantilla Thymeleaf para renderizar la lista de ubicaciones.
      */
     @GetMapping
-    public String listLocations(Model model) {
-        logger.info("Solicitando la lista de todas las ubicaciones...");
-        List<Location> listLocations = null;
+    public String listLocations(@RequestParam(value = "sort", defaultValue = "id") String sort,
+                                @RequestParam(value = "cursor", required = false) String cursor,
+                                @RequestParam(value = "size", defaultValue = "50") int size,
+                                Model model, HttpServletResponse response) {
+        logger.debug("Solicitando una página de ubicaciones...");
+        LocationSort locationSort = LocationSort.fromParam(sort);
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
         try {
-            listLocations = locationDAO.listAllLocations();
-            logger.info("Se han cargado {} ubicaciones.", listLocations.size());
+            ChunkedLocationPage page = ChunkedLocationPage.open(locationDAO, locationSort, cursor, pageSize,
+                    renderChunkSize, () -> flush(response));
+            model.addAttribute("listLocations", page); // Pasar la página de ubicaciones al modelo
+            model.addAttribute("locationPage", page);
         } catch (SQLException e) {
             logger.error("Error al listar las ubicaciones: {}", e.getMessage());
             model.addAttribute("errorMessage", "Error al listar las ubicaciones.");
         }
-        model.addAttribute("listLocations", listLocations); // Pasar la lista de ubicaciones al modelo
+        model.addAttribute("sort", locationSort.name().toLowerCase());
+        model.addAttribute("size", pageSize);
+        addSearchFilters(model);
         return "location"; // Nombre de la plantilla Thymeleaf a renderizar
     }
 
+    /**
+     * Envía al cliente la parte de la página ya renderizada.
+     */
+    private static void flush(HttpServletResponse response) {
+        try {
+            response.flushBuffer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Busca ubicaciones por dirección y ciudad (prefijos de palabra), opcionalmente filtradas
+     * por provincia y supermercado, y muestra los resultados en la vista `location.html`.
+     *
+     * @param q             Texto a buscar en la dirección y la ciudad.
+     * @param provinceId    ID de la provincia por la que filtrar (opcional).
+     * @param supermarketId ID del supermercado por el que filtrar (opcional).
+     * @param size          Número máximo de resultados.
+     * @param model         Objeto del modelo para pasar datos a la vista.
+     * @return El nombre de la plantilla Thymeleaf para renderizar los resultados.
+     */
+    @GetMapping("/search")
+    public String searchLocations(@RequestParam(value = "q", required = false) String q,
+                                  @RequestParam(value = "provinceId", required = false) Integer provinceId,
+                                  @RequestParam(value = "supermarketId", required = false) Integer supermarketId,
+                                  @RequestParam(value = "size", defaultValue = "50") int size,
+                                  Model model) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Buscando ubicaciones con '{}' (provincia: {}, supermercado: {})", q, provinceId, supermarketId);
+        }
+        int limit = Math.max(1, Math.min(size, maxPageSize));
+        List<Location> listLocations = null;
+        try {
+            listLocations = locationDAO.searchLocations(q, provinceId, supermarketId, limit);
+        } catch (SQLException e) {
+            logger.error("Error al buscar las ubicaciones: {}", e.getMessage());
+            model.addAttribute("errorMessage", "Error al buscar las ubicaciones.");
+        }
+        model.addAttribute("listLocations", listLocations);
+        model.addAttribute("sort", "id");
+        model.addAttribute("size", limit);
+        model.addAttribute("q", q);
+        model.addAttribute("provinceId", provinceId);
+        model.addAttribute("supermarketId", supermarketId);
+        addSearchFilters(model);
+        return "location";
+    }
+
+    /**
+     * Añade al modelo las provincias y los supermercados de los filtros del buscador.
+     * Ambos listados salen de la caché de datos de referencia.
+     */
+    private void addSearchFilters(Model model) {
+        try {
+            model.addAttribute("listProvinces", provinceDAO.listAllProvinces());
+            model.addAttribute("listSupermarkets", supermarketDAO.listAllSupermarkets());
+        } catch (SQLException e) {
+            logger.error("Error al listar provincias o supermercados {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Exporta las ubicaciones en formato CSV, en streaming desde la base de datos.
+     *
+     * @param provinceId    ID de la provincia por la que filtrar (opcional).
+     * @param supermarketId ID del supermercado por el que filtrar (opcional).
+     * @param request       Petición HTTP, para comprobar si el cliente acepta gzip.
+     * @param response      Respuesta HTTP en la que se escriben las filas.
+     * @throws IOException si falla la escritura de la respuesta.
+     */
+    @GetMapping("/export.csv")
+    public void exportLocationsCsv(@RequestParam(value = "provinceId", required = false) Integer provinceId,
+                                   @RequestParam(value = "supermarketId", required = false) Integer supermarketId,
+                                   HttpServletRequest request, HttpServletResponse response) throws IOException {
+        exportLocations("text/csv", "locations.csv", CsvLocationExportWriter::new,
+                provinceId, supermarketId, request, response);
+    }
+
+    /**
+     * Exporta las ubicaciones en formato NDJSON (un objeto JSON por línea), en streaming desde la base de datos.
+     *
+     * @param provinceId    ID de la provincia por la que filtrar (opcional).
+     * @param supermarketId ID del supermercado por el que filtrar (opcional).
+     * @param request       Petición HTTP, para comprobar si el cliente acepta gzip.
+     * @param response      Respuesta HTTP en la que se escriben las filas.
+     * @throws IOException si falla la escritura de la respuesta.
+     */
+    @GetMapping("/export.ndjson")
+    public void exportLocationsNdjson(@RequestParam(value = "provinceId", required = false) Integer provinceId,
+                                      @RequestParam(value = "supermarketId", required = false) Integer supermarketId,
+                                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        exportLocations("application/x-ndjson", "locations.ndjson", NdjsonLocationExportWriter::new,
+                provinceId, supermarketId, request, response);
+    }
+
+    /**
+     * Escribe la exportación directamente en el flujo de salida de la respuesta, comprimida con gzip
+     * si el cliente lo acepta. Las filas pasan del `ResultSet` a la respuesta sin acumularse en memoria.
+     */
+    private void exportLocations(String contentType, String fileName, ExportWriterFactory factory,
+                                 Integer provinceId, Integer supermarketId,
+                                 HttpServletRequest request, HttpServletResponse response) throws IOException {
+        logger.info("Exportando ubicaciones a {} (provincia: {}, supermercado: {})", fileName, provinceId, supermarketId);
+        String acceptEncoding = request.getHeader("Accept-Encoding");
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+
+        response.setContentType(contentType);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + fileName + "\"");
+        response.setHeader("Vary", "Accept-Encoding");
+        if (gzip) {
+            response.setHeader("Content-Encoding", "gzip");
+        }
+        OutputStream out = gzip ? new GZIPOutputStream(response.getOutputStream(), 8192) : response.getOutputStream();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+        try {
+            LocationExportWriter exportWriter = factory.create(writer);
+            exportWriter.writeHeader();
+            locationDAO.streamLocations(provinceId, supermarketId, exportWriter);
+            exportWriter.finish();
+            writer.close();
+            logger.info("Se han exportado {} ubicaciones.", exportWriter.getRows());
+        } catch (SQLException | DataAccessException e) {
+            logger.error("Error al exportar las ubicaciones: {}", e.getMessage());
+            if (!response.isCommitted()) {
+                response.reset();
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Error al exportar las ubicaciones.");
+            }
+        } catch (UncheckedIOException e) {
+            logger.warn("Exportación de ubicaciones interrumpida por el cliente: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Crea el escritor de filas de la exportación sobre el flujo de salida.
+     */
+    @FunctionalInterface
+    private interface ExportWriterFactory {
+        LocationExportWriter create(Writer out) throws IOException;
+    }
+
     /**
      * Muestra el formulario para crear una nueva ubicacion.
      *
@@ -73,18 +271,19 @@ public class LocationController {
      */
     @GetMapping("/new")
     public String showNewForm(Model model) {
-        logger.info("Mostrando formulario para nueva ubicacion.");
+        logger.debug("Mostrando formulario para nueva ubicacion.");
         model.addAttribute("location",new Location());
 
         List<Province> listProvinces = new ArrayList<>();
         List<Supermarket> listSupermarkets=new ArrayList<>();
         try{
-            listProvinces =provinceDAO.listAllProvinces();
-            listSupermarkets=supermarketDAO.listAllSupermarkets();
-            logger.info("Se han cargado {} provincias y {} supermercados ",listProvinces.size(),listSupermarkets.size());
-        }catch(SQLException e){
+            LocationFormData formData = locationFormService.loadNewForm();
+            listProvinces = formData.getProvinces();
+            listSupermarkets = formData.getSupermarkets();
+            logger.debug("Se han cargado {} provincias y {} supermercados ",listProvinces.size(),listSupermarkets.size());
+        }catch(SQLException | DataAccessException e){
             logger.error("Error al listar provincias o supermercados {}",e.getMessage());
-            model.addAttribute("errorMessage ","Error al listar provincias o supermercados");
+            model.addAttribute("errorMessage","Error al listar provincias o supermercados");
         }
         model.addAttribute("listProvinces",listProvinces);
         model.addAttribute("listSupermarkets",listSupermarkets);
@@ -93,6 +292,7 @@ public class LocationController {
 
     /**
      * Muestra el formulario para editar una ubicacion existente.
+     * La ubicación, las provincias y los supermercados se consultan a la vez (`LocationFormService`).
      *
      * @param id    ID de la ubicacion a editar.
      * @param model Modelo para pasar datos a la vista.
@@ -100,27 +300,23 @@ public class LocationController {
      */
     @GetMapping("/edit")
     public String showEditForm(@RequestParam("id") int id, Model model) {
-        logger.info("Mostrando formulario de edición para la ubicacion con ID {}", id);
+        logger.debug("Mostrando formulario de edición para la ubicacion con ID {}", id);
         Location location = null;
+        List<Province> listProvinces = null;
+        List<Supermarket> listSupermarkets=null;
         try {
-            location=locationDAO.getLocationById(id);
+            LocationFormData formData = locationFormService.loadEditForm(id);
+            location = formData.getLocation();
+            listProvinces = formData.getProvinces();
+            listSupermarkets = formData.getSupermarkets();
             if (location == null) {
                 logger.warn("No se encontró la ubicacion con ID {}", id);
             }
-        } catch (SQLException e) {
-            logger.error("Error al obtener la ubicacion con ID {}: {}", id, e.getMessage());
+            logger.debug("Se han cargado {} provincias y {} supermercados ",listProvinces.size(),listSupermarkets.size());
+        } catch (SQLException | DataAccessException e) {
+            logger.error("Error al cargar el formulario de la ubicacion con ID {}: {}", id, e.getMessage());
             model.addAttribute("errorMessage", "Error al obtener la ubicacion.");
         }
-        List<Province> listProvinces = null;
-        List<Supermarket> listSupermarkets=null;
-        try{
-            listProvinces=provinceDAO.listAllProvinces();
-            listSupermarkets=supermarketDAO.listAllSupermarkets();
-            logger.info("Se han cargado {} provincias y {} supermercados ",listProvinces.size(),listSupermarkets.size());
-        } catch (SQLException e) {
-            logger.error("Error al listar provincias o supermercados {}",e.getMessage());
-            model.addAttribute("errorMessage","Error al listar provincias o supermercados");
-        }
 
         model.addAttribute("location", location);
         model.addAttribute("listProvinces",listProvinces);
@@ -153,6 +349,27 @@ public class LocationController {
         return "redirect:/locations"; // Redirigir a la lista de ubicaciones
     }
 
+    /**
+     * Importa ubicaciones de forma masiva desde un fichero CSV (con cabecera) o JSON
+     * (array de objetos o NDJSON) enviado como cuerpo de la petición.
+     * Campos: `address`, `city`, `supermarket` (nombre del supermercado) y `province` (código de la provincia).
+     *
+     * @param contentType Tipo de contenido del cuerpo (text/csv, application/json o application/x-ndjson).
+     * @param body        Flujo con el cuerpo de la petición, que se lee de forma incremental.
+     * @return Informe de la importación con los errores por fila.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/json", "application/x-ndjson"})
+    public ResponseEntity<BulkImportReport> importLocations(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                            InputStream body) {
+        logger.info("Importando ubicaciones de forma masiva ({}).", contentType);
+        try {
+            return ResponseEntity.ok(bulkImportService.importLocations(contentType, body));
+        } catch (SQLException e) {
+            logger.error("Error al importar ubicaciones: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     /**
      * Actualiza una ubicacion existente en la base de datos.
      *
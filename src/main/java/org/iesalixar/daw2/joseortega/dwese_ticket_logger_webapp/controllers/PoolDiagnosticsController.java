@@ -0,0 +1,97 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.controllers;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.pool.ConnectionHoldTracker;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.pool.PoolDiagnostics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.List;
+
+
+/**
+ * Controlador REST con el diagnóstico del pool de conexiones: conexiones activas, inactivas y
+ * peticiones en espera (en Hikari y en el limitador de acceso a la base de datos), conexiones
+ * retenidas ahora mismo y llamadores que más tiempo de conexión consumen (`ConnectionHoldTracker`).
+ * Sirve para ver qué está agotando el pool cuando se satura.
+ */
+@RestController
+@RequestMapping("/admin/pool")
+public class PoolDiagnosticsController {
+
+
+    private static final Logger logger = LoggerFactory.getLogger(PoolDiagnosticsController.class);
+
+
+    @Autowired
+    private DataSource dataSource;
+
+    // Opcional: solo existe con app.datasource.track-callers=true
+    @Autowired
+    private ObjectProvider<ConnectionHoldTracker> connectionHoldTracker;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+
+    /**
+     * Devuelve el estado del pool.
+     *
+     * @param top Número máximo de conexiones retenidas y de llamadores devueltos.
+     * @return Diagnóstico del pool, o 404 si el `DataSource` no es un pool de Hikari.
+     * @throws SQLException si no se puede acceder al pool.
+     */
+    @GetMapping
+    public ResponseEntity<PoolDiagnostics> poolDiagnostics(@RequestParam(defaultValue = "10") int top) throws SQLException {
+        logger.debug("Solicitando el diagnóstico del pool de conexiones.");
+        if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+            return ResponseEntity.notFound().build();
+        }
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        ConnectionHoldTracker tracker = connectionHoldTracker.getIfAvailable();
+        Gauge limiterQueued = meterRegistry.find("db.limiter.queued").gauge();
+
+        return ResponseEntity.ok(new PoolDiagnostics(
+                hikari.getPoolName(),
+                hikari.getMaximumPoolSize(),
+                hikari.getMinimumIdle(),
+                pool == null ? 0 : pool.getTotalConnections(),
+                pool == null ? 0 : pool.getActiveConnections(),
+                pool == null ? 0 : pool.getIdleConnections(),
+                pool == null ? 0 : pool.getThreadsAwaitingConnection(),
+                limiterQueued == null ? -1 : (int) limiterQueued.value(),
+                tracker == null ? 0 : tracker.getConnections(),
+                tracker == null ? List.of() : tracker.getHeldConnections(top),
+                tracker == null ? List.of() : tracker.getTopCallers(top)));
+    }
+
+
+    /**
+     * Borra las estadísticas de los llamadores, para medir a partir de ahora.
+     *
+     * @return 204 sin contenido.
+     */
+    @PostMapping("/reset")
+    public ResponseEntity<Void> reset() {
+        logger.info("Reiniciando las estadísticas de retención de conexiones.");
+        ConnectionHoldTracker tracker = connectionHoldTracker.getIfAvailable();
+        if (tracker != null) {
+            tracker.reset();
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,14 +1,22 @@
 package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.controllers;
 
 import jakarta.validation.Valid;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.bulk.BulkImportReport;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.bulk.BulkImportService;
 import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.ProvinceDAO;
 import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.RegionDAO;
 import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Province;
 import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Region;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.hierarchy.HierarchyIndex;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.hierarchy.HierarchyService;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.hierarchy.ProvinceLocations;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.MessageSource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -16,6 +24,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import org.yaml.snakeyaml.events.Event;
 
+import java.io.InputStream;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
@@ -32,6 +41,9 @@ public class ProvinceController {
 
     private static final Logger logger = LoggerFactory.getLogger(ProvinceController.class);
 
+    // Número máximo de IDs de ubicación por respuesta de `/provinces/{id}/locations`
+    private static final int MAX_LOCATION_IDS = 10000;
+
 
     // DAO para gestionar las operaciones de las provincias en la base de datos
     @Autowired
@@ -40,6 +52,12 @@ public class ProvinceController {
     @Autowired
     private RegionDAO regionDAO;
 
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    @Autowired
+    private HierarchyService hierarchyService;
+
 
     /**
      * Lista todas las provincias y las pasa como atributo al modelo para que sean
@@ -50,11 +68,11 @@ public class ProvinceController {
      */
     @GetMapping
     public String listProvinces(Model model) {
-        logger.info("Solicitando la lista de todas las provincias...");
+        logger.debug("Solicitando la lista de todas las provincias...");
         List<Province> listProvinces = null;
         try {
             listProvinces = provinceDAO.listAllProvinces();
-            logger.info("Se han cargado {} provincias.", listProvinces.size());
+            logger.debug("Se han cargado {} provincias.", listProvinces.size());
         } catch (SQLException e) {
             logger.error("Error al listar las provincias: {}", e.getMessage());
             model.addAttribute("errorMessage", "Error al listar las provincias.");
@@ -73,7 +91,7 @@ public class ProvinceController {
     @GetMapping("/new")
     public String showNewForm(Model model) {
         List<Region> listRegions = new ArrayList<>();
-        logger.info("Mostrando formulario para nueva provincia.");
+        logger.debug("Mostrando formulario para nueva provincia.");
         try {
             listRegions = regionDAO.listAllRegions();
         }catch(SQLException e){
@@ -93,7 +111,7 @@ public class ProvinceController {
      */
     @GetMapping("/edit")
     public String showEditForm(@RequestParam("id") int id, Model model) {
-        logger.info("Mostrando formulario de edición para la provincia con ID {}", id);
+        logger.debug("Mostrando formulario de edición para la provincia con ID {}", id);
         Province province = null;
         List<Region> listRegions=new ArrayList<>();
         try {
@@ -128,13 +146,13 @@ public class ProvinceController {
                 return "province-form";     // Devuelve el formulario para mostrar los errores de validación
             }
 
-            if (provinceDAO.existsProvinceByCode(province.getCode())) {
-                logger.warn("El código de la provincia {} ya existe.", province.getCode());
-                redirectAttributes.addFlashAttribute("errorMessage", "El código de la provincia ya existe.");
-                return "redirect:/provinces/new";
-            }
             provinceDAO.insertProvince(province);
             logger.info("Provincia {} insertada con éxito.", province.getCode());
+        } catch (DuplicateKeyException e) {
+            // El índice único (sin distinguir mayúsculas) de la columna code rechaza los duplicados
+            logger.warn("El código de la provincia {} ya existe.", province.getCode());
+            redirectAttributes.addFlashAttribute("errorMessage", "El código de la provincia ya existe.");
+            return "redirect:/provinces/new";
         } catch (SQLException e) {
             logger.error("Error al insertar la provincia {}: {}", province.getCode(), e.getMessage());
             redirectAttributes.addFlashAttribute("errorMessage", "Error al insertar la provincia.");
@@ -143,6 +161,58 @@ public class ProvinceController {
     }
 
 
+    /**
+     * Importa provincias de forma masiva desde un fichero CSV (con cabecera) o JSON
+     * (array de objetos o NDJSON) enviado como cuerpo de la petición.
+     * Campos: `code`, `name` y `region` (código de la comunidad autónoma).
+     *
+     * @param contentType Tipo de contenido del cuerpo (text/csv, application/json o application/x-ndjson).
+     * @param body        Flujo con el cuerpo de la petición, que se lee de forma incremental.
+     * @return Informe de la importación con los errores por fila.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/json", "application/x-ndjson"})
+    public ResponseEntity<BulkImportReport> importProvinces(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                            InputStream body) {
+        logger.info("Importando provincias de forma masiva ({}).", contentType);
+        try {
+            return ResponseEntity.ok(bulkImportService.importProvinces(contentType, body));
+        } catch (SQLException e) {
+            logger.error("Error al importar provincias: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+
+    /**
+     * Devuelve en JSON los IDs de las ubicaciones de una provincia, desde el índice en memoria
+     * de `HierarchyService`, por tramos de `limit` IDs.
+     *
+     * @param id     ID de la provincia.
+     * @param offset Posición de la primera ubicación (0 por defecto).
+     * @param limit  Número máximo de IDs (1000 por defecto, como mucho 10000).
+     * @return Tramo de IDs con el total de la provincia, o 404 si la provincia no existe.
+     */
+    @GetMapping("/{id}/locations")
+    @ResponseBody
+    public ResponseEntity<ProvinceLocations> listProvinceLocations(@PathVariable int id,
+                                                                   @RequestParam(defaultValue = "0") int offset,
+                                                                   @RequestParam(defaultValue = "1000") int limit) {
+        logger.debug("Listando las ubicaciones de la provincia con ID {} desde la posición {}", id, offset);
+        try {
+            HierarchyIndex index = hierarchyService.getIndex();
+            if (index.getProvince(id) == null) {
+                return ResponseEntity.notFound().build();
+            }
+            int from = Math.max(offset, 0);
+            int[] ids = index.getLocationIds(id, from, Math.min(limit, MAX_LOCATION_IDS));
+            return ResponseEntity.ok(new ProvinceLocations(id, index.countLocations(id), from, ids));
+        } catch (SQLException e) {
+            logger.error("Error al listar las ubicaciones de la provincia con ID {}: {}", id, e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+
     /**
      * Actualiza una provincia existente en la base de datos.
      *
@@ -157,14 +227,13 @@ public class ProvinceController {
         try {
             if (result.hasErrors()) {
                 return "province-form";  // Devuelve el formulario para mostrar los errores de validación
-            }
-                if (provinceDAO.existsProvinceByCodeAndNotId(province.getCode(),province.getId())) {
-                logger.warn("El código de la provincia {} ya existe para otra provincia.", province.getCode());
-                redirectAttributes.addFlashAttribute("errorMessage", "El código de la provincia ya existe para otra provincia.");
-                return "redirect:/provinces/edit?id=" + province.getId();
             }
             provinceDAO.updateProvince(province);
             logger.info("Provincia con ID {} actualizada con éxito.", province.getId());
+        } catch (DuplicateKeyException e) {
+            logger.warn("El código de la provincia {} ya existe para otra provincia.", province.getCode());
+            redirectAttributes.addFlashAttribute("errorMessage", "El código de la provincia ya existe para otra provincia.");
+            return "redirect:/provinces/edit?id=" + province.getId();
         } catch (SQLException e) {
             logger.error("Error al actualizar la provincia con ID {}: {}", province.getId(), e.getMessage());
             redirectAttributes.addFlashAttribute("errorMessage", "Error al actualizar la provincia.");
@@ -2,11 +2,15 @@ package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.controllers;
 
 import jakarta.validation.Valid;
 import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.RegionDAO;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Province;
 import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Region;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.hierarchy.HierarchyService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.MessageSource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -38,6 +42,9 @@ public class RegionController {
     @Autowired
     private MessageSource messageSource;
 
+    @Autowired
+    private HierarchyService hierarchyService;
+
 
     /**
      * Lista todas las regiones y las pasa como atributo al modelo para que sean
@@ -48,11 +55,11 @@ public class RegionController {
      */
     @GetMapping
     public String listRegions(Model model) {
-        logger.info("Solicitando la lista de todas las regiones...");
+        logger.debug("Solicitando la lista de todas las regiones...");
         List<Region> listRegions = null;
         try {
             listRegions = regionDAO.listAllRegions();
-            logger.info("Se han cargado {} regiones.", listRegions.size());
+            logger.debug("Se han cargado {} regiones.", listRegions.size());
         } catch (SQLException e) {
             logger.error("Error al listar las regiones: {}", e.getMessage());
             model.addAttribute("errorMessage", "Error al listar las regiones.");
@@ -62,6 +69,26 @@ public class RegionController {
     }
 
 
+    /**
+     * Devuelve en JSON las provincias de una región, desde el índice en memoria de `HierarchyService`.
+     *
+     * @param id ID de la región.
+     * @return Provincias de la región, o 404 si la región no existe.
+     */
+    @GetMapping("/{id}/provinces")
+    @ResponseBody
+    public ResponseEntity<List<Province>> listRegionProvinces(@PathVariable int id) {
+        logger.debug("Listando las provincias de la región con ID {}", id);
+        try {
+            List<Province> provinces = hierarchyService.getIndex().getProvinces(id);
+            return provinces == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(provinces);
+        } catch (SQLException e) {
+            logger.error("Error al listar las provincias de la región con ID {}: {}", id, e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+
     /**
      * Muestra el formulario para crear una nueva región.
      *
@@ -70,7 +97,7 @@ public class RegionController {
      */
     @GetMapping("/new")
     public String showNewForm(Model model) {
-        logger.info("Mostrando formulario para nueva región.");
+        logger.debug("Mostrando formulario para nueva región.");
         model.addAttribute("region", new Region()); // Crear un nuevo objeto Region
         return "region-form"; // Nombre de la plantilla Thymeleaf para el formulario
     }
@@ -85,7 +112,7 @@ public class RegionController {
      */
     @GetMapping("/edit")
     public String showEditForm(@RequestParam("id") int id, Model model) {
-        logger.info("Mostrando formulario de edición para la región con ID {}", id);
+        logger.debug("Mostrando formulario de edición para la región con ID {}", id);
         Region region = null;
         try {
             region = regionDAO.getRegionById(id);
@@ -114,14 +141,14 @@ public class RegionController {
             if (result.hasErrors()) {
                 return "region-form";  // Devuelve el formulario para mostrar los errores de validación
             }
-            if (regionDAO.existsRegionByCode(region.getCode())) {
-                logger.warn("El código de la región {} ya existe.", region.getCode());
-                String errorMessage = messageSource.getMessage("msg.region-controller.insert.codeExist", null, locale);
-                redirectAttributes.addFlashAttribute("errorMessage", errorMessage);
-                return "redirect:/regions/new";
-            }
             regionDAO.insertRegion(region);
             logger.info("Región {} insertada con éxito.", region.getCode());
+        } catch (DuplicateKeyException e) {
+            // El índice único (sin distinguir mayúsculas) de la columna code rechaza los duplicados
+            logger.warn("El código de la región {} ya existe.", region.getCode());
+            String errorMessage = messageSource.getMessage("msg.region-controller.insert.codeExist", null, locale);
+            redirectAttributes.addFlashAttribute("errorMessage", errorMessage);
+            return "redirect:/regions/new";
         } catch (SQLException e) {
             logger.error("Error al insertar la región {}: {}", region.getCode(), e.getMessage());
             String errorMessage = messageSource.getMessage("msg.region-controller.insert.error", null, locale);
@@ -145,14 +172,13 @@ public class RegionController {
             if (result.hasErrors()) {
                 return "region-form";  // Devuelve el formulario para mostrar los errores de validación
             }
-            if (regionDAO.existsRegionByCodeAndNotId(region.getCode(), region.getId())) {
-                logger.warn("El código de la región {} ya existe para otra región.", region.getCode());
-                String errorMessage = messageSource.getMessage("msg.region-controller.update.codeExist", null, locale);
-                redirectAttributes.addFlashAttribute("errorMessage", errorMessage);
-                return "redirect:/regions/edit?id=" + region.getId();
-            }
             regionDAO.updateRegion(region);
             logger.info("Región con ID {} actualizada con éxito.", region.getId());
+        } catch (DuplicateKeyException e) {
+            logger.warn("El código de la región {} ya existe para otra región.", region.getCode());
+            String errorMessage = messageSource.getMessage("msg.region-controller.update.codeExist", null, locale);
+            redirectAttributes.addFlashAttribute("errorMessage", errorMessage);
+            return "redirect:/regions/edit?id=" + region.getId();
         } catch (SQLException e) {
             logger.error("Error al actualizar la región con ID {}: {}", region.getId(), e.getMessage());
             String errorMessage = messageSource.getMessage("msg.region-controller.update.error", null, locale);
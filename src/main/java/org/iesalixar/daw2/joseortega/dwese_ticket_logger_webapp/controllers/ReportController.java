@@ -0,0 +1,78 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.controllers;
+
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.report.RollupCheck;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.report.SpendReport;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.report.TicketReportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+
+/**
+ * Controlador REST de los informes de gasto de los tickets.
+ * Los informes se calculan sobre los agregados en memoria de `TicketReportService`,
+ * sin consultar la base de datos.
+ */
+@RestController
+@RequestMapping("/reports")
+public class ReportController {
+
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportController.class);
+
+    // Días que cubre el informe cuando no se indica la fecha inicial
+    private static final int DEFAULT_DAYS = 30;
+
+
+    @Autowired
+    private TicketReportService ticketReportService;
+
+
+    /**
+     * Informe de gasto por provincia, supermercado y día.
+     *
+     * @param from Fecha inicial (incluida); por defecto, 30 días antes de la final.
+     * @param to Fecha final (incluida); por defecto, hoy.
+     * @param provinceId ID de la provincia por la que filtrar (opcional).
+     * @param supermarketId ID del supermercado por el que filtrar (opcional).
+     * @return Informe con las filas y los totales, o 400 si el intervalo no es válido.
+     */
+    @GetMapping("/spend")
+    public ResponseEntity<SpendReport> spend(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                             @RequestParam(required = false) Integer provinceId,
+                                             @RequestParam(required = false) Integer supermarketId) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_DAYS - 1);
+        if (start.isAfter(end)) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Calculando el informe de gasto entre {} y {} (provincia {}, supermercado {})",
+                    start, end, provinceId, supermarketId);
+        }
+        return ResponseEntity.ok(ticketReportService.spend(start, end, provinceId, supermarketId));
+    }
+
+
+    /**
+     * Compara los agregados en memoria con el mismo cálculo en SQL.
+     *
+     * @return Resultado de la comprobación.
+     * @throws SQLException si ocurre un error en la base de datos.
+     */
+    @GetMapping("/spend/check")
+    public RollupCheck check() throws SQLException {
+        logger.info("Comprobando los agregados de gasto contra la base de datos");
+        return ticketReportService.check();
+    }
+}
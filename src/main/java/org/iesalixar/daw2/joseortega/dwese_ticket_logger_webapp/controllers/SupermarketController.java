@@ -1,6 +1,8 @@
 package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.controllers;
 
 import jakarta.validation.Valid;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.bulk.BulkImportReport;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.bulk.BulkImportService;
 import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.RegionDAO;
 import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.SupermarketDAO;
 import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Region;
@@ -9,12 +11,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.MessageSource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.io.InputStream;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.Locale;
@@ -37,6 +43,9 @@ public class SupermarketController {
     @Autowired
     private MessageSource messageSource;
 
+    @Autowired
+    private BulkImportService bulkImportService;
+
 
     /**
      * Lista todas los supermercados y las pasa como atributo al modelo para que sean
@@ -47,11 +56,11 @@ public class SupermarketController {
      */
     @GetMapping
     public String listSupermarkets(Model model) {
-        logger.info("Solicitando la lista de todas los supermercados...");
+        logger.debug("Solicitando la lista de todas los supermercados...");
         List<Supermarket> listSupermarkets = null;
         try {
             listSupermarkets = supermarketDAO.listAllSupermarkets();
-            logger.info("Se han cargado {} supermercados.", listSupermarkets.size());
+            logger.debug("Se han cargado {} supermercados.", listSupermarkets.size());
         } catch (SQLException e) {
             logger.error("Error al listar los supermercados: {}", e.getMessage());
             model.addAttribute("errorMessage", "Error al listar los supermercados.");
@@ -69,7 +78,7 @@ public class SupermarketController {
      */
     @GetMapping("/new")
     public String showNewForm(Model model) {
-        logger.info("Mostrando formulario para nuevo supermercado.");
+        logger.debug("Mostrando formulario para nuevo supermercado.");
         model.addAttribute("supermarket", new Supermarket()); // Crear un nuevo objeto Supermercado
         return "supermarket-form"; // Nombre de la plantilla Thymeleaf para el formulario
     }
@@ -83,7 +92,7 @@ public class SupermarketController {
      */
     @GetMapping("/edit")
     public String showEditForm(@RequestParam("id") int id, Model model) {
-        logger.info("Mostrando formulario de edición para el supermercado con ID {}", id);
+        logger.debug("Mostrando formulario de edición para el supermercado con ID {}", id);
         Supermarket supermarket = null;
         try {
             supermarket = supermarketDAO.getSupermarketById(id);
@@ -113,14 +122,14 @@ public class SupermarketController {
             if (result.hasErrors()) {
                 return "supermarket-form";  // Devuelve el formulario para mostrar los errores de validación
             }
-            if (supermarketDAO.existsSupermarketByName(supermarket.getName())) {
-                logger.warn("El nombre del supermercado {} ya existe.", supermarket.getName());
-                String errorMessage = messageSource.getMessage("msg.supermarket-controller.insert.nameExist", null, locale);
-                redirectAttributes.addFlashAttribute("errorMessage", errorMessage);
-                return "redirect:/supermarkets/new";
-            }
             supermarketDAO.insertSupermarket(supermarket);
             logger.info("Supermercado {} insertada con éxito.", supermarket.getName());
+        } catch (DuplicateKeyException e) {
+            // El índice único (sin distinguir mayúsculas) de la columna name rechaza los duplicados
+            logger.warn("El nombre del supermercado {} ya existe.", supermarket.getName());
+            String errorMessage = messageSource.getMessage("msg.supermarket-controller.insert.nameExist", null, locale);
+            redirectAttributes.addFlashAttribute("errorMessage", errorMessage);
+            return "redirect:/supermarkets/new";
         } catch (SQLException e) {
             logger.error("Error al insertar el supermercado {}: {}", supermarket.getName(), e.getMessage());
             String errorMessage = messageSource.getMessage("msg.supermarket-controller.insert.error", null, locale);
@@ -130,6 +139,28 @@ public class SupermarketController {
     }
 
 
+    /**
+     * Importa supermercados de forma masiva desde un fichero CSV (con cabecera) o JSON
+     * (array de objetos o NDJSON) enviado como cuerpo de la petición.
+     * Campos: `name`.
+     *
+     * @param contentType Tipo de contenido del cuerpo (text/csv, application/json o application/x-ndjson).
+     * @param body        Flujo con el cuerpo de la petición, que se lee de forma incremental.
+     * @return Informe de la importación con los errores por fila.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/json", "application/x-ndjson"})
+    public ResponseEntity<BulkImportReport> importSupermarkets(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                               InputStream body) {
+        logger.info("Importando supermercados de forma masiva ({}).", contentType);
+        try {
+            return ResponseEntity.ok(bulkImportService.importSupermarkets(contentType, body));
+        } catch (SQLException e) {
+            logger.error("Error al importar supermercados: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+
     /**
      * Actualiza un supermercado existente en la base de datos.
      *
@@ -145,14 +176,13 @@ public class SupermarketController {
             if (result.hasErrors()) {
                 return "supermarket-form";  // Devuelve el formulario para mostrar los errores de validación
             }
-            if (supermarketDAO.existsSupermarketByNameAndNotId(supermarket.getName(), supermarket.getId())) {
-                logger.warn("El nombre del supermercado {} ya existe para otro supermercado.", supermarket.getName());
-                String errorMessage = messageSource.getMessage("msg.supermarket-controller.update.nameExist", null, locale);
-                redirectAttributes.addFlashAttribute("errorMessage", errorMessage);
-                return "redirect:/supermarkets/edit?id=" + supermarket.getId();
-            }
             supermarketDAO.updateSupermarket(supermarket);
             logger.info("Supermercado con ID {} actualizada con éxito.", supermarket.getId());
+        } catch (DuplicateKeyException e) {
+            logger.warn("El nombre del supermercado {} ya existe para otro supermercado.", supermarket.getName());
+            String errorMessage = messageSource.getMessage("msg.supermarket-controller.update.nameExist", null, locale);
+            redirectAttributes.addFlashAttribute("errorMessage", errorMessage);
+            return "redirect:/supermarkets/edit?id=" + supermarket.getId();
         } catch (SQLException e) {
             logger.error("Error al actualizar el supermercado con ID {}: {}", supermarket.getId(), e.getMessage());
             String errorMessage = messageSource.getMessage("msg.supermarket-controller.update.error", null, locale);
@@ -0,0 +1,190 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.controllers;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.TicketDAO;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Ticket;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.ingest.IngestQueueFullException;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.ingest.TicketIngestQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+
+/**
+ * Controlador REST para registrar y consultar tickets de compra.
+ * Está pensado para recibir los tickets de los terminales de punto de venta,
+ * bien de uno en uno o bien en lotes.
+ */
+@RestController
+@RequestMapping("/tickets")
+public class TicketController {
+
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketController.class);
+
+    // Número máximo de tickets admitidos en un lote
+    private static final int MAX_BATCH_SIZE = 5000;
+
+
+    @Autowired
+    private TicketDAO ticketDAO;
+
+
+    @Autowired
+    private TicketIngestQueue ticketIngestQueue;
+
+
+    @Autowired
+    private Validator validator;
+
+
+    /**
+     * Registra un ticket con sus líneas.
+     *
+     * @param ticket Ticket recibido en el cuerpo de la petición.
+     * @return 201 con el ID del ticket creado.
+     * @throws SQLException si ocurre un error en la base de datos.
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> insertTicket(@Valid @RequestBody Ticket ticket) throws SQLException {
+        logger.info("Registrando ticket de la ubicación {}", ticket.getLocation().getId());
+        ticketDAO.insertTicket(ticket);
+        return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("id", ticket.getId(), "total", ticket.getTotal()));
+    }
+
+
+    /**
+     * Registra un ticket a través de la cola de ingesta: el ticket se confirma junto con
+     * otros en un commit agrupado y la respuesta se envía cuando ya es durable.
+     *
+     * @param ticket Ticket recibido en el cuerpo de la petición.
+     * @return Futuro con la respuesta 201 y el ID del ticket creado.
+     */
+    @PostMapping("/ingest")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> ingestTicket(@Valid @RequestBody Ticket ticket) {
+        logger.debug("Encolando ticket de la ubicación {}", ticket.getLocation().getId());
+        return ticketIngestQueue.submit(ticket)
+                .thenApply(id -> ResponseEntity.status(HttpStatus.CREATED)
+                        .body(Map.of("id", id, "total", ticket.getTotal())));
+    }
+
+
+    /**
+     * Registra un lote de tickets en una única transacción.
+     * Si algún ticket no es válido no se registra ninguno y se devuelven los errores por posición.
+     *
+     * @param tickets Tickets recibidos en el cuerpo de la petición.
+     * @return 201 con los IDs de los tickets creados, en el mismo orden, o 400 con los errores.
+     * @throws SQLException si ocurre un error en la base de datos.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<Map<String, Object>> insertTickets(@RequestBody List<Ticket> tickets) throws SQLException {
+        logger.info("Registrando lote de {} tickets", tickets.size());
+        if (tickets.isEmpty() || tickets.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().body(Map.of("error",
+                    "El lote debe contener entre 1 y " + MAX_BATCH_SIZE + " tickets."));
+        }
+        Map<Integer, List<String>> errors = new LinkedHashMap<>();
+        for (int i = 0; i < tickets.size(); i++) {
+            Ticket ticket = tickets.get(i);
+            if (ticket == null) {
+                errors.put(i, List.of("El ticket no puede ser nulo."));
+                continue;
+            }
+            Set<ConstraintViolation<Ticket>> violations = validator.validate(ticket);
+            if (!violations.isEmpty()) {
+                errors.put(i, violations.stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .toList());
+            }
+        }
+        if (!errors.isEmpty()) {
+            logger.warn("Lote rechazado: {} tickets no válidos", errors.size());
+            return ResponseEntity.badRequest().body(Map.of("errors", errors));
+        }
+        ticketDAO.insertTickets(tickets);
+        List<Long> ids = new ArrayList<>(tickets.size());
+        for (Ticket ticket : tickets) {
+            ids.add(ticket.getId());
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("ids", ids));
+    }
+
+
+    /**
+     * Obtiene un ticket con sus líneas.
+     *
+     * @param id ID del ticket.
+     * @return El ticket, o 404 si no existe.
+     * @throws SQLException si ocurre un error en la base de datos.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<Ticket> getTicket(@PathVariable long id) throws SQLException {
+        logger.debug("Obteniendo el ticket con ID {}", id);
+        Ticket ticket = ticketDAO.getTicketById(id);
+        return ticket == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(ticket);
+    }
+
+
+    /**
+     * Lista los tickets (sin líneas) de una ubicación en un intervalo de fechas.
+     *
+     * @param locationId ID de la ubicación.
+     * @param from Fecha inicial (incluida).
+     * @param to Fecha final (excluida).
+     * @return Lista de tickets ordenados por fecha de compra.
+     * @throws SQLException si ocurre un error en la base de datos.
+     */
+    @GetMapping
+    public List<Ticket> listTickets(@RequestParam int locationId,
+                                    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to)
+            throws SQLException {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Listando los tickets de la ubicación {} entre {} y {}", locationId, from, to);
+        }
+        return ticketDAO.listTicketsByLocation(locationId, from, to);
+    }
+
+
+    /**
+     * Responde 503 con `Retry-After` cuando la cola de ingesta está llena.
+     */
+    @ExceptionHandler(IngestQueueFullException.class)
+    public ResponseEntity<Map<String, Object>> handleQueueFull(IngestQueueFullException e) {
+        logger.warn("Ticket rechazado: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", e.getMessage()));
+    }
+
+
+    /**
+     * Traduce las violaciones de integridad (por ejemplo, una ubicación inexistente) en un 400.
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Map<String, Object>> handleDataIntegrity(DataIntegrityViolationException e) {
+        logger.warn("Ticket rechazado por la base de datos: {}", e.getMessage());
+        return ResponseEntity.badRequest().body(Map.of("error",
+                String.valueOf(NestedExceptionUtils.getMostSpecificCause(e).getMessage())));
+    }
+}
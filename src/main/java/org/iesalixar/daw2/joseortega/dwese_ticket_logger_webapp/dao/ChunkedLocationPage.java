@@ -0,0 +1,161 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao;
+
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Location;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.limiter.DatabaseBusyException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Página de ubicaciones que se lee de la base de datos por tramos a medida que se recorre.
+ * El primer tramo se consulta al crearla y los siguientes al llegar al final del anterior, continuando
+ * la paginación por clave con el cursor del tramo previo (`LocationDAO.listLocationsPage`). Así una página
+ * de miles de filas nunca está entera en memoria ni ocupa una conexión mientras se pinta la plantilla.
+ * Antes de pedir cada tramo se ejecuta `beforeFetch`, que la vista usa para enviar al cliente lo ya renderizado.
+ * Para entonces la respuesta ya está confirmada con 200, así que si falla la consulta de un tramo posterior
+ * el recorrido termina en la última fila leída y `isIncomplete()` lo indica, para que la vista cierre el
+ * documento con una marca de error en lugar de dejarlo cortado. El cursor siguiente es entonces el del
+ * último tramo leído y continúa justo después de la última fila mostrada.
+ * Solo puede recorrerse una vez; los cursores de navegación están completos al terminar el recorrido.
+ */
+public class ChunkedLocationPage implements Iterable<Location> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedLocationPage.class);
+
+    private final LocationDAO locationDAO;
+
+    private final LocationSort sort;
+
+    // Número total de ubicaciones de la página
+    private final int size;
+
+    // Ubicaciones por consulta
+    private final int chunkSize;
+
+    // Acción a ejecutar antes de consultar cada tramo a partir del segundo
+    private final Runnable beforeFetch;
+
+    // Tramo actual
+    private LocationPage chunk;
+
+    private final String prevCursor;
+
+    private int rows;
+
+    private boolean iterated;
+
+    // Si ha fallado la consulta de un tramo posterior al primero
+    private boolean incomplete;
+
+    private ChunkedLocationPage(LocationDAO locationDAO, LocationSort sort, int size, int chunkSize,
+                                Runnable beforeFetch, LocationPage first) {
+        this.locationDAO = locationDAO;
+        this.sort = sort;
+        this.size = size;
+        this.chunkSize = chunkSize;
+        this.beforeFetch = beforeFetch;
+        this.chunk = first;
+        this.prevCursor = first.getPrevCursor();
+    }
+
+    /**
+     * Consulta el primer tramo de la página.
+     * Si `chunkSize` no es positivo o no es menor que `size`, la página se lee en una sola consulta.
+     * Las páginas hacia atrás también se leen enteras, porque la consulta hacia atrás devuelve las
+     * filas más cercanas al cursor, que son las del final de la página y no las del principio.
+     * @param locationDAO DAO de ubicaciones
+     * @param sort Criterio de ordenación
+     * @param cursor Cursor de la página, o null para la primera
+     * @param size Número de ubicaciones de la página
+     * @param chunkSize Número de ubicaciones por consulta
+     * @param beforeFetch Acción a ejecutar antes de consultar cada tramo a partir del segundo
+     * @return Página lista para recorrerse
+     * @throws SQLException si falla la consulta del primer tramo
+     */
+    public static ChunkedLocationPage open(LocationDAO locationDAO, LocationSort sort, String cursor, int size,
+                                           int chunkSize, Runnable beforeFetch) throws SQLException {
+        LocationCursor position = LocationCursor.decode(cursor);
+        boolean backward = position != null && position.getSort() == sort && !position.isForward();
+        int chunk = chunkSize <= 0 || chunkSize >= size || backward ? size : chunkSize;
+        return new ChunkedLocationPage(locationDAO, sort, size, chunk, beforeFetch,
+                locationDAO.listLocationsPage(sort, cursor, chunk));
+    }
+
+    @Override
+    public Iterator<Location> iterator() {
+        if (iterated) {
+            throw new IllegalStateException("La página de ubicaciones ya se ha recorrido");
+        }
+        iterated = true;
+        return new Iterator<>() {
+
+            private List<Location> locations = chunk.getLocations();
+
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                if (index < locations.size()) {
+                    return true;
+                }
+                if (incomplete || rows >= size || chunk.getNextCursor() == null) {
+                    return false;
+                }
+                beforeFetch.run();
+                try {
+                    chunk = locationDAO.listLocationsPage(sort, chunk.getNextCursor(), Math.min(chunkSize, size - rows));
+                } catch (SQLException | DataAccessException | DatabaseBusyException e) {
+                    logger.error("Location page cut after {} rows: {}", rows, e.getMessage());
+                    incomplete = true;
+                    locations = List.of();
+                    return false;
+                }
+                locations = chunk.getLocations();
+                index = 0;
+                return !locations.isEmpty();
+            }
+
+            @Override
+            public Location next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                rows++;
+                return locations.get(index++);
+            }
+        };
+    }
+
+    /**
+     * @return Cursor de la página siguiente, o null si es la última. Solo es definitivo tras el recorrido.
+     */
+    public String getNextCursor() {
+        return chunk.getNextCursor();
+    }
+
+    /**
+     * @return true si la consulta de un tramo ha fallado y la página se ha cortado antes de completarse
+     */
+    public boolean isIncomplete() {
+        return incomplete;
+    }
+
+    /**
+     * @return Cursor de la página anterior, o null si es la primera
+     */
+    public String getPrevCursor() {
+        return prevCursor;
+    }
+
+    /**
+     * @return Ubicaciones recorridas hasta el momento
+     */
+    public int getRows() {
+        return rows;
+    }
+}
@@ -0,0 +1,13 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao;
+
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Ticket;
+
+import java.sql.SQLException;
+import java.util.List;
+
+public interface DashboardDAO {
+    List<String> TABLES = List.of("regions", "provinces", "supermarkets", "locations", "tickets");
+
+    long countRows(String table) throws SQLException;
+    List<Ticket> listLatestTickets(int limit) throws SQLException;
+}
@@ -0,0 +1,75 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao;
+
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Location;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Ticket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Consultas del panel de la página de inicio.
+ * Usan su propio `JdbcTemplate` con tiempo máximo de consulta (`Statement.setQueryTimeout`), igual al plazo
+ * de cada sección redondeado a segundos: el driver de MariaDB lo aplica en el servidor, que aborta la
+ * consulta y deja la conexión lista para volver al pool. El panel no interrumpe sus subtareas vencidas,
+ * así que este es el límite de lo que una consulta lenta retiene una conexión.
+ */
+@Repository
+public class DashboardDAOImpl implements DashboardDAO {
+
+    // Logger para registrar eventos importantes en el DAO
+    private static final Logger logger = LoggerFactory.getLogger(DashboardDAOImpl.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Inyección de JdbcTemplate
+    public DashboardDAOImpl(JdbcTemplate jdbcTemplate,
+                            @Value("${app.dashboard.subtask-timeout-ms:1000}") long subtaskTimeoutMillis) {
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.jdbcTemplate.setQueryTimeout((int) Math.max(1, (subtaskTimeoutMillis + 999) / 1000));
+    }
+
+    /**
+     * Cuenta las filas de una tabla.
+     * @param table Nombre de la tabla, uno de `TABLES` (no se concatena ningún otro valor en el SQL)
+     * @return Número de filas
+     */
+    @Override
+    public long countRows(String table) {
+        if (!TABLES.contains(table)) {
+            throw new IllegalArgumentException("Unknown table: " + table);
+        }
+        logger.debug("Counting rows of table {}", table);
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Lista los últimos tickets registrados, con la dirección y la ciudad de su ubicación.
+     * Recorre hacia atrás el índice de la fecha de compra, sin ordenar la tabla.
+     * @param limit Número máximo de tickets
+     * @return Lista de tickets, del más reciente al más antiguo
+     */
+    @Override
+    public List<Ticket> listLatestTickets(int limit) {
+        logger.debug("Listing the latest {} tickets", limit);
+        String sql = "SELECT t.id, t.location_id, t.purchased_at, t.total, l.address, l.city " +
+                "FROM tickets t JOIN locations l ON t.location_id = l.id " +
+                "ORDER BY t.purchased_at DESC, t.id DESC LIMIT ?";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> {
+            Ticket ticket = new Ticket();
+            ticket.setId(rs.getLong(1));
+            Location location = new Location();
+            location.setId(rs.getInt(2));
+            location.setAddress(rs.getString(5));
+            location.setCity(rs.getString(6));
+            ticket.setLocation(location);
+            ticket.setPurchasedAt(rs.getTimestamp(3).toLocalDateTime());
+            ticket.setTotal(rs.getBigDecimal(4));
+            return ticket;
+        }, limit);
+    }
+}
@@ -0,0 +1,22 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Evento que publican los DAO al escribir en una tabla, con los IDs de las filas afectadas.
+ * Igual que `TicketsInsertedEvent`, se publica dentro de la transacción de la escritura (si la hay),
+ * así que los receptores que solo deban ver cambios confirmados lo escuchan con `@TransactionalEventListener`.
+ */
+@Data
+@AllArgsConstructor
+public class DataChangedEvent {
+
+    // Tabla modificada ("regions", "provinces", "supermarkets" o "locations")
+    private String table;
+
+    // IDs de las filas insertadas, actualizadas o eliminadas; vacía si no se conocen
+    private List<Integer> ids;
+}
@@ -0,0 +1,64 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Cursor opaco de la paginación por clave (keyset) de ubicaciones.
+ * Guarda la dirección de avance, el criterio de ordenación y la clave de la
+ * última fila vista (valor de ordenación + id), de modo que la siguiente página se obtiene con un
+ * `WHERE (clave, id) > (?, ?)` sobre el índice en lugar de un `OFFSET`.
+ */
+@Data
+@AllArgsConstructor
+public class LocationCursor {
+
+    // true para avanzar a la página siguiente, false para retroceder a la anterior
+    private boolean forward;
+
+    // Criterio de ordenación con el que se generó el cursor
+    private LocationSort sort;
+
+    // ID de la ubicación que marca el límite de la página
+    private int id;
+
+    // Valor de la columna de ordenación de esa ubicación
+    private String value;
+
+    /**
+     * Codifica el cursor en una cadena segura para URLs.
+     * @return Cursor codificado en Base64 URL
+     */
+    public String encode() {
+        String raw = (forward ? "n" : "p") + "|" + sort.name() + "|" + id + "|" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor recibido en la petición.
+     * @param token Cursor codificado
+     * @return Cursor decodificado, o null si está vacío o mal formado
+     */
+    public static LocationCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 4);
+            if (parts.length != 4 || !(parts[0].equals("n") || parts[0].equals("p"))) {
+                return null;
+            }
+            LocationSort sort = LocationSort.valueOf(parts[1]);
+            if (sort == LocationSort.PROVINCE) {
+                Integer.parseInt(parts[3]);
+            }
+            return new LocationCursor(parts[0].equals("n"), sort, Integer.parseInt(parts[2]), parts[3]);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
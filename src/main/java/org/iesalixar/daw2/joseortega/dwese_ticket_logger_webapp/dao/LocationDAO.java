@@ -1,12 +1,19 @@
 package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao;
 
 import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Location;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
 import java.sql.SQLException;
 import java.util.List;
 
 public interface LocationDAO {
     List<Location> listAllLocations() throws SQLException;
+    LocationPage listLocationsPage(LocationSort sort, String cursor, int size) throws SQLException;
+    List<Location> searchLocations(String query, Integer provinceId, Integer supermarketId, int limit) throws SQLException;
+    void streamLocations(Integer provinceId, Integer supermarketId, RowCallbackHandler handler) throws SQLException;
+    void streamLocationProvinces(List<Integer> ids, RowCallbackHandler handler) throws SQLException;
     void insertLocation(Location location) throws SQLException;
+    void insertLocations(List<Location> locations) throws SQLException;
     void updateLocation(Location location) throws SQLException;
     void deleteLocation(int id) throws SQLException;
     Location getLocationById(int id) throws SQLException;
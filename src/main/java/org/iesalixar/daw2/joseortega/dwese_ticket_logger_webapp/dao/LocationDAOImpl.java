@@ -5,12 +5,31 @@ import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Province;
 import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Supermarket;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 @Repository
 public class LocationDAOImpl implements LocationDAO{
@@ -18,11 +37,42 @@ public class LocationDAOImpl implements LocationDAO{
     // Logger para registrar eventos importantes en el DAO
     private static final Logger logger = LoggerFactory.getLogger(LocationDAOImpl.class);
 
+    // Filas que el driver trae del servidor en cada viaje al recorrer un ResultSet en streaming
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    // Columnas de las consultas de ubicaciones, en el orden que espera LocationRowMapper
+    static final String LOCATION_COLUMNS = "l.id, l.address, l.city, s.id, s.name, p.id, p.code, p.name";
+
+    // Mapeador sin estado, compartido por todas las consultas
+    static final RowMapper<Location> LOCATION_ROW_MAPPER = new LocationRowMapper();
+
     private final JdbcTemplate jdbcTemplate;
 
-    // Inyección de JdbcTemplate
-    public LocationDAOImpl(JdbcTemplate jdbcTemplate) {
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Índice en memoria de la búsqueda por dirección y ciudad; se sustituye entero al recargarlo
+    private volatile LocationSearchIndex searchIndex = new LocationSearchIndex();
+
+    // Protege la sustitución del índice frente a las actualizaciones que llegan mientras se recarga
+    private final ReentrantLock indexLock = new ReentrantLock();
+
+    // Actualizaciones recibidas durante una recarga, para aplicarlas al índice nuevo; null si no se recarga
+    private List<Consumer<LocationSearchIndex>> pendingIndexUpdates;
+
+    // Solo una recarga a la vez
+    private final AtomicBoolean reloading = new AtomicBoolean();
+
+    private volatile long indexLoadedAt = System.nanoTime();
+
+    // Cada cuánto se recarga el índice desde la base de datos (0 = nunca)
+    private final long indexReloadNanos;
+
+    // Inyección de JdbcTemplate y del publicador de eventos
+    public LocationDAOImpl(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher,
+                           @Value("${app.locations.search-index-reload-ms:300000}") long indexReloadMillis) {
         this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.indexReloadNanos = TimeUnit.MILLISECONDS.toNanos(indexReloadMillis);
     }
 
     /**
@@ -32,15 +82,254 @@ public class LocationDAOImpl implements LocationDAO{
 
     @Override
     public List<Location> listAllLocations() {
-        logger.info("Listing all locations from the database.");
-        String sql = "SELECT l.*,p.id AS province_id, p.code AS province_code, p.name AS province_name, s.id AS supermarket_id," +
-                "s.name AS supermarket_name FROM locations l JOIN provinces p ON l.province_id =p.id " +
+        logger.debug("Listing all locations from the database.");
+        String sql = "SELECT " + LOCATION_COLUMNS + " FROM locations l JOIN provinces p ON l.province_id = p.id " +
                 "JOIN supermarkets s ON l.supermarket_id = s.id";
-        List<Location> locations = jdbcTemplate.query(sql, new LocationDAOImpl.LocationRowMapper());
-        logger.info("Retrieved {} locations from the database.", locations.size());
+        List<Location> locations = jdbcTemplate.query(sql, LOCATION_ROW_MAPPER);
+        logger.debug("Retrieved {} locations from the database.", locations.size());
+        return locations;
+    }
+
+    /**
+     * Lista una página de ubicaciones usando paginación por clave (keyset).
+     * En lugar de `OFFSET`, filtra por la clave de la última fila vista, de forma que
+     * la consulta recorre solo `size + 1` entradas del índice sea cual sea la página.
+     * @param sort Criterio de ordenación
+     * @param cursor Cursor recibido de una página anterior, o null para la primera página
+     * @param size Número de ubicaciones por página
+     * @return Página de ubicaciones con los cursores de navegación
+     */
+    @Override
+    public LocationPage listLocationsPage(LocationSort sort, String cursor, int size) {
+        logger.debug("Listing page of locations sorted by {} with size {}", sort, size);
+        LocationCursor position = LocationCursor.decode(cursor);
+        if (position != null && position.getSort() != sort) {
+            // Un cursor generado con otro criterio de ordenación no sirve: se vuelve a la primera página
+            position = null;
+        }
+        boolean forward = position == null || position.isForward();
+        String column = sort.getColumn();
+        String direction = forward ? "ASC" : "DESC";
+        String comparator = forward ? ">" : "<";
+
+        // La página se calcula solo sobre `locations` en una subconsulta y después se une con provincias y
+        // supermercados: con el JOIN directo, MariaDB puede empezar por `provinces` (la tabla más pequeña)
+        // y ordenar todas las ubicaciones en una tabla temporal antes de aplicar el LIMIT.
+        StringBuilder sql = new StringBuilder("SELECT " + LOCATION_COLUMNS + " FROM (" +
+                "SELECT l.id, l.address, l.city, l.province_id, l.supermarket_id FROM locations l");
+        List<Object> params = new ArrayList<>();
+        if (position != null) {
+            if (sort == LocationSort.ID) {
+                sql.append(" WHERE l.id ").append(comparator).append(" ?");
+                params.add(position.getId());
+            } else {
+                Object value = sort == LocationSort.PROVINCE ? Integer.valueOf(position.getValue()) : position.getValue();
+                sql.append(" WHERE (").append(column).append(' ').append(comparator).append(" ? OR (")
+                        .append(column).append(" = ? AND l.id ").append(comparator).append(" ?))");
+                params.add(value);
+                params.add(value);
+                params.add(position.getId());
+            }
+        }
+        String orderBy = sort == LocationSort.ID
+                ? " ORDER BY l.id " + direction
+                : " ORDER BY " + column + " " + direction + ", l.id " + direction;
+        sql.append(orderBy).append(" LIMIT ?) l ")
+                .append("JOIN provinces p ON l.province_id = p.id JOIN supermarkets s ON l.supermarket_id = s.id")
+                .append(orderBy);
+        params.add(size + 1);
+
+        List<Location> locations = jdbcTemplate.query(sql.toString(), LOCATION_ROW_MAPPER, params.toArray());
+
+        // Se pide una fila de más para saber si hay otra página en la dirección de avance
+        boolean hasMore = locations.size() > size;
+        if (hasMore) {
+            locations.remove(locations.size() - 1);
+        }
+        if (!forward) {
+            Collections.reverse(locations);
+        }
+
+        String nextCursor = null;
+        String prevCursor = null;
+        if (!locations.isEmpty()) {
+            Location first = locations.get(0);
+            Location last = locations.get(locations.size() - 1);
+            if (forward ? hasMore : position != null) {
+                nextCursor = new LocationCursor(true, sort, last.getId(), sort.keyOf(last)).encode();
+            }
+            if (forward ? position != null : hasMore) {
+                prevCursor = new LocationCursor(false, sort, first.getId(), sort.keyOf(first)).encode();
+            }
+        }
+        logger.debug("Retrieved {} locations for the requested page.", locations.size());
+        return new LocationPage(locations, nextCursor, prevCursor, sort, size);
+    }
+
+    /**
+     * Busca ubicaciones por dirección y ciudad, opcionalmente filtradas por provincia y/o supermercado.
+     * Cada palabra del texto se busca como prefijo de alguna palabra de la dirección o la ciudad, sin
+     * distinguir mayúsculas ni acentos. La búsqueda se resuelve en el índice en memoria
+     * (`LocationSearchIndex`) y de la base de datos solo se leen las filas encontradas, por clave primaria.
+     * Si el índice tiene más de `app.locations.search-index-reload-ms`, esta búsqueda lo usa tal cual y se
+     * lanza su recarga en segundo plano.
+     * Sin texto, se listan las ubicaciones de los filtros indicados.
+     * @param query Texto de búsqueda, o null
+     * @param provinceId ID de la provincia por la que filtrar, o null
+     * @param supermarketId ID del supermercado por el que filtrar, o null
+     * @param limit Número máximo de ubicaciones devueltas
+     * @return Ubicaciones encontradas, en orden de ID
+     */
+    @Override
+    public List<Location> searchLocations(String query, Integer provinceId, Integer supermarketId, int limit) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Searching locations for '{}' (province: {}, supermarket: {})", query, provinceId, supermarketId);
+        }
+        if (indexReloadNanos > 0 && System.nanoTime() - indexLoadedAt > indexReloadNanos
+                && reloading.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("location-index-reload").start(() -> {
+                try {
+                    loadSearchIndex();
+                } catch (RuntimeException e) {
+                    logger.warn("Location search index could not be reloaded: {}", e.getMessage());
+                } finally {
+                    reloading.set(false);
+                }
+            });
+        }
+        int[] ids = searchIndex.search(query, provinceId, supermarketId, limit);
+        if (ids.length == 0) {
+            return new ArrayList<>();
+        }
+        StringBuilder sql = new StringBuilder("SELECT " + LOCATION_COLUMNS + " FROM locations l " +
+                "JOIN provinces p ON l.province_id = p.id JOIN supermarkets s ON l.supermarket_id = s.id WHERE l.id IN (");
+        Object[] params = new Object[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+            params[i] = ids[i];
+        }
+        sql.append(") ORDER BY l.id");
+        List<Location> locations = jdbcTemplate.query(sql.toString(), LOCATION_ROW_MAPPER, params);
+        logger.debug("Found {} locations.", locations.size());
         return locations;
     }
 
+    /**
+     * Carga el índice de búsqueda con todas las ubicaciones al arrancar la aplicación, y lo recarga
+     * cuando caduca (ver `searchLocations`).
+     * El índice se construye aparte y se publica al terminar, de modo que las búsquedas
+     * nunca ven un índice a medio cargar. Las escrituras confirmadas durante la carga se aplican al índice
+     * en uso y se guardan; antes de publicar el nuevo se le aplican en el mismo orden, así que no se pierde
+     * ninguna aunque la consulta ya hubiera leído la fila con su valor anterior.
+     * El índice es de cada instancia: las escrituras hechas en otra instancia se ven aquí al recargarlo,
+     * como mucho `app.locations.search-index-reload-ms` después.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadSearchIndex() {
+        long start = System.nanoTime();
+        LocationSearchIndex index = new LocationSearchIndex();
+        indexLock.lock();
+        try {
+            pendingIndexUpdates = new ArrayList<>();
+        } finally {
+            indexLock.unlock();
+        }
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(
+                        "SELECT id, address, city, province_id, supermarket_id FROM locations",
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(STREAM_FETCH_SIZE);
+                return ps;
+            }, (RowCallbackHandler) rs -> index.put(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getInt(4), rs.getInt(5)));
+        } catch (RuntimeException e) {
+            indexLock.lock();
+            try {
+                pendingIndexUpdates = null;
+            } finally {
+                indexLock.unlock();
+            }
+            throw e;
+        }
+        int replayed;
+        indexLock.lock();
+        try {
+            replayed = pendingIndexUpdates.size();
+            pendingIndexUpdates.forEach(update -> update.accept(index));
+            pendingIndexUpdates = null;
+            searchIndex = index;
+            indexLoadedAt = System.nanoTime();
+        } finally {
+            indexLock.unlock();
+        }
+        logger.info("Location search index loaded with {} locations in {} ms ({} updates replayed).", index.size(),
+                (System.nanoTime() - start) / 1_000_000, replayed);
+    }
+
+    /**
+     * Recorre las ubicaciones en streaming, opcionalmente filtradas por provincia y/o supermercado.
+     * Usa un `ResultSet` de solo avance y solo lectura con un fetch size positivo, de modo que
+     * el driver trae las filas por bloques y cada fila se entrega al `handler` sin acumularlas.
+     * Columnas, por posición: id, address, city, supermarket_id, supermarket_name,
+     * province_id, province_code, province_name.
+     * @param provinceId ID de la provincia por la que filtrar, o null
+     * @param supermarketId ID del supermercado por el que filtrar, o null
+     * @param handler Callback que procesa cada fila
+     */
+    @Override
+    public void streamLocations(Integer provinceId, Integer supermarketId, RowCallbackHandler handler) {
+        logger.debug("Streaming locations (province: {}, supermarket: {})", provinceId, supermarketId);
+        StringBuilder sql = new StringBuilder("SELECT " + LOCATION_COLUMNS + " " +
+                "FROM locations l JOIN provinces p ON l.province_id = p.id JOIN supermarkets s ON l.supermarket_id = s.id");
+        List<Object> params = new ArrayList<>();
+        if (provinceId != null) {
+            sql.append(params.isEmpty() ? " WHERE" : " AND").append(" l.province_id = ?");
+            params.add(provinceId);
+        }
+        if (supermarketId != null) {
+            sql.append(params.isEmpty() ? " WHERE" : " AND").append(" l.supermarket_id = ?");
+            params.add(supermarketId);
+        }
+        sql.append(" ORDER BY l.id");
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            return ps;
+        }, handler);
+        logger.debug("Finished streaming locations.");
+    }
+
+    /**
+     * Recorre el ID y la provincia de las ubicaciones, sin unir otras tablas, en orden de ID.
+     * Columnas, por posición: id, province_id.
+     * @param ids IDs de las ubicaciones a recorrer, o null para recorrer todas
+     * @param handler Callback que procesa cada fila
+     */
+    @Override
+    public void streamLocationProvinces(List<Integer> ids, RowCallbackHandler handler) {
+        if (ids != null && ids.isEmpty()) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder("SELECT id, province_id FROM locations");
+        if (ids != null) {
+            sql.append(" WHERE id IN (").append(String.join(", ", Collections.nCopies(ids.size(), "?"))).append(")");
+        }
+        sql.append(" ORDER BY id");
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            for (int i = 0; ids != null && i < ids.size(); i++) {
+                ps.setInt(i + 1, ids.get(i));
+            }
+            return ps;
+        }, handler);
+    }
+
     /**
      * Inserta una nueva Ubicacion en la base de datos.
      * @param location Ubicacion a insertar
@@ -49,11 +338,67 @@ public class LocationDAOImpl implements LocationDAO{
     public void insertLocation(Location location) {
         logger.info("Inserting location with address: {} and city: {}", location.getAddress(), location.getCity());
         String sql = "INSERT INTO locations (address,city,supermarket_id,province_id) VALUES (?, ?, ?,?)";
-        int rowsAffected = jdbcTemplate.update(sql, location.getAddress(),location.getCity(),location.getSupermarket().getId(),
-                location.getProvince().getId());
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        int rowsAffected = jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            ps.setString(1, location.getAddress());
+            ps.setString(2, location.getCity());
+            ps.setInt(3, location.getSupermarket().getId());
+            ps.setInt(4, location.getProvince().getId());
+            return ps;
+        }, keyHolder);
+        location.setId(keyHolder.getKey().intValue());
+        indexAfterCommit(List.of(location));
+        eventPublisher.publishEvent(new DataChangedEvent("locations", List.of(location.getId())));
         logger.info("Inserted location. Rows affected: {}", rowsAffected);
     }
 
+    /**
+     * Inserta un lote de ubicaciones con una única operación por lotes (batch) de JDBC.
+     * No se piden las claves generadas: con `RETURN_GENERATED_KEYS` el driver de MariaDB no puede
+     * enviar el lote como una sola operación bulk (`useBulkStmts`) y lo manda fila a fila. Los IDs se
+     * leen después en la misma transacción: su instantánea empieza con la lectura del ID máximo, así que
+     * las únicas filas visibles con un ID mayor son las del lote, y en orden de ID salen en el de inserción.
+     * @param locations Ubicaciones a insertar
+     */
+    @Override
+    @Transactional
+    public void insertLocations(List<Location> locations) {
+        logger.info("Inserting batch of {} locations", locations.size());
+        Integer lastId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM locations", Integer.class);
+        String sql = "INSERT INTO locations (address,city,supermarket_id,province_id) VALUES (?, ?, ?,?)";
+        int[] rowsAffected = jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Location location = locations.get(i);
+                ps.setString(1, location.getAddress());
+                ps.setString(2, location.getCity());
+                ps.setInt(3, location.getSupermarket().getId());
+                ps.setInt(4, location.getProvince().getId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return locations.size();
+            }
+        });
+        List<Integer> ids = jdbcTemplate.queryForList("SELECT id FROM locations WHERE id > ? ORDER BY id LIMIT ?",
+                Integer.class, lastId, locations.size());
+        if (ids.size() == locations.size()) {
+            for (int i = 0; i < locations.size(); i++) {
+                locations.get(i).setId(ids.get(i));
+            }
+            indexAfterCommit(locations);
+        } else {
+            // Solo con un aislamiento más débil que REPEATABLE READ: se recarga el índice entero
+            logger.warn("Could not match {} inserted locations to their ids; reloading the search index", locations.size());
+            ids = List.of();
+            afterCommit(this::loadSearchIndex);
+        }
+        eventPublisher.publishEvent(new DataChangedEvent("locations", ids));
+        logger.info("Inserted batch of locations. Statements executed: {}", rowsAffected.length);
+    }
+
     /**
      * Actualiza una ubicacion existente en la base de datos.
      * @param location Ubicacion a actualizar
@@ -64,6 +409,10 @@ public class LocationDAOImpl implements LocationDAO{
         String sql = "UPDATE locations SET address = ?, city = ?, supermarket_id = ?, province_id = ?  WHERE id = ?";
         int rowsAffected = jdbcTemplate.update(sql, location.getAddress(), location.getCity(),
                 location.getSupermarket().getId(),location.getProvince().getId() ,location.getId());
+        if (rowsAffected > 0) {
+            indexAfterCommit(List.of(location));
+            eventPublisher.publishEvent(new DataChangedEvent("locations", List.of(location.getId())));
+        }
         logger.info("Updated location. Rows affected: {}", rowsAffected);
     }
 
@@ -76,9 +425,61 @@ public class LocationDAOImpl implements LocationDAO{
         logger.info("Deleting location with id: {}", id);
         String sql = "DELETE FROM locations WHERE id = ?";
         int rowsAffected = jdbcTemplate.update(sql, id);
+        afterCommit(() -> updateIndex(index -> index.remove(id)));
+        eventPublisher.publishEvent(new DataChangedEvent("locations", List.of(id)));
         logger.info("Deleted location. Rows affected: {}", rowsAffected);
     }
 
+    /**
+     * Actualiza el índice de búsqueda con las ubicaciones escritas, tomando sus valores actuales.
+     */
+    private void indexAfterCommit(List<Location> locations) {
+        int[][] rows = new int[locations.size()][];
+        String[][] texts = new String[locations.size()][];
+        for (int i = 0; i < rows.length; i++) {
+            Location location = locations.get(i);
+            rows[i] = new int[] {location.getId(), location.getProvince().getId(), location.getSupermarket().getId()};
+            texts[i] = new String[] {location.getAddress(), location.getCity()};
+        }
+        afterCommit(() -> updateIndex(index -> {
+            for (int i = 0; i < rows.length; i++) {
+                index.put(rows[i][0], texts[i][0], texts[i][1], rows[i][1], rows[i][2]);
+            }
+        }));
+    }
+
+    /**
+     * Aplica una actualización al índice en uso y, si se está recargando, la guarda para el nuevo.
+     */
+    private void updateIndex(Consumer<LocationSearchIndex> update) {
+        indexLock.lock();
+        try {
+            update.accept(searchIndex);
+            if (pendingIndexUpdates != null) {
+                pendingIndexUpdates.add(update);
+            }
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    /**
+     * Ejecuta la acción cuando se confirme la transacción en curso, o en el momento si no hay
+     * ninguna, para que el índice de búsqueda no refleje escrituras que luego se deshacen.
+     */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
     /**
      * Obtiene una provincia por su ID.
      * @param id ID de la provincia
@@ -86,16 +487,15 @@ public class LocationDAOImpl implements LocationDAO{
      */
     @Override
     public Location getLocationById(int id) {
-        logger.info("Retrieving location by id: {}", id);
-        String sql = "SELECT l.*,p.id AS province_id ,p.code AS province_code, p.name AS province_name, " +
-                "s.id AS supermarket_id, s.name AS supermarket_name " +
+        logger.debug("Retrieving location by id: {}", id);
+        String sql = "SELECT " + LOCATION_COLUMNS + " " +
                 "FROM locations l " +
                 "JOIN provinces p ON l.province_id= p.id " +
                 "JOIN supermarkets s ON l.supermarket_id=s.id "+
                 "WHERE l.id = ?";
         try {
-            Location location = jdbcTemplate.queryForObject(sql, new LocationRowMapper(), id);
-            logger.info("Location retrieved: {} - {}",location.getAddress(),location.getCity());
+            Location location = jdbcTemplate.queryForObject(sql, LOCATION_ROW_MAPPER, id);
+            logger.debug("Location retrieved: {} - {}",location.getAddress(),location.getCity());
             return location;
         } catch (Exception e) {
             logger.warn("No location found with id: {}", id);
@@ -106,24 +506,26 @@ public class LocationDAOImpl implements LocationDAO{
 
     /**
      * Clase interna que implementa RowMapper para mapear los resultados de la consulta SQL a la entidad Location.
+     * Lee las columnas por posición, en el orden de `LOCATION_COLUMNS`, en lugar de buscarlas
+     * por nombre en cada fila.
      */
-    private static class LocationRowMapper implements RowMapper<Location> {
+    static class LocationRowMapper implements RowMapper<Location> {
         @Override
         public Location mapRow(ResultSet rs, int rowNum) throws SQLException {
             Location location = new Location();
-            location.setId(rs.getInt("id"));
-            location.setAddress(rs.getString("address"));
-            location.setCity(rs.getString("city"));
+            location.setId(rs.getInt(1));
+            location.setAddress(rs.getString(2));
+            location.setCity(rs.getString(3));
 
-            Supermarket supermarket= new Supermarket();
-            supermarket.setId(rs.getInt("supermarket_id"));
-            supermarket.setName(rs.getString("supermarket_name"));
+            Supermarket supermarket = new Supermarket();
+            supermarket.setId(rs.getInt(4));
+            supermarket.setName(rs.getString(5));
             location.setSupermarket(supermarket);
 
-            Province province=new Province();
-            province.setId(rs.getInt("province_id"));
-            province.setCode(rs.getString("province_code"));
-            province.setName(rs.getString("province_name"));
+            Province province = new Province();
+            province.setId(rs.getInt(6));
+            province.setCode(rs.getString(7));
+            province.setName(rs.getString(8));
             location.setProvince(province);
 
             return location;
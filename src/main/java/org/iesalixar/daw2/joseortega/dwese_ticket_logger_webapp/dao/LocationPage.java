@@ -0,0 +1,34 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Location;
+
+import java.util.List;
+
+/**
+ * Página de ubicaciones devuelta por `LocationDAO.listLocationsPage`.
+ * Contiene las filas de la página y los cursores para navegar a la página
+ * siguiente y a la anterior (null cuando no existen).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationPage {
+
+    // Ubicaciones de la página, en el orden solicitado
+    private List<Location> locations;
+
+    // Cursor de la página siguiente, o null si es la última
+    private String nextCursor;
+
+    // Cursor de la página anterior, o null si es la primera
+    private String prevCursor;
+
+    // Criterio de ordenación aplicado
+    private LocationSort sort;
+
+    // Tamaño de página solicitado
+    private int size;
+}
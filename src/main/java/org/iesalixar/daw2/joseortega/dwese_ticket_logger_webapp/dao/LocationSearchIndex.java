@@ -0,0 +1,351 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice en memoria para la búsqueda de ubicaciones por prefijos de palabra de la dirección y la ciudad.
+ * Las palabras se normalizan (minúsculas y sin acentos) y cada una guarda la lista ordenada de los IDs
+ * de las ubicaciones que la contienen; un término de búsqueda es un prefijo, así que "call may" encuentra
+ * "Calle Mayor" y "avila" encuentra "Ávila".
+ * Para cada ubicación se guardan además sus palabras, su provincia y su supermercado en arrays indexados
+ * por ID, de modo que el resto de términos y los filtros se comprueban sin acceder a la base de datos.
+ * La búsqueda recorre la lista del término más selectivo (o todas las ubicaciones en orden de ID, si
+ * ningún término es selectivo) y se detiene al reunir `limit` resultados.
+ * Un término de al menos 4 letras que no es prefijo de ninguna palabra se busca con erratas: vale cualquier
+ * palabra con un prefijo a 1 edición (2 desde 8 letras) de distancia, contando como edición insertar,
+ * borrar, cambiar o intercambiar dos letras seguidas, así que "mayr" encuentra "Mayor" y "sveilla", "Sevilla".
+ * Esa comparación recorre el diccionario de palabras, y solo se hace cuando no hay ninguna coincidencia exacta.
+ * Lo mantiene `LocationDAOImpl`: se carga al arrancar y se actualiza tras cada escritura confirmada.
+ */
+class LocationSearchIndex {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private static final String[] NO_TOKENS = new String[0];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Palabra -> IDs de las ubicaciones que la contienen, en orden ascendente
+    private final TreeMap<String, IdList> postings = new TreeMap<>();
+
+    // Por ID de ubicación: palabras (null si no existe), provincia y supermercado
+    private String[][] tokens = new String[1024][];
+
+    private int[] provinces = new int[1024];
+
+    private int[] supermarkets = new int[1024];
+
+    private int maxId;
+
+    private int size;
+
+    /**
+     * Añade o sustituye una ubicación.
+     */
+    void put(int id, String address, String city, int provinceId, int supermarketId) {
+        lock.writeLock().lock();
+        try {
+            removeTokens(id);
+            ensureCapacity(id);
+            Set<String> words = new LinkedHashSet<>();
+            words.addAll(Arrays.asList(tokenize(address)));
+            words.addAll(Arrays.asList(tokenize(city)));
+            String[] rowTokens = new String[words.size()];
+            int i = 0;
+            for (String word : words) {
+                // Se reutiliza la instancia de la clave del diccionario para no duplicar cadenas
+                String key = postings.ceilingKey(word);
+                String token = word.equals(key) ? key : word;
+                postings.computeIfAbsent(token, t -> new IdList()).add(id);
+                rowTokens[i++] = token;
+            }
+            tokens[id] = rowTokens;
+            provinces[id] = provinceId;
+            supermarkets[id] = supermarketId;
+            size++;
+            maxId = Math.max(maxId, id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Elimina una ubicación (no hace nada si no está en el índice).
+     */
+    void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            removeTokens(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Número de ubicaciones indexadas.
+     */
+    int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Busca las ubicaciones que contienen todos los términos como prefijo de alguna palabra (o, si un
+     * término no es prefijo de ninguna, una palabra parecida) y cumplen los filtros.
+     * @param query Texto de búsqueda; sin términos, se aplican solo los filtros
+     * @param provinceId ID de la provincia, o null
+     * @param supermarketId ID del supermercado, o null
+     * @param limit Número máximo de resultados
+     * @return IDs encontrados, en orden ascendente
+     */
+    int[] search(String query, Integer provinceId, Integer supermarketId, int limit) {
+        String[] terms = tokenize(query);
+        // Por término: palabras aceptadas si se busca con erratas, o null si se busca como prefijo
+        @SuppressWarnings("unchecked")
+        Set<String>[] fuzzy = new Set[terms.length];
+        int province = provinceId == null ? 0 : provinceId;
+        int supermarket = supermarketId == null ? 0 : supermarketId;
+        int[] found = new int[limit];
+        int count = 0;
+        lock.readLock().lock();
+        try {
+            // Término más selectivo: el de menos IDs sumando las palabras que empiezan por él
+            List<IdList> driver = null;
+            long driverSize = Long.MAX_VALUE;
+            for (int t = 0; t < terms.length; t++) {
+                List<IdList> lists = new ArrayList<>(prefixRange(terms[t]).values());
+                if (lists.isEmpty()) {
+                    fuzzy[t] = similarWords(terms[t]);
+                    fuzzy[t].forEach(word -> lists.add(postings.get(word)));
+                }
+                long total = 0;
+                for (IdList list : lists) {
+                    total += list.size;
+                }
+                if (total == 0) {
+                    return new int[0];
+                }
+                if (total < driverSize) {
+                    driver = lists;
+                    driverSize = total;
+                }
+            }
+            if (driver != null && driverSize * 8 < size) {
+                int[] candidates = union(driver);
+                for (int i = 0; i < candidates.length && count < limit; i++) {
+                    if (matches(candidates[i], terms, fuzzy, province, supermarket)) {
+                        found[count++] = candidates[i];
+                    }
+                }
+            } else {
+                // Ningún término es selectivo: recorrer en orden de ID encuentra pronto los resultados
+                for (int id = 1; id <= maxId && count < limit; id++) {
+                    if (tokens[id] != null && matches(id, terms, fuzzy, province, supermarket)) {
+                        found[count++] = id;
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Divide un texto en palabras normalizadas: minúsculas y sin acentos.
+     */
+    static String[] tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return NO_TOKENS;
+        }
+        String normalized = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return SEPARATORS.splitAsStream(normalized).filter(word -> !word.isEmpty()).distinct().toArray(String[]::new);
+    }
+
+    private SortedMap<String, IdList> prefixRange(String term) {
+        return postings.subMap(term, term + Character.MAX_VALUE);
+    }
+
+    /**
+     * Palabras del diccionario con un prefijo a no más de `maxEdits(term)` ediciones del término.
+     */
+    private Set<String> similarWords(String term) {
+        int maxEdits = maxEdits(term);
+        Set<String> words = new LinkedHashSet<>();
+        if (maxEdits == 0) {
+            return words;
+        }
+        for (String word : postings.keySet()) {
+            if (word.length() >= term.length() - maxEdits && prefixDistance(term, word, maxEdits) <= maxEdits) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    static int maxEdits(String term) {
+        return term.length() >= 8 ? 2 : term.length() >= 4 ? 1 : 0;
+    }
+
+    /**
+     * Menor distancia de edición (Damerau-Levenshtein restringida) entre el término y un prefijo de la
+     * palabra: la última fila de la tabla da la distancia a cada prefijo. Deja de calcular, y devuelve
+     * `max + 1`, en cuanto ninguna celda de una fila puede quedar dentro de `max`.
+     */
+    static int prefixDistance(String term, String word, int max) {
+        int n = word.length();
+        int[] previous2 = new int[n + 1];
+        int[] previous = new int[n + 1];
+        int[] current = new int[n + 1];
+        for (int j = 0; j <= n; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= term.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= n; j++) {
+                int cost = term.charAt(i - 1) == word.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && term.charAt(i - 1) == word.charAt(j - 2) && term.charAt(i - 2) == word.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        int best = max + 1;
+        for (int j = 0; j <= n; j++) {
+            best = Math.min(best, previous[j]);
+        }
+        return best;
+    }
+
+    private boolean matches(int id, String[] terms, Set<String>[] fuzzy, int province, int supermarket) {
+        if ((province != 0 && provinces[id] != province) || (supermarket != 0 && supermarkets[id] != supermarket)) {
+            return false;
+        }
+        for (int t = 0; t < terms.length; t++) {
+            boolean any = false;
+            for (String token : tokens[id]) {
+                if (fuzzy[t] == null ? token.startsWith(terms[t]) : fuzzy[t].contains(token)) {
+                    any = true;
+                    break;
+                }
+            }
+            if (!any) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * IDs de varias listas, ordenados y sin repetir.
+     */
+    private static int[] union(List<IdList> lists) {
+        if (lists.size() == 1) {
+            IdList list = lists.get(0);
+            return Arrays.copyOf(list.ids, list.size);
+        }
+        int total = 0;
+        for (IdList list : lists) {
+            total += list.size;
+        }
+        int[] ids = new int[total];
+        int offset = 0;
+        for (IdList list : lists) {
+            System.arraycopy(list.ids, 0, ids, offset, list.size);
+            offset += list.size;
+        }
+        Arrays.sort(ids);
+        int distinct = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (i == 0 || ids[i] != ids[i - 1]) {
+                ids[distinct++] = ids[i];
+            }
+        }
+        return Arrays.copyOf(ids, distinct);
+    }
+
+    private void removeTokens(int id) {
+        if (id >= tokens.length || tokens[id] == null) {
+            return;
+        }
+        for (String token : tokens[id]) {
+            IdList list = postings.get(token);
+            list.remove(id);
+            if (list.size == 0) {
+                postings.remove(token);
+            }
+        }
+        tokens[id] = null;
+        size--;
+    }
+
+    private void ensureCapacity(int id) {
+        if (id >= tokens.length) {
+            int capacity = Math.max(id + 1, tokens.length * 2);
+            tokens = Arrays.copyOf(tokens, capacity);
+            provinces = Arrays.copyOf(provinces, capacity);
+            supermarkets = Arrays.copyOf(supermarkets, capacity);
+        }
+    }
+
+    /**
+     * Lista ordenada de IDs sobre un array que crece según se necesita. Los IDs nuevos
+     * (autoincrementales) se añaden al final.
+     */
+    private static final class IdList {
+
+        private int[] ids = new int[4];
+
+        private int size;
+
+        void add(int id) {
+            int index = size == 0 || ids[size - 1] < id ? size : Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0 && index < size) {
+                return;
+            }
+            int insertion = index >= 0 ? index : -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, insertion, ids, insertion + 1, size - insertion);
+            ids[insertion] = id;
+            size++;
+        }
+
+        void remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+                size--;
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao;
+
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Location;
+
+/**
+ * Criterios de ordenación admitidos por el listado paginado de ubicaciones.
+ * Cada criterio indica la columna por la que se ordena; el `id` de la ubicación
+ * se usa siempre como desempate para que el orden sea total y la paginación por
+ * clave (keyset) no repita ni salte filas.
+ */
+public enum LocationSort {
+
+    // Orden por clave primaria.
+    ID("l.id"),
+
+    // Orden por ciudad, apoyado en el índice (city, id).
+    CITY("l.city"),
+
+    // Orden por provincia, apoyado en el índice de la clave ajena province_id.
+    PROVINCE("l.province_id");
+
+    private final String column;
+
+    LocationSort(String column) {
+        this.column = column;
+    }
+
+    /**
+     * Columna SQL por la que se ordena.
+     * @return Nombre cualificado de la columna
+     */
+    public String getColumn() {
+        return column;
+    }
+
+    /**
+     * Obtiene el valor de la clave de ordenación de una ubicación, tal y como se guarda en el cursor.
+     * @param location Ubicación de la que se extrae la clave
+     * @return Valor de la clave, vacío cuando se ordena por ID
+     */
+    public String keyOf(Location location) {
+        return switch (this) {
+            case ID -> "";
+            case CITY -> location.getCity();
+            case PROVINCE -> String.valueOf(location.getProvince().getId());
+        };
+    }
+
+    /**
+     * Convierte el parámetro de la petición en un criterio de ordenación.
+     * @param value Valor recibido (id, city o province)
+     * @return Criterio correspondiente, o ID si el valor no es válido
+     */
+    public static LocationSort fromParam(String value) {
+        if (value != null) {
+            for (LocationSort sort : values()) {
+                if (sort.name().equalsIgnoreCase(value)) {
+                    return sort;
+                }
+            }
+        }
+        return ID;
+    }
+}
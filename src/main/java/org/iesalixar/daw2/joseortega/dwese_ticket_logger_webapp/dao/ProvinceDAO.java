@@ -6,10 +6,10 @@ import java.util.List;
 
 public interface ProvinceDAO {
     List<Province> listAllProvinces() throws SQLException;
+    List<Province> listAllProvincesUncached() throws SQLException;
     void insertProvince(Province province) throws SQLException;
-    boolean existsProvinceByCode(String code) throws SQLException;
+    void insertProvinces(List<Province> provinces) throws SQLException;
     void updateProvince(Province province) throws SQLException;
-    boolean existsProvinceByCodeAndNotId(String code, int id) throws SQLException;
     void deleteProvince(int id) throws SQLException;
     Province getProvinceById(int id) throws SQLException;
 }
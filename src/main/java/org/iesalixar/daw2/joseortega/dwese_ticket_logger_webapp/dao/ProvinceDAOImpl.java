@@ -4,6 +4,9 @@ import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Province;
 import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Region;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
@@ -18,48 +21,90 @@ public class ProvinceDAOImpl implements ProvinceDAO {
     // Logger para registrar eventos importantes en el DAO
     private static final Logger logger = LoggerFactory.getLogger(ProvinceDAOImpl.class);
 
+    // Columnas de las consultas de provincias, en el orden que espera ProvinceRowMapper
+    static final String PROVINCE_COLUMNS = "p.id, p.code, p.name, r.id, r.code, r.name";
+
+    // Mapeador sin estado, compartido por todas las consultas
+    static final RowMapper<Province> PROVINCE_ROW_MAPPER = new ProvinceRowMapper();
+
     private final JdbcTemplate jdbcTemplate;
 
-    // Inyección de JdbcTemplate
-    public ProvinceDAOImpl(JdbcTemplate jdbcTemplate) {
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Inyección de JdbcTemplate y del publicador de eventos
+    public ProvinceDAOImpl(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
         this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
      * Lista todas las provincias de la base de datos.
+     * El resultado se guarda en la caché `provinces` como una lista inmutable.
      * @return Lista de provincias
      */
+    @Cacheable(value = "provinces", key = "'all'")
     @Override
     public List<Province> listAllProvinces() {
-        logger.info("Listing all provinces from the database.");
-        String sql = "SELECT p.*, r.id AS region_id, r.code AS region_code, r.name AS region_name " +
-                "FROM provinces p JOIN regions r ON p.id_region = r.id";
-        List<Province> provinces = jdbcTemplate.query(sql, new ProvinceRowMapper());
-        logger.info("Retrieved {} provinces from the database.", provinces.size());
-        return provinces;
+        return listAllProvincesUncached();
+    }
+
+    /**
+     * Lista todas las provincias leyéndolas siempre de la base de datos, sin pasar por la caché `provinces`.
+     * La usan quienes reaccionan a un `DataChangedEvent`, que puede llegar antes de que se invalide la caché.
+     * @return Lista de provincias
+     */
+    @Override
+    public List<Province> listAllProvincesUncached() {
+        logger.debug("Listing all provinces from the database.");
+        String sql = "SELECT " + PROVINCE_COLUMNS + " FROM provinces p JOIN regions r ON p.id_region = r.id";
+        List<Province> provinces = jdbcTemplate.query(sql, PROVINCE_ROW_MAPPER);
+        logger.debug("Retrieved {} provinces from the database.", provinces.size());
+        return List.copyOf(provinces);
     }
 
     /**
      * Inserta una nueva provincia en la base de datos.
      * @param province Provincia a insertar
      */
+    @CacheEvict(value = "provinces", allEntries = true)
     @Override
     public void insertProvince(Province province) {
         logger.info("Inserting province with code: {} and name: {}", province.getCode(), province.getName());
         String sql = "INSERT INTO provinces (code, name, id_region) VALUES (?, ?, ?)";
         int rowsAffected = jdbcTemplate.update(sql, province.getCode(), province.getName(), province.getRegion().getId());
+        eventPublisher.publishEvent(new DataChangedEvent("provinces", List.of()));
         logger.info("Inserted province. Rows affected: {}", rowsAffected);
     }
 
+    /**
+     * Inserta un lote de provincias con una única operación por lotes (batch) de JDBC.
+     * @param provinces Provincias a insertar
+     */
+    @CacheEvict(value = "provinces", allEntries = true)
+    @Override
+    public void insertProvinces(List<Province> provinces) {
+        logger.info("Inserting batch of {} provinces", provinces.size());
+        String sql = "INSERT INTO provinces (code, name, id_region) VALUES (?, ?, ?)";
+        int[][] rowsAffected = jdbcTemplate.batchUpdate(sql, provinces, provinces.size(), (ps, province) -> {
+            ps.setString(1, province.getCode());
+            ps.setString(2, province.getName());
+            ps.setInt(3, province.getRegion().getId());
+        });
+        eventPublisher.publishEvent(new DataChangedEvent("provinces", List.of()));
+        logger.info("Inserted batch of provinces. Batches executed: {}", rowsAffected.length);
+    }
+
     /**
      * Actualiza una provincia existente en la base de datos.
      * @param province Provincia a actualizar
      */
+    @CacheEvict(value = "provinces", allEntries = true)
     @Override
     public void updateProvince(Province province) {
         logger.info("Updating province with id: {}", province.getId());
         String sql = "UPDATE provinces SET code = ?, name = ?, id_region = ? WHERE id = ?";
         int rowsAffected = jdbcTemplate.update(sql, province.getCode(), province.getName(), province.getRegion().getId(), province.getId());
+        eventPublisher.publishEvent(new DataChangedEvent("provinces", List.of(province.getId())));
         logger.info("Updated province. Rows affected: {}", rowsAffected);
     }
 
@@ -67,11 +112,13 @@ public class ProvinceDAOImpl implements ProvinceDAO {
      * Elimina una provincia de la base de datos.
      * @param id ID de la provincia a eliminar
      */
+    @CacheEvict(value = "provinces", allEntries = true)
     @Override
     public void deleteProvince(int id) {
         logger.info("Deleting province with id: {}", id);
         String sql = "DELETE FROM provinces WHERE id = ?";
         int rowsAffected = jdbcTemplate.update(sql, id);
+        eventPublisher.publishEvent(new DataChangedEvent("provinces", List.of(id)));
         logger.info("Deleted province. Rows affected: {}", rowsAffected);
     }
 
@@ -80,14 +127,15 @@ public class ProvinceDAOImpl implements ProvinceDAO {
      * @param id ID de la provincia
      * @return Provincia correspondiente al ID
      */
+    @Cacheable(value = "provinces", key = "#id")
     @Override
     public Province getProvinceById(int id) {
-        logger.info("Retrieving province by id: {}", id);
-        String sql = "SELECT p.*, r.id AS region_id, r.code AS region_code, r.name AS region_name FROM provinces p " +
+        logger.debug("Retrieving province by id: {}", id);
+        String sql = "SELECT " + PROVINCE_COLUMNS + " FROM provinces p " +
                 "JOIN regions r ON p.id_region = r.id WHERE p.id = ?";
         try {
-            Province province = jdbcTemplate.queryForObject(sql, new ProvinceRowMapper(), id);
-            logger.info("Province retrieved: {} - {}", province.getCode(), province.getName());
+            Province province = jdbcTemplate.queryForObject(sql, PROVINCE_ROW_MAPPER, id);
+            logger.debug("Province retrieved: {} - {}", province.getCode(), province.getName());
             return province;
         } catch (Exception e) {
             logger.warn("No province found with id: {}", id);
@@ -95,54 +143,22 @@ public class ProvinceDAOImpl implements ProvinceDAO {
         }
     }
 
-    /**
-     * Verifica si una provincia con el código especificado ya existe en la base de datos.
-     * @param code el código de la provincia a verificar.
-     * @return true si una provincia con el código ya existe, false de lo contrario.
-     */
-    @Override
-    public boolean existsProvinceByCode(String code) {
-        logger.info("Checking if province with code: {} exists", code);
-        String sql = "SELECT COUNT(*) FROM provinces WHERE UPPER(code) = ?";
-        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, code.toUpperCase());
-        boolean exists = count != null && count > 0;
-        logger.info("Province with code: {} exists: {}", code, exists);
-        return exists;
-    }
-
-    /**
-     * Verifica si una provincia con el código especificado ya existe en la base de datos,
-     * excluyendo una provincia con un ID específico.
-     * @param code el código de la provincia a verificar.
-     * @param id   el ID de la provincia a excluir de la verificación.
-     * @return true si una provincia con el código ya existe (y no es la provincia con el ID dado),
-     *         false de lo contrario.
-     */
-    @Override
-    public boolean existsProvinceByCodeAndNotId(String code, int id) {
-        logger.info("Checking if province with code: {} exists excluding id: {}", code, id);
-        String sql = "SELECT COUNT(*) FROM provinces WHERE UPPER(code) = ? AND id != ?";
-        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, code.toUpperCase(), id);
-        boolean exists = count != null && count > 0;
-        logger.info("Province with code: {} exists excluding id {}: {}", code, id, exists);
-        return exists;
-    }
-
     /**
      * Clase interna que implementa RowMapper para mapear los resultados de la consulta SQL a la entidad Province.
+     * Lee las columnas por posición, en el orden de `PROVINCE_COLUMNS`.
      */
-    private static class ProvinceRowMapper implements RowMapper<Province> {
+    static class ProvinceRowMapper implements RowMapper<Province> {
         @Override
         public Province mapRow(ResultSet rs, int rowNum) throws SQLException {
             Province province = new Province();
-            province.setId(rs.getInt("id"));
-            province.setCode(rs.getString("code"));
-            province.setName(rs.getString("name"));
+            province.setId(rs.getInt(1));
+            province.setCode(rs.getString(2));
+            province.setName(rs.getString(3));
 
             Region region = new Region();
-            region.setId(rs.getInt("region_id"));
-            region.setCode(rs.getString("region_code"));
-            region.setName(rs.getString("region_name"));
+            region.setId(rs.getInt(4));
+            region.setCode(rs.getString(5));
+            region.setName(rs.getString(6));
             province.setRegion(region);
 
             return province;
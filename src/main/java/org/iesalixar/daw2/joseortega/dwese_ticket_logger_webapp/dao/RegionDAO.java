@@ -7,11 +7,10 @@ import java.util.List;
 public interface RegionDAO {
 
     List<Region> listAllRegions() throws SQLException;
+    List<Region> listAllRegionsUncached() throws SQLException;
     void insertRegion(Region region) throws SQLException;
     void updateRegion(Region region) throws SQLException;
     void deleteRegion(int id) throws SQLException;
     Region getRegionById(int id) throws SQLException;
-    boolean existsRegionByCode(String code) throws SQLException;
-    boolean existsRegionByCodeAndNotId(String code, int id) throws SQLException;
 
 }
\ No newline at end of file
@@ -1,13 +1,18 @@
 package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao;
 
 import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Region;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.List;
 
 
@@ -19,26 +24,47 @@ public class RegionDAOImpl implements RegionDAO {
     private static final Logger logger = LoggerFactory.getLogger(RegionDAOImpl.class);
 
 
+    // Mapeador sin estado, compartido por todas las consultas
+    static final RowMapper<Region> REGION_ROW_MAPPER = new RegionRowMapper();
+
+
     private final JdbcTemplate jdbcTemplate;
 
 
-    // Inyección de JdbcTemplate
-    public RegionDAOImpl(JdbcTemplate jdbcTemplate) {
+    private final ApplicationEventPublisher eventPublisher;
+
+
+    // Inyección de JdbcTemplate y del publicador de eventos
+    public RegionDAOImpl(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
         this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
     }
 
 
     /**
      * Lista todas las regiones de la base de datos.
+     * El resultado se guarda en la caché `regions` como una lista inmutable.
      * @return Lista de regiones
      */
+    @Cacheable(value = "regions", key = "'all'")
     @Override
     public List<Region> listAllRegions() {
-        logger.info("Listing all regions from the database.");
-        String sql = "SELECT * FROM regions";
-        List<Region> regions = jdbcTemplate.query(sql, new BeanPropertyRowMapper<>(Region.class));
-        logger.info("Retrieved {} regions from the database.", regions.size());
-        return regions;
+        return listAllRegionsUncached();
+    }
+
+
+    /**
+     * Lista todas las regiones leyéndolas siempre de la base de datos, sin pasar por la caché `regions`.
+     * La usan quienes reaccionan a un `DataChangedEvent`, que puede llegar antes de que se invalide la caché.
+     * @return Lista de regiones
+     */
+    @Override
+    public List<Region> listAllRegionsUncached() {
+        logger.debug("Listing all regions from the database.");
+        String sql = "SELECT id, code, name FROM regions";
+        List<Region> regions = jdbcTemplate.query(sql, REGION_ROW_MAPPER);
+        logger.debug("Retrieved {} regions from the database.", regions.size());
+        return List.copyOf(regions);
     }
 
 
@@ -46,11 +72,13 @@ public class RegionDAOImpl implements RegionDAO {
      * Inserta una nueva región en la base de datos.
      * @param region Región a insertar
      */
+    @CacheEvict(value = {"regions", "provinces"}, allEntries = true)
     @Override
     public void insertRegion(Region region) {
         logger.info("Inserting region with code: {} and name: {}", region.getCode(), region.getName());
         String sql = "INSERT INTO regions (code, name) VALUES (?, ?)";
         int rowsAffected = jdbcTemplate.update(sql, region.getCode(), region.getName());
+        eventPublisher.publishEvent(new DataChangedEvent("regions", List.of()));
         logger.info("Inserted region. Rows affected: {}", rowsAffected);
     }
 
@@ -59,11 +87,13 @@ public class RegionDAOImpl implements RegionDAO {
      * Actualiza una región existente en la base de datos.
      * @param region Región a actualizar
      */
+    @CacheEvict(value = {"regions", "provinces"}, allEntries = true)
     @Override
     public void updateRegion(Region region) {
         logger.info("Updating region with id: {}", region.getId());
         String sql = "UPDATE regions SET code = ?, name = ? WHERE id = ?";
         int rowsAffected = jdbcTemplate.update(sql, region.getCode(), region.getName(), region.getId());
+        eventPublisher.publishEvent(new DataChangedEvent("regions", List.of(region.getId())));
         logger.info("Updated region. Rows affected: {}", rowsAffected);
     }
 
@@ -72,11 +102,13 @@ public class RegionDAOImpl implements RegionDAO {
      * Elimina una región de la base de datos.
      * @param id ID de la región a eliminar
      */
+    @CacheEvict(value = {"regions", "provinces"}, allEntries = true)
     @Override
     public void deleteRegion(int id) {
         logger.info("Deleting region with id: {}", id);
         String sql = "DELETE FROM regions WHERE id = ?";
         int rowsAffected = jdbcTemplate.update(sql, id);
+        eventPublisher.publishEvent(new DataChangedEvent("regions", List.of(id)));
         logger.info("Deleted region. Rows affected: {}", rowsAffected);
     }
 
@@ -86,13 +118,14 @@ public class RegionDAOImpl implements RegionDAO {
      * @param id ID de la región a recuperar
      * @return Región encontrada o null si no existe
      */
+    @Cacheable(value = "regions", key = "#id")
     @Override
     public Region getRegionById(int id) {
-        logger.info("Retrieving region by id: {}", id);
-        String sql = "SELECT * FROM regions WHERE id = ?";
+        logger.debug("Retrieving region by id: {}", id);
+        String sql = "SELECT id, code, name FROM regions WHERE id = ?";
         try {
-            Region region = jdbcTemplate.queryForObject(sql, new BeanPropertyRowMapper<>(Region.class), id);
-            logger.info("Region retrieved: {} - {}", region.getCode(), region.getName());
+            Region region = jdbcTemplate.queryForObject(sql, REGION_ROW_MAPPER, id);
+            logger.debug("Region retrieved: {} - {}", region.getCode(), region.getName());
             return region;
         } catch (Exception e) {
             logger.warn("No region found with id: {}", id);
@@ -102,36 +135,13 @@ public class RegionDAOImpl implements RegionDAO {
 
 
     /**
-     * Verifica si una región con el código especificado ya existe en la base de datos.
-     * @param code el código de la región a verificar.
-     * @return true si una región con el código ya existe, false de lo contrario.
+     * Clase interna que implementa RowMapper para mapear los resultados de la consulta SQL a la entidad Region.
+     * Lee las columnas por posición (id, code, name).
      */
-    @Override
-    public boolean existsRegionByCode(String code) {
-        logger.info("Checking if region with code: {} exists", code);
-        String sql = "SELECT COUNT(*) FROM regions WHERE UPPER(code) = ?";
-        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, code.toUpperCase());
-        boolean exists = count != null && count > 0;
-        logger.info("Region with code: {} exists: {}", code, exists);
-        return exists;
-    }
-
-
-    /**
-     * Verifica si una región con el código especificado ya existe en la base de datos,
-     * excluyendo una región con un ID específico.
-     * @param code el código de la región a verificar.
-     * @param id   el ID de la región a excluir de la verificación.
-     * @return true si una región con el código ya existe (y no es la región con el ID dado),
-     *         false de lo contrario.
-     */
-    @Override
-    public boolean existsRegionByCodeAndNotId(String code, int id) {
-        logger.info("Checking if region with code: {} exists excluding id: {}", code, id);
-        String sql = "SELECT COUNT(*) FROM regions WHERE UPPER(code) = ? AND id != ?";
-        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, code.toUpperCase(), id);
-        boolean exists = count != null && count > 0;
-        logger.info("Region with code: {} exists excluding id {}: {}", code, id, exists);
-        return exists;
+    static class RegionRowMapper implements RowMapper<Region> {
+        @Override
+        public Region mapRow(ResultSet rs, int rowNum) throws SQLException {
+            return new Region(rs.getInt(1), rs.getString(2), rs.getString(3));
+        }
     }
 }
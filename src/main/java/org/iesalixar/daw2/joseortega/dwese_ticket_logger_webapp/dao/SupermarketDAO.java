@@ -8,9 +8,8 @@ import java.util.List;
 public interface SupermarketDAO {
     List<Supermarket> listAllSupermarkets() throws SQLException;
     void insertSupermarket(Supermarket supermarket) throws SQLException;
+    void insertSupermarkets(List<Supermarket> supermarkets) throws SQLException;
     void updateSupermarket(Supermarket supermarket) throws SQLException;
     void deleteSupermarket(int id) throws SQLException;
     Supermarket getSupermarketById(int id) throws SQLException;
-    boolean existsSupermarketByName(String name) throws SQLException;
-    boolean existsSupermarketByNameAndNotId(String name, int id) throws SQLException;
 }
@@ -4,10 +4,15 @@ import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Region;
 import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Supermarket;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.List;
 
 @Repository
@@ -15,48 +20,76 @@ public class SupermarketDAOImpl implements  SupermarketDAO{
     // Logger para registrar eventos importantes en el DAO
     private static final Logger logger = LoggerFactory.getLogger(SupermarketDAOImpl.class);
 
+    // Mapeador sin estado, compartido por todas las consultas
+    static final RowMapper<Supermarket> SUPERMARKET_ROW_MAPPER = new SupermarketRowMapper();
+
     private final JdbcTemplate jdbcTemplate;
 
-    // Inyección de JdbcTemplate
-    public SupermarketDAOImpl(JdbcTemplate jdbcTemplate) {
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Inyección de JdbcTemplate y del publicador de eventos
+    public SupermarketDAOImpl(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
         this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
      * Lista todas los supermercados de la base de datos.
+     * El resultado se guarda en la caché `supermarkets` como una lista inmutable.
      * @return Lista de supermercados
      */
+    @Cacheable(value = "supermarkets", key = "'all'")
     @Override
     public List<Supermarket> listAllSupermarkets() {
-        logger.info("Listing all supermarkets from the database.");
-        String sql = "SELECT * FROM supermarkets";
-        List<Supermarket> supermarkets = jdbcTemplate.query(sql, new BeanPropertyRowMapper<>(Supermarket.class));
-        logger.info("Retrieved {} supermarkets from the database.", supermarkets.size());
-        return supermarkets;
+        logger.debug("Listing all supermarkets from the database.");
+        String sql = "SELECT id, name FROM supermarkets";
+        List<Supermarket> supermarkets = jdbcTemplate.query(sql, SUPERMARKET_ROW_MAPPER);
+        logger.debug("Retrieved {} supermarkets from the database.", supermarkets.size());
+        return List.copyOf(supermarkets);
     }
 
     /**
      * Inserta un nuevo supermercado en la base de datos.
      * @param supermarket Supermarket a insertar
      */
+    @CacheEvict(value = "supermarkets", allEntries = true)
     @Override
     public void insertSupermarket(Supermarket supermarket) {
         logger.info("Inserting supermarket with name: {}", supermarket.getName());
         String sql = "INSERT INTO supermarkets (name) VALUES (?)";
         int rowsAffected = jdbcTemplate.update(sql, supermarket.getName());
+        eventPublisher.publishEvent(new DataChangedEvent("supermarkets", List.of()));
         logger.info("Inserted supermarket. Rows affected: {}", rowsAffected);
     }
 
 
+    /**
+     * Inserta un lote de supermercados con una única operación por lotes (batch) de JDBC.
+     * @param supermarkets Supermercados a insertar
+     */
+    @CacheEvict(value = "supermarkets", allEntries = true)
+    @Override
+    public void insertSupermarkets(List<Supermarket> supermarkets) {
+        logger.info("Inserting batch of {} supermarkets", supermarkets.size());
+        String sql = "INSERT INTO supermarkets (name) VALUES (?)";
+        int[][] rowsAffected = jdbcTemplate.batchUpdate(sql, supermarkets, supermarkets.size(),
+                (ps, supermarket) -> ps.setString(1, supermarket.getName()));
+        eventPublisher.publishEvent(new DataChangedEvent("supermarkets", List.of()));
+        logger.info("Inserted batch of supermarkets. Batches executed: {}", rowsAffected.length);
+    }
+
+
     /**
      * Actualiza un supermercado existente en la base de datos.
      * @param supermarket Supermarket a actualizar
      */
+    @CacheEvict(value = "supermarkets", allEntries = true)
     @Override
     public void updateSupermarket(Supermarket supermarket) {
         logger.info("Updating supermarket with id: {}", supermarket.getId());
         String sql = "UPDATE supermarkets SET name = ? WHERE id = ?";
         int rowsAffected = jdbcTemplate.update(sql, supermarket.getName(), supermarket.getId());
+        eventPublisher.publishEvent(new DataChangedEvent("supermarkets", List.of(supermarket.getId())));
         logger.info("Updated supermarket. Rows affected: {}", rowsAffected);
     }
 
@@ -65,11 +98,13 @@ public class SupermarketDAOImpl implements  SupermarketDAO{
      * Elimina un supermercado de la base de datos.
      * @param id ID de la región a eliminar
      */
+    @CacheEvict(value = "supermarkets", allEntries = true)
     @Override
     public void deleteSupermarket(int id) {
         logger.info("Deleting supermarket with id: {}", id);
         String sql = "DELETE FROM supermarkets WHERE id = ?";
         int rowsAffected = jdbcTemplate.update(sql, id);
+        eventPublisher.publishEvent(new DataChangedEvent("supermarkets", List.of(id)));
         logger.info("Deleted supermarket. Rows affected: {}", rowsAffected);
     }
 
@@ -78,13 +113,14 @@ public class SupermarketDAOImpl implements  SupermarketDAO{
      * @param id ID del supermercado a recuperar
      * @return Supermercado encontrada o null si no existe
      */
+    @Cacheable(value = "supermarkets", key = "#id")
     @Override
     public Supermarket getSupermarketById(int id) {
-        logger.info("Retrieving supermarket by id: {}", id);
-        String sql = "SELECT * FROM supermarkets WHERE id = ?";
+        logger.debug("Retrieving supermarket by id: {}", id);
+        String sql = "SELECT id, name FROM supermarkets WHERE id = ?";
         try {
-            Supermarket supermarket = jdbcTemplate.queryForObject(sql, new BeanPropertyRowMapper<>(Supermarket.class), id);
-            logger.info("Supermarket retrieved: {} ", supermarket.getName());
+            Supermarket supermarket = jdbcTemplate.queryForObject(sql, SUPERMARKET_ROW_MAPPER, id);
+            logger.debug("Supermarket retrieved: {} ", supermarket.getName());
             return supermarket;
         } catch (Exception e) {
             logger.warn("No supermarket found with id: {}", id);
@@ -93,36 +129,13 @@ public class SupermarketDAOImpl implements  SupermarketDAO{
     }
 
     /**
-     * Verifica si un supermercado con el nombre especificado ya existe en la base de datos.
-     * @param name el nombre del supermercado a verificar.
-     * @return true si un supermercado con el nombre ya existe, false de lo contrario.
+     * Clase interna que implementa RowMapper para mapear los resultados de la consulta SQL a la entidad Supermarket.
+     * Lee las columnas por posición (id, name).
      */
-    @Override
-    public boolean existsSupermarketByName(String name) {
-        logger.info("Checking if supermarket with name: {} exists", name);
-        String sql = "SELECT COUNT(*) FROM supermarkets WHERE UPPER(name) = ?";
-        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, name.toUpperCase());
-        boolean exists = count != null && count > 0;
-        logger.info("Region with name: {} exists: {}", name, exists);
-        return exists;
-    }
-
-
-    /**
-     * Verifica si un supermercado con el nombre especificado ya existe en la base de datos,
-     * excluyendo un supermercado con un ID específico.
-     * @param name el nombre del supermercado a verificar.
-     * @param id   el ID del supermercado a excluir de la verificación.
-     * @return true si un supermercado con el nombre ya existe (y no es el supermercado con el ID dado),
-     *         false de lo contrario.
-     */
-    @Override
-    public boolean existsSupermarketByNameAndNotId(String name, int id) {
-        logger.info("Checking if supermarket with name : {} exists excluding id: {}",name, id);
-        String sql = "SELECT COUNT(*) FROM supermarkets WHERE UPPER(name) = ? AND id != ?";
-        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, name.toUpperCase(), id);
-        boolean exists = count != null && count > 0;
-        logger.info("Supermarket with name: {} exists excluding id {}: {}", name, id, exists);
-        return exists;
+    static class SupermarketRowMapper implements RowMapper<Supermarket> {
+        @Override
+        public Supermarket mapRow(ResultSet rs, int rowNum) throws SQLException {
+            return new Supermarket(rs.getInt(1), rs.getString(2));
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,18 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao;
+
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Ticket;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface TicketDAO {
+    void insertTicket(Ticket ticket) throws SQLException;
+    void insertTickets(List<Ticket> tickets) throws SQLException;
+    Ticket getTicketById(long id) throws SQLException;
+    List<Ticket> listTicketsByLocation(int locationId, LocalDateTime from, LocalDateTime to) throws SQLException;
+    List<Long> listExistingTicketIds(List<Long> ids) throws SQLException;
+    void streamDailyTotals(LocalDate from, LocalDate to, RowCallbackHandler handler) throws SQLException;
+}
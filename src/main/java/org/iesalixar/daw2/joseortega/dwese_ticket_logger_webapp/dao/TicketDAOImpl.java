@@ -0,0 +1,251 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao;
+
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Location;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Ticket;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.TicketLine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+@Repository
+public class TicketDAOImpl implements TicketDAO {
+
+    // Logger para registrar eventos importantes en el DAO
+    private static final Logger logger = LoggerFactory.getLogger(TicketDAOImpl.class);
+
+    // Máximo de tickets por sentencia INSERT multi-fila (3 parámetros por ticket)
+    private static final int MAX_TICKETS_PER_STATEMENT = 500;
+
+    // Máximo de líneas por sentencia INSERT multi-fila (5 parámetros por línea)
+    private static final int MAX_LINES_PER_STATEMENT = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Inyección de JdbcTemplate y del publicador de eventos
+    public TicketDAOImpl(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Inserta un ticket con sus líneas en la base de datos.
+     * @param ticket Ticket a insertar; al terminar tiene asignado su ID
+     */
+    @Override
+    @Transactional
+    public void insertTicket(Ticket ticket) {
+        insertTickets(List.of(ticket));
+    }
+
+    /**
+     * Inserta un lote de tickets con sus líneas en una única transacción.
+     * Los tickets se insertan con un INSERT multi-fila que devuelve los IDs generados
+     * (`RETURNING id`, en el mismo orden que las filas), y después todas las líneas de
+     * todos los tickets con otro INSERT multi-fila, de forma que un lote cuesta dos
+     * viajes a la base de datos sea cual sea su tamaño (dentro de los límites por sentencia).
+     * @param tickets Tickets a insertar; al terminar tienen asignado su ID
+     */
+    @Override
+    @Transactional
+    public void insertTickets(List<Ticket> tickets) {
+        logger.info("Inserting batch of {} tickets", tickets.size());
+        for (int from = 0; from < tickets.size(); from += MAX_TICKETS_PER_STATEMENT) {
+            insertTicketRows(tickets.subList(from, Math.min(from + MAX_TICKETS_PER_STATEMENT, tickets.size())));
+        }
+
+        List<Object> params = new ArrayList<>();
+        int lines = 0;
+        for (Ticket ticket : tickets) {
+            int lineNumber = 0;
+            for (TicketLine line : ticket.getLines()) {
+                lineNumber = line.getLineNumber() != null ? line.getLineNumber() : lineNumber + 1;
+                line.setLineNumber(lineNumber);
+                params.add(ticket.getId());
+                params.add(lineNumber);
+                params.add(line.getProduct());
+                params.add(line.getQuantity());
+                params.add(line.getUnitPrice());
+                if (++lines == MAX_LINES_PER_STATEMENT) {
+                    insertLineRows(params, lines);
+                    params.clear();
+                    lines = 0;
+                }
+            }
+        }
+        if (lines > 0) {
+            insertLineRows(params, lines);
+        }
+        eventPublisher.publishEvent(new TicketsInsertedEvent(List.copyOf(tickets)));
+        logger.info("Inserted batch of {} tickets.", tickets.size());
+    }
+
+    /**
+     * Inserta las cabeceras de los tickets y les asigna los IDs generados.
+     */
+    private void insertTicketRows(List<Ticket> tickets) {
+        StringBuilder sql = new StringBuilder("INSERT INTO tickets (location_id, purchased_at, total) VALUES ");
+        List<Object> params = new ArrayList<>(tickets.size() * 3);
+        for (int i = 0; i < tickets.size(); i++) {
+            Ticket ticket = tickets.get(i);
+            if (ticket.getTotal() == null) {
+                ticket.setTotal(computeTotal(ticket));
+            }
+            sql.append(i == 0 ? "(?, ?, ?)" : ", (?, ?, ?)");
+            params.add(ticket.getLocation().getId());
+            params.add(Timestamp.valueOf(ticket.getPurchasedAt()));
+            params.add(ticket.getTotal());
+        }
+        sql.append(" RETURNING id");
+        List<Long> ids = jdbcTemplate.query(sql.toString(), (rs, rowNum) -> rs.getLong(1), params.toArray());
+        for (int i = 0; i < tickets.size(); i++) {
+            tickets.get(i).setId(ids.get(i));
+        }
+    }
+
+    /**
+     * Inserta un bloque de líneas con un único INSERT multi-fila.
+     */
+    private void insertLineRows(List<Object> params, int lines) {
+        StringBuilder sql = new StringBuilder(
+                "INSERT INTO ticket_lines (ticket_id, line_number, product, quantity, unit_price) VALUES ");
+        for (int i = 0; i < lines; i++) {
+            sql.append(i == 0 ? "(?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?)");
+        }
+        jdbcTemplate.update(sql.toString(), params.toArray());
+    }
+
+    /**
+     * Calcula el total del ticket como la suma de cantidad * precio unitario de sus líneas.
+     */
+    private static BigDecimal computeTotal(Ticket ticket) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (TicketLine line : ticket.getLines()) {
+            total = total.add(line.getQuantity().multiply(line.getUnitPrice()));
+        }
+        return total.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Obtiene un ticket por su ID, con sus líneas.
+     * @param id ID del ticket
+     * @return Ticket correspondiente al ID, o null si no existe
+     */
+    @Override
+    public Ticket getTicketById(long id) {
+        logger.debug("Retrieving ticket by id: {}", id);
+        String sql = "SELECT id, location_id, purchased_at, total FROM tickets WHERE id = ?";
+        List<Ticket> tickets = jdbcTemplate.query(sql, new TicketRowMapper(), id);
+        if (tickets.isEmpty()) {
+            logger.warn("No ticket found with id: {}", id);
+            return null;
+        }
+        Ticket ticket = tickets.get(0);
+        String linesSql = "SELECT line_number, product, quantity, unit_price FROM ticket_lines " +
+                "WHERE ticket_id = ? ORDER BY line_number";
+        ticket.setLines(jdbcTemplate.query(linesSql, (rs, rowNum) ->
+                new TicketLine(rs.getInt(1), rs.getString(2), rs.getBigDecimal(3), rs.getBigDecimal(4)), id));
+        logger.debug("Ticket retrieved: {} with {} lines", id, ticket.getLines().size());
+        return ticket;
+    }
+
+    /**
+     * Lista los tickets (sin líneas) de una ubicación en un intervalo de fechas,
+     * apoyándose en el índice (location_id, purchased_at).
+     * @param locationId ID de la ubicación
+     * @param from Fecha inicial (incluida)
+     * @param to Fecha final (excluida)
+     * @return Lista de tickets ordenados por fecha de compra
+     */
+    @Override
+    public List<Ticket> listTicketsByLocation(int locationId, LocalDateTime from, LocalDateTime to) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Listing tickets of location {} between {} and {}", locationId, from, to);
+        }
+        String sql = "SELECT id, location_id, purchased_at, total FROM tickets " +
+                "WHERE location_id = ? AND purchased_at >= ? AND purchased_at < ? ORDER BY purchased_at";
+        List<Ticket> tickets = jdbcTemplate.query(sql, new TicketRowMapper(), locationId,
+                Timestamp.valueOf(from), Timestamp.valueOf(to));
+        logger.debug("Retrieved {} tickets from the database.", tickets.size());
+        return tickets;
+    }
+
+    /**
+     * Devuelve cuáles de los IDs indicados corresponden a tickets visibles para la conexión actual
+     * (dentro de una transacción, los de su instantánea).
+     * @param ids IDs de tickets
+     * @return IDs existentes, en orden ascendente
+     */
+    @Override
+    public List<Long> listExistingTicketIds(List<Long> ids) {
+        List<Long> existing = new ArrayList<>();
+        for (int start = 0; start < ids.size(); start += MAX_TICKETS_PER_STATEMENT) {
+            List<Long> chunk = ids.subList(start, Math.min(ids.size(), start + MAX_TICKETS_PER_STATEMENT));
+            String sql = "SELECT id FROM tickets WHERE id IN (" + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+            existing.addAll(jdbcTemplate.queryForList(sql, Long.class, chunk.toArray()));
+        }
+        Collections.sort(existing);
+        return existing;
+    }
+
+    /**
+     * Recorre el importe total y el número de tickets por provincia, supermercado y día, agrupados
+     * en la base de datos. Cada ticket se asigna a la provincia y al supermercado actuales de su ubicación.
+     * Columnas, por posición: province_id, supermarket_id, day (DATE), total, tickets.
+     * @param from Primer día (incluido), o null
+     * @param to Último día (incluido), o null
+     * @param handler Callback que procesa cada fila
+     */
+    @Override
+    public void streamDailyTotals(LocalDate from, LocalDate to, RowCallbackHandler handler) {
+        logger.debug("Aggregating ticket totals between {} and {}", from, to);
+        StringBuilder sql = new StringBuilder("SELECT l.province_id, l.supermarket_id, DATE(t.purchased_at), " +
+                "SUM(t.total), COUNT(*) FROM tickets t JOIN locations l ON t.location_id = l.id");
+        List<Object> params = new ArrayList<>();
+        if (from != null) {
+            sql.append(params.isEmpty() ? " WHERE" : " AND").append(" t.purchased_at >= ?");
+            params.add(Timestamp.valueOf(from.atStartOfDay()));
+        }
+        if (to != null) {
+            sql.append(params.isEmpty() ? " WHERE" : " AND").append(" t.purchased_at < ?");
+            params.add(Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+        }
+        sql.append(" GROUP BY l.province_id, l.supermarket_id, DATE(t.purchased_at)");
+        jdbcTemplate.query(sql.toString(), handler, params.toArray());
+    }
+
+    /**
+     * Clase interna que implementa RowMapper para mapear la cabecera de un ticket
+     * (id, location_id, purchased_at, total) a la entidad Ticket.
+     */
+    private static class TicketRowMapper implements RowMapper<Ticket> {
+        @Override
+        public Ticket mapRow(ResultSet rs, int rowNum) throws SQLException {
+            Ticket ticket = new Ticket();
+            ticket.setId(rs.getLong(1));
+            Location location = new Location();
+            location.setId(rs.getInt(2));
+            ticket.setLocation(location);
+            ticket.setPurchasedAt(rs.getTimestamp(3).toLocalDateTime());
+            ticket.setTotal(rs.getBigDecimal(4));
+            return ticket;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Ticket;
+
+import java.util.List;
+
+/**
+ * Evento que publica `TicketDAOImpl` al insertar tickets, con los tickets ya con su ID y su total.
+ * Se publica dentro de la transacción de la inserción, así que los receptores que solo deban ver
+ * tickets confirmados lo escuchan con `@TransactionalEventListener`.
+ */
+@Data
+@AllArgsConstructor
+public class TicketsInsertedEvent {
+
+    // Tickets insertados
+    private List<Ticket> tickets;
+}
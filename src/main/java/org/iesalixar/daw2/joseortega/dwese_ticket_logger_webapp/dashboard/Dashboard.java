@@ -0,0 +1,49 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dashboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Ticket;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Datos del panel de la página de inicio. Las secciones que no se han podido cargar a tiempo son null
+ * (o faltan en `counts`) y se nombran en `missing`.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Dashboard {
+
+    // Filas por tabla, en el orden de DashboardDAO.TABLES
+    private Map<String, Long> counts;
+
+    // Últimos tickets registrados
+    private List<Ticket> latestTickets;
+
+    // Provincias con más gasto desde rankingFrom
+    private List<RankingRow> topProvinces;
+
+    // Supermercados con más gasto desde rankingFrom
+    private List<RankingRow> topSupermarkets;
+
+    // Primer día de las clasificaciones
+    private LocalDate rankingFrom;
+
+    // Secciones que no se han podido cargar (vacía si el panel está completo)
+    private List<String> missing;
+
+    // Momento en que se cargó el panel
+    private LocalDateTime generatedAt;
+
+    // Milisegundos que tardó la carga
+    private long loadMillis;
+
+    public boolean isComplete() {
+        return missing.isEmpty();
+    }
+}
@@ -0,0 +1,241 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dashboard;
+
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.DashboardDAO;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.ProvinceDAO;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.SupermarketDAO;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Province;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Supermarket;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Ticket;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.replica.RoutingContext;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.report.SpendReport;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.report.SpendRow;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.report.TicketReportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Servicio que carga el panel de la página de inicio: filas por tabla, últimos tickets y provincias y
+ * supermercados con más gasto.
+ * Cada sección es una subtarea independiente en su propio hilo virtual (un recuento por tabla, los últimos
+ * tickets y las clasificaciones), así que la carga tarda lo que la subtarea más lenta y no la suma.
+ * Los tickets no se cuentan con `COUNT(*)`, que recorre la tabla más grande en cada recarga: el total sale
+ * de los agregados en memoria de los informes, como las clasificaciones.
+ * Cada subtarea tiene su plazo: la que no termina a tiempo o falla se abandona y su sección queda vacía,
+ * y el panel se muestra con el resto (resultado parcial, con las secciones que faltan en `missing`).
+ * Las subtareas abandonadas no se interrumpen, porque interrumpir un hilo virtual en plena E/S de JDBC
+ * cierra la conexión y el pool la descarta: su consulta sigue hasta terminar o hasta el tiempo máximo
+ * de consulta de `DashboardDAO`, que aplica la base de datos, y su resultado se descarta.
+ * El panel se guarda `ttl` milisegundos, también si es parcial, y solo una petición lo recarga a la vez:
+ * las demás esperan y reciben el mismo resultado, así que muchas recargas seguidas cuestan una carga.
+ * Las subtareas consultan con el estado de enrutado de la petición que carga el panel
+ * (`RoutingContext.propagate`): tras una escritura propia leen del primario, como la petición.
+ */
+@Service
+public class DashboardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardService.class);
+
+    private final DashboardDAO dashboardDAO;
+
+    private final ProvinceDAO provinceDAO;
+
+    private final SupermarketDAO supermarketDAO;
+
+    private final TicketReportService ticketReportService;
+
+    private final long ttlNanos;
+
+    private final long subtaskTimeoutNanos;
+
+    // Filas de los últimos tickets y de cada clasificación
+    private final int size;
+
+    // Días que abarcan las clasificaciones, terminando hoy (y los tickets con fecha posterior)
+    private final int rankingDays;
+
+    // Una sola carga del panel a la vez; las demás peticiones esperan y usan la suya
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    private volatile Dashboard cached;
+
+    private volatile long cachedAt;
+
+    public DashboardService(DashboardDAO dashboardDAO, ProvinceDAO provinceDAO,
+                            SupermarketDAO supermarketDAO, TicketReportService ticketReportService,
+                            @Value("${app.dashboard.ttl-ms:5000}") long ttlMillis,
+                            @Value("${app.dashboard.subtask-timeout-ms:1000}") long subtaskTimeoutMillis,
+                            @Value("${app.dashboard.size:5}") int size,
+                            @Value("${app.dashboard.ranking-days:30}") int rankingDays) {
+        this.dashboardDAO = dashboardDAO;
+        this.provinceDAO = provinceDAO;
+        this.supermarketDAO = supermarketDAO;
+        this.ticketReportService = ticketReportService;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.subtaskTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(subtaskTimeoutMillis);
+        this.size = size;
+        this.rankingDays = rankingDays;
+    }
+
+    /**
+     * Devuelve el panel guardado si es reciente, o lo carga.
+     * @return Panel, completo o parcial
+     */
+    public Dashboard getDashboard() {
+        Dashboard dashboard = cached;
+        if (dashboard != null && System.nanoTime() - cachedAt < ttlNanos) {
+            return dashboard;
+        }
+        loadLock.lock();
+        try {
+            // Otra petición puede haberlo cargado mientras esta esperaba
+            dashboard = cached;
+            if (dashboard != null && System.nanoTime() - cachedAt < ttlNanos) {
+                return dashboard;
+            }
+            dashboard = load();
+            cached = dashboard;
+            cachedAt = System.nanoTime();
+            return dashboard;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * Lanza todas las subtareas a la vez y recoge lo que esté listo dentro del plazo de cada una.
+     */
+    Dashboard load() {
+        long start = System.nanoTime();
+        LocalDate rankingFrom = LocalDate.now().minusDays(rankingDays - 1L);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            Map<String, Subtask<Long>> countTasks = new LinkedHashMap<>();
+            for (String table : DashboardDAO.TABLES) {
+                countTasks.put(table, fork(executor, "count." + table, "tickets".equals(table)
+                        ? ticketReportService::countTickets : () -> dashboardDAO.countRows(table)));
+            }
+            Subtask<List<Ticket>> latestTask = fork(executor, "latestTickets", () -> dashboardDAO.listLatestTickets(size));
+            Subtask<Rankings> rankingTask = fork(executor, "rankings", () -> rankings(rankingFrom));
+
+            List<String> missing = new ArrayList<>();
+            Map<String, Long> counts = new LinkedHashMap<>();
+            countTasks.forEach((table, task) -> {
+                Long count = task.join(missing);
+                if (count != null) {
+                    counts.put(table, count);
+                }
+            });
+            List<Ticket> latestTickets = latestTask.join(missing);
+            Rankings rankings = rankingTask.join(missing);
+
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (missing.isEmpty()) {
+                logger.debug("Dashboard loaded in {} ms.", millis);
+            } else {
+                logger.warn("Dashboard loaded in {} ms without {}.", millis, missing);
+            }
+            return new Dashboard(counts, latestTickets,
+                    rankings == null ? null : rankings.provinces(),
+                    rankings == null ? null : rankings.supermarkets(),
+                    rankingFrom, List.copyOf(missing), LocalDateTime.now(), millis);
+        } finally {
+            // Sin esperar: las subtareas abandonadas terminan por su cuenta
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Clasificaciones de provincias y supermercados por gasto, sobre los agregados en memoria de los
+     * informes (sin consultar los tickets), desde `from` sin límite final. Los nombres salen de la caché
+     * de datos de referencia.
+     */
+    private Rankings rankings(LocalDate from) throws SQLException {
+        SpendReport report = ticketReportService.spend(from, LocalDate.MAX, null, null);
+        Map<Integer, String> provinceNames = new HashMap<>();
+        for (Province province : provinceDAO.listAllProvinces()) {
+            provinceNames.put(province.getId(), province.getName());
+        }
+        Map<Integer, String> supermarketNames = new HashMap<>();
+        for (Supermarket supermarket : supermarketDAO.listAllSupermarkets()) {
+            supermarketNames.put(supermarket.getId(), supermarket.getName());
+        }
+        return new Rankings(top(report.getRows(), SpendRow::getProvinceId, provinceNames),
+                top(report.getRows(), SpendRow::getSupermarketId, supermarketNames));
+    }
+
+    private List<RankingRow> top(List<SpendRow> rows, Function<SpendRow, Integer> key, Map<Integer, String> names) {
+        Map<Integer, RankingRow> totals = new HashMap<>();
+        for (SpendRow row : rows) {
+            int id = key.apply(row);
+            RankingRow ranking = totals.computeIfAbsent(id, k -> new RankingRow(k, names.get(k), BigDecimal.ZERO, 0));
+            ranking.setTotal(ranking.getTotal().add(row.getTotal()));
+            ranking.setTickets(ranking.getTickets() + row.getTickets());
+        }
+        return totals.values().stream()
+                .sorted(Comparator.comparing(RankingRow::getTotal).reversed())
+                .limit(size)
+                .toList();
+    }
+
+    private <T> Subtask<T> fork(ExecutorService executor, String name, SectionLoader<T> loader) {
+        return new Subtask<>(name, executor.submit(RoutingContext.propagate(loader::load)),
+                System.nanoTime() + subtaskTimeoutNanos);
+    }
+
+    /**
+     * Carga de una sección del panel.
+     */
+    @FunctionalInterface
+    private interface SectionLoader<T> {
+        T load() throws Exception;
+    }
+
+    /**
+     * Subtarea en curso con su plazo.
+     */
+    private record Subtask<T>(String name, Future<T> future, long deadline) {
+
+        /**
+         * Espera el resultado hasta el plazo. Si vence o la subtarea falla, la cancela sin interrumpirla,
+         * anota la sección en `missing` y devuelve null.
+         */
+        T join(List<String> missing) {
+            try {
+                return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                logger.warn("Dashboard section {} timed out.", name);
+            } catch (ExecutionException e) {
+                logger.warn("Dashboard section {} failed: {}", name, e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            future.cancel(false);
+            missing.add(name);
+            return null;
+        }
+    }
+
+    private record Rankings(List<RankingRow> provinces, List<RankingRow> supermarkets) {
+    }
+}
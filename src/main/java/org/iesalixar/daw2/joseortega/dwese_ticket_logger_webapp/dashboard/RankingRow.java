@@ -0,0 +1,28 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dashboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Fila de una clasificación del panel: gasto y tickets de una provincia o de un supermercado.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RankingRow {
+
+    // ID de la provincia o del supermercado
+    private int id;
+
+    // Nombre de la provincia o del supermercado
+    private String name;
+
+    // Importe total de los tickets
+    private BigDecimal total;
+
+    // Número de tickets
+    private long tickets;
+}
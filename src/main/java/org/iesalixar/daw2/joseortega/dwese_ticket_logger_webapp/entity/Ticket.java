@@ -0,0 +1,61 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * La clase `Ticket` representa un ticket de compra registrado en una ubicación (tienda).
+ * Contiene los campos `id`, `location`, `purchasedAt`, `total` y `lines`, donde `id` es el
+ * identificador único del ticket, `location` es la ubicación en la que se realizó la compra,
+ * `purchasedAt` es la fecha y hora de la compra, `total` es el importe total y `lines`
+ * son las líneas de producto del ticket.
+ * Las anotaciones de Lombok generan los getters, setters, constructores y demás métodos estándar.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Ticket {
+
+    // Identificador único del ticket, autogenerado por la base de datos.
+    // No añadimos validación en el ID porque en este caso puede ser nulo al insertarse
+    private Long id;
+
+    // Ubicación (tienda) en la que se realizó la compra. Solo es necesario su ID.
+    @NotNull(message = "{msg.ticket.location.notNull}")
+    private Location location;
+
+    // Fecha y hora de la compra, como "2024-10-17T18:30:00".
+    @NotNull(message = "{msg.ticket.purchasedAt.notNull}")
+    private LocalDateTime purchasedAt;
+
+    // Importe total del ticket. Si no se indica, se calcula a partir de las líneas.
+    @PositiveOrZero(message = "{msg.ticket.total.positiveOrZero}")
+    private BigDecimal total;
+
+    // Líneas de producto del ticket.
+    @Valid
+    @NotEmpty(message = "{msg.ticket.lines.notEmpty}")
+    private List<TicketLine> lines = new ArrayList<>();
+
+    /**
+     * Constructor sin el campo `id`, para crear tickets antes de insertarlos en la base de datos.
+     * @param location Ubicación en la que se realizó la compra.
+     * @param purchasedAt Fecha y hora de la compra.
+     * @param lines Líneas de producto del ticket.
+     */
+    public Ticket(Location location, LocalDateTime purchasedAt, List<TicketLine> lines) {
+        this.location = location;
+        this.purchasedAt = purchasedAt;
+        this.lines = lines;
+    }
+}
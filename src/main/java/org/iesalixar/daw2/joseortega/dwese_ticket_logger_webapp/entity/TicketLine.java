@@ -0,0 +1,54 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * La clase `TicketLine` representa una línea de producto de un `Ticket`.
+ * Contiene los campos `lineNumber`, `product`, `quantity` y `unitPrice`, donde `lineNumber` es la
+ * posición de la línea dentro del ticket (junto con el ID del ticket forma la clave primaria),
+ * `product` es la descripción del producto, `quantity` la cantidad comprada y `unitPrice` el precio unitario.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TicketLine {
+
+    // Posición de la línea dentro del ticket, empezando en 1. Si no se indica, se asigna al insertar.
+    private Integer lineNumber;
+
+    // Descripción del producto, como "Leche entera 1L".
+    @NotEmpty(message = "{msg.ticket-line.product.notEmpty}")
+    @Size(max = 150, message = "{msg.ticket-line.product.size}")
+    private String product;
+
+    // Cantidad comprada; admite decimales para productos a granel.
+    @NotNull(message = "{msg.ticket-line.quantity.positive}")
+    @Positive(message = "{msg.ticket-line.quantity.positive}")
+    private BigDecimal quantity;
+
+    // Precio unitario del producto.
+    @NotNull(message = "{msg.ticket-line.unitPrice.positiveOrZero}")
+    @PositiveOrZero(message = "{msg.ticket-line.unitPrice.positiveOrZero}")
+    private BigDecimal unitPrice;
+
+    /**
+     * Constructor sin el número de línea, que se asigna al insertar el ticket.
+     * @param product Descripción del producto.
+     * @param quantity Cantidad comprada.
+     * @param unitPrice Precio unitario.
+     */
+    public TicketLine(String product, BigDecimal quantity, BigDecimal unitPrice) {
+        this.product = product;
+        this.quantity = quantity;
+        this.unitPrice = unitPrice;
+    }
+}
@@ -0,0 +1,67 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.export;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Escritor CSV (RFC 4180) de la exportación de ubicaciones.
+ * Construye cada línea en un único `StringBuilder` reutilizado entre filas.
+ */
+public class CsvLocationExportWriter extends LocationExportWriter {
+
+    private static final String HEADER =
+            "id,address,city,supermarket_id,supermarket,province_id,province_code,province\r\n";
+
+    private final StringBuilder line = new StringBuilder(256);
+
+    public CsvLocationExportWriter(Writer out) {
+        super(out);
+    }
+
+    @Override
+    public void writeHeader() throws IOException {
+        out.write(HEADER);
+    }
+
+    @Override
+    protected void writeRow(ResultSet rs) throws SQLException, IOException {
+        line.setLength(0);
+        line.append(rs.getInt(1)).append(',');
+        appendText(rs.getString(2)).append(',');
+        appendText(rs.getString(3)).append(',');
+        line.append(rs.getInt(4)).append(',');
+        appendText(rs.getString(5)).append(',');
+        line.append(rs.getInt(6)).append(',');
+        appendText(rs.getString(7)).append(',');
+        appendText(rs.getString(8)).append("\r\n");
+        out.append(line);
+    }
+
+    /**
+     * Añade un valor de texto, entre comillas solo si contiene caracteres especiales.
+     */
+    private StringBuilder appendText(String value) {
+        if (value == null) {
+            return line;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            return line.append(value);
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        return line.append('"');
+    }
+}
@@ -0,0 +1,70 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.export;
+
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Escritor de filas de la exportación de ubicaciones.
+ * Recibe cada fila directamente del `ResultSet` (sin crear entidades `Location`) y la
+ * escribe en el flujo de salida reutilizando sus buffers, de forma que la memoria usada
+ * no depende del número de filas exportadas.
+ * Las columnas se leen por posición, en el orden de `LocationDAO.streamLocations`:
+ * id, address, city, supermarket_id, supermarket_name, province_id, province_code, province_name.
+ */
+public abstract class LocationExportWriter implements RowCallbackHandler {
+
+    protected final Writer out;
+
+    private long rows;
+
+    protected LocationExportWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Escribe la cabecera del formato, si la tiene.
+     * @throws IOException si falla la escritura
+     */
+    public void writeHeader() throws IOException {
+    }
+
+    @Override
+    public void processRow(ResultSet rs) throws SQLException {
+        try {
+            writeRow(rs);
+            rows++;
+        } catch (IOException e) {
+            // El cliente ha cerrado la conexión: se corta la lectura del ResultSet
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Escribe la fila actual del `ResultSet`.
+     * @param rs ResultSet posicionado en la fila a escribir
+     * @throws SQLException si falla la lectura de la fila
+     * @throws IOException si falla la escritura
+     */
+    protected abstract void writeRow(ResultSet rs) throws SQLException, IOException;
+
+    /**
+     * Termina la exportación y vacía los buffers pendientes en el flujo de salida.
+     * @throws IOException si falla la escritura
+     */
+    public void finish() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Número de filas escritas hasta el momento.
+     * @return Filas escritas
+     */
+    public long getRows() {
+        return rows;
+    }
+}
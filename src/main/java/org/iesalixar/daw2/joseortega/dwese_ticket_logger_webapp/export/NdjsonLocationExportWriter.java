@@ -0,0 +1,52 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Escritor NDJSON (un objeto JSON por línea) de la exportación de ubicaciones.
+ * Usa un único `JsonGenerator` de Jackson para todas las filas.
+ */
+public class NdjsonLocationExportWriter extends LocationExportWriter {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final JsonGenerator generator;
+
+    public NdjsonLocationExportWriter(Writer out) throws IOException {
+        super(out);
+        this.generator = JSON_FACTORY.createGenerator(out);
+        this.generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+        // El flujo lo cierra quien lo abrió
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    @Override
+    protected void writeRow(ResultSet rs) throws SQLException, IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", rs.getInt(1));
+        generator.writeStringField("address", rs.getString(2));
+        generator.writeStringField("city", rs.getString(3));
+        generator.writeNumberField("supermarket_id", rs.getInt(4));
+        generator.writeStringField("supermarket", rs.getString(5));
+        generator.writeNumberField("province_id", rs.getInt(6));
+        generator.writeStringField("province_code", rs.getString(7));
+        generator.writeStringField("province", rs.getString(8));
+        generator.writeEndObject();
+    }
+
+    @Override
+    public void finish() throws IOException {
+        // Separador tras el último objeto, para que cada línea termine en salto de línea
+        if (getRows() > 0) {
+            generator.writeRaw('\n');
+        }
+        generator.flush();
+    }
+}
@@ -0,0 +1,180 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.flash;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.web.servlet.FlashMap;
+import org.springframework.web.servlet.support.AbstractFlashMapManager;
+import org.springframework.web.util.WebUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Guarda los atributos flash en una cookie firmada en lugar de en la sesión HTTP.
+ * La cookie lleva los `FlashMap` pendientes en JSON (ruta y parámetros de destino, caducidad y atributos)
+ * y una firma HMAC-SHA256; cualquier instancia que comparta el secreto puede leerla, así que la petición
+ * que sigue a un redirect no tiene que volver a la instancia que lo emitió. Solo se guardan atributos de
+ * texto, que es lo que usan los controladores (successMessage / errorMessage); el resto se descarta con
+ * un aviso. Una cookie sin firma válida se ignora.
+ */
+public class SignedCookieFlashMapManager extends AbstractFlashMapManager {
+
+
+    private static final Logger logger = LoggerFactory.getLogger(SignedCookieFlashMapManager.class);
+
+    static final String COOKIE = "flash";
+
+    // Límite práctico de una cookie en los navegadores (nombre y valor)
+    static final int MAX_COOKIE_SIZE = 4000;
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    // Atributo de la petición con los FlashMap ya actualizados en esta misma petición
+    private static final String UPDATED_ATTRIBUTE = SignedCookieFlashMapManager.class.getName() + ".UPDATED";
+
+    private static final TypeReference<List<StoredFlashMap>> STORED_TYPE = new TypeReference<>() { };
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final SecretKeySpec key;
+
+
+    public SignedCookieFlashMapManager(byte[] secret) {
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+    }
+
+
+    @Override
+    protected List<FlashMap> retrieveFlashMaps(HttpServletRequest request) {
+        @SuppressWarnings("unchecked")
+        List<FlashMap> updated = (List<FlashMap>) request.getAttribute(UPDATED_ATTRIBUTE);
+        if (updated != null) {
+            return updated;
+        }
+        Cookie cookie = WebUtils.getCookie(request, COOKIE);
+        if (cookie == null || cookie.getValue().isEmpty()) {
+            return null;
+        }
+        return decode(cookie.getValue());
+    }
+
+
+    @Override
+    protected void updateFlashMaps(List<FlashMap> flashMaps, HttpServletRequest request, HttpServletResponse response) {
+        request.setAttribute(UPDATED_ATTRIBUTE, flashMaps);
+        String value = flashMaps.isEmpty() ? "" : encode(flashMaps);
+        if (value.length() + COOKIE.length() > MAX_COOKIE_SIZE) {
+            logger.warn("Flash attributes take {} bytes, over the {} bytes a cookie can hold; they are dropped",
+                    value.length(), MAX_COOKIE_SIZE);
+            value = "";
+        }
+        if (value.isEmpty() && WebUtils.getCookie(request, COOKIE) == null) {
+            return;
+        }
+        Cookie cookie = new Cookie(COOKIE, value);
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setAttribute("SameSite", "Lax");
+        cookie.setMaxAge(value.isEmpty() ? 0 : getFlashMapTimeout());
+        response.addCookie(cookie);
+    }
+
+
+    /**
+     * Sin sesión no hay nada que sincronizar: cada petición trabaja con su copia de la cookie.
+     */
+    @Override
+    protected Object getFlashMapsMutex(HttpServletRequest request) {
+        return null;
+    }
+
+
+    String encode(List<FlashMap> flashMaps) {
+        List<StoredFlashMap> stored = new ArrayList<>(flashMaps.size());
+        for (FlashMap flashMap : flashMaps) {
+            Map<String, String> attributes = new LinkedHashMap<>();
+            flashMap.forEach((name, value) -> {
+                if (value instanceof String text) {
+                    attributes.put(name, text);
+                } else if (value != null) {
+                    logger.warn("Flash attribute '{}' of type {} is not text and is not stored in the cookie",
+                            name, value.getClass().getName());
+                }
+            });
+            stored.add(new StoredFlashMap(flashMap.getTargetRequestPath(), flashMap.getTargetRequestParams(),
+                    flashMap.getExpirationTime(), attributes));
+        }
+        try {
+            String payload = Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(stored));
+            return payload + "." + sign(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Flash attributes could not be serialized", e);
+        }
+    }
+
+
+    List<FlashMap> decode(String value) {
+        int dot = value.lastIndexOf('.');
+        if (dot <= 0) {
+            return null;
+        }
+        String payload = value.substring(0, dot);
+        byte[] expected = sign(payload).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(expected, value.substring(dot + 1).getBytes(StandardCharsets.US_ASCII))) {
+            logger.warn("Flash cookie with an invalid signature ignored");
+            return null;
+        }
+        try {
+            List<StoredFlashMap> stored = objectMapper.readValue(Base64.getUrlDecoder().decode(payload), STORED_TYPE);
+            List<FlashMap> flashMaps = new ArrayList<>(stored.size());
+            for (StoredFlashMap entry : stored) {
+                FlashMap flashMap = new FlashMap();
+                flashMap.setTargetRequestPath(entry.path());
+                if (entry.params() != null) {
+                    flashMap.addTargetRequestParams(new LinkedMultiValueMap<>(entry.params()));
+                }
+                flashMap.setExpirationTime(entry.expires());
+                flashMap.putAll(entry.attributes());
+                flashMaps.add(flashMap);
+            }
+            return flashMaps;
+        } catch (IllegalArgumentException | java.io.IOException e) {
+            logger.warn("Flash cookie could not be read: {}", e.getMessage());
+            return null;
+        }
+    }
+
+
+    private String sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            byte[] signature = mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+
+    /**
+     * Forma de un `FlashMap` dentro de la cookie.
+     */
+    record StoredFlashMap(String path, Map<String, List<String>> params, long expires, Map<String, String> attributes) {
+    }
+}
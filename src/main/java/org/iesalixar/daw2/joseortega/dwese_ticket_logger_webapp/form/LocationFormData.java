@@ -0,0 +1,26 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.form;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Location;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Province;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Supermarket;
+
+import java.util.List;
+
+/**
+ * Datos del formulario de ubicaciones: la ubicación que se edita (null si no existe o si es nueva)
+ * y las provincias y los supermercados de los desplegables.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationFormData {
+
+    private Location location;
+
+    private List<Province> provinces;
+
+    private List<Supermarket> supermarkets;
+}
@@ -0,0 +1,114 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.form;
+
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.LocationDAO;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.ProvinceDAO;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.SupermarketDAO;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Location;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Province;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Supermarket;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.replica.RoutingContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Servicio que carga los datos del formulario de ubicaciones.
+ * La ubicación, las provincias y los supermercados son consultas independientes, así que las lanza a
+ * la vez: las dos listas en hilos virtuales y la ubicación en el hilo de la petición. La latencia es la
+ * de la consulta más lenta y no la suma de las tres. Los hilos viven solo dentro de la llamada (el
+ * ejecutor se cierra esperando a todos) y, si una consulta falla, se cancelan las demás. Las listas se
+ * leen con el estado de enrutado de la petición (`RoutingContext.propagate`), así que tras modificar una
+ * provincia o un supermercado también salen del primario.
+ * Las listas suelen salir de la caché de datos de referencia y entonces vuelven al momento; el
+ * paralelismo se nota cuando la caché está vacía (arranque o tras modificar provincias o supermercados).
+ */
+@Service
+public class LocationFormService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocationFormService.class);
+
+    private final LocationDAO locationDAO;
+
+    private final ProvinceDAO provinceDAO;
+
+    private final SupermarketDAO supermarketDAO;
+
+    // false para lanzar las consultas una tras otra
+    private final boolean parallel;
+
+    public LocationFormService(LocationDAO locationDAO, ProvinceDAO provinceDAO, SupermarketDAO supermarketDAO,
+                               @Value("${app.locations.form-parallel:true}") boolean parallel) {
+        this.locationDAO = locationDAO;
+        this.provinceDAO = provinceDAO;
+        this.supermarketDAO = supermarketDAO;
+        this.parallel = parallel;
+    }
+
+    /**
+     * Carga los datos del formulario de alta: provincias y supermercados.
+     * @return Datos del formulario, sin ubicación
+     * @throws SQLException si falla alguna de las consultas
+     */
+    public LocationFormData loadNewForm() throws SQLException {
+        return load(null);
+    }
+
+    /**
+     * Carga los datos del formulario de edición: la ubicación, las provincias y los supermercados.
+     * @param id ID de la ubicación
+     * @return Datos del formulario; la ubicación es null si no existe
+     * @throws SQLException si falla alguna de las consultas
+     */
+    public LocationFormData loadEditForm(int id) throws SQLException {
+        return load(id);
+    }
+
+    private LocationFormData load(Integer id) throws SQLException {
+        if (!parallel) {
+            return new LocationFormData(id == null ? null : locationDAO.getLocationById(id),
+                    provinceDAO.listAllProvinces(), supermarketDAO.listAllSupermarkets());
+        }
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<List<Province>> provinces = executor.submit(RoutingContext.propagate(provinceDAO::listAllProvinces));
+            Future<List<Supermarket>> supermarkets = executor.submit(
+                    RoutingContext.propagate(supermarketDAO::listAllSupermarkets));
+            try {
+                Location location = id == null ? null : locationDAO.getLocationById(id);
+                return new LocationFormData(location, join(provinces), join(supermarkets));
+            } catch (SQLException | RuntimeException e) {
+                executor.shutdownNow();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Espera el resultado de una consulta lanzada en otro hilo y relanza su excepción tal cual.
+     */
+    private static <T> T join(Future<T> future) throws SQLException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while loading the location form data", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            logger.error("Unexpected error loading the location form data: {}", cause.getMessage());
+            throw new SQLException(cause);
+        }
+    }
+}
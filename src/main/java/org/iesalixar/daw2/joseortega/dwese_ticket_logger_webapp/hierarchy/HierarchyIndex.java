@@ -0,0 +1,246 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.hierarchy;
+
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Province;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Region;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Árbol inmutable Comunidad autónoma → Provincia → IDs de ubicación, indexado por ID.
+ * Cada nivel es un array cuya posición es el ID, así que bajar de una comunidad a sus provincias
+ * o de una provincia a sus ubicaciones es un acceso directo, sin búsquedas ni consultas.
+ * Nunca se modifica: los cambios crean un índice nuevo (`withTree`, `withLocations`) que comparte
+ * con el anterior las partes que no cambian, y `HierarchyService` lo publica de una vez.
+ */
+public class HierarchyIndex {
+
+    private static final int[] NO_LOCATIONS = new int[0];
+
+    // Comunidades y provincias por ID (null si el ID no existe)
+    private final Region[] regions;
+
+    private final Province[] provinces;
+
+    // Provincias de cada comunidad, por ID de comunidad
+    private final List<Province>[] regionProvinces;
+
+    // IDs de ubicación de cada provincia, ordenados, por ID de provincia
+    private final int[][] provinceLocations;
+
+    // Provincia de cada ubicación, por ID de ubicación (0 si la ubicación no existe)
+    private final int[] locationProvinces;
+
+    private final int locationCount;
+
+    private HierarchyIndex(Region[] regions, Province[] provinces, List<Province>[] regionProvinces,
+                           int[][] provinceLocations, int[] locationProvinces, int locationCount) {
+        this.regions = regions;
+        this.provinces = provinces;
+        this.regionProvinces = regionProvinces;
+        this.provinceLocations = provinceLocations;
+        this.locationProvinces = locationProvinces;
+        this.locationCount = locationCount;
+    }
+
+    /**
+     * Índice vacío, sin comunidades, provincias ni ubicaciones.
+     */
+    public static HierarchyIndex empty() {
+        return build(List.of(), List.of(), NO_LOCATIONS);
+    }
+
+    /**
+     * Construye el índice completo.
+     * @param regions Comunidades autónomas
+     * @param provinces Provincias, con el ID de su comunidad
+     * @param locationProvinces Provincia de cada ubicación, por ID de ubicación (0 si no existe); no se copia
+     * @return Índice nuevo
+     */
+    @SuppressWarnings("unchecked")
+    public static HierarchyIndex build(List<Region> regions, List<Province> provinces, int[] locationProvinces) {
+        int maxRegion = 0;
+        for (Region region : regions) {
+            maxRegion = Math.max(maxRegion, region.getId());
+        }
+        Region[] regionById = new Region[maxRegion + 1];
+        for (Region region : regions) {
+            regionById[region.getId()] = region;
+        }
+
+        int maxProvince = 0;
+        for (Province province : provinces) {
+            maxProvince = Math.max(maxProvince, province.getId());
+        }
+        for (int provinceId : locationProvinces) {
+            maxProvince = Math.max(maxProvince, provinceId);
+        }
+        Province[] provinceById = new Province[maxProvince + 1];
+        List<Province>[] children = new List[regionById.length];
+        for (Province province : provinces) {
+            int regionId = province.getRegion().getId();
+            Region region = regionId < regionById.length ? regionById[regionId] : null;
+            Province node = new Province(province.getId(), province.getCode(), province.getName(),
+                    region != null ? region : province.getRegion());
+            provinceById[node.getId()] = node;
+            if (region != null) {
+                if (children[regionId] == null) {
+                    children[regionId] = new ArrayList<>();
+                }
+                children[regionId].add(node);
+            }
+        }
+        for (int i = 0; i < children.length; i++) {
+            if (regionById[i] != null) {
+                children[i] = children[i] == null ? List.of() : List.copyOf(children[i]);
+            }
+        }
+
+        // Dos pasadas por el array de ubicaciones: contar por provincia y repartir (ya en orden de ID)
+        int[] counts = new int[maxProvince + 1];
+        int locationCount = 0;
+        for (int provinceId : locationProvinces) {
+            if (provinceId > 0) {
+                counts[provinceId]++;
+                locationCount++;
+            }
+        }
+        int[][] locations = new int[maxProvince + 1][];
+        for (int p = 0; p < locations.length; p++) {
+            locations[p] = counts[p] == 0 ? NO_LOCATIONS : new int[counts[p]];
+            counts[p] = 0;
+        }
+        for (int id = 0; id < locationProvinces.length; id++) {
+            int provinceId = locationProvinces[id];
+            if (provinceId > 0) {
+                locations[provinceId][counts[provinceId]++] = id;
+            }
+        }
+        return new HierarchyIndex(regionById, provinceById, children, locations, locationProvinces, locationCount);
+    }
+
+    /**
+     * Índice nuevo con otras comunidades y provincias y las mismas ubicaciones.
+     */
+    public HierarchyIndex withTree(List<Region> regions, List<Province> provinces) {
+        return build(regions, provinces, locationProvinces);
+    }
+
+    /**
+     * Índice nuevo con las ubicaciones indicadas en su provincia actual. Solo se rehacen las listas de
+     * las provincias afectadas; las demás se comparten con este índice.
+     * @param ids IDs de las ubicaciones cambiadas
+     * @param provinceIds Provincia actual de cada una, en el mismo orden (0 si se ha eliminado)
+     * @return Índice nuevo
+     */
+    public HierarchyIndex withLocations(int[] ids, int[] provinceIds) {
+        int length = locationProvinces.length;
+        int maxProvince = provinceLocations.length - 1;
+        for (int i = 0; i < ids.length; i++) {
+            length = Math.max(length, ids[i] + 1);
+            maxProvince = Math.max(maxProvince, provinceIds[i]);
+        }
+        int[] newLocationProvinces = Arrays.copyOf(locationProvinces, length);
+        BitSet affected = new BitSet();
+        int count = locationCount;
+        for (int i = 0; i < ids.length; i++) {
+            int previous = newLocationProvinces[ids[i]];
+            if (previous == provinceIds[i]) {
+                continue;
+            }
+            count += (provinceIds[i] > 0 ? 1 : 0) - (previous > 0 ? 1 : 0);
+            affected.set(previous);
+            affected.set(provinceIds[i]);
+            newLocationProvinces[ids[i]] = provinceIds[i];
+        }
+        affected.clear(0);
+        if (affected.isEmpty()) {
+            return this;
+        }
+
+        int[][] newProvinceLocations = Arrays.copyOf(provinceLocations, maxProvince + 1);
+        for (int p = provinceLocations.length; p < newProvinceLocations.length; p++) {
+            newProvinceLocations[p] = NO_LOCATIONS;
+        }
+        for (int p = affected.nextSetBit(0); p >= 0; p = affected.nextSetBit(p + 1)) {
+            int[] current = newProvinceLocations[p];
+            int[] merged = new int[current.length + ids.length];
+            int size = 0;
+            for (int id : current) {
+                if (newLocationProvinces[id] == p) {
+                    merged[size++] = id;
+                }
+            }
+            for (int i = 0; i < ids.length; i++) {
+                if (provinceIds[i] == p && Arrays.binarySearch(current, ids[i]) < 0) {
+                    merged[size++] = ids[i];
+                }
+            }
+            merged = Arrays.copyOf(merged, size);
+            Arrays.sort(merged);
+            newProvinceLocations[p] = merged;
+        }
+        Province[] newProvinces = provinces.length > maxProvince ? provinces : Arrays.copyOf(provinces, maxProvince + 1);
+        return new HierarchyIndex(regions, newProvinces, regionProvinces, newProvinceLocations, newLocationProvinces, count);
+    }
+
+    /**
+     * Comunidad autónoma por ID, o null si no existe.
+     */
+    public Region getRegion(int id) {
+        return id >= 0 && id < regions.length ? regions[id] : null;
+    }
+
+    /**
+     * Provincia por ID, o null si no existe.
+     */
+    public Province getProvince(int id) {
+        return id >= 0 && id < provinces.length ? provinces[id] : null;
+    }
+
+    /**
+     * Provincias de una comunidad autónoma (lista inmutable), o null si la comunidad no existe.
+     */
+    public List<Province> getProvinces(int regionId) {
+        return regionId >= 0 && regionId < regionProvinces.length ? regionProvinces[regionId] : null;
+    }
+
+    /**
+     * Número de ubicaciones de una provincia.
+     */
+    public int countLocations(int provinceId) {
+        return provinceId > 0 && provinceId < provinceLocations.length ? provinceLocations[provinceId].length : 0;
+    }
+
+    /**
+     * IDs de las ubicaciones de una provincia, en orden, desde la posición `offset`.
+     * @param provinceId ID de la provincia
+     * @param offset Posición de la primera ubicación
+     * @param limit Número máximo de IDs
+     * @return Copia de los IDs pedidos (vacía si no hay)
+     */
+    public int[] getLocationIds(int provinceId, int offset, int limit) {
+        if (provinceId <= 0 || provinceId >= provinceLocations.length) {
+            return NO_LOCATIONS;
+        }
+        int[] ids = provinceLocations[provinceId];
+        int from = Math.min(Math.max(offset, 0), ids.length);
+        return Arrays.copyOfRange(ids, from, from + Math.min(Math.max(limit, 0), ids.length - from));
+    }
+
+    /**
+     * Provincia de una ubicación, o 0 si no existe.
+     */
+    public int getLocationProvince(int locationId) {
+        return locationId >= 0 && locationId < locationProvinces.length ? locationProvinces[locationId] : 0;
+    }
+
+    /**
+     * Número total de ubicaciones.
+     */
+    public int getLocationCount() {
+        return locationCount;
+    }
+}
@@ -0,0 +1,270 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.hierarchy;
+
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.DataChangedEvent;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.LocationDAO;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.ProvinceDAO;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.RegionDAO;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.replica.RoutingContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Servicio que mantiene el `HierarchyIndex` de comunidades, provincias y ubicaciones.
+ * Lo construye al arrancar con una consulta por tabla y lo sustituye entero cuando cambian los datos
+ * (`DataChangedEvent`), de modo que cada lectura ve un árbol completo y coherente.
+ * El evento solo anota el cambio, sin consultar nada en el hilo de la escritura; la siguiente lectura
+ * (`getIndex`) aplica lo anotado antes de devolver el índice. Los cambios de ubicaciones consultan solo
+ * las filas afectadas y rehacen solo sus provincias. Los cambios de comunidades o provincias rehacen el
+ * árbol con las listas leídas sin caché. Cada cambio cuenta en `treeChanges` y una reconstrucción solo da
+ * por aplicados los cambios contados antes de leer las listas, así que un cambio que llega mientras se
+ * rehace deja el árbol pendiente. Si la actualización falla, se reintenta en la siguiente lectura.
+ * Los eventos solo llegan de las escrituras de esta instancia: para ver las de otras, el índice se recarga
+ * entero en segundo plano cuando tiene más de `app.hierarchy.reload-ms`, como el índice de búsqueda de
+ * ubicaciones. Tanto los cambios como la recarga se leen del primario.
+ * Carga, reconstrucción y actualizaciones de ubicaciones se hacen de una en una (`updateLock`).
+ */
+@Service
+public class HierarchyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HierarchyService.class);
+
+    private final RegionDAO regionDAO;
+
+    private final ProvinceDAO provinceDAO;
+
+    private final LocationDAO locationDAO;
+
+    private final ReentrantLock updateLock = new ReentrantLock();
+
+    // Ubicaciones cambiadas pendientes de aplicar, y si hay que recargar todas (protegidos por `pendingLock`)
+    private final ReentrantLock pendingLock = new ReentrantLock();
+
+    private Set<Integer> pendingLocations = new HashSet<>();
+
+    private boolean pendingLoad;
+
+    private volatile HierarchyIndex index = HierarchyIndex.empty();
+
+    // Cambios de comunidades o provincias recibidos, y cuántos de ellos refleja el árbol actual
+    private final AtomicLong treeChanges = new AtomicLong(1);
+
+    private volatile long treeBuiltFor;
+
+    private volatile long loadedAt = System.nanoTime();
+
+    // Cada cuánto se recarga el índice desde la base de datos (0 = nunca)
+    private final long reloadNanos;
+
+    // Solo una recarga en segundo plano a la vez
+    private final AtomicBoolean reloading = new AtomicBoolean();
+
+    public HierarchyService(RegionDAO regionDAO, ProvinceDAO provinceDAO, LocationDAO locationDAO,
+                            @Value("${app.hierarchy.reload-ms:300000}") long reloadMillis) {
+        this.regionDAO = regionDAO;
+        this.provinceDAO = provinceDAO;
+        this.locationDAO = locationDAO;
+        this.reloadNanos = TimeUnit.MILLISECONDS.toNanos(reloadMillis);
+    }
+
+    /**
+     * Construye el índice completo al arrancar la aplicación, y después cuando caduca o un cambio de
+     * ubicaciones no trae los IDs.
+     * @throws SQLException si falla alguna de las consultas
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() throws SQLException {
+        updateLock.lock();
+        try {
+            long start = System.nanoTime();
+            long changes = treeChanges.get();
+            // Lo anotado hasta aquí lo cubre la carga; lo que llegue durante ella se aplica después
+            Set<Integer> covered;
+            boolean coveredLoad;
+            pendingLock.lock();
+            try {
+                covered = pendingLocations;
+                coveredLoad = pendingLoad;
+                pendingLocations = new HashSet<>();
+                pendingLoad = false;
+            } finally {
+                pendingLock.unlock();
+            }
+            HierarchyIndex loaded;
+            try {
+                int[][] locationProvinces = {new int[1024]};
+                locationDAO.streamLocationProvinces(null, rs -> {
+                    int id = rs.getInt(1);
+                    if (id >= locationProvinces[0].length) {
+                        locationProvinces[0] = Arrays.copyOf(locationProvinces[0], Math.max(id + 1, locationProvinces[0].length * 2));
+                    }
+                    locationProvinces[0][id] = rs.getInt(2);
+                });
+                loaded = HierarchyIndex.build(regionDAO.listAllRegionsUncached(),
+                        provinceDAO.listAllProvincesUncached(), locationProvinces[0]);
+            } catch (SQLException | RuntimeException e) {
+                pendingLock.lock();
+                try {
+                    pendingLocations.addAll(covered);
+                    pendingLoad |= coveredLoad;
+                } finally {
+                    pendingLock.unlock();
+                }
+                throw e;
+            }
+            index = loaded;
+            treeBuiltFor = changes;
+            loadedAt = start;
+            logger.info("Hierarchy index loaded with {} locations in {} ms.", loaded.getLocationCount(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    /**
+     * Anota los cambios confirmados en comunidades, provincias o ubicaciones para aplicarlos en la
+     * siguiente lectura. No consulta la base de datos, así que no alarga la escritura que lo publica.
+     * Si el evento de ubicaciones no trae los IDs cambiados, se recargará el índice entero.
+     * @param event Evento con la tabla y los IDs cambiados
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDataChanged(DataChangedEvent event) {
+        switch (event.getTable()) {
+            case "regions", "provinces" -> treeChanges.incrementAndGet();
+            case "locations" -> {
+                pendingLock.lock();
+                try {
+                    if (event.getIds().isEmpty()) {
+                        pendingLoad = true;
+                    } else {
+                        pendingLocations.addAll(event.getIds());
+                    }
+                } finally {
+                    pendingLock.unlock();
+                }
+            }
+            default -> { }
+        }
+    }
+
+    /**
+     * Índice actual, con los cambios anotados ya aplicados. Es inmutable, así que puede recorrerse sin bloqueos.
+     * Los cambios se leen del primario, porque una réplica retrasada daría por aplicado un cambio que aún no tiene.
+     * Si ha caducado, lanza su recarga en segundo plano y devuelve el actual.
+     * @return Índice de comunidades, provincias y ubicaciones
+     * @throws SQLException si hay que aplicar cambios y falla la consulta
+     */
+    public HierarchyIndex getIndex() throws SQLException {
+        if (reloadNanos > 0 && System.nanoTime() - loadedAt > reloadNanos && reloading.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("hierarchy-reload").start(() -> {
+                RoutingContext.stickToPrimary(Long.MAX_VALUE);
+                try {
+                    load();
+                } catch (SQLException | RuntimeException e) {
+                    logger.warn("Hierarchy index could not be reloaded: {}", e.getMessage());
+                } finally {
+                    reloading.set(false);
+                    RoutingContext.clear();
+                }
+            });
+        }
+        boolean load;
+        Set<Integer> locations;
+        pendingLock.lock();
+        try {
+            load = pendingLoad;
+            locations = pendingLocations;
+        } finally {
+            pendingLock.unlock();
+        }
+        if (load || !locations.isEmpty() || treeBuiltFor != treeChanges.get()) {
+            long primaryUntil = RoutingContext.getPrimaryUntil();
+            RoutingContext.stickToPrimary(Long.MAX_VALUE);
+            try {
+                if (load) {
+                    load();
+                } else if (!locations.isEmpty()) {
+                    updateLocations();
+                }
+                if (treeBuiltFor != treeChanges.get()) {
+                    rebuildTree();
+                }
+            } finally {
+                RoutingContext.setPrimaryUntil(primaryUntil);
+            }
+        }
+        return index;
+    }
+
+    private void rebuildTree() throws SQLException {
+        updateLock.lock();
+        try {
+            long changes = treeChanges.get();
+            if (treeBuiltFor == changes) {
+                return;
+            }
+            index = index.withTree(regionDAO.listAllRegionsUncached(), provinceDAO.listAllProvincesUncached());
+            treeBuiltFor = changes;
+            logger.info("Hierarchy index tree rebuilt.");
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    /**
+     * Consulta la provincia actual de las ubicaciones anotadas; las que ya no existen se eliminan.
+     * Si la consulta falla, las ubicaciones vuelven a quedar anotadas.
+     */
+    private void updateLocations() throws SQLException {
+        updateLock.lock();
+        try {
+            Set<Integer> ids;
+            pendingLock.lock();
+            try {
+                ids = pendingLocations;
+                pendingLocations = new HashSet<>();
+            } finally {
+                pendingLock.unlock();
+            }
+            if (ids.isEmpty()) {
+                return;
+            }
+            int[] changed = ids.stream().mapToInt(Integer::intValue).sorted().toArray();
+            int[] current = new int[changed.length];
+            try {
+                locationDAO.streamLocationProvinces(Arrays.stream(changed).boxed().toList(), rs -> {
+                    int i = Arrays.binarySearch(changed, rs.getInt(1));
+                    if (i >= 0) {
+                        current[i] = rs.getInt(2);
+                    }
+                });
+            } catch (SQLException | RuntimeException e) {
+                pendingLock.lock();
+                try {
+                    pendingLocations.addAll(ids);
+                } finally {
+                    pendingLock.unlock();
+                }
+                throw e;
+            }
+            index = index.withLocations(changed, current);
+            logger.debug("Hierarchy index updated for {} locations.", changed.length);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+}
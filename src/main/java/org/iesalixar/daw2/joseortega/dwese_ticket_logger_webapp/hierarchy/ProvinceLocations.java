@@ -0,0 +1,26 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.hierarchy;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Tramo de los IDs de ubicación de una provincia, tal como lo devuelve `/provinces/{id}/locations`.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProvinceLocations {
+
+    // ID de la provincia
+    private int provinceId;
+
+    // Número total de ubicaciones de la provincia
+    private int total;
+
+    // Posición de la primera ubicación del tramo
+    private int offset;
+
+    // IDs de las ubicaciones del tramo, en orden
+    private int[] locationIds;
+}
@@ -0,0 +1,72 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.httpcache;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.support.RequestContextUtils;
+
+import java.util.Map;
+
+/**
+ * Responde a las peticiones GET condicionales (`If-None-Match`, `If-Modified-Since`) de las páginas
+ * que dependen solo de unas tablas, antes de llegar al controlador.
+ * El ETag combina las versiones de `TableVersions` con el idioma de la petición, porque la misma URL
+ * se genera en cada idioma de la sesión. Es débil (`W/"..."`): identifica el contenido, no los bytes, y
+ * Tomcat no comprime las respuestas con un ETag fuerte. Si la página no ha cambiado, responde 304 sin
+ * consultar la base de datos ni ejecutar Thymeleaf; si ha cambiado, la deja generar con su ETag y
+ * `Cache-Control: no-cache, private`, para que el navegador la guarde y pregunte siempre antes de usarla.
+ * Las páginas con mensajes (atributos flash o `errorMessage` en el modelo) no usan ETag y se marcan
+ * como `no-store`, ya que su contenido no depende solo de los datos. Tampoco las generadas justo después
+ * de un cambio mientras este puede no haber llegado a las réplicas (`TableVersions.isSettled`), ni las
+ * generadas cuando no se han podido leer las versiones de las tablas.
+ */
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    private static final String PAGE_CACHE_CONTROL = CacheControl.noCache().cachePrivate().getHeaderValue();
+
+    private static final String NO_STORE = CacheControl.noStore().getHeaderValue();
+
+    private final TableVersions tableVersions;
+
+    private final String[] tables;
+
+    /**
+     * @param tableVersions Versiones de las tablas
+     * @param tables Tablas de las que dependen las páginas de este interceptor
+     */
+    public ConditionalGetInterceptor(TableVersions tableVersions, String... tables) {
+        this.tableVersions = tableVersions;
+        this.tables = tables;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            return true;
+        }
+        Map<String, ?> flashMap = RequestContextUtils.getInputFlashMap(request);
+        String tag = tableVersions.tag(tables);
+        if (flashMap != null && !flashMap.isEmpty() || tag == null || !tableVersions.isSettled(tables)) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, NO_STORE);
+            return true;
+        }
+        String etag = "W/\"" + tag + '-' + RequestContextUtils.getLocale(request).toLanguageTag() + '"';
+        response.setHeader(HttpHeaders.CACHE_CONTROL, PAGE_CACHE_CONTROL);
+        return !new ServletWebRequest(request, response).checkNotModified(etag, tableVersions.lastModified(tables));
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        if (modelAndView != null) {
+            Map<String, Object> model = modelAndView.getModel();
+            if (model.get("errorMessage") != null) {
+                response.setHeader(HttpHeaders.CACHE_CONTROL, NO_STORE);
+            }
+        }
+    }
+}
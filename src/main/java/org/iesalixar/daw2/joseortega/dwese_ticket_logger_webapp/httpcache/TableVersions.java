@@ -0,0 +1,208 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.httpcache;
+
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.DataChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Versión por tabla, guardada en la tabla `table_versions`, junto con la hora del último cambio. Con ellas
+ * `ConditionalGetInterceptor` genera el ETag y el `Last-Modified` de las páginas.
+ * Cada escritura de los DAO (`DataChangedEvent`) aumenta la versión de su tabla en la misma transacción,
+ * así que la comparten todas las instancias. Cada instancia guarda las versiones leídas durante
+ * `app.http-cache.refresh-ms` y las vuelve a leer (una consulta para todas las tablas) al caducar o al
+ * confirmarse una escritura propia: un cambio hecho en otra instancia cambia aquí el ETag como mucho ese
+ * tiempo después, y hasta entonces esta instancia puede responder 304 con la versión anterior.
+ * El ETag empieza por `app.http-cache.etag-prefix`, o por la hora de arranque si está vacío, para no
+ * reutilizarlo entre despliegues con plantillas distintas; con el mismo prefijo en todas las instancias
+ * un navegador revalida en cualquiera de ellas.
+ * Con réplicas de lectura, una tabla recién cambiada no está asentada durante la ventana de lectura de
+ * las propias escrituras: una página generada entonces puede salir de una réplica retrasada y no debe
+ * guardarse con el ETag nuevo.
+ */
+@Component
+public class TableVersions {
+
+    private static final Logger logger = LoggerFactory.getLogger(TableVersions.class);
+
+    // Cachés de Spring con filas de cada tabla (las provincias cacheadas incluyen su comunidad)
+    private static final Map<String, List<String>> TABLE_CACHES = Map.of(
+            "regions", List.of("regions", "provinces"),
+            "provinces", List.of("provinces"),
+            "supermarkets", List.of("supermarkets"));
+
+    private final ObjectProvider<CacheManager> cacheManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final long startedAt = System.currentTimeMillis();
+
+    private final String instance;
+
+    private final long refreshNanos;
+
+    // Una sola lectura de las versiones a la vez
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    // Última lectura de table_versions; null hasta la primera que funcione
+    private volatile Map<String, Version> versions;
+
+    private volatile long refreshedAt;
+
+    // Tiempo que tarda un cambio en llegar a las réplicas (0 sin réplicas)
+    @Value("#{'${app.datasource.replicas.urls:}'.isBlank() ? 0 : ${app.datasource.replicas.read-your-writes-ms:5000}}")
+    private long settleMillis;
+
+    public TableVersions(ObjectProvider<CacheManager> cacheManager, JdbcTemplate jdbcTemplate,
+                         @Value("${app.http-cache.refresh-ms:1000}") long refreshMillis,
+                         @Value("${app.http-cache.etag-prefix:}") String etagPrefix) {
+        this.cacheManager = cacheManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.refreshNanos = TimeUnit.MILLISECONDS.toNanos(refreshMillis);
+        this.instance = etagPrefix.isBlank() ? Long.toString(startedAt, 36) : etagPrefix;
+    }
+
+    /**
+     * Aumenta la versión de la tabla dentro de la transacción de la escritura (o justo después de ella,
+     * si no hay transacción), de modo que la nueva versión se confirma o se deshace con los datos.
+     * @param event Evento de la escritura
+     */
+    @EventListener
+    public void recordChange(DataChangedEvent event) {
+        jdbcTemplate.update("UPDATE table_versions SET version = version + 1, modified_at = CURRENT_TIMESTAMP(3) " +
+                "WHERE table_name = ?", event.getTable());
+    }
+
+    /**
+     * Cuando se confirma la escritura (o en el momento si no hay transacción), vacía las cachés de esa
+     * tabla y vuelve a leer las versiones, para que esta instancia use enseguida el ETag nuevo.
+     * Las cachés se vacían aquí porque el DAO las vacía al terminar su método, después de publicar
+     * el evento, y una página generada entre medias mostraría datos antiguos con el ETag nuevo.
+     * @param event Evento de la escritura
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDataChanged(DataChangedEvent event) {
+        CacheManager manager = cacheManager.getIfAvailable();
+        if (manager != null) {
+            for (String name : TABLE_CACHES.getOrDefault(event.getTable(), List.of())) {
+                Cache cache = manager.getCache(name);
+                if (cache != null) {
+                    cache.clear();
+                }
+            }
+        }
+        refresh();
+    }
+
+    /**
+     * ETag (sin comillas) que combina la versión de las tablas indicadas.
+     * @param tables Tablas de las que depende la página
+     * @return Prefijo y versiones, como "m2x1k9-3.0.7", o null si no se han podido leer las versiones
+     */
+    public String tag(String... tables) {
+        Map<String, Version> current = current();
+        if (current == null) {
+            return null;
+        }
+        StringBuilder tag = new StringBuilder(instance).append('-');
+        for (int i = 0; i < tables.length; i++) {
+            if (i > 0) {
+                tag.append('.');
+            }
+            Version version = current.get(tables[i]);
+            tag.append(version == null ? 0 : version.counter());
+        }
+        return tag.toString();
+    }
+
+    /**
+     * Hora del último cambio de las tablas indicadas, o la de arranque si es posterior.
+     * @param tables Tablas de las que depende la página
+     * @return Milisegundos desde la época
+     */
+    public long lastModified(String... tables) {
+        Map<String, Version> current = current();
+        long lastModified = startedAt;
+        for (String table : tables) {
+            Version version = current == null ? null : current.get(table);
+            if (version != null) {
+                lastModified = Math.max(lastModified, version.modifiedAt());
+            }
+        }
+        return lastModified;
+    }
+
+    /**
+     * Indica si las tablas llevan sin cambiar al menos lo que tardan los cambios en llegar a las réplicas,
+     * contando desde que esta instancia vio el cambio (con su propio reloj).
+     * @param tables Tablas de las que depende la página
+     * @return true si ninguna ha cambiado dentro de esa ventana (siempre, sin réplicas)
+     */
+    public boolean isSettled(String... tables) {
+        if (settleMillis <= 0) {
+            return true;
+        }
+        Map<String, Version> current = current();
+        long now = System.currentTimeMillis();
+        for (String table : tables) {
+            Version version = current == null ? null : current.get(table);
+            if (version != null && now - version.seenAt() < settleMillis) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Map<String, Version> current() {
+        if (versions == null || System.nanoTime() - refreshedAt > refreshNanos) {
+            refresh();
+        }
+        return versions;
+    }
+
+    /**
+     * Lee las versiones de todas las tablas. Si falla, se siguen usando las anteriores hasta el siguiente intento.
+     */
+    private void refresh() {
+        refreshLock.lock();
+        try {
+            Map<String, Version> previous = versions;
+            Map<String, Version> loaded = new HashMap<>();
+            long now = System.currentTimeMillis();
+            jdbcTemplate.query("SELECT table_name, version, modified_at FROM table_versions", rs -> {
+                String table = rs.getString(1);
+                long counter = rs.getLong(2);
+                Version old = previous == null ? null : previous.get(table);
+                // Sin lectura anterior no se sabe cuándo cambió: se da por asentada
+                long seenAt = old == null ? 0 : old.counter() == counter ? old.seenAt() : now;
+                loaded.put(table, new Version(counter, rs.getTimestamp(3).getTime(), seenAt));
+            });
+            versions = Map.copyOf(loaded);
+        } catch (DataAccessException e) {
+            logger.warn("Table versions could not be read: {}", e.getMessage());
+        } finally {
+            refreshedAt = System.nanoTime();
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Versión de una tabla, hora del cambio en la base de datos y hora en que esta instancia lo vio.
+     */
+    private record Version(long counter, long modifiedAt, long seenAt) {
+    }
+}
@@ -0,0 +1,222 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.i18n;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.support.AbstractMessageSource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * `MessageSource` que compila los `messages*.properties` al arrancar en tablas inmutables.
+ * Todas las claves de todos los ficheros forman una tabla de claves única (clave → posición) y cada
+ * idioma tiene un array plano de textos con la cadena de respaldo ya aplicada (idioma_PAÍS → idioma →
+ * idioma del sistema si no hay fichero para el pedido → base), así que resolver un `#{msg.*}` es una
+ * búsqueda en un `HashMap` y un acceso a un array, sin recorrer `ResourceBundle` ni sus cachés.
+ * Resuelve los mismos textos que `ResourceBundleMessageSource` con los ajustes de `spring.messages.*`;
+ * los ficheros no se recargan en caliente.
+ */
+public class CompiledMessageSource extends AbstractMessageSource {
+
+
+    private static final Logger logger = LoggerFactory.getLogger(CompiledMessageSource.class);
+
+    // Clave → posición en los arrays de textos
+    private final Map<String, Integer> keys;
+
+    // Idioma exacto de un fichero, y solo el idioma (sin país) de cada fichero
+    private final Map<Locale, String[]> byLocale;
+
+    private final Map<String, String[]> byLanguage;
+
+    // Para los idiomas sin fichero
+    private final String[] fallback;
+
+    // Valores del parámetro lang y de la cookie de idioma ("en", "es-ES", "es_ES") → Locale ya construido
+    private final Map<String, Locale> supportedLocales;
+
+
+    /**
+     * Lee y compila los ficheros de mensajes.
+     *
+     * @param resolver               cargador de recursos del classpath.
+     * @param basenames              nombres base separados por comas, como `spring.messages.basename`.
+     * @param encoding               codificación de los ficheros.
+     * @param fallbackToSystemLocale si un idioma sin fichero usa los textos del idioma del sistema antes que los base.
+     */
+    public CompiledMessageSource(ResourcePatternResolver resolver, String basenames, Charset encoding,
+                                 boolean fallbackToSystemLocale) {
+        List<Map<Locale, Properties>> bundles = new ArrayList<>();
+        TreeSet<String> allKeys = new TreeSet<>();
+        TreeSet<String> locales = new TreeSet<>();
+        for (String basename : StringUtils.commaDelimitedListToStringArray(StringUtils.trimAllWhitespace(basenames))) {
+            Map<Locale, Properties> bundle = load(resolver, basename, encoding);
+            bundle.values().forEach(properties -> allKeys.addAll(properties.stringPropertyNames()));
+            bundle.keySet().forEach(locale -> locales.add(locale.toString()));
+            bundles.add(bundle);
+        }
+
+        Map<String, Integer> keyTable = new HashMap<>();
+        for (String key : allKeys) {
+            keyTable.put(key, keyTable.size());
+        }
+        this.keys = Collections.unmodifiableMap(keyTable);
+
+        Locale systemLocale = fallbackToSystemLocale ? Locale.getDefault() : null;
+        Map<Locale, String[]> exact = new HashMap<>();
+        Map<String, String[]> languages = new HashMap<>();
+        Map<String, Locale> supported = new HashMap<>();
+        for (String name : locales) {
+            if (name.isEmpty()) {
+                continue;
+            }
+            Locale locale = StringUtils.parseLocaleString(name);
+            exact.put(locale, compile(bundles, locale, systemLocale));
+            languages.computeIfAbsent(locale.getLanguage(), language -> compile(bundles, Locale.of(language), systemLocale));
+            supported.put(locale.toString(), locale);
+            supported.put(locale.toLanguageTag(), locale);
+            supported.putIfAbsent(locale.getLanguage(), Locale.of(locale.getLanguage()));
+        }
+        this.byLocale = Collections.unmodifiableMap(exact);
+        this.byLanguage = Collections.unmodifiableMap(languages);
+        this.fallback = compile(bundles, Locale.ROOT, systemLocale);
+        this.supportedLocales = Collections.unmodifiableMap(supported);
+        logger.info("Compiled {} message keys for locales {} (basenames: {})", keys.size(), exact.keySet(), basenames);
+    }
+
+
+    /**
+     * Devuelve el `Locale` ya construido de un idioma con fichero de mensajes.
+     *
+     * @param value valor del parámetro de idioma o de la cookie ("en", "es_ES" o "es-ES").
+     * @return el `Locale`, o null si no hay mensajes para ese valor.
+     */
+    public Locale getSupportedLocale(String value) {
+        return supportedLocales.get(value);
+    }
+
+
+    /**
+     * Los mensajes sin argumentos, que son todos los de las plantillas, llegan aquí directamente y se
+     * devuelven tal cual, sin `MessageFormat`.
+     */
+    @Override
+    protected String resolveCodeWithoutArguments(String code, Locale locale) {
+        return lookup(code, locale);
+    }
+
+
+    @Override
+    protected MessageFormat resolveCode(String code, Locale locale) {
+        String message = lookup(code, locale);
+        return message != null ? createMessageFormat(message, locale) : null;
+    }
+
+
+    private String lookup(String code, Locale locale) {
+        Integer index = code != null ? keys.get(code) : null;
+        if (index == null) {
+            return null;
+        }
+        return table(locale != null ? locale : Locale.getDefault())[index];
+    }
+
+
+    private String[] table(Locale locale) {
+        String[] table = byLocale.get(locale);
+        if (table == null) {
+            table = byLanguage.get(locale.getLanguage());
+        }
+        return table != null ? table : fallback;
+    }
+
+
+    /**
+     * Textos de un idioma en el orden de la tabla de claves: por cada nombre base, el primer fichero de
+     * la cadena del idioma que tiene la clave, como `ResourceBundle.getBundle`.
+     */
+    private String[] compile(List<Map<Locale, Properties>> bundles, Locale locale, Locale systemLocale) {
+        String[] values = new String[keys.size()];
+        for (Map<Locale, Properties> bundle : bundles) {
+            List<Properties> chain = chain(bundle, locale);
+            if (chain.isEmpty() && systemLocale != null && !systemLocale.equals(locale)) {
+                chain = chain(bundle, systemLocale);
+            }
+            Properties base = bundle.get(Locale.ROOT);
+            if (base != null) {
+                chain.add(base);
+            }
+            for (Map.Entry<String, Integer> key : keys.entrySet()) {
+                int index = key.getValue();
+                for (int i = 0; i < chain.size() && values[index] == null; i++) {
+                    values[index] = chain.get(i).getProperty(key.getKey());
+                }
+            }
+        }
+        return values;
+    }
+
+
+    private static List<Properties> chain(Map<Locale, Properties> bundle, Locale locale) {
+        List<Properties> chain = new ArrayList<>();
+        List<Locale> candidates = List.of(
+                new Locale.Builder().setLanguage(locale.getLanguage()).setRegion(locale.getCountry()).setVariant(locale.getVariant()).build(),
+                new Locale.Builder().setLanguage(locale.getLanguage()).setRegion(locale.getCountry()).build(),
+                new Locale.Builder().setLanguage(locale.getLanguage()).build());
+        Locale previous = null;
+        for (Locale candidate : candidates) {
+            if (!candidate.equals(previous) && !candidate.equals(Locale.ROOT) && bundle.containsKey(candidate)) {
+                chain.add(bundle.get(candidate));
+            }
+            previous = candidate;
+        }
+        return chain;
+    }
+
+
+    /**
+     * Lee los ficheros `basename.properties` y `basename_*.properties` del classpath; si un fichero
+     * aparece varias veces se usa el primero, como hace el `ClassLoader`.
+     */
+    private static Map<Locale, Properties> load(ResourcePatternResolver resolver, String basename, Charset encoding) {
+        String path = basename.replace('.', '/');
+        String prefix = StringUtils.getFilename(path);
+        Map<Locale, Properties> bundle = new LinkedHashMap<>();
+        try {
+            for (Resource resource : resolver.getResources(ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX + path + "*.properties")) {
+                String suffix = StringUtils.stripFilenameExtension(resource.getFilename()).substring(prefix.length());
+                if (!suffix.isEmpty() && !suffix.startsWith("_")) {
+                    continue;
+                }
+                Locale locale = suffix.isEmpty() ? Locale.ROOT : StringUtils.parseLocaleString(suffix.substring(1));
+                if (locale == null || bundle.containsKey(locale)) {
+                    continue;
+                }
+                Properties properties = new Properties();
+                try (InputStream in = resource.getInputStream()) {
+                    properties.load(new InputStreamReader(in, encoding));
+                }
+                bundle.put(locale, properties);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Message bundle " + basename + " could not be read", e);
+        }
+        return bundle;
+    }
+}
@@ -0,0 +1,54 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.i18n;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.LocaleResolver;
+import org.springframework.web.servlet.i18n.LocaleChangeInterceptor;
+import org.springframework.web.servlet.support.RequestContextUtils;
+
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * `LocaleChangeInterceptor` que no reserva memoria en el caso habitual.
+ * Sin parámetro `lang` solo lee el parámetro. Con un idioma soportado toma su `Locale` ya construido en
+ * lugar de analizar el texto, y si ya es el idioma del cliente no vuelve a guardarlo (ni cookie ni
+ * sesión nuevas en cada clic del selector de idioma). Los valores desconocidos siguen el camino de Spring.
+ */
+public class LanguageParamInterceptor extends LocaleChangeInterceptor {
+
+
+    private final Function<String, Locale> supportedLocales;
+
+
+    /**
+     * @param supportedLocales valor del parámetro → `Locale` ya construido, o null si no está soportado.
+     */
+    public LanguageParamInterceptor(Function<String, Locale> supportedLocales) {
+        this.supportedLocales = supportedLocales;
+    }
+
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws ServletException {
+        String value = request.getParameter(getParamName());
+        if (value == null) {
+            return true;
+        }
+        Locale locale = supportedLocales.apply(value);
+        LocaleResolver localeResolver = RequestContextUtils.getLocaleResolver(request);
+        if (locale != null && localeResolver != null && locale.equals(localeResolver.resolveLocale(request))) {
+            return true;
+        }
+        return super.preHandle(request, response, handler);
+    }
+
+
+    @Override
+    protected Locale parseLocaleValue(String localeValue) {
+        Locale locale = supportedLocales.apply(localeValue);
+        return locale != null ? locale : super.parseLocaleValue(localeValue);
+    }
+}
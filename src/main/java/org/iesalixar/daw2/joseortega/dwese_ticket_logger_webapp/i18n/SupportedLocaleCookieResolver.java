@@ -0,0 +1,33 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.i18n;
+
+import org.springframework.web.servlet.i18n.CookieLocaleResolver;
+
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * `CookieLocaleResolver` que toma el `Locale` ya construido de los idiomas soportados en lugar de
+ * analizar el valor de la cookie en cada petición. Los valores desconocidos siguen el camino de Spring.
+ */
+public class SupportedLocaleCookieResolver extends CookieLocaleResolver {
+
+
+    private final Function<String, Locale> supportedLocales;
+
+
+    /**
+     * @param cookieName       nombre de la cookie de idioma.
+     * @param supportedLocales valor de la cookie → `Locale` ya construido, o null si no está soportado.
+     */
+    public SupportedLocaleCookieResolver(String cookieName, Function<String, Locale> supportedLocales) {
+        super(cookieName);
+        this.supportedLocales = supportedLocales;
+    }
+
+
+    @Override
+    protected Locale parseLocaleValue(String localeValue) {
+        Locale locale = supportedLocales.apply(localeValue);
+        return locale != null ? locale : super.parseLocaleValue(localeValue);
+    }
+}
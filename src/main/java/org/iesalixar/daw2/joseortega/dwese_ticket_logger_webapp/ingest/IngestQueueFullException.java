@@ -0,0 +1,12 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.ingest;
+
+/**
+ * Excepción lanzada cuando la cola de ingesta está llena y el ticket no se ha podido
+ * encolar en el tiempo de espera configurado. El cliente debe reintentar más tarde.
+ */
+public class IngestQueueFullException extends RuntimeException {
+
+    public IngestQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,314 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.ingest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.TicketDAO;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Ticket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cola de ingesta de tickets con escritura diferida (write-behind) y commit agrupado.
+ * Los productores encolan tickets en una cola sin bloqueos (`LinkedTransferQueue`, que encola con
+ * operaciones atómicas en lugar de un cerrojo único como `ArrayBlockingQueue`), acotada por un semáforo
+ * con un permiso por hueco, y reciben un `CompletableFuture` que se completa con el ID del ticket cuando su lote se ha
+ * confirmado en la base de datos. Un único hilo escritor vacía la cola y confirma los
+ * tickets por lotes: un lote se cierra al alcanzar `batch-size` tickets o al pasar
+ * `max-delay-ms` desde que se tomó el primero, de modo que muchos tickets comparten un
+ * mismo commit (y una misma sincronización a disco de MariaDB).
+ * Si la cola está llena, el productor espera como máximo `offer-timeout-ms` y después se
+ * rechaza el ticket con `IngestQueueFullException` (contrapresión).
+ * Al detenerla, el escritor confirma lo pendiente durante como mucho `stop-timeout-ms`; los tickets
+ * que quedan en la cola después (o que llegan mientras se detiene) terminan con excepción, así que
+ * ninguna petición se queda esperando un futuro que nunca se completa.
+ */
+@Component
+public class TicketIngestQueue implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketIngestQueue.class);
+
+    private final TicketDAO ticketDAO;
+
+    private final LinkedTransferQueue<PendingTicket> queue = new LinkedTransferQueue<>();
+
+    // Huecos libres en la cola: el productor toma uno antes de encolar y el escritor lo devuelve al sacar
+    private final Semaphore slots;
+
+    private final int capacity;
+
+    // Tamaño máximo de un lote
+    private final int batchSize;
+
+    // Espera máxima para completar un lote desde que se toma su primer ticket
+    private final long maxDelayNanos;
+
+    // Espera máxima de un productor cuando la cola está llena
+    private final long offerTimeoutNanos;
+
+    private final DistributionSummary batchSizes;
+
+    private final Timer commitTimer;
+
+    private final Timer latencyTimer;
+
+    private final Counter rejected;
+
+    private final Counter failed;
+
+    // Espera máxima al escritor al detener la cola
+    private final long stopTimeoutMillis;
+
+    private volatile boolean running;
+
+    // Protege el arranque y la parada
+    private final ReentrantLock lifecycleLock = new ReentrantLock();
+
+    private Thread writer;
+
+    public TicketIngestQueue(TicketDAO ticketDAO, MeterRegistry meterRegistry,
+                             @Value("${app.ingest.capacity:10000}") int capacity,
+                             @Value("${app.ingest.batch-size:500}") int batchSize,
+                             @Value("${app.ingest.max-delay-ms:5}") long maxDelayMs,
+                             @Value("${app.ingest.offer-timeout-ms:100}") long offerTimeoutMs,
+                             @Value("${app.ingest.stop-timeout-ms:30000}") long stopTimeoutMs) {
+        this.ticketDAO = ticketDAO;
+        this.slots = new Semaphore(capacity);
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        this.offerTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(offerTimeoutMs);
+        this.stopTimeoutMillis = stopTimeoutMs;
+
+        Gauge.builder("tickets.ingest.queue.depth", this, TicketIngestQueue::getQueueDepth)
+                .description("Tickets pendientes en la cola de ingesta")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("tickets.ingest.batch.size")
+                .description("Tickets confirmados en cada commit")
+                .publishPercentileHistogram()
+                .maximumExpectedValue((double) batchSize)
+                .register(meterRegistry);
+        this.commitTimer = Timer.builder("tickets.ingest.commit")
+                .description("Duración de la escritura y commit de cada lote")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.latencyTimer = Timer.builder("tickets.ingest.latency")
+                .description("Tiempo desde que se encola un ticket hasta que es durable")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejected = Counter.builder("tickets.ingest.rejected")
+                .description("Tickets rechazados por cola llena")
+                .register(meterRegistry);
+        this.failed = Counter.builder("tickets.ingest.failed")
+                .description("Tickets que no se han podido escribir")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Encola un ticket para su escritura.
+     * @param ticket Ticket ya validado
+     * @return Futuro que se completa con el ID del ticket cuando está confirmado en la base
+     * de datos, o con la excepción que impidió escribirlo
+     * @throws IngestQueueFullException si la cola sigue llena tras el tiempo de espera
+     */
+    public CompletableFuture<Long> submit(Ticket ticket) {
+        if (!running) {
+            throw new IllegalStateException("La cola de ingesta no está en marcha");
+        }
+        PendingTicket pending = new PendingTicket(ticket, new CompletableFuture<>(), System.nanoTime());
+        boolean accepted;
+        try {
+            accepted = slots.tryAcquire(offerTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+        if (!accepted) {
+            rejected.increment();
+            throw new IngestQueueFullException("La cola de ingesta de tickets está llena");
+        }
+        queue.offer(pending);
+        // Si la cola se ha detenido mientras tanto, puede que ya nadie lo saque: se retira si sigue en ella
+        if (!running && queue.remove(pending)) {
+            slots.release();
+            throw new IllegalStateException("La cola de ingesta no está en marcha");
+        }
+        return pending.future();
+    }
+
+    /**
+     * Número de tickets pendientes de escribir.
+     * @return Profundidad actual de la cola
+     */
+    public int getQueueDepth() {
+        // size() de LinkedTransferQueue recorre la cola; los huecos ocupados dan lo mismo sin recorrerla
+        return capacity - slots.availablePermits();
+    }
+
+    @Override
+    public void start() {
+        lifecycleLock.lock();
+        try {
+            if (running) {
+                return;
+            }
+            running = true;
+            writer = new Thread(this::drainLoop, "ticket-ingest-writer");
+            writer.setDaemon(true);
+            writer.start();
+            logger.info("Ticket ingest queue started (capacity {}, batch size {}).",
+                    capacity, batchSize);
+        } finally {
+            lifecycleLock.unlock();
+        }
+    }
+
+    /**
+     * Detiene la cola: deja de aceptar tickets, espera a que el escritor confirme los pendientes y
+     * termina con excepción los que no le ha dado tiempo a tomar.
+     */
+    @Override
+    public void stop() {
+        lifecycleLock.lock();
+        try {
+            if (!running) {
+                return;
+            }
+            running = false;
+            try {
+                writer.join(stopTimeoutMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            List<PendingTicket> left = new ArrayList<>();
+            queue.drainTo(left);
+            slots.release(left.size());
+            IllegalStateException stopped = new IllegalStateException("La cola de ingesta se ha detenido");
+            for (PendingTicket pending : left) {
+                failed.increment();
+                pending.future().completeExceptionally(stopped);
+            }
+            if (left.isEmpty()) {
+                logger.info("Ticket ingest queue stopped.");
+            } else {
+                logger.warn("Ticket ingest queue stopped, {} pending tickets were not written.", left.size());
+            }
+        } finally {
+            lifecycleLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Se arranca antes y se detiene después que el servidor web, para que no lleguen
+     * peticiones con la cola parada y los tickets pendientes se escriban al apagar.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    /**
+     * Bucle del hilo escritor: forma lotes por tamaño y por tiempo y los confirma.
+     */
+    private void drainLoop() {
+        List<PendingTicket> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingTicket first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingTicket next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                slots.release(batch.size());
+                commit(batch);
+            } catch (InterruptedException e) {
+                logger.warn("Ticket ingest writer interrupted.");
+                slots.release(batch.size());
+                IllegalStateException stopped = new IllegalStateException("La cola de ingesta se ha detenido");
+                batch.forEach(p -> p.future().completeExceptionally(stopped));
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                logger.error("Unexpected error in ticket ingest writer", e);
+                batch.forEach(p -> p.future().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Escribe un lote en una única transacción. Si falla, reintenta ticket a ticket para
+     * aislar los tickets erróneos y completar los demás.
+     */
+    private void commit(List<PendingTicket> batch) {
+        List<Ticket> tickets = new ArrayList<>(batch.size());
+        for (PendingTicket pending : batch) {
+            tickets.add(pending.ticket());
+        }
+        long start = System.nanoTime();
+        try {
+            ticketDAO.insertTickets(tickets);
+        } catch (Exception e) {
+            logger.warn("Ingest batch of {} tickets failed, retrying one by one: {}", batch.size(), e.getMessage());
+            for (PendingTicket pending : batch) {
+                try {
+                    ticketDAO.insertTicket(pending.ticket());
+                    complete(pending);
+                } catch (Exception ticketException) {
+                    failed.increment();
+                    pending.future().completeExceptionally(ticketException);
+                }
+            }
+            return;
+        } finally {
+            commitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            batchSizes.record(batch.size());
+        }
+        for (PendingTicket pending : batch) {
+            complete(pending);
+        }
+    }
+
+    private void complete(PendingTicket pending) {
+        latencyTimer.record(System.nanoTime() - pending.enqueuedAt(), TimeUnit.NANOSECONDS);
+        pending.future().complete(pending.ticket().getId());
+    }
+
+    /**
+     * Ticket pendiente de escribir, con el futuro que se completa al confirmarlo.
+     */
+    private record PendingTicket(Ticket ticket, CompletableFuture<Long> future, long enqueuedAt) {
+    }
+}
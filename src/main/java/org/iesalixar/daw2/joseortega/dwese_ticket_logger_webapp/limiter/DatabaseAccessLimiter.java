@@ -0,0 +1,108 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.limiter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limita el número de llamadas concurrentes a los DAO al tamaño del pool de conexiones.
+ * Con los hilos virtuales cada petición tiene su propio hilo y no hay un pool de hilos que
+ * acote la concurrencia, así que sin este límite miles de peticiones esperarían a la vez
+ * por una conexión de Hikari. El semáforo (justo, FIFO) hace esa espera explícita, la mide
+ * y la corta con un 503 cuando supera `app.db-limiter.acquire-timeout-ms`.
+ * Se ejecuta después de la caché (las lecturas cacheadas no ocupan turno) y antes de abrir
+ * la transacción del DAO. Las llamadas hechas dentro de una transacción ya abierta no piden
+ * turno, porque su conexión ya está asignada y esperar aquí podría bloquear el pool.
+ * El turno es reentrante por hilo: un DAO llamado mientras el hilo ya tiene turno (por ejemplo, desde
+ * un listener de `DataChangedEvent` que se ejecuta dentro de la escritura que lo publica) usa el mismo.
+ * Si pidiera otro, N escritores simultáneos con N turnos se quedarían esperando cada uno el segundo
+ * y acabarían todos con un 503 aunque su fila ya estuviera escrita.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(name = "app.db-limiter.enabled", havingValue = "true", matchIfMissing = true)
+public class DatabaseAccessLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseAccessLimiter.class);
+
+    private final Semaphore permits;
+
+    // Llamadas a DAO anidadas en curso en el hilo: solo la más externa pide y devuelve el turno
+    private final ThreadLocal<int[]> depth = ThreadLocal.withInitial(() -> new int[1]);
+
+    private final long acquireTimeoutNanos;
+
+    private final Timer waitTimer;
+
+    private final Counter rejected;
+
+    public DatabaseAccessLimiter(MeterRegistry meterRegistry,
+                                 @Value("${app.db-limiter.permits:${spring.datasource.hikari.maximum-pool-size:10}}") int permits,
+                                 @Value("${app.db-limiter.acquire-timeout-ms:5000}") long acquireTimeoutMs) {
+        this.permits = new Semaphore(permits, true);
+        this.acquireTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMs);
+
+        Gauge.builder("db.limiter.queued", this.permits, Semaphore::getQueueLength)
+                .description("Hilos esperando turno de acceso a la base de datos")
+                .register(meterRegistry);
+        Gauge.builder("db.limiter.available", this.permits, Semaphore::availablePermits)
+                .description("Turnos de acceso a la base de datos libres")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("db.limiter.wait")
+                .description("Tiempo de espera por un turno de acceso a la base de datos")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejected = Counter.builder("db.limiter.rejected")
+                .description("Llamadas rechazadas por superar la espera máxima")
+                .register(meterRegistry);
+        logger.info("Database access limiter enabled with {} permits.", permits);
+    }
+
+    /**
+     * Envuelve cada método público de los repositorios.
+     */
+    @Around("within(@org.springframework.stereotype.Repository *) && execution(public * *(..))")
+    public Object limit(ProceedingJoinPoint joinPoint) throws Throwable {
+        int[] held = depth.get();
+        if (held[0] > 0 || TransactionSynchronizationManager.isActualTransactionActive()) {
+            held[0]++;
+            try {
+                return joinPoint.proceed();
+            } finally {
+                held[0]--;
+            }
+        }
+        long start = System.nanoTime();
+        boolean acquired = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!acquired) {
+            rejected.increment();
+            logger.warn("Database access rejected for {}: no permit after {} ms",
+                    joinPoint.getSignature().toShortString(), TimeUnit.NANOSECONDS.toMillis(acquireTimeoutNanos));
+            throw new DatabaseBusyException("La base de datos está saturada, inténtelo de nuevo más tarde");
+        }
+        held[0] = 1;
+        try {
+            return joinPoint.proceed();
+        } finally {
+            held[0] = 0;
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.limiter;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Excepción lanzada cuando una petición no obtiene turno de acceso a la base de datos
+ * en el tiempo de espera configurado. Se responde con 503 para que el cliente reintente.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class DatabaseBusyException extends RuntimeException {
+
+    public DatabaseBusyException(String message) {
+        super(message);
+    }
+}
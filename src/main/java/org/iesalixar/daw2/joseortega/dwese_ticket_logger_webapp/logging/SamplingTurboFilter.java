@@ -0,0 +1,91 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Filtro de logback que muestrea los mensajes de las rutas calientes (DAO, controladores...):
+ * de cada mensaje solo deja pasar la primera aparición y después una de cada `every`.
+ * Se aplica a los loggers cuyo nombre empieza por alguno de los `logger` configurados y a los
+ * eventos de nivel `level` o inferior; los de nivel superior (WARN, ERROR) pasan siempre.
+ * El contador es por mensaje (la cadena de formato, que es constante), así que un mensaje poco
+ * frecuente no queda tapado por otro muy frecuente del mismo logger.
+ * Al ser un TurboFilter decide antes de crear el evento, de modo que los mensajes descartados
+ * no llegan a formatearse ni a encolarse en el appender. Las comprobaciones de nivel
+ * (`isDebugEnabled()`) no consumen muestra: solo se cuentan las llamadas que registran algo.
+ * Solo muestrea cuando el nivel del logger deja pasar el evento: con los DAO en INFO, una llamada a
+ * `debug()` sale en la primera comparación, sin buscar el contador ni tocarlo. Así el muestreo solo
+ * cuesta algo cuando se activa DEBUG a propósito para diagnosticar.
+ *
+ * Ejemplo (logback-spring.xml):
+ * <pre>
+ * &lt;turboFilter class="...logging.SamplingTurboFilter"&gt;
+ *     &lt;logger&gt;org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao&lt;/logger&gt;
+ *     &lt;level&gt;DEBUG&lt;/level&gt;
+ *     &lt;every&gt;100&lt;/every&gt;
+ * &lt;/turboFilter&gt;
+ * </pre>
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private final List<String> loggers = new ArrayList<>();
+
+    private Level level = Level.DEBUG;
+
+    private long every = 100;
+
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level eventLevel, String format, Object[] params, Throwable t) {
+        if (format == null || !isStarted() || eventLevel.toInt() > level.toInt()
+                || eventLevel.toInt() < logger.getEffectiveLevel().toInt() || !sampled(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        AtomicLong counter = counters.computeIfAbsent(format, f -> new AtomicLong());
+        // NEUTRAL (y no ACCEPT) para que se siga aplicando el nivel configurado del logger
+        return counter.getAndIncrement() % every == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private boolean sampled(String name) {
+        for (String prefix : loggers) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Añade un prefijo de logger a muestrear (se puede repetir en la configuración).
+     */
+    public void addLogger(String logger) {
+        loggers.add(logger);
+    }
+
+    public void setLevel(String level) {
+        this.level = Level.toLevel(level, Level.DEBUG);
+    }
+
+    public void setEvery(long every) {
+        this.every = every;
+    }
+
+    @Override
+    public void start() {
+        if (every < 1) {
+            addError("every must be at least 1, got " + every);
+            return;
+        }
+        super.start();
+    }
+}
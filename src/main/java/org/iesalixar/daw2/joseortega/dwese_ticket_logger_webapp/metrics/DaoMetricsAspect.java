@@ -0,0 +1,123 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.LocationPage;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aspecto que mide todas las llamadas a los métodos de las interfaces `*DAO` del paquete `dao`,
+ * de modo que cualquier DAO nuevo queda instrumentado sin tocar su código.
+ * Registra, con las etiquetas `class` y `method`:
+ * <ul>
+ *     <li>`dao.calls`: timer con la latencia de cada llamada y las etiquetas `outcome`
+ *     (success/error) y `exception`, que sirve también de contador de errores.</li>
+ *     <li>`dao.rows`: filas devueltas (tamaño de la lista o de la página, 1 o 0 para las
+ *     búsquedas por ID).</li>
+ * </ul>
+ * Se ejecuta después de la caché y del limitador, así que mide solo las llamadas que llegan a la
+ * base de datos. Los medidores se crean una vez por método; con `app.metrics.dao.enabled=false`
+ * el aspecto no se registra y los DAO no tienen ningún coste añadido.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@ConditionalOnProperty(name = "app.metrics.dao.enabled", havingValue = "true", matchIfMissing = true)
+public class DaoMetricsAspect {
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Method, MethodMeters> meters = new ConcurrentHashMap<>();
+
+    public DaoMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(* org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.*DAO.*(..))")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        MethodMeters methodMeters = meters.computeIfAbsent(method, m -> new MethodMeters(
+                joinPoint.getTarget().getClass().getSimpleName(), m));
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            methodMeters.error(e).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        methodMeters.success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (methodMeters.rows != null) {
+            methodMeters.rows.record(rowCount(result));
+        }
+        return result;
+    }
+
+    /**
+     * Número de filas de un resultado: tamaño de las colecciones y páginas, 1 o 0 para una entidad.
+     */
+    private static int rowCount(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof LocationPage page) {
+            return page.getLocations().size();
+        }
+        return 1;
+    }
+
+    /**
+     * Medidores de un método: el timer de las llamadas correctas y el resumen de filas se crean
+     * al principio; los timers de error, uno por tipo de excepción, cuando aparecen.
+     */
+    private class MethodMeters {
+
+        private final Tags tags;
+
+        private final Timer success;
+
+        private final DistributionSummary rows;
+
+        private final Map<Class<?>, Timer> errors = new ConcurrentHashMap<>();
+
+        MethodMeters(String className, Method method) {
+            this.tags = Tags.of("class", className, "method", method.getName());
+            this.success = Timer.builder("dao.calls")
+                    .description("Llamadas a los métodos de los DAO")
+                    .tags(tags).tag("outcome", "success").tag("exception", "none")
+                    .register(meterRegistry);
+            Class<?> returnType = method.getReturnType();
+            boolean returnsRows = returnType != void.class && returnType != boolean.class
+                    && !Number.class.isAssignableFrom(returnType) && !returnType.isPrimitive();
+            this.rows = returnsRows ? DistributionSummary.builder("dao.rows")
+                    .description("Filas devueltas por los métodos de los DAO")
+                    .tags(tags)
+                    .register(meterRegistry) : null;
+        }
+
+        Timer error(Throwable e) {
+            return errors.computeIfAbsent(e.getClass(), type -> Timer.builder("dao.calls")
+                    .description("Llamadas a los métodos de los DAO")
+                    .tags(tags).tag("outcome", "error").tag("exception", type.getSimpleName())
+                    .register(meterRegistry));
+        }
+    }
+}
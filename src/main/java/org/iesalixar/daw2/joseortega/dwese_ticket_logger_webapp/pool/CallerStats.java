@@ -0,0 +1,29 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.pool;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Tiempo de conexión retenido por un llamador desde el arranque (o desde el último reinicio).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CallerStats {
+
+    // Clases y métodos de la aplicación que pidieron la conexión (`dao < llamador`)
+    private String caller;
+
+    // Conexiones pedidas
+    private long connections;
+
+    // Tiempo total retenido, en milisegundos
+    private double totalMs;
+
+    // Tiempo medio retenido por conexión, en milisegundos
+    private double avgMs;
+
+    // Tiempo máximo retenido por una conexión, en milisegundos
+    private double maxMs;
+}
@@ -0,0 +1,236 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.pool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mide cuánto tiempo retiene cada código de la aplicación las conexiones del pool.
+ * Envuelve el `DataSource` de la aplicación: al pedir una conexión anota quién la pide (las dos
+ * primeras clases de la aplicación en la pila, por ejemplo `LocationDAOImpl.listLocationsPage <
+ * LocationController.listLocations`) y al cerrarla acumula el tiempo retenido para ese llamador.
+ * Con ello se obtienen las conexiones retenidas en este momento y los llamadores que más tiempo de
+ * conexión consumen, que son los que agotan el pool cuando se satura.
+ * El coste es un proxy y un recorrido parcial de la pila por conexión pedida, no por consulta, así que
+ * solo se registra con `app.datasource.track-callers=true`, mientras se diagnostica el pool.
+ */
+public class ConnectionHoldTracker implements BeanPostProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionHoldTracker.class);
+
+    // Paquete raíz de la aplicación: solo sus clases identifican al llamador
+    private static final String APP_PACKAGE = "org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.";
+
+    // Clases internas y paquetes de infraestructura que aparecen en la pila pero no son el llamador
+    private static final List<String> IGNORED_PACKAGES = List.of(
+            ConnectionHoldTracker.class.getName() + "$", APP_PACKAGE + "limiter.", APP_PACKAGE + "metrics.");
+
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    // Conexiones prestadas y todavía sin cerrar, por número de préstamo
+    private final Map<Long, Hold> held = new ConcurrentHashMap<>();
+
+    // Conexiones prestadas desde el arranque
+    private final AtomicLong connections = new AtomicLong();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof DelegatingDataSource)) {
+            logger.info("Tracking connection hold time on data source '{}'.", beanName);
+            return new TrackingDataSource(dataSource);
+        }
+        return bean;
+    }
+
+    /**
+     * Conexiones retenidas en este momento, de la que más tiempo lleva a la que menos.
+     * @param limit Número máximo de conexiones devueltas
+     * @return Conexiones retenidas
+     */
+    public List<HeldConnection> getHeldConnections(int limit) {
+        long now = System.nanoTime();
+        return held.values().stream()
+                .sorted(Comparator.comparingLong(Hold::start))
+                .limit(limit)
+                .map(hold -> new HeldConnection(hold.caller(), hold.thread(), millis(now - hold.start())))
+                .toList();
+    }
+
+    /**
+     * Llamadores ordenados por tiempo total de conexión retenida.
+     * @param limit Número máximo de llamadores devueltos
+     * @return Estadísticas de los llamadores
+     */
+    public List<CallerStats> getTopCallers(int limit) {
+        return stats.entrySet().stream()
+                .map(e -> e.getValue().snapshot(e.getKey()))
+                .sorted(Comparator.comparingDouble(CallerStats::getTotalMs).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * @return Conexiones prestadas desde el arranque
+     */
+    public long getConnections() {
+        return connections.get();
+    }
+
+    /**
+     * Borra las estadísticas acumuladas (no las conexiones retenidas).
+     */
+    public void reset() {
+        stats.clear();
+    }
+
+    private Connection track(Connection connection) {
+        long id = connections.incrementAndGet();
+        held.put(id, new Hold(caller(), Thread.currentThread().getName(), System.nanoTime()));
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "close" -> {
+                        if (closed.compareAndSet(false, true)) {
+                            release(id);
+                        }
+                        yield invoke(connection, method, args);
+                    }
+                    default -> invoke(connection, method, args);
+                });
+    }
+
+    private void release(long id) {
+        Hold hold = held.remove(id);
+        if (hold != null) {
+            stats.computeIfAbsent(hold.caller(), key -> new Stats()).record(System.nanoTime() - hold.start());
+        }
+    }
+
+    private static Object invoke(Connection target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    /**
+     * Las dos primeras clases distintas de la aplicación en la pila (sin proxies ni infraestructura).
+     */
+    static String caller() {
+        return STACK_WALKER.walk(stack -> {
+            StringBuilder caller = new StringBuilder();
+            String lastClass = null;
+            int found = 0;
+            for (Iterator<StackWalker.StackFrame> frames = stack.iterator(); frames.hasNext() && found < 2; ) {
+                StackWalker.StackFrame frame = frames.next();
+                String className = frame.getClassName();
+                if (!isCaller(className) || className.equals(lastClass)) {
+                    continue;
+                }
+                if (found++ > 0) {
+                    caller.append(" < ");
+                }
+                caller.append(simpleName(className)).append('.').append(frame.getMethodName());
+                lastClass = className;
+            }
+            return found == 0 ? "(desconocido)" : caller.toString();
+        });
+    }
+
+    private static boolean isCaller(String className) {
+        if (!className.startsWith(APP_PACKAGE) || className.contains("$$")
+                || className.equals(ConnectionHoldTracker.class.getName())) {
+            return false;
+        }
+        for (String ignored : IGNORED_PACKAGES) {
+            if (className.startsWith(ignored)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String simpleName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * `DataSource` que registra cada conexión que presta.
+     * Al cerrar el contexto cierra el `DataSource` envuelto (el pool), como haría Spring sin el envoltorio.
+     */
+    private class TrackingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+        TrackingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return track(obtainTargetDataSource().getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return track(obtainTargetDataSource().getConnection(username, password));
+        }
+
+        @Override
+        public void close() throws Exception {
+            if (obtainTargetDataSource() instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private record Hold(String caller, String thread, long start) {
+    }
+
+    /**
+     * Contadores de un llamador.
+     */
+    private static class Stats {
+
+        private final LongAdder count = new LongAdder();
+
+        private final LongAdder totalNanos = new LongAdder();
+
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        CallerStats snapshot(String caller) {
+            long n = count.sum();
+            long total = totalNanos.sum();
+            return new CallerStats(caller, n, millis(total), n == 0 ? 0 : millis(total / n), millis(maxNanos.get()));
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.pool;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Conexión del pool prestada y todavía sin devolver.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HeldConnection {
+
+    // Clases y métodos de la aplicación que pidieron la conexión
+    private String caller;
+
+    // Hilo que la pidió
+    private String thread;
+
+    // Tiempo que lleva retenida, en milisegundos
+    private double heldMs;
+}
@@ -0,0 +1,45 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.pool;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Estado del pool de conexiones devuelto por `/admin/pool`.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PoolDiagnostics {
+
+    private String poolName;
+
+    // Tamaño máximo y mínimo de conexiones inactivas configurados
+    private int maximumPoolSize;
+
+    private int minimumIdle;
+
+    // Conexiones abiertas, prestadas e inactivas
+    private int total;
+
+    private int active;
+
+    private int idle;
+
+    // Hilos esperando una conexión de Hikari
+    private int waiting;
+
+    // Hilos esperando turno en el limitador de acceso a la base de datos (-1 si está desactivado)
+    private int limiterQueued;
+
+    // Conexiones prestadas desde el arranque
+    private long connections;
+
+    // Conexiones retenidas ahora, de la más antigua a la más reciente
+    private List<HeldConnection> held;
+
+    // Llamadores con más tiempo total de conexión retenida
+    private List<CallerStats> topCallers;
+}
@@ -0,0 +1,54 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.replica;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Marca las lecturas de los DAO para que `ReplicaRoutingDataSource` las envíe a una réplica, y fija el
+ * hilo al primario tras cada escritura.
+ * Son lecturas los métodos `list*`, `get*ById`, `exists*`, `search*`, `stream*` y `count*` de los
+ * repositorios, salvo los `@Cacheable`: las cachés de datos de referencia se llenan siempre desde el
+ * primario, porque lo que se cachea tras una escritura se sirve durante todo el TTL.
+ * Son escrituras los métodos `insert*`, `update*` y `delete*`.
+ * Va después de la caché, del limitador y de las métricas, justo antes de pedir la conexión.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+public class ReadOnlyRoutingAspect {
+
+    private final long readYourWritesMillis;
+
+    /**
+     * @param readYourWritesMillis Tiempo que el hilo lee del primario después de escribir
+     */
+    public ReadOnlyRoutingAspect(long readYourWritesMillis) {
+        this.readYourWritesMillis = readYourWritesMillis;
+    }
+
+    @Around("within(@org.springframework.stereotype.Repository *)"
+            + " && !@annotation(org.springframework.cache.annotation.Cacheable)"
+            + " && (execution(public * list*(..)) || execution(public * get*ById(..))"
+            + " || execution(public * exists*(..)) || execution(public * search*(..))"
+            + " || execution(public * stream*(..)) || execution(public * count*(..)))")
+    public Object read(ProceedingJoinPoint joinPoint) throws Throwable {
+        Boolean previous = RoutingContext.enterRead();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            RoutingContext.exitRead(previous);
+        }
+    }
+
+    /**
+     * Fija el hilo al primario antes de escribir, aunque la escritura falle después.
+     */
+    @Before("within(@org.springframework.stereotype.Repository *)"
+            + " && (execution(public * insert*(..)) || execution(public * update*(..)) || execution(public * delete*(..)))")
+    public void write() {
+        RoutingContext.stickToPrimary(System.currentTimeMillis() + readYourWritesMillis);
+    }
+}
@@ -0,0 +1,141 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.replica;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.util.WebUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Set;
+
+/**
+ * Lleva la lectura de las propias escrituras de una petición a las siguientes del mismo cliente.
+ * Si una petición escribe (por ejemplo, el POST de un formulario), responde con la cookie `rw` con la
+ * hora hasta la que ese cliente debe leer del primario; las peticiones que la traen fijan su hilo al
+ * primario hasta esa hora. Así el listado al que redirige el formulario ya muestra el cambio aunque las
+ * réplicas vayan retrasadas. Es una cookie y no la sesión para que funcione igual con varias instancias.
+ * La cookie de las peticiones que modifican (POST, PUT, PATCH y DELETE) se pone antes de llamar al
+ * controlador, porque las respuestas `@ResponseBody` y en streaming ya están enviadas al volver de él;
+ * si la respuesta aún no se ha enviado al terminar y la última escritura alarga la ventana al menos un
+ * segundo (la precisión de `Max-Age`), por ejemplo tras una importación larga, se vuelve a enviar.
+ * La cookie va firmada con HMAC-SHA256 (`hora.firma`), como la de los mensajes flash: una cookie sin
+ * firma válida se ignora, así que un cliente no puede fijarse al primario por su cuenta.
+ */
+public class ReadYourWritesInterceptor implements HandlerInterceptor {
+
+    static final String COOKIE = "rw";
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static final Set<String> MUTATING_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    // Alargamiento mínimo de la ventana para volver a enviar la cookie al terminar
+    private static final long MIN_EXTENSION_MILLIS = 1000;
+
+    // Atributo de la petición con la hora que ya tiene el cliente en su cookie
+    private static final String ISSUED_ATTRIBUTE = ReadYourWritesInterceptor.class.getName() + ".ISSUED";
+
+    private final SecretKeySpec key;
+
+    private final long readYourWritesMillis;
+
+    /**
+     * @param secret Secreto compartido por todas las instancias con el que se firma la cookie
+     * @param readYourWritesMillis Tiempo que el cliente lee del primario después de escribir
+     */
+    public ReadYourWritesInterceptor(byte[] secret, long readYourWritesMillis) {
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.readYourWritesMillis = readYourWritesMillis;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        long issued = 0;
+        Cookie cookie = WebUtils.getCookie(request, COOKIE);
+        if (cookie != null) {
+            issued = decode(cookie.getValue());
+            if (issued > 0) {
+                RoutingContext.stickToPrimary(issued);
+            }
+        }
+        if (MUTATING_METHODS.contains(request.getMethod())) {
+            long until = System.currentTimeMillis() + readYourWritesMillis;
+            if (until > issued) {
+                addCookie(response, until);
+                issued = until;
+            }
+        }
+        request.setAttribute(ISSUED_ATTRIBUTE, issued);
+        return true;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        long until = RoutingContext.getPrimaryUntil();
+        Object issued = request.getAttribute(ISSUED_ATTRIBUTE);
+        if (until > System.currentTimeMillis() && (!(issued instanceof Long value) || until - value >= MIN_EXTENSION_MILLIS)
+                && !response.isCommitted()) {
+            addCookie(response, until);
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        RoutingContext.clear();
+    }
+
+    private void addCookie(HttpServletResponse response, long until) {
+        long remaining = until - System.currentTimeMillis();
+        Cookie cookie = new Cookie(COOKIE, encode(until));
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setAttribute("SameSite", "Lax");
+        cookie.setMaxAge((int) Math.max(1, (remaining + 999) / 1000));
+        response.addCookie(cookie);
+    }
+
+    String encode(long until) {
+        String payload = Long.toString(until);
+        return payload + "." + sign(payload);
+    }
+
+    /**
+     * @return Hora de la cookie, o 0 si no tiene el formato esperado o su firma no es válida
+     */
+    long decode(String value) {
+        int dot = value.lastIndexOf('.');
+        if (dot <= 0) {
+            return 0;
+        }
+        String payload = value.substring(0, dot);
+        byte[] expected = sign(payload).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(expected, value.substring(dot + 1).getBytes(StandardCharsets.US_ASCII))) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(payload);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private String sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            byte[] signature = mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+}
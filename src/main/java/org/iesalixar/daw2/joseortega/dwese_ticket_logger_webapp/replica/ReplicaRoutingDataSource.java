@@ -0,0 +1,149 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.replica;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+
+/**
+ * `DataSource` que reparte las lecturas entre las réplicas y deja el resto en el primario.
+ * Decide al prestar cada conexión, según `RoutingContext`: va a una réplica solo si el hilo está en una
+ * lectura de un DAO y no está fijado al primario por una escritura reciente. Dentro de una transacción la
+ * conexión ya está asignada (la del primario, con la que empezó), así que todo sigue en el primario.
+ * Si una réplica no da conexión, la lectura se hace en el primario.
+ * Hasta `enableReplicas` (al terminar el arranque) todo va al primario: los índices y agregados en memoria
+ * se cargan al arrancar y después se mantienen con los eventos de escritura, así que su carga inicial no
+ * puede salir de una réplica retrasada.
+ * `unwrap` e `isWrapperFor` llegan al primario, de modo que el diagnóstico del pool ve su Hikari.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+
+    private final List<DataSource> replicas;
+
+    private final ReplicaSelection selection;
+
+    // Carga de una réplica (conexiones en uso más hilos esperando), para LEAST_LOADED
+    private final ToIntFunction<DataSource> load;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private volatile boolean replicasEnabled;
+
+    /**
+     * @param primary Base de datos principal
+     * @param replicas Réplicas de solo lectura (al menos una)
+     * @param selection Forma de elegir la réplica
+     * @param load Carga de una réplica, usada con `LEAST_LOADED`
+     */
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, ReplicaSelection selection,
+                                    ToIntFunction<DataSource> load) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("At least one replica is required");
+        }
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.selection = selection;
+        this.load = load;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!replicasEnabled || !RoutingContext.isReplicaAllowed()) {
+            return primary.getConnection();
+        }
+        DataSource replica = selectReplica();
+        try {
+            return replica.getConnection();
+        } catch (SQLException e) {
+            logger.warn("Replica unavailable, reading from the primary: {}", e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * Empieza a enviar las lecturas a las réplicas.
+     */
+    public void enableReplicas() {
+        replicasEnabled = true;
+    }
+
+    /**
+     * Elige la réplica de la siguiente lectura.
+     */
+    DataSource selectReplica() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        if (selection == ReplicaSelection.ROUND_ROBIN || size == 1) {
+            return replicas.get(start);
+        }
+        DataSource best = null;
+        int bestLoad = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            DataSource replica = replicas.get((start + i) % size);
+            int replicaLoad = load.applyAsInt(replica);
+            if (replicaLoad < bestLoad) {
+                best = replica;
+                bestLoad = replicaLoad;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return Base de datos principal
+     */
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    /**
+     * @return Réplicas
+     */
+    public List<DataSource> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return (T) this;
+        }
+        return primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+
+    /**
+     * Cierra los pools de las réplicas y del primario.
+     */
+    @Override
+    public void close() throws Exception {
+        List<DataSource> all = new ArrayList<>(replicas);
+        all.add(primary);
+        for (DataSource dataSource : all) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.replica;
+
+/**
+ * Forma de elegir la réplica de cada lectura.
+ */
+public enum ReplicaSelection {
+
+    // Por turnos
+    ROUND_ROBIN,
+
+    // La que tenga menos conexiones en uso (y menos hilos esperando); a igualdad, por turnos
+    LEAST_LOADED
+}
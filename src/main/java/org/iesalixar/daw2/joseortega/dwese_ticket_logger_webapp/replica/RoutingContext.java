@@ -0,0 +1,118 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.replica;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Estado por hilo que decide a qué base de datos va la siguiente conexión (`ReplicaRoutingDataSource`).
+ * `ReadOnlyRoutingAspect` marca las lecturas de los DAO mientras se ejecutan; las escrituras fijan el
+ * hilo al primario durante la ventana de lectura de las propias escrituras, para que lo que se lea
+ * justo después (por ejemplo, los receptores de `DataChangedEvent`) no llegue de una réplica retrasada.
+ * Entre peticiones de un mismo cliente esa ventana viaja en una cookie (`ReadYourWritesInterceptor`).
+ * El estado es de cada hilo: las tareas que una petición lanza en otros hilos lo reciben con `propagate`.
+ */
+public final class RoutingContext {
+
+    private static final ThreadLocal<Boolean> READ_ONLY = new ThreadLocal<>();
+
+    // Hasta cuándo (milisegundos desde la época) lee este hilo del primario
+    private static final ThreadLocal<Long> PRIMARY_UNTIL = new ThreadLocal<>();
+
+    private RoutingContext() {
+    }
+
+    /**
+     * Marca el hilo como en una lectura.
+     * @return Estado anterior, para restaurarlo con `exitRead`
+     */
+    public static Boolean enterRead() {
+        Boolean previous = READ_ONLY.get();
+        READ_ONLY.set(Boolean.TRUE);
+        return previous;
+    }
+
+    /**
+     * Restaura el estado anterior a `enterRead`.
+     * @param previous Valor devuelto por `enterRead`
+     */
+    public static void exitRead(Boolean previous) {
+        if (previous == null) {
+            READ_ONLY.remove();
+        } else {
+            READ_ONLY.set(previous);
+        }
+    }
+
+    /**
+     * Fija el hilo al primario hasta la hora indicada (si es posterior a la que ya tenía).
+     * @param untilMillis Milisegundos desde la época
+     */
+    public static void stickToPrimary(long untilMillis) {
+        Long current = PRIMARY_UNTIL.get();
+        if (current == null || current < untilMillis) {
+            PRIMARY_UNTIL.set(untilMillis);
+        }
+    }
+
+    /**
+     * Sustituye la hora hasta la que el hilo lee del primario, por ejemplo para restaurar la anterior.
+     * @param untilMillis Milisegundos desde la época, o 0 para no fijarlo
+     */
+    public static void setPrimaryUntil(long untilMillis) {
+        if (untilMillis > 0) {
+            PRIMARY_UNTIL.set(untilMillis);
+        } else {
+            PRIMARY_UNTIL.remove();
+        }
+    }
+
+    /**
+     * @return Hasta cuándo lee este hilo del primario, o 0
+     */
+    public static long getPrimaryUntil() {
+        Long until = PRIMARY_UNTIL.get();
+        return until == null ? 0 : until;
+    }
+
+    /**
+     * @return true si la conexión que se pida ahora puede ir a una réplica
+     */
+    public static boolean isReplicaAllowed() {
+        if (READ_ONLY.get() == null) {
+            return false;
+        }
+        Long until = PRIMARY_UNTIL.get();
+        return until == null || until <= System.currentTimeMillis();
+    }
+
+    /**
+     * Envuelve una tarea que se va a ejecutar en otro hilo para que lo haga con el estado de este,
+     * de modo que, dentro de la ventana de lectura de las propias escrituras, también lea del primario.
+     * Al terminar, el hilo que la ejecuta vuelve a su estado anterior.
+     * @param task Tarea
+     * @return Tarea con el estado del hilo que llama a este método
+     */
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        Boolean readOnly = READ_ONLY.get();
+        long primaryUntil = getPrimaryUntil();
+        return () -> {
+            Boolean previousReadOnly = READ_ONLY.get();
+            long previousPrimaryUntil = getPrimaryUntil();
+            exitRead(readOnly);
+            setPrimaryUntil(primaryUntil);
+            try {
+                return task.call();
+            } finally {
+                exitRead(previousReadOnly);
+                setPrimaryUntil(previousPrimaryUntil);
+            }
+        };
+    }
+
+    /**
+     * Borra el estado del hilo (al terminar una petición).
+     */
+    public static void clear() {
+        READ_ONLY.remove();
+        PRIMARY_UNTIL.remove();
+    }
+}
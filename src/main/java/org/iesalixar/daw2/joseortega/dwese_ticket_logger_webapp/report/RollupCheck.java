@@ -0,0 +1,28 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.report;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Resultado de comparar los agregados en memoria con el mismo agregado calculado en SQL.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupCheck {
+
+    // true si todas las celdas coinciden
+    private boolean consistent;
+
+    // Celdas (provincia, supermercado, día) con datos según SQL
+    private int sqlCells;
+
+    // Celdas con datos en memoria
+    private int memoryCells;
+
+    // Descripción de las celdas que no coinciden (como máximo las primeras 100)
+    private List<String> mismatches;
+}
@@ -0,0 +1,33 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.report;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Informe de gasto por provincia, supermercado y día en un intervalo de fechas, con sus totales.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpendReport {
+
+    // Primer día del informe (incluido)
+    private LocalDate from;
+
+    // Último día del informe (incluido)
+    private LocalDate to;
+
+    // Importe total de todas las filas
+    private BigDecimal total;
+
+    // Número total de tickets
+    private long tickets;
+
+    // Filas con datos, ordenadas por día, provincia y supermercado
+    private List<SpendRow> rows;
+}
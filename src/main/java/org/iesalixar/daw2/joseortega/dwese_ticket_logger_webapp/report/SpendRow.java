@@ -0,0 +1,32 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.report;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Fila del informe de gasto: importe y número de tickets de un supermercado en una provincia y un día.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpendRow {
+
+    // ID de la provincia de las ubicaciones
+    private int provinceId;
+
+    // ID del supermercado de las ubicaciones
+    private int supermarketId;
+
+    // Día de compra
+    private LocalDate day;
+
+    // Importe total de los tickets
+    private BigDecimal total;
+
+    // Número de tickets
+    private int tickets;
+}
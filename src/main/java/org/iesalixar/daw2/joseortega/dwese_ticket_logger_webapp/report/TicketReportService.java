@@ -0,0 +1,431 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.report;
+
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.DataChangedEvent;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.LocationDAO;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.TicketDAO;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.TicketsInsertedEvent;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Location;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Ticket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Servicio de informes de gasto sobre los agregados en memoria de `TicketRollup`.
+ * Al arrancar la aplicación reconstruye los agregados con una única consulta GROUP BY, y después
+ * suma cada ticket insertado cuando se confirma su transacción (evento `TicketsInsertedEvent`),
+ * de modo que los informes no consultan las tablas de tickets.
+ * Ese evento solo llega de las escrituras de esta instancia: para recoger los tickets registrados en
+ * otras, los agregados se reconstruyen en segundo plano cuando tienen más de `app.report.rollup-rebuild-ms`
+ * al pedir un informe o el número de tickets, igual que el índice de búsqueda de ubicaciones.
+ * Para asignar un ticket a su provincia y su supermercado guarda esos dos IDs de cada ubicación en
+ * arrays indexados por ID; las ubicaciones nuevas se consultan la primera vez que reciben un ticket, y
+ * las que cambian (`DataChangedEvent`) se olvidan y se vuelven a consultar con su siguiente ticket.
+ * Mientras se reconstruye, los tickets confirmados se suman a los agregados en uso y se guardan aparte;
+ * la reconstrucción lee en una transacción REPEATABLE READ y, antes de publicar los nuevos agregados,
+ * les suma los guardados que no estaban en su instantánea, así que ninguno se pierde ni se cuenta dos veces.
+ * Un ticket ya sumado queda en la provincia y el supermercado que tenía su ubicación al registrarlo: si
+ * una ubicación cambia de provincia o de supermercado, la comprobación contra SQL muestra sus tickets
+ * anteriores como diferencia hasta la siguiente reconstrucción.
+ */
+@Service
+public class TicketReportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketReportService.class);
+
+    // Número máximo de diferencias detalladas en la comprobación
+    private static final int MAX_MISMATCHES = 100;
+
+    private final TicketDAO ticketDAO;
+
+    private final LocationDAO locationDAO;
+
+    private final TransactionTemplate snapshotTemplate;
+
+    private volatile TicketRollup rollup = new TicketRollup();
+
+    // Si ya se ha publicado la primera reconstrucción, y cuándo se publicó la última
+    private volatile boolean built;
+
+    private volatile long builtAt;
+
+    // Cada cuánto se reconstruyen los agregados desde la base de datos (0 = solo al arrancar)
+    private final long rebuildNanos;
+
+    // Solo una reconstrucción en segundo plano a la vez
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    // Protege los tickets pendientes de una reconstrucción y la provincia y el supermercado de las ubicaciones
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    // Tickets sumados durante una reconstrucción, para los nuevos agregados; null si no se reconstruye
+    private List<PendingTicket> pendingTickets;
+
+    // Provincia y supermercado de cada ubicación (protegido por `rebuildLock`)
+    private LocationPlaces locationPlaces = new LocationPlaces();
+
+    // Cambios de ubicaciones recibidos, para no guardar una ubicación leída antes de su último cambio
+    private long locationChanges;
+
+    public TicketReportService(TicketDAO ticketDAO, LocationDAO locationDAO, PlatformTransactionManager transactionManager,
+                               @Value("${app.report.rollup-rebuild-ms:300000}") long rebuildMillis) {
+        this.ticketDAO = ticketDAO;
+        this.locationDAO = locationDAO;
+        this.snapshotTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTemplate.setReadOnly(true);
+        this.rebuildNanos = TimeUnit.MILLISECONDS.toNanos(rebuildMillis);
+    }
+
+    /**
+     * Reconstruye los agregados desde la base de datos al arrancar la aplicación, y después cuando caducan.
+     * Los nuevos agregados se publican al terminar, así que los informes nunca ven una carga a medias.
+     * Los tickets confirmados mientras tanto se guardan; al terminar la consulta, los que no estaban en
+     * su instantánea se suman a los nuevos agregados, y se repite con los que lleguen entretanto hasta
+     * que no queda ninguno por revisar al publicarlos.
+     * @throws SQLException si falla alguna de las consultas
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() throws SQLException {
+        long start = System.nanoTime();
+        loadLocations();
+        TicketRollup fresh = new TicketRollup();
+        rebuildLock.lock();
+        try {
+            pendingTickets = new ArrayList<>();
+        } finally {
+            rebuildLock.unlock();
+        }
+        int[] replayed = {0};
+        try {
+            snapshotTemplate.executeWithoutResult(status -> {
+                try {
+                    ticketDAO.streamDailyTotals(null, null, rs -> fresh.add(rs.getInt(1), rs.getInt(2),
+                            rs.getDate(3).toLocalDate().toEpochDay(), cents(rs.getBigDecimal(4)), rs.getInt(5)));
+                    int checked = 0;
+                    while (true) {
+                        List<PendingTicket> batch;
+                        rebuildLock.lock();
+                        try {
+                            if (checked == pendingTickets.size()) {
+                                rollup = fresh;
+                                built = true;
+                                builtAt = System.nanoTime();
+                                pendingTickets = null;
+                                return;
+                            }
+                            batch = new ArrayList<>(pendingTickets.subList(checked, pendingTickets.size()));
+                        } finally {
+                            rebuildLock.unlock();
+                        }
+                        Set<Long> counted = new HashSet<>(ticketDAO.listExistingTicketIds(
+                                batch.stream().map(PendingTicket::id).toList()));
+                        for (PendingTicket ticket : batch) {
+                            if (!counted.contains(ticket.id())) {
+                                fresh.add(ticket.provinceId(), ticket.supermarketId(), ticket.epochDay(), ticket.cents(), 1);
+                                replayed[0]++;
+                            }
+                        }
+                        checked += batch.size();
+                    }
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Ticket rollups could not be rebuilt", e);
+                }
+            });
+        } finally {
+            rebuildLock.lock();
+            try {
+                pendingTickets = null;
+            } finally {
+                rebuildLock.unlock();
+            }
+        }
+        logger.info("Ticket rollups rebuilt with {} cells in {} ms ({} tickets added after the snapshot).",
+                fresh.getCellCount(), (System.nanoTime() - start) / 1_000_000, replayed[0]);
+    }
+
+    /**
+     * Suma a los agregados los tickets insertados, una vez confirmada su transacción
+     * (o en el momento si se insertaron sin transacción).
+     * @param event Evento con los tickets insertados
+     * @throws SQLException si falla la consulta de una ubicación nueva
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTicketsInserted(TicketsInsertedEvent event) throws SQLException {
+        List<PendingTicket> tickets = new ArrayList<>(event.getTickets().size());
+        for (Ticket ticket : event.getTickets()) {
+            int locationId = ticket.getLocation().getId();
+            int[] place = placeOf(locationId);
+            if (place == null) {
+                logger.warn("Ticket {} skipped in rollups: location {} not found.", ticket.getId(), locationId);
+                continue;
+            }
+            tickets.add(new PendingTicket(ticket.getId(), place[0], place[1],
+                    ticket.getPurchasedAt().toLocalDate().toEpochDay(), cents(ticket.getTotal())));
+        }
+        rebuildLock.lock();
+        try {
+            TicketRollup current = rollup;
+            for (PendingTicket ticket : tickets) {
+                current.add(ticket.provinceId(), ticket.supermarketId(), ticket.epochDay(), ticket.cents(), 1);
+            }
+            if (pendingTickets != null) {
+                pendingTickets.addAll(tickets);
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Olvida la provincia y el supermercado de las ubicaciones cambiadas, una vez confirmado el cambio,
+     * para que sus siguientes tickets se asignen con los datos actuales. No consulta la base de datos:
+     * cada ubicación se vuelve a leer con su siguiente ticket.
+     * @param event Evento con la tabla y los IDs cambiados; sin IDs se olvidan todas las ubicaciones
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDataChanged(DataChangedEvent event) {
+        if (!"locations".equals(event.getTable())) {
+            return;
+        }
+        rebuildLock.lock();
+        try {
+            locationChanges++;
+            if (event.getIds().isEmpty()) {
+                locationPlaces = new LocationPlaces();
+            } else {
+                event.getIds().forEach(locationPlaces::remove);
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Informe de gasto por provincia, supermercado y día entre dos fechas (ambas incluidas).
+     * @param from Primer día
+     * @param to Último día
+     * @param provinceId ID de la provincia por la que filtrar, o null
+     * @param supermarketId ID del supermercado por el que filtrar, o null
+     * @return Informe con las filas con datos y sus totales
+     */
+    public SpendReport spend(LocalDate from, LocalDate to, Integer provinceId, Integer supermarketId) {
+        rebuildIfStale();
+        List<SpendRow> rows = new ArrayList<>();
+        long[] totals = new long[2];
+        rollup.forEach(from.toEpochDay(), to.toEpochDay(), provinceId, supermarketId,
+                (province, supermarket, day, cents, tickets) -> {
+                    rows.add(new SpendRow(province, supermarket, LocalDate.ofEpochDay(day),
+                            BigDecimal.valueOf(cents, 2), tickets));
+                    totals[0] += cents;
+                    totals[1] += tickets;
+                });
+        return new SpendReport(from, to, BigDecimal.valueOf(totals[0], 2), totals[1], rows);
+    }
+
+    /**
+     * Número total de tickets en los agregados, sin consultar la tabla de tickets.
+     * @return Número de tickets
+     * @throws IllegalStateException si todavía no ha terminado la primera reconstrucción
+     */
+    public long countTickets() {
+        if (!built) {
+            throw new IllegalStateException("Ticket rollups are not built yet");
+        }
+        rebuildIfStale();
+        long[] total = {0};
+        rollup.forEach((province, supermarket, day, cents, tickets) -> total[0] += tickets);
+        return total[0];
+    }
+
+    /**
+     * Compara los agregados en memoria con el mismo agregado calculado en SQL sobre todos los tickets.
+     * @return Resultado de la comprobación
+     * @throws SQLException si falla la consulta
+     */
+    public RollupCheck check() throws SQLException {
+        Map<String, String> expected = new HashMap<>();
+        ticketDAO.streamDailyTotals(null, null, rs -> expected.put(
+                cellKey(rs.getInt(1), rs.getInt(2), rs.getDate(3).toLocalDate().toEpochDay()),
+                cellValue(cents(rs.getBigDecimal(4)), rs.getInt(5))));
+        int sqlCells = expected.size();
+
+        List<String> mismatches = new ArrayList<>();
+        int[] memoryCells = {0};
+        rollup.forEach((province, supermarket, day, cents, tickets) -> {
+            memoryCells[0]++;
+            String key = cellKey(province, supermarket, day);
+            String actual = cellValue(cents, tickets);
+            String sql = expected.remove(key);
+            if (!actual.equals(sql) && mismatches.size() < MAX_MISMATCHES) {
+                mismatches.add(key + ": memoria " + actual + ", SQL " + (sql == null ? "-" : sql));
+            }
+        });
+        int missing = expected.size();
+        for (Map.Entry<String, String> entry : expected.entrySet()) {
+            if (mismatches.size() == MAX_MISMATCHES) {
+                break;
+            }
+            mismatches.add(entry.getKey() + ": memoria -, SQL " + entry.getValue());
+        }
+        boolean consistent = mismatches.isEmpty() && missing == 0;
+        if (!consistent) {
+            logger.warn("Ticket rollups differ from SQL: {} memory cells, {} SQL cells.", memoryCells[0], sqlCells);
+        }
+        return new RollupCheck(consistent, sqlCells, memoryCells[0], mismatches);
+    }
+
+    /**
+     * Si los agregados tienen más de `app.report.rollup-rebuild-ms`, lanza su reconstrucción en segundo
+     * plano; mientras tanto se siguen usando los actuales.
+     */
+    private void rebuildIfStale() {
+        if (rebuildNanos > 0 && built && System.nanoTime() - builtAt > rebuildNanos
+                && rebuilding.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("ticket-rollup-rebuild").start(() -> {
+                try {
+                    rebuild();
+                } catch (SQLException | RuntimeException e) {
+                    logger.warn("Ticket rollups could not be rebuilt: {}", e.getMessage());
+                } finally {
+                    rebuilding.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Carga la provincia y el supermercado de todas las ubicaciones y sustituye los que había.
+     */
+    private void loadLocations() throws SQLException {
+        long changes;
+        rebuildLock.lock();
+        try {
+            changes = locationChanges;
+        } finally {
+            rebuildLock.unlock();
+        }
+        LocationPlaces loaded = new LocationPlaces();
+        locationDAO.streamLocations(null, null, rs -> loaded.put(rs.getInt(1), rs.getInt(6), rs.getInt(4)));
+        rebuildLock.lock();
+        try {
+            // Si alguna ubicación ha cambiado durante la carga, lo leído puede ser anterior: se empieza de cero
+            locationPlaces = changes == locationChanges ? loaded : new LocationPlaces();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Devuelve {provincia, supermercado} de una ubicación, consultándola si aún no se conoce.
+     * La consulta se hace sin `rebuildLock`, que solo protege la lectura y la escritura de los arrays; lo
+     * leído no se guarda si entretanto ha cambiado alguna ubicación.
+     * @return Provincia y supermercado, o null si la ubicación no existe
+     */
+    private int[] placeOf(int locationId) throws SQLException {
+        long changes;
+        rebuildLock.lock();
+        try {
+            changes = locationChanges;
+            int[] place = locationPlaces.get(locationId);
+            if (place != null) {
+                return place;
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+        Location location = locationDAO.getLocationById(locationId);
+        if (location == null) {
+            return null;
+        }
+        int[] place = {location.getProvince().getId(), location.getSupermarket().getId()};
+        rebuildLock.lock();
+        try {
+            if (changes == locationChanges) {
+                locationPlaces.put(locationId, place[0], place[1]);
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+        return place;
+    }
+
+    /**
+     * Convierte un importe con dos decimales a céntimos.
+     */
+    private static long cents(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static String cellKey(int provinceId, int supermarketId, long epochDay) {
+        return "provincia " + provinceId + ", supermercado " + supermarketId + ", " + LocalDate.ofEpochDay(epochDay);
+    }
+
+    private static String cellValue(long cents, int tickets) {
+        return BigDecimal.valueOf(cents, 2) + " (" + tickets + " tickets)";
+    }
+
+    /**
+     * Provincia y supermercado de cada ubicación en arrays indexados por ID (provincia -1 si la
+     * ubicación no se conoce). No es seguro entre hilos.
+     */
+    private static class LocationPlaces {
+
+        private int[] provinces = new int[0];
+
+        private int[] supermarkets = new int[0];
+
+        int[] get(int id) {
+            if (id < provinces.length && provinces[id] >= 0) {
+                return new int[] {provinces[id], supermarkets[id]};
+            }
+            return null;
+        }
+
+        void put(int id, int provinceId, int supermarketId) {
+            if (id >= provinces.length) {
+                int length = Math.max(id + 1, provinces.length * 2);
+                int previous = provinces.length;
+                provinces = Arrays.copyOf(provinces, length);
+                supermarkets = Arrays.copyOf(supermarkets, length);
+                Arrays.fill(provinces, previous, length, -1);
+            }
+            provinces[id] = provinceId;
+            supermarkets[id] = supermarketId;
+        }
+
+        void remove(int id) {
+            if (id < provinces.length) {
+                provinces[id] = -1;
+            }
+        }
+    }
+
+    /**
+     * Ticket ya asignado a su celda, tal como se suma a los agregados.
+     */
+    private record PendingTicket(long id, int provinceId, int supermarketId, long epochDay, long cents) {
+    }
+}
@@ -0,0 +1,235 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.report;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Agregados de los tickets por (provincia, supermercado, día) en arrays de tipos primitivos.
+ * Cada día con datos tiene un bloque de celdas, una por combinación de provincia y supermercado,
+ * con el importe en céntimos (`long`) y el número de tickets (`int`). Los IDs de provincia y de
+ * supermercado se traducen a índices densos la primera vez que aparecen; si no caben en el bloque,
+ * todos los bloques se redimensionan (solo ocurre al aparecer una provincia o un supermercado nuevo).
+ * Sumar un ticket o leer una celda son accesos directos a un array, sin objetos intermedios.
+ * Las escrituras y las lecturas se coordinan con un ReadWriteLock.
+ */
+public class TicketRollup {
+
+    /**
+     * Recibe las celdas con datos de un recorrido.
+     */
+    @FunctionalInterface
+    public interface CellConsumer {
+        void accept(int provinceId, int supermarketId, long epochDay, long cents, int tickets);
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // ID -> índice + 1 (0 si el ID no ha aparecido) e índice -> ID, para cada dimensión
+    private int[] provinceIndex = new int[64];
+
+    private int[] provinceIds = new int[16];
+
+    private int provinces;
+
+    private int[] supermarketIndex = new int[64];
+
+    private int[] supermarketIds = new int[16];
+
+    private int supermarkets;
+
+    // Bloques por día: posición = día - firstDay; null si ese día no tiene datos
+    private long firstDay;
+
+    private long[][] cents = new long[0][];
+
+    private int[][] tickets = new int[0][];
+
+    private int cellCount;
+
+    /**
+     * Suma un ticket (o un agregado de varios) a su celda.
+     * @param provinceId ID de la provincia de la ubicación
+     * @param supermarketId ID del supermercado de la ubicación
+     * @param epochDay Día de la compra (`LocalDate.toEpochDay()`)
+     * @param amountCents Importe en céntimos
+     * @param ticketCount Número de tickets
+     */
+    public void add(int provinceId, int supermarketId, long epochDay, long amountCents, int ticketCount) {
+        lock.writeLock().lock();
+        try {
+            int p = indexOf(provinceId, true);
+            int s = indexOf(supermarketId, false);
+            int day = dayIndex(epochDay);
+            if (cents[day] == null) {
+                cents[day] = new long[provinceIds.length * supermarketIds.length];
+                tickets[day] = new int[cents[day].length];
+            }
+            int cell = p * supermarketIds.length + s;
+            if (tickets[day][cell] == 0) {
+                cellCount++;
+            }
+            cents[day][cell] += amountCents;
+            tickets[day][cell] += ticketCount;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recorre las celdas con datos de un intervalo de días, en orden de día, opcionalmente
+     * filtradas por provincia y/o supermercado.
+     * @param fromDay Primer día (incluido)
+     * @param toDay Último día (incluido)
+     * @param provinceId ID de la provincia, o null para todas
+     * @param supermarketId ID del supermercado, o null para todos
+     * @param consumer Receptor de las celdas
+     */
+    public void forEach(long fromDay, long toDay, Integer provinceId, Integer supermarketId, CellConsumer consumer) {
+        lock.readLock().lock();
+        try {
+            int pFrom = 0;
+            int pTo = provinces;
+            if (provinceId != null) {
+                pFrom = lookup(provinceIndex, provinceId);
+                if (pFrom < 0) {
+                    return;
+                }
+                pTo = pFrom + 1;
+            }
+            int sFrom = 0;
+            int sTo = supermarkets;
+            if (supermarketId != null) {
+                sFrom = lookup(supermarketIndex, supermarketId);
+                if (sFrom < 0) {
+                    return;
+                }
+                sTo = sFrom + 1;
+            }
+            int stride = supermarketIds.length;
+            long first = Math.max(fromDay, firstDay);
+            long last = Math.min(toDay, firstDay + cents.length - 1);
+            for (long epochDay = first; epochDay <= last; epochDay++) {
+                int day = (int) (epochDay - firstDay);
+                long[] dayCents = cents[day];
+                if (dayCents == null) {
+                    continue;
+                }
+                int[] dayTickets = tickets[day];
+                for (int p = pFrom; p < pTo; p++) {
+                    for (int s = sFrom; s < sTo; s++) {
+                        int cell = p * stride + s;
+                        if (dayTickets[cell] != 0) {
+                            consumer.accept(provinceIds[p], supermarketIds[s], epochDay, dayCents[cell], dayTickets[cell]);
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Recorre todas las celdas con datos.
+     */
+    public void forEach(CellConsumer consumer) {
+        forEach(Long.MIN_VALUE, Long.MAX_VALUE, null, null, consumer);
+    }
+
+    /**
+     * Número de celdas con datos.
+     */
+    public int getCellCount() {
+        lock.readLock().lock();
+        try {
+            return cellCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int lookup(int[] index, int id) {
+        return id >= 0 && id < index.length ? index[id] - 1 : -1;
+    }
+
+    /**
+     * Índice denso de una provincia o un supermercado, asignándolo si es nuevo.
+     */
+    private int indexOf(int id, boolean province) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Negative id: " + id);
+        }
+        int[] index = province ? provinceIndex : supermarketIndex;
+        int existing = lookup(index, id);
+        if (existing >= 0) {
+            return existing;
+        }
+        if (id >= index.length) {
+            index = Arrays.copyOf(index, Math.max(id + 1, index.length * 2));
+        }
+        int[] ids = province ? provinceIds : supermarketIds;
+        int count = province ? provinces : supermarkets;
+        if (count == ids.length) {
+            relayout(province ? ids.length * 2 : provinceIds.length, province ? supermarketIds.length : ids.length * 2);
+            ids = province ? provinceIds : supermarketIds;
+        }
+        ids[count] = id;
+        index[id] = count + 1;
+        if (province) {
+            provinceIndex = index;
+            provinces++;
+        } else {
+            supermarketIndex = index;
+            supermarkets++;
+        }
+        return count;
+    }
+
+    /**
+     * Cambia la capacidad de las dimensiones y copia las celdas de cada bloque a su nueva posición.
+     */
+    private void relayout(int provinceCapacity, int supermarketCapacity) {
+        int oldStride = supermarketIds.length;
+        for (int day = 0; day < cents.length; day++) {
+            if (cents[day] == null) {
+                continue;
+            }
+            long[] newCents = new long[provinceCapacity * supermarketCapacity];
+            int[] newTickets = new int[newCents.length];
+            for (int p = 0; p < provinces; p++) {
+                System.arraycopy(cents[day], p * oldStride, newCents, p * supermarketCapacity, supermarkets);
+                System.arraycopy(tickets[day], p * oldStride, newTickets, p * supermarketCapacity, supermarkets);
+            }
+            cents[day] = newCents;
+            tickets[day] = newTickets;
+        }
+        provinceIds = Arrays.copyOf(provinceIds, provinceCapacity);
+        supermarketIds = Arrays.copyOf(supermarketIds, supermarketCapacity);
+    }
+
+    /**
+     * Posición del bloque de un día, ampliando el rango de días por delante o por detrás.
+     */
+    private int dayIndex(long epochDay) {
+        if (cents.length == 0) {
+            firstDay = epochDay;
+            cents = new long[32][];
+            tickets = new int[32][];
+        } else if (epochDay < firstDay) {
+            int shift = (int) Math.max(firstDay - epochDay, cents.length / 2);
+            long[][] newCents = new long[cents.length + shift][];
+            int[][] newTickets = new int[newCents.length][];
+            System.arraycopy(cents, 0, newCents, shift, cents.length);
+            System.arraycopy(tickets, 0, newTickets, shift, tickets.length);
+            cents = newCents;
+            tickets = newTickets;
+            firstDay -= shift;
+        } else if (epochDay - firstDay >= cents.length) {
+            int capacity = (int) Math.max(epochDay - firstDay + 1, cents.length * 2L);
+            cents = Arrays.copyOf(cents, capacity);
+            tickets = Arrays.copyOf(tickets, capacity);
+        }
+        return (int) (epochDay - firstDay);
+    }
+}
@@ -1,14 +1,14 @@
 -- Crear tabla para las Comunidades Autónomas de España
 CREATE TABLE IF NOT EXISTS regions (
    id INT AUTO_INCREMENT PRIMARY KEY,
-   code VARCHAR(10) NOT NULL UNIQUE,
+   code VARCHAR(10) CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci NOT NULL UNIQUE,
    name VARCHAR(100) NOT NULL
 );
 
 -- Crear tabla para las provincias españolas
 CREATE TABLE IF NOT EXISTS provinces (
     id INT AUTO_INCREMENT PRIMARY KEY,
-    code VARCHAR(10) NOT NULL UNIQUE,
+    code VARCHAR(10) CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci NOT NULL UNIQUE,
     name VARCHAR(100) NOT NULL,
     id_region INT NOT NULL,
     FOREIGN KEY (id_region) REFERENCES regions(id)
@@ -17,9 +17,17 @@ CREATE TABLE IF NOT EXISTS provinces (
 -- Crear la tabla 'supermarket'
 CREATE TABLE IF NOT EXISTS supermarkets (
     id INT AUTO_INCREMENT PRIMARY KEY,
-    name VARCHAR(100) NOT NULL
+    name VARCHAR(100) CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci NOT NULL
 );
 
+-- Las columnas con índice único (regions.code, provinces.code, supermarkets.name) declaran una
+-- collation _ci explícita: los índices no distinguen mayúsculas sea cual sea la collation por defecto
+-- del servidor, y la base de datos rechaza los duplicados sin que las aplicaciones los comprueben antes.
+-- En las bases de datos creadas antes se cambia la columna; si ya tiene esa definición no hace nada.
+ALTER TABLE regions MODIFY code VARCHAR(10) CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci NOT NULL;
+ALTER TABLE provinces MODIFY code VARCHAR(10) CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci NOT NULL;
+ALTER TABLE supermarkets MODIFY name VARCHAR(100) CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci NOT NULL;
+
 -- Crear la tabla 'location'
 CREATE TABLE IF NOT EXISTS locations (
     id INT AUTO_INCREMENT PRIMARY KEY,
@@ -31,3 +39,54 @@ CREATE TABLE IF NOT EXISTS locations (
     FOREIGN KEY (province_id) REFERENCES provinces(id)
 );
 
+-- Supermercados repetidos (sin distinguir mayúsculas) de bases de datos anteriores al índice único
+-- uk_supermarkets_name: sus ubicaciones pasan al de menor id y se borran los demás, para que el índice
+-- se pueda crear. Con el índice ya creado no hay repetidos y no cambian nada.
+UPDATE locations l
+    JOIN supermarkets s ON s.id = l.supermarket_id
+    JOIN (SELECT MIN(id) AS keep_id, name FROM supermarkets GROUP BY name) k ON k.name = s.name
+SET l.supermarket_id = k.keep_id
+WHERE s.id <> k.keep_id;
+
+DELETE s FROM supermarkets s
+    JOIN (SELECT MIN(id) AS keep_id, name FROM supermarkets GROUP BY name) k ON k.name = s.name
+WHERE s.id <> k.keep_id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_supermarkets_name ON supermarkets (name);
+
+-- Índice para la paginación por clave del listado de ubicaciones ordenado por ciudad
+CREATE INDEX IF NOT EXISTS idx_locations_city_id ON locations (city, id);
+
+-- Crear la tabla 'tickets' con los tickets de compra registrados en cada ubicación.
+-- El índice (location_id, purchased_at) sirve a la clave ajena y a las consultas por tienda y fecha.
+CREATE TABLE IF NOT EXISTS tickets (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    location_id INT NOT NULL,
+    purchased_at DATETIME NOT NULL,
+    total DECIMAL(12,2) NOT NULL,
+    FOREIGN KEY (location_id) REFERENCES locations(id),
+    INDEX idx_tickets_location_purchased (location_id, purchased_at),
+    INDEX idx_tickets_purchased_at (purchased_at)
+);
+
+-- Crear la tabla 'ticket_lines' con las líneas de producto de cada ticket.
+-- La clave primaria (ticket_id, line_number) agrupa físicamente las líneas de un mismo ticket.
+CREATE TABLE IF NOT EXISTS ticket_lines (
+    ticket_id BIGINT NOT NULL,
+    line_number SMALLINT NOT NULL,
+    product VARCHAR(150) NOT NULL,
+    quantity DECIMAL(10,3) NOT NULL,
+    unit_price DECIMAL(10,2) NOT NULL,
+    PRIMARY KEY (ticket_id, line_number),
+    FOREIGN KEY (ticket_id) REFERENCES tickets(id) ON DELETE CASCADE
+);
+
+-- Crear la tabla 'table_versions' con la versión de cada tabla que usan los ETag de las páginas (TableVersions).
+-- Se aumenta en la misma transacción que cada escritura, así que todas las instancias ven los mismos cambios.
+CREATE TABLE IF NOT EXISTS table_versions (
+    table_name VARCHAR(50) PRIMARY KEY,
+    version BIGINT NOT NULL DEFAULT 0,
+    modified_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3)
+);
+
+INSERT IGNORE INTO table_versions (table_name) VALUES ('regions'), ('provinces'), ('supermarkets'), ('locations');
@@ -0,0 +1,72 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.api;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Location;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Province;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Region;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Supermarket;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+public class JsonProjectionTest {
+
+    private final Region region = new Region(1, "01", "Andalucía");
+
+    private final Province province = new Province(41, "41", "Sevilla", region);
+
+    private final Location location = new Location(7, "Av. Canal Sur, s/n", "Tomares",
+            new Supermarket(3, "Mercadona"), province);
+
+
+    /**
+     * El listado escribe las relaciones como opción (id y nombre) y el detalle, completas.
+     */
+    @Test
+    public void testListAndDetail() throws IOException {
+        assertEquals("{\"id\":7,\"address\":\"Av. Canal Sur, s/n\",\"city\":\"Tomares\","
+                        + "\"supermarket\":{\"id\":3,\"name\":\"Mercadona\"},\"province\":{\"id\":41,\"name\":\"Sevilla\"}}",
+                write(ApiProjections.LOCATION, location));
+        assertEquals("{\"id\":7,\"address\":\"Av. Canal Sur, s/n\",\"city\":\"Tomares\","
+                        + "\"supermarket\":{\"id\":3,\"name\":\"Mercadona\"},\"province\":{\"id\":41,\"code\":\"41\","
+                        + "\"name\":\"Sevilla\",\"region\":{\"id\":1,\"code\":\"01\",\"name\":\"Andalucía\"}}}",
+                write(ApiProjections.LOCATION_DETAIL, location));
+    }
+
+
+    /**
+     * La selección de campos respeta el orden pedido; un campo desconocido es un error.
+     */
+    @Test
+    public void testSelect() throws IOException {
+        assertEquals("{\"name\":\"Sevilla\",\"id\":41}", write(ApiProjections.PROVINCE.select("name, id"), province));
+        assertEquals(ApiProjections.PROVINCE.getFieldNames(), ApiProjections.PROVINCE.select(" ").getFieldNames());
+        assertThrows(IllegalArgumentException.class, () -> ApiProjections.PROVINCE.select("id,password"));
+    }
+
+
+    /**
+     * Las relaciones y los valores ausentes se escriben como null.
+     */
+    @Test
+    public void testNulls() throws IOException {
+        assertEquals("{\"id\":null,\"code\":\"41\",\"name\":\"Sevilla\",\"region\":null}",
+                write(ApiProjections.PROVINCE, new Province("41", "Sevilla", null)));
+        assertEquals("null", write(ApiProjections.REGION, null));
+    }
+
+
+    private static <T> String write(JsonProjection<T> projection, T value) throws IOException {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator generator = new JsonFactory().createGenerator(out)) {
+            projection.write(generator, value);
+        }
+        return out.toString();
+    }
+}
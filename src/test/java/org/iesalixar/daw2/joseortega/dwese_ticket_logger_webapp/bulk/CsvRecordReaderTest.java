@@ -0,0 +1,53 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.bulk;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+public class CsvRecordReaderTest {
+
+
+    private static CsvRecordReader reader(String csv) throws IOException {
+        return new CsvRecordReader(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+
+
+    /**
+     * Los valores entre comillas pueden contener comas, comillas escapadas y saltos de línea,
+     * y la cabecera se normaliza a minúsculas.
+     */
+    @Test
+    public void testQuotedValues() throws IOException {
+        try (CsvRecordReader reader = reader("Address,City\r\n\"Calle Real, 1\",\"Dos \"\"Hermanas\"\"\"\n\"Linea\nDoble\",Sevilla")) {
+            Map<String, String> first = reader.next();
+            assertEquals("Calle Real, 1", first.get("address"));
+            assertEquals("Dos \"Hermanas\"", first.get("city"));
+
+            Map<String, String> second = reader.next();
+            assertEquals("Linea\nDoble", second.get("address"));
+            assertEquals("Sevilla", second.get("city"));
+
+            assertNull(reader.next());
+        }
+    }
+
+
+    /**
+     * Las líneas vacías se ignoran y unas comillas sin cerrar se notifican como error de formato.
+     */
+    @Test
+    public void testBlankLinesAndUnclosedQuotes() throws IOException {
+        try (CsvRecordReader reader = reader("name\n\nMercadona\n\n\"Lidl")) {
+            assertEquals("Mercadona", reader.next().get("name"));
+            assertThrows(IOException.class, reader::next);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.config;
+
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Province;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Region;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+public class CopyingCaffeineCacheManagerTest {
+
+
+    /**
+     * Modificar la lista guardada, o las entidades leídas de la caché, no cambia lo que está en ella.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCachedEntitiesCannotBeModified() {
+        CopyingCaffeineCacheManager manager = new CopyingCaffeineCacheManager();
+        manager.setCacheNames(List.of("provinces"));
+        Cache cache = manager.getCache("provinces");
+
+        Province original = new Province(1, "41", "Sevilla", new Region(1, "01", "Andalucía"));
+        List<Province> loaded = new ArrayList<>(List.of(original));
+        cache.put("all", loaded);
+        original.setName("Cambiada");
+        loaded.clear();
+
+        List<Province> read = (List<Province>) cache.get("all").get();
+        assertEquals("Sevilla", read.get(0).getName());
+        read.get(0).getRegion().setName("Cambiada");
+        assertThrows(UnsupportedOperationException.class, () -> read.add(original));
+
+        List<Province> again = (List<Province>) cache.get("all").get();
+        assertEquals("Andalucía", again.get(0).getRegion().getName());
+        assertNotSame(read.get(0), again.get(0));
+    }
+}
@@ -0,0 +1,64 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.logging.DeferredLogs;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+public class PoolSizingEnvironmentPostProcessorTest {
+
+    private final PoolSizingEnvironmentPostProcessor processor = new PoolSizingEnvironmentPostProcessor(new DeferredLogs());
+
+
+    /**
+     * Con el cálculo activado, el pool es fijo de `núcleos * 2 + discos` conexiones.
+     */
+    @Test
+    public void testSizeFromCores() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("app.datasource.pool.auto-size", "true")
+                .withProperty("app.datasource.pool.db-cores", "4")
+                .withProperty("app.datasource.pool.spindles", "1");
+        processor.postProcessEnvironment(environment, null);
+
+        assertEquals("9", environment.getProperty(PoolSizingEnvironmentPostProcessor.MAXIMUM_POOL_SIZE));
+        assertEquals("9", environment.getProperty(PoolSizingEnvironmentPostProcessor.MINIMUM_IDLE));
+    }
+
+
+    /**
+     * Un tamaño fijado a mano, o el cálculo desactivado, dejan la configuración como está.
+     */
+    @Test
+    public void testExplicitSizeWins() {
+        MockEnvironment explicit = new MockEnvironment()
+                .withProperty("app.datasource.pool.auto-size", "true")
+                .withProperty(PoolSizingEnvironmentPostProcessor.MAXIMUM_POOL_SIZE, "20");
+        processor.postProcessEnvironment(explicit, null);
+        assertEquals("20", explicit.getProperty(PoolSizingEnvironmentPostProcessor.MAXIMUM_POOL_SIZE));
+        assertNull(explicit.getProperty(PoolSizingEnvironmentPostProcessor.MINIMUM_IDLE));
+
+        MockEnvironment disabled = new MockEnvironment().withProperty("app.datasource.pool.db-cores", "4");
+        processor.postProcessEnvironment(disabled, null);
+        assertNull(disabled.getProperty(PoolSizingEnvironmentPostProcessor.MAXIMUM_POOL_SIZE));
+    }
+
+
+    /**
+     * Con el cálculo activado y sin los núcleos del servidor de base de datos, el arranque falla.
+     */
+    @Test
+    public void testDbCoresRequired() {
+        MockEnvironment missing = new MockEnvironment().withProperty("app.datasource.pool.auto-size", "true");
+        assertThrows(IllegalStateException.class, () -> processor.postProcessEnvironment(missing, null));
+
+        MockEnvironment blank = new MockEnvironment()
+                .withProperty("app.datasource.pool.auto-size", "true")
+                .withProperty("app.datasource.pool.db-cores", "");
+        assertThrows(IllegalStateException.class, () -> processor.postProcessEnvironment(blank, null));
+    }
+}
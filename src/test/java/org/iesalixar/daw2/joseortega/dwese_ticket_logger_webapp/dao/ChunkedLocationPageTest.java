@@ -0,0 +1,132 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao;
+
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Location;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+public class ChunkedLocationPageTest {
+
+    // Número de ubicaciones de la tabla simulada
+    private static final int TOTAL = 1200;
+
+    private LocationDAO locationDAO;
+
+    private final List<Integer> fetchSizes = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        locationDAO = mock(LocationDAO.class);
+        // Paginación por clave sobre los IDs 1..TOTAL, solo hacia delante
+        when(locationDAO.listLocationsPage(eq(LocationSort.ID), any(), anyInt())).thenAnswer(invocation -> {
+            LocationCursor cursor = LocationCursor.decode(invocation.getArgument(1));
+            int size = invocation.getArgument(2);
+            fetchSizes.add(size);
+            int from = cursor == null ? 1 : cursor.getId() + 1;
+            List<Location> locations = new ArrayList<>();
+            for (int id = from; id < from + size && id <= TOTAL; id++) {
+                Location location = new Location();
+                location.setId(id);
+                locations.add(location);
+            }
+            int last = from + locations.size() - 1;
+            String next = last < TOTAL ? new LocationCursor(true, LocationSort.ID, last, String.valueOf(last)).encode() : null;
+            return new LocationPage(locations, next, null, LocationSort.ID, size);
+        });
+    }
+
+
+    /**
+     * Una página de 1000 filas con tramos de 300 se lee con cuatro consultas, en orden,
+     * vaciando la respuesta antes de cada consulta salvo la primera.
+     */
+    @Test
+    public void testReadsPageInChunks() throws SQLException {
+        AtomicInteger flushes = new AtomicInteger();
+        ChunkedLocationPage page = ChunkedLocationPage.open(locationDAO, LocationSort.ID, null, 1000, 300,
+                flushes::incrementAndGet);
+        assertEquals(List.of(300), fetchSizes);
+
+        int expected = 1;
+        for (Location location : page) {
+            assertEquals(expected++, location.getId());
+        }
+
+        assertEquals(1000, page.getRows());
+        assertEquals(List.of(300, 300, 300, 100), fetchSizes);
+        assertEquals(3, flushes.get());
+        assertEquals(1000, LocationCursor.decode(page.getNextCursor()).getId());
+        assertThrows(IllegalStateException.class, page::iterator);
+    }
+
+
+    /**
+     * Al llegar al final de la tabla antes de completar la página, se termina sin cursor siguiente.
+     */
+    @Test
+    public void testLastPage() throws SQLException {
+        String cursor = new LocationCursor(true, LocationSort.ID, 1000, "1000").encode();
+        ChunkedLocationPage page = ChunkedLocationPage.open(locationDAO, LocationSort.ID, cursor, 500, 150, () -> { });
+
+        page.forEach(location -> { });
+
+        assertEquals(200, page.getRows());
+        assertEquals(List.of(150, 150), fetchSizes);
+        assertNull(page.getNextCursor());
+    }
+
+
+    /**
+     * Las páginas hacia atrás y las que no superan el tamaño del tramo se leen en una sola consulta.
+     */
+    @Test
+    public void testSingleQuery() throws SQLException {
+        String backward = new LocationCursor(false, LocationSort.ID, 900, "900").encode();
+        ChunkedLocationPage.open(locationDAO, LocationSort.ID, backward, 500, 100, () -> { });
+        ChunkedLocationPage page = ChunkedLocationPage.open(locationDAO, LocationSort.ID, null, 50, 100, () -> { });
+        ChunkedLocationPage.open(locationDAO, LocationSort.ID, null, 700, 0, () -> { });
+
+        assertEquals(List.of(500, 50, 700), fetchSizes);
+        page.forEach(location -> { });
+        assertNotNull(page.getNextCursor());
+        verify(locationDAO, times(3)).listLocationsPage(eq(LocationSort.ID), any(), anyInt());
+    }
+
+
+    /**
+     * Si falla la consulta de un tramo posterior al primero, el recorrido termina en la última fila leída,
+     * la página queda marcada como incompleta y el cursor siguiente continúa tras esa fila.
+     */
+    @Test
+    public void testFailedChunkEndsPage() throws SQLException {
+        String failing = new LocationCursor(true, LocationSort.ID, 600, "600").encode();
+        when(locationDAO.listLocationsPage(LocationSort.ID, failing, 300)).thenThrow(new SQLException("Connection reset"));
+        ChunkedLocationPage page = ChunkedLocationPage.open(locationDAO, LocationSort.ID, null, 1000, 300, () -> { });
+        assertFalse(page.isIncomplete());
+
+        page.forEach(location -> { });
+
+        assertEquals(600, page.getRows());
+        assertTrue(page.isIncomplete());
+        assertEquals(600, LocationCursor.decode(page.getNextCursor()).getId());
+    }
+}
@@ -0,0 +1,43 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class LocationCursorTest {
+
+
+    /**
+     * Un cursor codificado debe decodificarse con la misma dirección, id y valor,
+     * incluso si el valor de ordenación contiene el separador.
+     */
+    @Test
+    public void testEncodeDecodeRoundTrip() {
+        LocationCursor cursor = new LocationCursor(false, LocationSort.CITY, 42, "Castilleja | de la Cuesta");
+
+        LocationCursor decoded = LocationCursor.decode(cursor.encode());
+
+        assertFalse(decoded.isForward());
+        assertEquals(LocationSort.CITY, decoded.getSort());
+        assertEquals(42, decoded.getId());
+        assertEquals("Castilleja | de la Cuesta", decoded.getValue());
+    }
+
+
+    /**
+     * Un cursor vacío o manipulado se trata como la primera página.
+     */
+    @Test
+    public void testDecodeInvalidCursor() {
+        assertNull(LocationCursor.decode(null));
+        assertNull(LocationCursor.decode(""));
+        assertNull(LocationCursor.decode("no-es-base64!"));
+        assertNull(LocationCursor.decode(new LocationCursor(true, LocationSort.PROVINCE, 1, "Sevilla").encode()));
+        assertNull(LocationCursor.decode(new LocationCursor(true, LocationSort.ID, 1, "").encode().substring(2)));
+        assertTrue(LocationCursor.decode(new LocationCursor(true, LocationSort.ID, 1, "").encode()).isForward());
+    }
+}
@@ -0,0 +1,88 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+public class LocationSearchIndexTest {
+
+    private LocationSearchIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new LocationSearchIndex();
+        index.put(1, "Calle Mayor, 3", "Ávila", 5, 1);
+        index.put(2, "Avda. de Andalucía, 12", "Sevilla", 41, 2);
+        index.put(3, "Calle Sierpes, 40", "Sevilla", 41, 1);
+        index.put(2000, "Plaza Mayor, 1", "Madrid", 28, 2);
+    }
+
+
+    /**
+     * Cada término es un prefijo de alguna palabra, sin distinguir mayúsculas ni acentos.
+     */
+    @Test
+    public void testPrefixSearch() {
+        assertArrayEquals(new int[] {1, 3}, index.search("CALL", null, null, 10));
+        assertArrayEquals(new int[] {1, 2000}, index.search("may", null, null, 10));
+        assertArrayEquals(new int[] {1}, index.search("call may avila", null, null, 10));
+        assertArrayEquals(new int[] {2}, index.search("andaluc 12", null, null, 10));
+        assertArrayEquals(new int[] {}, index.search("mayor sevilla", null, null, 10));
+    }
+
+
+    /**
+     * Un término sin coincidencias exactas admite erratas: una edición hasta 7 letras y dos desde 8.
+     * Los términos cortos no se buscan con erratas.
+     */
+    @Test
+    public void testFuzzySearch() {
+        assertArrayEquals(new int[] {1, 2000}, index.search("mayr", null, null, 10));
+        assertArrayEquals(new int[] {2, 3}, index.search("sveilla", null, null, 10));
+        assertArrayEquals(new int[] {2}, index.search("andalsia", null, null, 10));
+        assertArrayEquals(new int[] {3}, index.search("calle siepres", null, null, 10));
+        assertArrayEquals(new int[] {}, index.search("sebiya", null, null, 10));
+        assertArrayEquals(new int[] {}, index.search("mdr", null, null, 10));
+    }
+
+
+    /**
+     * La distancia se mide contra el prefijo más parecido de la palabra, con los intercambios como una edición.
+     */
+    @Test
+    public void testPrefixDistance() {
+        assertEquals(0, LocationSearchIndex.prefixDistance("may", "mayor", 2));
+        assertEquals(1, LocationSearchIndex.prefixDistance("myaor", "mayor", 2));
+        assertEquals(1, LocationSearchIndex.prefixDistance("mayr", "mayor", 2));
+        assertEquals(3, LocationSearchIndex.prefixDistance("xyzw", "mayor", 2));
+    }
+
+
+    /**
+     * Los filtros de provincia y supermercado se combinan con el texto; sin texto se aplican solos.
+     */
+    @Test
+    public void testFiltersAndLimit() {
+        assertArrayEquals(new int[] {3}, index.search("sevilla", 41, 1, 10));
+        assertArrayEquals(new int[] {2, 2000}, index.search(null, null, 2, 10));
+        assertArrayEquals(new int[] {1, 2}, index.search("", null, null, 2));
+    }
+
+
+    /**
+     * Al actualizar o eliminar una ubicación desaparecen sus palabras anteriores.
+     */
+    @Test
+    public void testUpdateAndRemove() {
+        index.put(3, "Calle Tetuán, 1", "Sevilla", 41, 1);
+        assertArrayEquals(new int[] {}, index.search("sierpes", null, null, 10));
+        assertArrayEquals(new int[] {3}, index.search("tetuan", null, null, 10));
+
+        index.remove(1);
+        assertArrayEquals(new int[] {3}, index.search("calle", null, null, 10));
+        assertEquals(3, index.size());
+    }
+}
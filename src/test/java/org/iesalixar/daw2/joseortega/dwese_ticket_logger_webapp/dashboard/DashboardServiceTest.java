@@ -0,0 +1,163 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dashboard;
+
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.DashboardDAO;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.ProvinceDAO;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.SupermarketDAO;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Province;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Supermarket;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.report.SpendReport;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.report.SpendRow;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.report.TicketReportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+public class DashboardServiceTest {
+
+    // Latencia simulada de cada consulta
+    private static final long QUERY_MILLIS = 100;
+
+    private DashboardDAO dashboardDAO;
+
+    private TicketReportService ticketReportService;
+
+    private ProvinceDAO provinceDAO;
+
+    private SupermarketDAO supermarketDAO;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        dashboardDAO = mock(DashboardDAO.class);
+        ticketReportService = mock(TicketReportService.class);
+        provinceDAO = mock(ProvinceDAO.class);
+        supermarketDAO = mock(SupermarketDAO.class);
+        when(dashboardDAO.countRows(anyString())).thenAnswer(invocation -> {
+            Thread.sleep(QUERY_MILLIS);
+            return 10L;
+        });
+        when(dashboardDAO.listLatestTickets(anyInt())).thenAnswer(invocation -> {
+            Thread.sleep(QUERY_MILLIS);
+            return List.of();
+        });
+        when(ticketReportService.countTickets()).thenReturn(3L);
+        when(ticketReportService.spend(any(), any(), any(), any())).thenReturn(new SpendReport(null, null,
+                new BigDecimal("60.00"), 3, List.of(
+                new SpendRow(41, 1, LocalDate.now(), new BigDecimal("10.00"), 1),
+                new SpendRow(41, 2, LocalDate.now(), new BigDecimal("20.00"), 1),
+                new SpendRow(29, 2, LocalDate.now(), new BigDecimal("30.00"), 1))));
+        when(provinceDAO.listAllProvinces()).thenReturn(List.of(
+                new Province(41, "41", "Sevilla", null), new Province(29, "29", "Málaga", null)));
+        when(supermarketDAO.listAllSupermarkets()).thenReturn(List.of(
+                new Supermarket(1, "Mercadona"), new Supermarket(2, "Lidl")));
+    }
+
+
+    /**
+     * Las subtareas se lanzan a la vez: el panel tarda lo que una consulta y no lo que todas juntas.
+     * Las clasificaciones suman el gasto por provincia y por supermercado, de mayor a menor, y los tickets
+     * se cuentan con los agregados en memoria, sin COUNT(*) sobre la tabla.
+     */
+    @Test
+    public void testSectionsLoadConcurrently() throws SQLException {
+        long start = System.nanoTime();
+        Dashboard dashboard = service(1000, 5000).getDashboard();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(dashboard.isComplete());
+        assertEquals(DashboardDAO.TABLES, List.copyOf(dashboard.getCounts().keySet()));
+        assertTrue(millis < QUERY_MILLIS * 4, "El panel ha tardado " + millis + " ms");
+        assertEquals(List.of("Sevilla", "Málaga"), dashboard.getTopProvinces().stream().map(RankingRow::getName).toList());
+        assertEquals(new BigDecimal("30.00"), dashboard.getTopProvinces().get(0).getTotal());
+        assertEquals(List.of("Lidl", "Mercadona"), dashboard.getTopSupermarkets().stream().map(RankingRow::getName).toList());
+        assertEquals(2, dashboard.getTopSupermarkets().get(0).getTickets());
+        assertEquals(3L, dashboard.getCounts().get("tickets"));
+        verify(dashboardDAO, never()).countRows("tickets");
+    }
+
+
+    /**
+     * Una consulta que vence su plazo o falla deja su sección vacía y el resto del panel se muestra.
+     * La consulta vencida no se interrumpe (eso cerraría su conexión): termina por su cuenta.
+     */
+    @Test
+    public void testPartialResult() throws Exception {
+        AtomicBoolean interrupted = new AtomicBoolean();
+        CountDownLatch finished = new CountDownLatch(1);
+        when(dashboardDAO.countRows("locations")).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(QUERY_MILLIS * 6);
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+            finished.countDown();
+            return 1L;
+        });
+        when(dashboardDAO.listLatestTickets(anyInt())).thenThrow(new SQLException("Connection refused"));
+
+        long start = System.nanoTime();
+        Dashboard dashboard = service(QUERY_MILLIS * 3, 5000).getDashboard();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(List.of("count.locations", "latestTickets"), dashboard.getMissing());
+        assertEquals(4, dashboard.getCounts().size());
+        assertNull(dashboard.getLatestTickets());
+        assertEquals(2, dashboard.getTopProvinces().size());
+        assertTrue(millis < QUERY_MILLIS * 5, "El panel ha esperado a la consulta vencida: " + millis + " ms");
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertFalse(interrupted.get());
+    }
+
+
+    /**
+     * Dentro del TTL todas las peticiones reciben el mismo panel, y las que llegan a la vez con el panel
+     * caducado esperan a una única carga.
+     */
+    @Test
+    public void testCachedAndLoadedOnce() throws Exception {
+        DashboardService service = service(1000, 60_000);
+        List<Future<Dashboard>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 20; i++) {
+                results.add(executor.submit(service::getDashboard));
+            }
+        }
+        Dashboard first = results.get(0).get();
+        for (Future<Dashboard> result : results) {
+            assertSame(first, result.get());
+        }
+        assertSame(first, service.getDashboard());
+        verify(dashboardDAO, times(1)).countRows("regions");
+    }
+
+
+    private DashboardService service(long subtaskTimeoutMillis, long ttlMillis) {
+        return new DashboardService(dashboardDAO, provinceDAO, supermarketDAO, ticketReportService,
+                ttlMillis, subtaskTimeoutMillis, 5, 30);
+    }
+}
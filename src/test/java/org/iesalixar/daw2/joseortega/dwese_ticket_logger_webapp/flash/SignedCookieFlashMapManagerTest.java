@@ -0,0 +1,85 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.flash;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.FlashMap;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+
+public class SignedCookieFlashMapManagerTest {
+
+    private static final byte[] SECRET = "secreto-compartido".getBytes(StandardCharsets.UTF_8);
+
+
+    /**
+     * El mensaje guardado por una instancia lo recupera otra con el mismo secreto en la petición
+     * del redirect, y la cookie se borra al consumirlo.
+     */
+    @Test
+    public void testRoundTripBetweenInstances() {
+        Cookie cookie = save(new SignedCookieFlashMapManager(SECRET), "/regions", "Error al eliminar la región.");
+        assertEquals("Lax", cookie.getAttribute("SameSite"));
+
+        MockHttpServletRequest next = new MockHttpServletRequest("GET", "/regions");
+        next.setCookies(cookie);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FlashMap input = new SignedCookieFlashMapManager(SECRET).retrieveAndUpdate(next, response);
+
+        assertNotNull(input);
+        assertEquals("Error al eliminar la región.", input.get("errorMessage"));
+        Cookie cleared = response.getCookie(SignedCookieFlashMapManager.COOKIE);
+        assertNotNull(cleared);
+        assertEquals(0, cleared.getMaxAge());
+    }
+
+
+    /**
+     * El mensaje solo se entrega a la ruta de destino del redirect; otra petición lo deja en la cookie.
+     */
+    @Test
+    public void testOnlyTargetPathConsumes() {
+        SignedCookieFlashMapManager manager = new SignedCookieFlashMapManager(SECRET);
+        Cookie cookie = save(manager, "/regions", "mensaje");
+
+        MockHttpServletRequest other = new MockHttpServletRequest("GET", "/provinces");
+        other.setCookies(cookie);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertNull(manager.retrieveAndUpdate(other, response));
+        assertNull(response.getCookie(SignedCookieFlashMapManager.COOKIE));
+    }
+
+
+    /**
+     * Una cookie firmada con otro secreto o modificada se ignora.
+     */
+    @Test
+    public void testRejectsForeignSignature() {
+        Cookie cookie = save(new SignedCookieFlashMapManager("otro".getBytes(StandardCharsets.UTF_8)), "/regions", "x");
+        MockHttpServletRequest next = new MockHttpServletRequest("GET", "/regions");
+        next.setCookies(cookie);
+        assertNull(new SignedCookieFlashMapManager(SECRET).retrieveAndUpdate(next, new MockHttpServletResponse()));
+
+        SignedCookieFlashMapManager manager = new SignedCookieFlashMapManager(SECRET);
+        String value = save(manager, "/regions", "x").getValue();
+        assertNull(manager.decode("A" + value.substring(1)));
+    }
+
+
+    private static Cookie save(SignedCookieFlashMapManager manager, String path, String message) {
+        FlashMap flashMap = new FlashMap();
+        flashMap.put("errorMessage", message);
+        flashMap.setTargetRequestPath(path);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        manager.saveOutputFlashMap(flashMap, new MockHttpServletRequest("POST", "/regions/delete"), response);
+        Cookie cookie = response.getCookie(SignedCookieFlashMapManager.COOKIE);
+        assertNotNull(cookie);
+        return cookie;
+    }
+}
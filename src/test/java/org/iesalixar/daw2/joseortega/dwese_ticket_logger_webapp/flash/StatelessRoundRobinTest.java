@@ -0,0 +1,157 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.flash;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.config.LocaleConfig;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.config.StatelessWebConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.stereotype.Controller;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import org.springframework.web.servlet.support.RequestContextUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+
+/**
+ * Dos "instancias" (dos contextos web independientes con `LocaleConfig` y `StatelessWebConfig` en modo sin
+ * estado, que solo comparten el secreto) y un cliente cuyas peticiones se reparten entre ellas por turnos,
+ * como haría un balanceador round-robin sin afinidad de sesión. Un controlador de prueba ocupa el lugar
+ * de los de la aplicación, así que no hace falta base de datos.
+ */
+public class StatelessRoundRobinTest {
+
+    private static final String SECRET = "secreto-de-prueba";
+
+    private final List<AnnotationConfigWebApplicationContext> contexts = new ArrayList<>();
+
+    private final MockMvc first = instance();
+
+    private final MockMvc second = instance();
+
+    // Cookies del cliente, como las guarda un navegador
+    private final Map<String, Cookie> cookies = new LinkedHashMap<>();
+
+
+    @AfterEach
+    public void tearDown() {
+        contexts.forEach(AnnotationConfigWebApplicationContext::close);
+    }
+
+
+    /**
+     * El idioma elegido en una instancia se respeta en la otra y no se crea ninguna sesión.
+     */
+    @Test
+    public void testLocaleFollowsClient() throws Exception {
+        assertEquals("en", send(first, get("/page").param("lang", "en")).getContentAsString());
+        assertEquals("en", send(second, get("/page")).getContentAsString());
+    }
+
+
+    /**
+     * El mensaje flash de un POST atendido por una instancia aparece en la página del redirect que
+     * atiende la otra, y solo una vez.
+     */
+    @Test
+    public void testFlashMessageSurvivesInstanceSwitch() throws Exception {
+        MockHttpServletResponse posted = send(first, post("/page"));
+        assertEquals(302, posted.getStatus());
+        assertEquals("/page", posted.getRedirectedUrl());
+
+        assertEquals("es|El código ya existe.", send(second, get("/page")).getContentAsString());
+        assertEquals("es", send(first, get("/page")).getContentAsString());
+    }
+
+
+    /**
+     * Envía la petición con las cookies del cliente y guarda las que fija la respuesta.
+     */
+    private MockHttpServletResponse send(MockMvc instance, MockHttpServletRequestBuilder request) throws Exception {
+        if (!cookies.isEmpty()) {
+            request.cookie(cookies.values().toArray(new Cookie[0]));
+        }
+        MvcResult result = instance.perform(request).andReturn();
+        assertNull(result.getRequest().getSession(false), "La petición ha creado una sesión");
+        MockHttpServletResponse response = result.getResponse();
+        for (Cookie cookie : response.getCookies()) {
+            if (cookie.getMaxAge() == 0) {
+                cookies.remove(cookie.getName());
+            } else {
+                cookies.put(cookie.getName(), cookie);
+            }
+        }
+        return response;
+    }
+
+
+    private MockMvc instance() {
+        AnnotationConfigWebApplicationContext context = new AnnotationConfigWebApplicationContext();
+        context.setServletContext(new MockServletContext());
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test",
+                Map.of("app.web.stateless", "true", "app.web.flash-secret", SECRET)));
+        context.register(PageConfig.class, LocaleConfig.class, StatelessWebConfig.class);
+        context.refresh();
+        contexts.add(context);
+        return MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+
+    @Configuration
+    @EnableWebMvc
+    static class PageConfig {
+
+        @Bean
+        public PageController pageController() {
+            return new PageController();
+        }
+    }
+
+
+    /**
+     * Controlador de prueba: el POST redirige con un mensaje flash y el GET devuelve el idioma y el mensaje.
+     */
+    @Controller
+    static class PageController {
+
+        @PostMapping("/page")
+        public String insert(RedirectAttributes redirectAttributes) {
+            redirectAttributes.addFlashAttribute("errorMessage", "El código ya existe.");
+            return "redirect:/page";
+        }
+
+        @GetMapping("/page")
+        @ResponseBody
+        public String page(HttpServletRequest request, Locale locale) {
+            List<String> parts = new ArrayList<>(List.of(locale.getLanguage()));
+            Map<String, ?> flash = RequestContextUtils.getInputFlashMap(request);
+            if (flash != null && flash.get("errorMessage") != null) {
+                parts.add((String) flash.get("errorMessage"));
+            }
+            return String.join("|", parts);
+        }
+    }
+}
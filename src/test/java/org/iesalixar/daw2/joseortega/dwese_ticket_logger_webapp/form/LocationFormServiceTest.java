@@ -0,0 +1,106 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.form;
+
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.LocationDAO;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.ProvinceDAO;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.SupermarketDAO;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Location;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Province;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Supermarket;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+public class LocationFormServiceTest {
+
+    private final Location location = new Location(7, "Av. Canal Sur, s/n", "Tomares",
+            new Supermarket(3, "Mercadona"), new Province(41, "41", "Sevilla", null));
+
+    private final List<Province> provinces = List.of(new Province(41, "41", "Sevilla", null));
+
+    private final List<Supermarket> supermarkets = List.of(new Supermarket(3, "Mercadona"));
+
+    private LocationDAO locationDAO;
+
+    private ProvinceDAO provinceDAO;
+
+    private SupermarketDAO supermarketDAO;
+
+    @BeforeEach
+    public void setUp() {
+        locationDAO = mock(LocationDAO.class);
+        provinceDAO = mock(ProvinceDAO.class);
+        supermarketDAO = mock(SupermarketDAO.class);
+    }
+
+
+    /**
+     * Las tres consultas están en curso a la vez: cada una espera a que hayan empezado las otras dos.
+     */
+    @Test
+    public void testQueriesRunConcurrently() throws SQLException {
+        CountDownLatch started = new CountDownLatch(3);
+        when(locationDAO.getLocationById(7)).thenAnswer(invocation -> awaitOthers(started, location));
+        when(provinceDAO.listAllProvinces()).thenAnswer(invocation -> awaitOthers(started, provinces));
+        when(supermarketDAO.listAllSupermarkets()).thenAnswer(invocation -> awaitOthers(started, supermarkets));
+
+        LocationFormData formData = new LocationFormService(locationDAO, provinceDAO, supermarketDAO, true).loadEditForm(7);
+
+        assertSame(location, formData.getLocation());
+        assertEquals(provinces, formData.getProvinces());
+        assertEquals(supermarkets, formData.getSupermarkets());
+    }
+
+
+    /**
+     * El formulario de alta no consulta ninguna ubicación.
+     */
+    @Test
+    public void testNewForm() throws SQLException {
+        when(provinceDAO.listAllProvinces()).thenReturn(provinces);
+        when(supermarketDAO.listAllSupermarkets()).thenReturn(supermarkets);
+
+        for (boolean parallel : new boolean[] {true, false}) {
+            LocationFormData formData = new LocationFormService(locationDAO, provinceDAO, supermarketDAO, parallel).loadNewForm();
+            assertNull(formData.getLocation());
+            assertEquals(provinces, formData.getProvinces());
+        }
+        verify(locationDAO, never()).getLocationById(7);
+    }
+
+
+    /**
+     * La excepción de una consulta lanzada en otro hilo llega tal cual al llamador.
+     */
+    @Test
+    public void testFailurePropagates() throws SQLException {
+        SQLException failure = new SQLException("Connection refused");
+        when(locationDAO.getLocationById(7)).thenReturn(location);
+        when(provinceDAO.listAllProvinces()).thenThrow(failure);
+        when(supermarketDAO.listAllSupermarkets()).thenReturn(supermarkets);
+
+        LocationFormService service = new LocationFormService(locationDAO, provinceDAO, supermarketDAO, true);
+        assertSame(failure, assertThrows(SQLException.class, () -> service.loadEditForm(7)));
+    }
+
+
+    private static <T> T awaitOthers(CountDownLatch started, T result) throws InterruptedException {
+        started.countDown();
+        assertTrue(started.await(5, TimeUnit.SECONDS), "Las consultas no se han lanzado a la vez");
+        return result;
+    }
+}
@@ -0,0 +1,97 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.hierarchy;
+
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Province;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Region;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+
+public class HierarchyIndexTest {
+
+    private final Region andalucia = new Region(1, "01", "Andalucía");
+
+    private final Region madrid = new Region(13, "13", "Comunidad de Madrid");
+
+    private HierarchyIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        List<Province> provinces = List.of(
+                new Province(41, "41", "Sevilla", new Region(1, "01", "Andalucía")),
+                new Province(29, "29", "Málaga", new Region(1, "01", "Andalucía")),
+                new Province(28, "28", "Madrid", new Region(13, "13", "Comunidad de Madrid")));
+        int[] locationProvinces = new int[10];
+        locationProvinces[1] = 41;
+        locationProvinces[2] = 28;
+        locationProvinces[5] = 41;
+        locationProvinces[9] = 41;
+        index = HierarchyIndex.build(List.of(andalucia, madrid), provinces, locationProvinces);
+    }
+
+
+    /**
+     * Cada comunidad tiene sus provincias, que comparten la misma instancia de la comunidad.
+     */
+    @Test
+    public void testRegionProvinces() {
+        List<Province> provinces = index.getProvinces(1);
+        assertEquals(List.of("Sevilla", "Málaga"), provinces.stream().map(Province::getName).toList());
+        assertSame(andalucia, provinces.get(0).getRegion());
+        assertEquals(List.of("Madrid"), index.getProvinces(13).stream().map(Province::getName).toList());
+        assertNull(index.getProvinces(7));
+        assertNull(index.getProvinces(500));
+    }
+
+
+    /**
+     * Las ubicaciones de cada provincia se devuelven en orden de ID y por tramos.
+     */
+    @Test
+    public void testProvinceLocations() {
+        assertEquals(3, index.countLocations(41));
+        assertArrayEquals(new int[] {1, 5, 9}, index.getLocationIds(41, 0, 10));
+        assertArrayEquals(new int[] {5}, index.getLocationIds(41, 1, 1));
+        assertArrayEquals(new int[] {}, index.getLocationIds(41, 5, 10));
+        assertArrayEquals(new int[] {}, index.getLocationIds(29, 0, 10));
+        assertEquals(4, index.getLocationCount());
+    }
+
+
+    /**
+     * Los cambios de ubicaciones crean un índice nuevo y dejan el anterior intacto.
+     */
+    @Test
+    public void testWithLocations() {
+        HierarchyIndex updated = index.withLocations(new int[] {5, 2, 12}, new int[] {29, 0, 41});
+        assertArrayEquals(new int[] {1, 9, 12}, updated.getLocationIds(41, 0, 10));
+        assertArrayEquals(new int[] {5}, updated.getLocationIds(29, 0, 10));
+        assertArrayEquals(new int[] {}, updated.getLocationIds(28, 0, 10));
+        assertEquals(4, updated.getLocationCount());
+        assertEquals(0, updated.getLocationProvince(2));
+
+        assertArrayEquals(new int[] {1, 5, 9}, index.getLocationIds(41, 0, 10));
+        assertArrayEquals(new int[] {2}, index.getLocationIds(28, 0, 10));
+        assertSame(index, index.withLocations(new int[] {1}, new int[] {41}));
+    }
+
+
+    /**
+     * Al cambiar comunidades y provincias se conservan las ubicaciones.
+     */
+    @Test
+    public void testWithTree() {
+        HierarchyIndex updated = index.withTree(List.of(andalucia),
+                List.of(new Province(41, "41", "Sevilla", andalucia)));
+        assertEquals(1, updated.getProvinces(1).size());
+        assertNull(updated.getRegion(13));
+        assertNull(updated.getProvince(28));
+        assertArrayEquals(new int[] {1, 5, 9}, updated.getLocationIds(41, 0, 10));
+    }
+}
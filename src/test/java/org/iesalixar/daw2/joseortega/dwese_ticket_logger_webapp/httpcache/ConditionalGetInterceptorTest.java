@@ -0,0 +1,193 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.httpcache;
+
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.DataChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.FlashMap;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class ConditionalGetInterceptorTest {
+
+    private EmbeddedDatabase database;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private CacheManager cacheManager;
+
+    private DefaultListableBeanFactory beanFactory;
+
+    private TableVersions versions;
+
+    private ConditionalGetInterceptor interceptor;
+
+    @BeforeEach
+    public void setUp() {
+        database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE table_versions (table_name VARCHAR(50) PRIMARY KEY, " +
+                "version BIGINT NOT NULL DEFAULT 0, modified_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3))");
+        jdbcTemplate.execute("INSERT INTO table_versions (table_name) VALUES ('regions'), ('provinces'), ('supermarkets')");
+        cacheManager = new ConcurrentMapCacheManager("regions", "provinces");
+        beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("cacheManager", cacheManager);
+        versions = new TableVersions(beanFactory.getBeanProvider(CacheManager.class), jdbcTemplate, 60_000, "");
+        interceptor = new ConditionalGetInterceptor(versions, "regions", "provinces");
+    }
+
+
+    @AfterEach
+    public void tearDown() {
+        database.shutdown();
+    }
+
+
+    /**
+     * La primera petición se genera con ETag; al repetirla con ese ETag se responde 304 sin llegar al controlador.
+     */
+    @Test
+    public void testNotModified() {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        assertTrue(interceptor.preHandle(get(null), first, null));
+        String etag = first.getHeader(HttpHeaders.ETAG);
+        assertEquals("no-cache, private", first.getHeader(HttpHeaders.CACHE_CONTROL));
+
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(get(etag), second, null));
+        assertEquals(304, second.getStatus());
+        assertEquals(etag, second.getHeader(HttpHeaders.ETAG));
+    }
+
+
+    /**
+     * Una escritura en cualquiera de las tablas cambia el ETag y vacía sus cachés.
+     */
+    @Test
+    public void testChangeInvalidates() {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        interceptor.preHandle(get(null), first, null);
+        String etag = first.getHeader(HttpHeaders.ETAG);
+        cacheManager.getCache("provinces").put("all", List.of());
+
+        DataChangedEvent change = new DataChangedEvent("regions", List.of(1));
+        versions.recordChange(change);
+        versions.onDataChanged(change);
+
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        assertTrue(interceptor.preHandle(get(etag), second, null));
+        assertEquals(200, second.getStatus());
+        assertNotEquals(etag, second.getHeader(HttpHeaders.ETAG));
+        assertNull(cacheManager.getCache("provinces").get("all"));
+
+        DataChangedEvent other = new DataChangedEvent("supermarkets", List.of(1));
+        versions.recordChange(other);
+        versions.onDataChanged(other);
+        MockHttpServletResponse third = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(get(second.getHeader(HttpHeaders.ETAG)), third, null));
+    }
+
+
+    /**
+     * Un cambio hecho en otra instancia (que solo aumenta la versión en la base de datos) cambia el ETag de
+     * esta en cuanto caducan las versiones leídas; con el mismo prefijo, las dos instancias dan el mismo ETag.
+     */
+    @Test
+    public void testChangeOnAnotherInstance() throws InterruptedException {
+        TableVersions here = new TableVersions(beanFactory.getBeanProvider(CacheManager.class), jdbcTemplate, 50, "v1");
+        TableVersions there = new TableVersions(beanFactory.getBeanProvider(CacheManager.class), jdbcTemplate, 50, "v1");
+        String before = here.tag("regions");
+        assertEquals(before, there.tag("regions"));
+
+        there.recordChange(new DataChangedEvent("regions", List.of(1)));
+        Thread.sleep(100);
+
+        assertNotEquals(before, here.tag("regions"));
+        assertEquals(here.tag("regions"), there.tag("regions"));
+    }
+
+
+    /**
+     * Sin versiones legibles no hay ETag: la página se genera y no se guarda.
+     */
+    @Test
+    public void testNoVersionsNoEtag() {
+        jdbcTemplate.execute("DROP TABLE table_versions");
+        TableVersions broken = new TableVersions(beanFactory.getBeanProvider(CacheManager.class), jdbcTemplate, 60_000, "");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertTrue(new ConditionalGetInterceptor(broken, "regions").preHandle(get(null), response, null));
+        assertNull(response.getHeader(HttpHeaders.ETAG));
+        assertEquals("no-store", response.getHeader(HttpHeaders.CACHE_CONTROL));
+    }
+
+
+    /**
+     * El mismo contenido en otro idioma tiene otro ETag.
+     */
+    @Test
+    public void testLocaleInEtag() {
+        MockHttpServletRequest spanish = get(null);
+        spanish.addPreferredLocale(Locale.of("es"));
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        interceptor.preHandle(spanish, first, null);
+
+        MockHttpServletRequest english = get(first.getHeader(HttpHeaders.ETAG));
+        english.addPreferredLocale(Locale.ENGLISH);
+        assertTrue(interceptor.preHandle(english, new MockHttpServletResponse(), null));
+    }
+
+
+    /**
+     * Las páginas con mensajes flash o de error no se guardan ni se revalidan.
+     */
+    @Test
+    public void testMessagesAreNotStored() {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        interceptor.preHandle(get(null), first, null);
+
+        MockHttpServletRequest flash = get(first.getHeader(HttpHeaders.ETAG));
+        FlashMap flashMap = new FlashMap();
+        flashMap.put("errorMessage", "Error");
+        flash.setAttribute(DispatcherServlet.INPUT_FLASH_MAP_ATTRIBUTE, flashMap);
+        MockHttpServletResponse flashResponse = new MockHttpServletResponse();
+        assertTrue(interceptor.preHandle(flash, flashResponse, null));
+        assertEquals("no-store", flashResponse.getHeader(HttpHeaders.CACHE_CONTROL));
+        assertNull(flashResponse.getHeader(HttpHeaders.ETAG));
+
+        MockHttpServletResponse error = new MockHttpServletResponse();
+        interceptor.preHandle(get(null), error, null);
+        ModelAndView modelAndView = new ModelAndView("region");
+        modelAndView.addObject("errorMessage", "Error al listar las regiones.");
+        interceptor.postHandle(get(null), error, null, modelAndView);
+        assertEquals("no-store", error.getHeader(HttpHeaders.CACHE_CONTROL));
+    }
+
+
+    private static MockHttpServletRequest get(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/provinces");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return request;
+    }
+}
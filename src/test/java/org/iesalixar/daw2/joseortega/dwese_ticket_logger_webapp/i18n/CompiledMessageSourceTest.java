@@ -0,0 +1,105 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.i18n;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.NoSuchMessageException;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+public class CompiledMessageSourceTest {
+
+    private Locale systemLocale;
+
+    @BeforeEach
+    public void setUp() {
+        systemLocale = Locale.getDefault();
+        Locale.setDefault(Locale.ENGLISH);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Locale.setDefault(systemLocale);
+    }
+
+
+    /**
+     * Para cada clave y cada idioma (con fichero, con país, sin fichero) da el mismo texto que
+     * `ResourceBundleMessageSource`, que es lo que Spring Boot configura por defecto.
+     */
+    @Test
+    public void testMatchesResourceBundleMessageSource() throws IOException {
+        for (boolean fallbackToSystemLocale : List.of(true, false)) {
+            ResourceBundleMessageSource expected = new ResourceBundleMessageSource();
+            expected.setBasename("messages");
+            expected.setDefaultEncoding("UTF-8");
+            expected.setFallbackToSystemLocale(fallbackToSystemLocale);
+            CompiledMessageSource compiled = new CompiledMessageSource(new PathMatchingResourcePatternResolver(),
+                    "messages", StandardCharsets.UTF_8, fallbackToSystemLocale);
+
+            for (String key : keys()) {
+                for (Locale locale : List.of(Locale.of("es"), Locale.ENGLISH, Locale.of("es", "ES"), Locale.FRENCH)) {
+                    assertEquals(expected.getMessage(key, null, null, locale), compiled.getMessage(key, null, null, locale),
+                            key + " en " + locale);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Los mensajes con argumentos se formatean y las claves desconocidas fallan como en Spring.
+     */
+    @Test
+    public void testArgumentsAndMissingKeys() {
+        CompiledMessageSource compiled = new CompiledMessageSource(new PathMatchingResourcePatternResolver(),
+                "messages", StandardCharsets.UTF_8, true);
+        String key = keys().first();
+        assertEquals(compiled.getMessage(key, null, Locale.ENGLISH),
+                compiled.getMessage(key, new Object[]{"ignorado"}, Locale.ENGLISH));
+        assertEquals("por defecto", compiled.getMessage("msg.no-existe", null, "por defecto", Locale.ENGLISH));
+        assertThrows(NoSuchMessageException.class, () -> compiled.getMessage("msg.no-existe", null, Locale.ENGLISH));
+    }
+
+
+    /**
+     * Los idiomas con fichero devuelven siempre el mismo `Locale`, en cualquiera de sus formas.
+     */
+    @Test
+    public void testSupportedLocales() {
+        CompiledMessageSource compiled = new CompiledMessageSource(new PathMatchingResourcePatternResolver(),
+                "messages", StandardCharsets.UTF_8, true);
+        assertEquals(Locale.ENGLISH, compiled.getSupportedLocale("en"));
+        assertSame(compiled.getSupportedLocale("es"), compiled.getSupportedLocale("es"));
+        assertNull(compiled.getSupportedLocale("fr"));
+    }
+
+
+    private static TreeSet<String> keys() {
+        TreeSet<String> keys = new TreeSet<>();
+        for (String file : List.of("messages_es.properties", "messages_en.properties")) {
+            try (InputStream in = CompiledMessageSourceTest.class.getClassLoader().getResourceAsStream(file)) {
+                Properties properties = new Properties();
+                properties.load(in);
+                keys.addAll(properties.stringPropertyNames());
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,202 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.ingest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.TicketDAO;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Location;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Ticket;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.TicketLine;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class TicketIngestQueueTest {
+
+
+    /**
+     * DAO en memoria que asigna IDs consecutivos y registra el tamaño de cada lote.
+     * Los tickets de la ubicación 0 se rechazan para simular un error de la base de datos.
+     */
+    private static class FakeTicketDAO implements TicketDAO {
+
+        final AtomicLong nextId = new AtomicLong();
+
+        final List<Integer> batches = new ArrayList<>();
+
+        final CountDownLatch release = new CountDownLatch(1);
+
+        volatile boolean blocked;
+
+        @Override
+        public void insertTicket(Ticket ticket) {
+            insertTickets(List.of(ticket));
+        }
+
+        @Override
+        public synchronized void insertTickets(List<Ticket> tickets) {
+            try {
+                if (blocked) {
+                    release.await();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            for (Ticket ticket : tickets) {
+                if (ticket.getLocation().getId() == 0) {
+                    throw new IllegalStateException("ubicación inexistente");
+                }
+            }
+            tickets.forEach(t -> t.setId(nextId.incrementAndGet()));
+            batches.add(tickets.size());
+        }
+
+        @Override
+        public Ticket getTicketById(long id) {
+            return null;
+        }
+
+        @Override
+        public List<Ticket> listTicketsByLocation(int locationId, LocalDateTime from, LocalDateTime to) {
+            return List.of();
+        }
+
+        @Override
+        public List<Long> listExistingTicketIds(List<Long> ids) {
+            return List.of();
+        }
+
+        @Override
+        public void streamDailyTotals(LocalDate from, LocalDate to, RowCallbackHandler handler) {
+        }
+    }
+
+
+    private static Ticket ticket(int locationId) {
+        Location location = new Location();
+        location.setId(locationId);
+        return new Ticket(location, LocalDateTime.now(),
+                List.of(new TicketLine("Pan", BigDecimal.ONE, new BigDecimal("0.80"))));
+    }
+
+
+    /**
+     * Todos los tickets encolados se confirman con su ID y se agrupan en lotes no
+     * mayores que el tamaño configurado.
+     */
+    @Test
+    public void testGroupCommit() throws Exception {
+        FakeTicketDAO dao = new FakeTicketDAO();
+        TicketIngestQueue queue = new TicketIngestQueue(dao, new SimpleMeterRegistry(), 1000, 50, 20, 100, 30000);
+        queue.start();
+        try {
+            List<CompletableFuture<Long>> futures = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                futures.add(queue.submit(ticket(1)));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+            assertEquals(500, futures.stream().map(CompletableFuture::join).distinct().count());
+            synchronized (dao) {
+                assertEquals(500, dao.batches.stream().mapToInt(Integer::intValue).sum());
+                assertTrue(dao.batches.stream().allMatch(size -> size <= 50));
+                assertTrue(dao.batches.size() < 500, "Los tickets deben agruparse en lotes");
+            }
+        } finally {
+            queue.stop();
+        }
+    }
+
+
+    /**
+     * Si un lote falla, solo el ticket erróneo termina con excepción.
+     */
+    @Test
+    public void testFailedTicketIsIsolated() throws Exception {
+        FakeTicketDAO dao = new FakeTicketDAO();
+        dao.blocked = true;
+        TicketIngestQueue queue = new TicketIngestQueue(dao, new SimpleMeterRegistry(), 100, 10, 50, 100, 30000);
+        queue.start();
+        try {
+            // El primer ticket bloquea al escritor para que los tres siguientes formen un único lote
+            CompletableFuture<Long> first = queue.submit(ticket(1));
+            CompletableFuture<Long> ok1 = queue.submit(ticket(1));
+            CompletableFuture<Long> bad = queue.submit(ticket(0));
+            CompletableFuture<Long> ok2 = queue.submit(ticket(1));
+            dao.blocked = false;
+            dao.release.countDown();
+
+            assertTrue(first.get(5, TimeUnit.SECONDS) > 0);
+            assertTrue(ok1.get(5, TimeUnit.SECONDS) > 0);
+            assertTrue(ok2.get(5, TimeUnit.SECONDS) > 0);
+            assertThrows(ExecutionException.class, () -> bad.get(5, TimeUnit.SECONDS));
+        } finally {
+            queue.stop();
+        }
+    }
+
+
+    /**
+     * Con la cola llena y el escritor ocupado, el productor recibe IngestQueueFullException.
+     */
+    @Test
+    public void testBackpressure() {
+        FakeTicketDAO dao = new FakeTicketDAO();
+        dao.blocked = true;
+        TicketIngestQueue queue = new TicketIngestQueue(dao, new SimpleMeterRegistry(), 2, 1, 0, 10, 30000);
+        queue.start();
+        try {
+            assertThrows(IngestQueueFullException.class, () -> {
+                for (int i = 0; i < 10; i++) {
+                    queue.submit(ticket(1));
+                }
+            });
+        } finally {
+            dao.release.countDown();
+            queue.stop();
+        }
+    }
+
+
+    /**
+     * Si el escritor no termina a tiempo al detener la cola, los tickets que siguen en ella terminan con
+     * excepción en lugar de quedarse sin respuesta, y la cola ya no acepta más.
+     */
+    @Test
+    public void testStopFailsLeftoverTickets() throws Exception {
+        FakeTicketDAO dao = new FakeTicketDAO();
+        dao.blocked = true;
+        TicketIngestQueue queue = new TicketIngestQueue(dao, new SimpleMeterRegistry(), 10, 1, 0, 100, 100);
+        queue.start();
+        CompletableFuture<Long> writing;
+        CompletableFuture<Long> queued;
+        try {
+            // Con lotes de uno, el escritor se queda bloqueado con el primero y el segundo espera en la cola
+            writing = queue.submit(ticket(1));
+            while (queue.getQueueDepth() > 0) {
+                Thread.sleep(5);
+            }
+            queued = queue.submit(ticket(1));
+            queue.stop();
+
+            assertThrows(ExecutionException.class, () -> queued.get(1, TimeUnit.SECONDS));
+            assertThrows(IllegalStateException.class, () -> queue.submit(ticket(1)));
+        } finally {
+            dao.release.countDown();
+        }
+        assertTrue(writing.get(5, TimeUnit.SECONDS) > 0);
+    }
+}
@@ -0,0 +1,110 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.limiter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.RegionDAO;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Region;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.stereotype.Repository;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+public class DatabaseAccessLimiterTest {
+
+    private static final int PERMITS = 2;
+
+
+    /**
+     * DAO en memoria cuya inserción espera a que todos los escritores tengan turno y después avisa al
+     * listener, como hace `publishEvent` dentro de la escritura.
+     */
+    @Repository
+    static class FakeRegionDAO implements RegionDAO {
+
+        private final CyclicBarrier allWriting = new CyclicBarrier(PERMITS);
+
+        private Callable<?> listener = () -> null;
+
+        @Override
+        public List<Region> listAllRegions() {
+            return List.of(new Region(1, "01", "Andalucía"));
+        }
+
+        @Override
+        public List<Region> listAllRegionsUncached() {
+            return listAllRegions();
+        }
+
+        @Override
+        public void insertRegion(Region region) throws SQLException {
+            try {
+                allWriting.await(5, TimeUnit.SECONDS);
+                listener.call();
+            } catch (SQLException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void updateRegion(Region region) {
+        }
+
+        @Override
+        public void deleteRegion(int id) {
+        }
+
+        @Override
+        public Region getRegionById(int id) {
+            return null;
+        }
+    }
+
+
+    /**
+     * Con todos los turnos ocupados por escritores, el listener de cada escritura lee de un DAO con el
+     * turno de su hilo en vez de esperar otro, y ninguna escritura acaba en `DatabaseBusyException`.
+     */
+    @Test
+    public void testNestedCallReusesPermit() throws Exception {
+        FakeRegionDAO target = new FakeRegionDAO();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(new DatabaseAccessLimiter(registry, PERMITS, 500));
+        RegionDAO regionDAO = factory.getProxy();
+        target.listener = regionDAO::listAllRegions;
+
+        ExecutorService executor = Executors.newFixedThreadPool(PERMITS);
+        try {
+            List<Future<?>> writes = new ArrayList<>();
+            for (int i = 0; i < PERMITS; i++) {
+                Region region = new Region(0, "0" + i, "Región " + i);
+                writes.add(executor.submit(() -> {
+                    regionDAO.insertRegion(region);
+                    return null;
+                }));
+            }
+            for (Future<?> write : writes) {
+                write.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Al terminar se han devuelto todos los turnos y no se ha rechazado ninguna llamada
+        assertEquals(PERMITS, registry.get("db.limiter.available").gauge().value());
+        assertEquals(0, registry.get("db.limiter.rejected").counter().count());
+    }
+}
@@ -0,0 +1,88 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class SamplingTurboFilterTest {
+
+    private LoggerContext context;
+
+    private ListAppender<ILoggingEvent> appender;
+
+    @BeforeEach
+    public void setUp() {
+        context = new LoggerContext();
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setContext(context);
+        filter.addLogger("app.dao");
+        filter.setLevel("DEBUG");
+        filter.setEvery(10);
+        filter.start();
+        context.addTurboFilter(filter);
+
+        appender = new ListAppender<>();
+        appender.setContext(context);
+        appender.start();
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.DEBUG);
+        root.addAppender(appender);
+    }
+
+
+    /**
+     * De cada mensaje se registra la primera aparición y después uno de cada `every`.
+     */
+    @Test
+    public void testSamplesEachMessage() {
+        Logger logger = context.getLogger("app.dao.RegionDAOImpl");
+        for (int i = 0; i < 25; i++) {
+            logger.debug("Retrieving region by id: {}", i);
+            logger.debug("Listing all regions from the database.");
+        }
+        assertEquals(6, appender.list.size());
+        assertEquals("Retrieving region by id: 10", appender.list.get(2).getFormattedMessage());
+    }
+
+
+    /**
+     * Los niveles superiores al configurado, los otros loggers y las comprobaciones de nivel no se muestrean.
+     */
+    @Test
+    public void testOnlyHotPathDebugIsSampled() {
+        Logger dao = context.getLogger("app.dao.RegionDAOImpl");
+        Logger other = context.getLogger("app.controllers.RegionController");
+        for (int i = 0; i < 20; i++) {
+            assertTrue(dao.isDebugEnabled());
+            dao.warn("No region found with id: {}", i);
+            other.debug("Solicitando la lista de todas las regiones...");
+        }
+        assertEquals(40, appender.list.size());
+    }
+
+
+    /**
+     * Con el logger en INFO las llamadas a `debug()` no cuentan: al activar DEBUG el primer mensaje se registra.
+     */
+    @Test
+    public void testDisabledDebugIsNotCounted() {
+        Logger dao = context.getLogger("app.dao.RegionDAOImpl");
+        dao.setLevel(Level.INFO);
+        for (int i = 0; i < 5; i++) {
+            dao.debug("Retrieving region by id: {}", i);
+        }
+        assertEquals(0, appender.list.size());
+
+        dao.setLevel(Level.DEBUG);
+        dao.debug("Retrieving region by id: {}", 5);
+        assertEquals(1, appender.list.size());
+    }
+}
@@ -0,0 +1,77 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.RegionDAO;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Region;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+public class DaoMetricsAspectTest {
+
+
+    /**
+     * DAO en memoria con dos regiones; el borrado siempre falla.
+     */
+    private static class FakeRegionDAO implements RegionDAO {
+
+        @Override
+        public List<Region> listAllRegions() {
+            return List.of(new Region(1, "01", "Andalucía"), new Region(2, "02", "Aragón"));
+        }
+
+        @Override
+        public List<Region> listAllRegionsUncached() {
+            return listAllRegions();
+        }
+
+        @Override
+        public void insertRegion(Region region) {
+        }
+
+        @Override
+        public void updateRegion(Region region) {
+        }
+
+        @Override
+        public void deleteRegion(int id) throws SQLException {
+            throw new SQLException("fallo simulado");
+        }
+
+        @Override
+        public Region getRegionById(int id) {
+            return null;
+        }
+    }
+
+
+    /**
+     * Cada llamada queda registrada en `dao.calls` con su resultado, y las filas devueltas en `dao.rows`.
+     */
+    @Test
+    public void testDaoCallsAreMeasured() throws SQLException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AspectJProxyFactory factory = new AspectJProxyFactory(new FakeRegionDAO());
+        factory.addAspect(new DaoMetricsAspect(registry));
+        RegionDAO dao = factory.getProxy();
+
+        dao.listAllRegions();
+        dao.listAllRegions();
+        assertNull(dao.getRegionById(7));
+        assertThrows(SQLException.class, () -> dao.deleteRegion(1));
+
+        assertEquals(2, registry.get("dao.calls").tags("method", "listAllRegions", "outcome", "success").timer().count());
+        assertEquals(4.0, registry.get("dao.rows").tags("method", "listAllRegions").summary().totalAmount());
+        assertEquals(0.0, registry.get("dao.rows").tags("method", "getRegionById").summary().totalAmount());
+        assertEquals(1, registry.get("dao.calls")
+                .tags("method", "deleteRegion", "outcome", "error", "exception", "SQLException").timer().count());
+        assertEquals(0, registry.find("dao.rows").tags("method", "deleteRegion").meters().size());
+    }
+}
@@ -0,0 +1,55 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.pool;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+public class ConnectionHoldTrackerTest {
+
+
+    /**
+     * La conexión figura como retenida hasta que se cierra; al cerrarla (una o varias veces) su tiempo
+     * se acumula una sola vez para el llamador, identificado por las clases de la aplicación de la pila.
+     */
+    @Test
+    public void testTracksHoldTimePerCaller() throws SQLException {
+        Connection target = mock(Connection.class);
+        DataSource pool = mock(DataSource.class);
+        when(pool.getConnection()).thenReturn(target);
+        ConnectionHoldTracker tracker = new ConnectionHoldTracker();
+        DataSource dataSource = (DataSource) tracker.postProcessAfterInitialization(pool, "dataSource");
+        assertNotEquals(pool, dataSource);
+        assertSame(dataSource, tracker.postProcessAfterInitialization(dataSource, "dataSource"));
+
+        Connection connection = dataSource.getConnection();
+        List<HeldConnection> held = tracker.getHeldConnections(10);
+        assertEquals(1, held.size());
+        assertEquals("ConnectionHoldTrackerTest.testTracksHoldTimePerCaller", held.get(0).getCaller());
+        assertTrue(connection.equals(connection));
+
+        connection.close();
+        connection.close();
+        verify(target, times(2)).close();
+        assertTrue(tracker.getHeldConnections(10).isEmpty());
+        List<CallerStats> callers = tracker.getTopCallers(10);
+        assertEquals(1, callers.size());
+        assertEquals(1, callers.get(0).getConnections());
+        assertEquals(1, tracker.getConnections());
+
+        tracker.reset();
+        assertTrue(tracker.getTopCallers(10).isEmpty());
+    }
+}
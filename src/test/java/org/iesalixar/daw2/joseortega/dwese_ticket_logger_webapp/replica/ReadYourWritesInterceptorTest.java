@@ -0,0 +1,88 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.replica;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class ReadYourWritesInterceptorTest {
+
+    private final ReadYourWritesInterceptor interceptor =
+            new ReadYourWritesInterceptor("secreto".getBytes(StandardCharsets.UTF_8), 5000);
+
+    @AfterEach
+    public void tearDown() {
+        RoutingContext.clear();
+    }
+
+
+    /**
+     * Una petición que modifica recibe la cookie antes de llegar al controlador, aunque este escriba
+     * la respuesta directamente (`@ResponseBody`, streaming) y la deje enviada.
+     */
+    @Test
+    public void testCookieBeforeHandler() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/tickets");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, null);
+        Cookie cookie = response.getCookie(ReadYourWritesInterceptor.COOKIE);
+        assertNotNull(cookie);
+        assertTrue(interceptor.decode(cookie.getValue()) > System.currentTimeMillis());
+
+        response.getWriter().write("{}");
+        response.flushBuffer();
+        RoutingContext.stickToPrimary(System.currentTimeMillis() + 10_000);
+        interceptor.postHandle(request, response, null, null);
+        assertEquals(1, response.getCookies().length);
+    }
+
+
+    /**
+     * Una lectura sin escrituras no recibe cookie; una cookie válida fija el hilo al primario.
+     */
+    @Test
+    public void testSignedCookieSticksToPrimary() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(new MockHttpServletRequest("GET", "/locations"), response, null);
+        assertNull(response.getCookie(ReadYourWritesInterceptor.COOKIE));
+
+        long until = System.currentTimeMillis() + 60_000;
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/locations");
+        request.setCookies(new Cookie(ReadYourWritesInterceptor.COOKIE, interceptor.encode(until)));
+        RoutingContext.enterRead();
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+
+        assertEquals(until, RoutingContext.getPrimaryUntil());
+        assertFalse(RoutingContext.isReplicaAllowed());
+    }
+
+
+    /**
+     * Una cookie sin firma, con otra firma o con la hora cambiada se ignora.
+     */
+    @Test
+    public void testForgedCookieIgnored() throws Exception {
+        long until = System.currentTimeMillis() + 60_000;
+        String signed = new ReadYourWritesInterceptor("otro".getBytes(StandardCharsets.UTF_8), 5000).encode(until);
+        String tampered = (until + 1) + interceptor.encode(until).substring(Long.toString(until).length());
+        for (String value : new String[] {Long.toString(until), signed, tampered}) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/locations");
+            request.setCookies(new Cookie(ReadYourWritesInterceptor.COOKIE, value));
+            interceptor.preHandle(request, new MockHttpServletResponse(), null);
+
+            assertEquals(0, interceptor.decode(value));
+            assertEquals(0, RoutingContext.getPrimaryUntil());
+        }
+    }
+}
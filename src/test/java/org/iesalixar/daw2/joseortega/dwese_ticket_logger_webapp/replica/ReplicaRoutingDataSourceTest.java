@@ -0,0 +1,219 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.replica;
+
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.RegionDAO;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.dao.RegionDAOImpl;
+import org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.entity.Region;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+public class ReplicaRoutingDataSourceTest {
+
+    private final Connection primaryConnection = mock(Connection.class);
+
+    private final Connection connection1 = mock(Connection.class);
+
+    private final Connection connection2 = mock(Connection.class);
+
+    private DataSource primary;
+
+    private DataSource replica1;
+
+    private DataSource replica2;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        primary = mock(DataSource.class);
+        replica1 = mock(DataSource.class);
+        replica2 = mock(DataSource.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica1.getConnection()).thenReturn(connection1);
+        when(replica2.getConnection()).thenReturn(connection2);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        RoutingContext.clear();
+    }
+
+
+    /**
+     * Hasta activar las réplicas y fuera de una lectura todo va al primario; las lecturas se reparten por
+     * turnos entre las réplicas.
+     */
+    @Test
+    public void testRoundRobin() throws SQLException {
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primary, List.of(replica1, replica2),
+                ReplicaSelection.ROUND_ROBIN, replica -> 0);
+
+        Boolean previous = RoutingContext.enterRead();
+        assertSame(primaryConnection, dataSource.getConnection());
+        dataSource.enableReplicas();
+        RoutingContext.exitRead(previous);
+        assertSame(primaryConnection, dataSource.getConnection());
+
+        previous = RoutingContext.enterRead();
+        assertSame(connection1, dataSource.getConnection());
+        assertSame(connection2, dataSource.getConnection());
+        assertSame(connection1, dataSource.getConnection());
+        RoutingContext.exitRead(previous);
+        assertSame(primaryConnection, dataSource.getConnection());
+    }
+
+
+    /**
+     * Con `LEAST_LOADED` la lectura va a la réplica con menos carga.
+     */
+    @Test
+    public void testLeastLoaded() throws SQLException {
+        Map<DataSource, Integer> load = Map.of(replica1, 5, replica2, 1);
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primary, List.of(replica1, replica2),
+                ReplicaSelection.LEAST_LOADED, load::get);
+        dataSource.enableReplicas();
+
+        RoutingContext.enterRead();
+        assertSame(connection2, dataSource.getConnection());
+        assertSame(connection2, dataSource.getConnection());
+    }
+
+
+    /**
+     * Después de escribir, el hilo lee del primario hasta que vence la ventana.
+     */
+    @Test
+    public void testReadYourWrites() throws SQLException {
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primary, List.of(replica1),
+                ReplicaSelection.ROUND_ROBIN, replica -> 0);
+        dataSource.enableReplicas();
+
+        RoutingContext.enterRead();
+        RoutingContext.stickToPrimary(System.currentTimeMillis() + 60_000);
+        assertSame(primaryConnection, dataSource.getConnection());
+
+        RoutingContext.clear();
+        RoutingContext.enterRead();
+        RoutingContext.stickToPrimary(System.currentTimeMillis() - 1);
+        assertSame(connection1, dataSource.getConnection());
+    }
+
+
+    /**
+     * Una tarea envuelta con `propagate` lee en otro hilo con el estado del que la lanza (tras escribir,
+     * del primario), y ese hilo vuelve después a su estado anterior.
+     */
+    @Test
+    public void testPropagateToOtherThread() throws Exception {
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primary, List.of(replica1),
+                ReplicaSelection.ROUND_ROBIN, replica -> 0);
+        dataSource.enableReplicas();
+        Callable<Connection> read = () -> {
+            Boolean previous = RoutingContext.enterRead();
+            try {
+                return dataSource.getConnection();
+            } finally {
+                RoutingContext.exitRead(previous);
+            }
+        };
+
+        RoutingContext.stickToPrimary(System.currentTimeMillis() + 60_000);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            assertSame(connection1, executor.submit(read).get());
+            assertSame(primaryConnection, executor.submit(RoutingContext.propagate(read)).get());
+            assertSame(connection1, executor.submit(read).get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+
+    /**
+     * Si la réplica no da conexión, la lectura se hace en el primario.
+     */
+    @Test
+    public void testReplicaDownFallsBackToPrimary() throws SQLException {
+        when(replica1.getConnection()).thenThrow(new SQLException("Connection refused"));
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primary, List.of(replica1),
+                ReplicaSelection.ROUND_ROBIN, replica -> 0);
+        dataSource.enableReplicas();
+
+        RoutingContext.enterRead();
+        assertSame(primaryConnection, dataSource.getConnection());
+    }
+
+
+    /**
+     * Con dos bases de datos reales (H2 en memoria, con filas distintas) y el aspecto delante de un DAO real:
+     * la lectura sale de la réplica, la misma lectura dentro de una transacción sale del primario, la
+     * escritura va al primario y las lecturas siguientes del hilo también.
+     */
+    @Test
+    public void testEmbeddedDatabases() throws SQLException {
+        EmbeddedDatabase primaryDatabase = regions("Primario");
+        EmbeddedDatabase replicaDatabase = regions("Réplica");
+        try {
+            ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primaryDatabase, List.of(replicaDatabase),
+                    ReplicaSelection.ROUND_ROBIN, replica -> 0);
+            dataSource.enableReplicas();
+            AspectJProxyFactory factory = new AspectJProxyFactory(new RegionDAOImpl(new JdbcTemplate(dataSource), event -> { }));
+            factory.addAspect(new ReadOnlyRoutingAspect(60_000));
+            RegionDAO regionDAO = factory.getProxy();
+
+            assertEquals(List.of("Réplica"), names(regionDAO.listAllRegionsUncached()));
+
+            TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+            assertEquals(List.of("Primario"), transaction.execute(status -> {
+                try {
+                    return names(regionDAO.listAllRegionsUncached());
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+
+            regionDAO.insertRegion(new Region("02", "Nueva"));
+            assertEquals(2, new JdbcTemplate(primaryDatabase).queryForObject("SELECT COUNT(*) FROM regions", Integer.class));
+            assertEquals(1, new JdbcTemplate(replicaDatabase).queryForObject("SELECT COUNT(*) FROM regions", Integer.class));
+            assertEquals(List.of("Primario", "Nueva"), names(regionDAO.listAllRegionsUncached()));
+        } finally {
+            primaryDatabase.shutdown();
+            replicaDatabase.shutdown();
+        }
+    }
+
+
+    private static EmbeddedDatabase regions(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE regions (id INT AUTO_INCREMENT PRIMARY KEY, code VARCHAR(10) NOT NULL UNIQUE, " +
+                "name VARCHAR(100) NOT NULL)");
+        jdbcTemplate.update("INSERT INTO regions (code, name) VALUES ('01', ?)", name);
+        return database;
+    }
+
+
+    private static List<String> names(List<Region> regions) {
+        return regions.stream().map(Region::getName).toList();
+    }
+}
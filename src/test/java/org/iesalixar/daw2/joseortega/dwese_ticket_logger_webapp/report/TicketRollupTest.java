@@ -0,0 +1,82 @@
+package org.iesalixar.daw2.joseortega.dwese_ticket_logger_webapp.report;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+public class TicketRollupTest {
+
+    private TicketRollup rollup;
+
+    @BeforeEach
+    public void setUp() {
+        rollup = new TicketRollup();
+        rollup.add(41, 1, 100, 1250, 1);
+        rollup.add(41, 1, 100, 750, 1);
+        rollup.add(41, 2, 100, 300, 1);
+        rollup.add(28, 1, 101, 999, 1);
+    }
+
+
+    /**
+     * Los tickets de la misma celda se suman y el recorrido sigue el orden de los días.
+     */
+    @Test
+    public void testAddAndForEach() {
+        assertEquals(List.of("41/1/100=2000x2", "41/2/100=300x1", "28/1/101=999x1"), cells(rollup, 0, 1000, null, null));
+        assertEquals(3, rollup.getCellCount());
+    }
+
+
+    /**
+     * Los filtros de provincia, supermercado e intervalo de días se combinan; un ID desconocido no devuelve nada.
+     */
+    @Test
+    public void testFilters() {
+        assertEquals(List.of("41/1/100=2000x2", "41/2/100=300x1"), cells(rollup, 0, 1000, 41, null));
+        assertEquals(List.of("41/1/100=2000x2", "28/1/101=999x1"), cells(rollup, 0, 1000, null, 1));
+        assertEquals(List.of("28/1/101=999x1"), cells(rollup, 101, 101, null, null));
+        assertEquals(List.of(), cells(rollup, 0, 1000, 7, null));
+        assertEquals(List.of(), cells(rollup, 0, 1000, null, 5000));
+        assertEquals(List.of(), cells(rollup, 200, 300, null, null));
+    }
+
+
+    /**
+     * Al aparecer más provincias y supermercados de los que caben en los bloques, las celdas existentes se conservan.
+     */
+    @Test
+    public void testGrowDimensions() {
+        for (int id = 1; id <= 100; id++) {
+            rollup.add(id + 100, id + 100, 100, id, 1);
+        }
+        assertEquals(List.of("41/1/100=2000x2"), cells(rollup, 100, 100, 41, 1));
+        assertEquals(List.of("28/1/101=999x1"), cells(rollup, 101, 101, 28, 1));
+        assertEquals(List.of("200/200/100=100x1"), cells(rollup, 0, 1000, 200, null));
+        assertEquals(103, rollup.getCellCount());
+    }
+
+
+    /**
+     * Los días anteriores al primero y muy posteriores amplían el rango sin perder los bloques existentes.
+     */
+    @Test
+    public void testGrowDays() {
+        rollup.add(41, 1, 10, 5, 1);
+        rollup.add(41, 1, 5000, 7, 1);
+        assertEquals(List.of("41/1/10=5x1", "41/1/100=2000x2", "41/1/5000=7x1"), cells(rollup, 0, 10000, 41, 1));
+    }
+
+
+    private static List<String> cells(TicketRollup rollup, long from, long to, Integer provinceId, Integer supermarketId) {
+        List<String> cells = new ArrayList<>();
+        rollup.forEach(from, to, provinceId, supermarketId, (province, supermarket, day, cents, tickets) ->
+                cells.add(province + "/" + supermarket + "/" + day + "=" + cents + "x" + tickets));
+        return cells;
+    }
+}